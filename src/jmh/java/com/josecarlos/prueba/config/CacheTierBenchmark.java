@@ -0,0 +1,134 @@
+package com.josecarlos.prueba.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.ehcache.Cache;
+import org.ehcache.CacheManager;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Benchmark of the reads and writes of a cache region holding a working set of several sizes, entirely on heap or
+ * mostly off-heap, as configured by {@code application.cache.regions}, with or without the {@link EhcacheMetrics} of
+ * the region. The values stand for the disassembled state of a job in the second-level cache.
+ * <p>
+ * The heap retained by the filled region is printed at the start of each trial. Run with the GC profiler of JMH to
+ * also get the allocation rate and the collections of the reads and writes:
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main CacheTierBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g", "-XX:MaxDirectMemorySize=2g" })
+@State(Scope.Benchmark)
+public class CacheTierBenchmark {
+
+    private static final String REGION = "Job";
+
+    /** Number of entries kept on heap by the off-heap tier, as in the production profile. */
+    private static final long OFF_HEAP_HEAP_ENTRIES = 10000;
+
+    /** Off-heap bytes reserved per entry, above the size of a serialized value. */
+    private static final long OFF_HEAP_ENTRY_BYTES = 1024;
+
+    @Param({ "10000", "100000", "1000000" })
+    private int entries;
+
+    @Param({ "heap", "offheap" })
+    private String tier;
+
+    @Param({ "none", "counts", "latency" })
+    private String metrics;
+
+    private CacheManager cacheManager;
+
+    private Cache<Object, Object> cache;
+
+    @Setup
+    public void setup() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        if ("heap".equals(tier)) {
+            region.setHeapEntries((long) entries);
+        } else {
+            region.setHeapEntries(OFF_HEAP_HEAP_ENTRIES);
+            region.setOffHeapSize(DataSize.ofBytes(Math.max(DataSize.ofMegabytes(1).toBytes(), entries * OFF_HEAP_ENTRY_BYTES)));
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        cacheManager =
+            CacheManagerBuilder
+                .newCacheManagerBuilder()
+                .withCache(REGION, CacheConfiguration.regionConfiguration(region, entries, Duration.ofHours(1)))
+                .build(true);
+        cache = cacheManager.getCache(REGION, Object.class, Object.class);
+        if (!"none".equals(metrics)) {
+            // The histograms are published by the production configuration
+            PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+            registry
+                .config()
+                .meterFilter(
+                    new MeterFilter() {
+                        @Override
+                        public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                            return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+                        }
+                    }
+                );
+            new EhcacheMetrics(cache, REGION, Tags.empty(), "latency".equals(metrics)).bindTo(registry);
+        }
+        for (long id = 0; id < entries; id++) {
+            cache.put(id, value(id));
+        }
+        memory.gc();
+        long retained = memory.getHeapMemoryUsage().getUsed() - before;
+        System.out.printf("%n%d entries in the %s tier retain %d MB of heap%n", entries, tier, retained / (1024 * 1024));
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheManager.close();
+    }
+
+    @Benchmark
+    public Object get() {
+        return cache.get(ThreadLocalRandom.current().nextLong(entries));
+    }
+
+    @Benchmark
+    public void put() {
+        long id = ThreadLocalRandom.current().nextLong(entries);
+        cache.put(id, value(id));
+    }
+
+    private static Object value(long id) {
+        return new Object[] {
+            "Senior backend developer " + id,
+            "Design and build the services of the job board, and mentor the team. Position " + id,
+            0L,
+            id,
+        };
+    }
+}
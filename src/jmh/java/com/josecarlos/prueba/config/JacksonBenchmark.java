@@ -0,0 +1,134 @@
+package com.josecarlos.prueba.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the serialization and deserialization of pages of {@link JobDTO} and {@link SalesDTO}, with the modules
+ * of {@link JacksonConfiguration}, in JSON and in the binary formats of {@link BinaryFormatConfiguration}.
+ * <p>
+ * The payload sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBenchmark {
+
+    @Param({ "20", "1000" })
+    private int size;
+
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    private ObjectWriter jobWriter;
+
+    private ObjectReader jobReader;
+
+    private ObjectWriter salesWriter;
+
+    private ObjectReader salesReader;
+
+    private List<JobDTO> jobDTOs;
+
+    private List<SalesDTO> salesDTOs;
+
+    private byte[] jobsPayload;
+
+    private byte[] salesPayload;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = objectMapper(factory(format));
+        jobWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, JobDTO.class));
+        jobReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, JobDTO.class));
+        salesWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, SalesDTO.class));
+        salesReader = objectMapper.readerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, SalesDTO.class));
+        jobDTOs = new ArrayList<>(size);
+        salesDTOs = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            JobDTO jobDTO = new JobDTO();
+            jobDTO.setId(i);
+            jobDTO.setTitle("Job title number " + i);
+            jobDTO.setDescription("Description of the job number " + i);
+            jobDTO.setVersion(i % 5);
+            jobDTOs.add(jobDTO);
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setId(i);
+            salesDTO.setTitle("Sales title number " + i);
+            salesDTO.setVersion(i % 5);
+            salesDTOs.add(salesDTO);
+        }
+        jobsPayload = jobWriter.writeValueAsBytes(jobDTOs);
+        salesPayload = salesWriter.writeValueAsBytes(salesDTOs);
+        System.out.printf("%n%s, %d entities: %d bytes of jobs, %d bytes of sales%n", format, size, jobsPayload.length, salesPayload.length);
+    }
+
+    @Benchmark
+    public byte[] serializeJobs() throws IOException {
+        return jobWriter.writeValueAsBytes(jobDTOs);
+    }
+
+    @Benchmark
+    public List<JobDTO> deserializeJobs() throws IOException {
+        return jobReader.readValue(jobsPayload);
+    }
+
+    @Benchmark
+    public byte[] serializeSales() throws IOException {
+        return salesWriter.writeValueAsBytes(salesDTOs);
+    }
+
+    @Benchmark
+    public List<SalesDTO> deserializeSales() throws IOException {
+        return salesReader.readValue(salesPayload);
+    }
+
+    private static JsonFactory factory(String format) {
+        switch (format) {
+            case "cbor":
+                return new CBORFactory();
+            case "smile":
+                return new SmileFactory();
+            default:
+                return new JsonFactory();
+        }
+    }
+
+    private static ObjectMapper objectMapper(JsonFactory factory) {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        return new ObjectMapper(factory)
+            .registerModules(
+                jacksonConfiguration.javaTimeModule(),
+                jacksonConfiguration.jdk8TimeModule(),
+                jacksonConfiguration.hibernate5Module(),
+                jacksonConfiguration.problemModule(),
+                jacksonConfiguration.constraintViolationProblemModule()
+            )
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
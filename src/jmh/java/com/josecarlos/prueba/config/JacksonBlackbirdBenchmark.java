@@ -0,0 +1,150 @@
+package com.josecarlos.prueba.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.josecarlos.prueba.service.dto.AdminUserDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.dto.UserDTO;
+import com.josecarlos.prueba.web.rest.vm.ManagedUserVM;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the JSON serialization and deserialization of pages of 100 DTOs, with the bean property accessors of
+ * reflection and of the Blackbird module enabled by {@code application.jackson.blackbird}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonBlackbirdBenchmark {
+
+    private static final int SIZE = 100;
+
+    @Param({ "JobDTO", "SalesDTO", "UserDTO", "AdminUserDTO", "ManagedUserVM" })
+    private String dto;
+
+    @Param({ "false", "true" })
+    private boolean blackbird;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private List<Object> dtos;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        ObjectMapper objectMapper = new ObjectMapper()
+            .registerModules(
+                jacksonConfiguration.javaTimeModule(),
+                jacksonConfiguration.jdk8TimeModule(),
+                jacksonConfiguration.hibernate5Module(),
+                jacksonConfiguration.problemModule(),
+                jacksonConfiguration.constraintViolationProblemModule()
+            )
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (blackbird) {
+            objectMapper.registerModule(jacksonConfiguration.blackbirdModule());
+        }
+        LongFunction<Object> factory = factory(dto);
+        dtos = new ArrayList<>(SIZE);
+        for (long i = 0; i < SIZE; i++) {
+            dtos.add(factory.apply(i));
+        }
+        JavaType type = objectMapper.getTypeFactory().constructCollectionType(List.class, dtos.get(0).getClass());
+        writer = objectMapper.writerFor(type);
+        reader = objectMapper.readerFor(type);
+        payload = writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public List<Object> deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    private static LongFunction<Object> factory(String dto) {
+        switch (dto) {
+            case "JobDTO":
+                return i -> {
+                    JobDTO jobDTO = new JobDTO();
+                    jobDTO.setId(i);
+                    jobDTO.setTitle("Job title number " + i);
+                    jobDTO.setDescription("Description of the job number " + i);
+                    jobDTO.setVersion(i % 5);
+                    return jobDTO;
+                };
+            case "SalesDTO":
+                return i -> {
+                    SalesDTO salesDTO = new SalesDTO();
+                    salesDTO.setId(i);
+                    salesDTO.setTitle("Sales title number " + i);
+                    salesDTO.setVersion(i % 5);
+                    return salesDTO;
+                };
+            case "UserDTO":
+                return i -> {
+                    UserDTO userDTO = new UserDTO();
+                    userDTO.setId(i);
+                    userDTO.setLogin("user-" + i);
+                    return userDTO;
+                };
+            case "AdminUserDTO":
+                return i -> fill(new AdminUserDTO(), i);
+            case "ManagedUserVM":
+                return i -> {
+                    ManagedUserVM managedUserVM = fill(new ManagedUserVM(), i);
+                    managedUserVM.setPassword("password-" + i);
+                    return managedUserVM;
+                };
+            default:
+                throw new IllegalArgumentException("Unknown DTO: " + dto);
+        }
+    }
+
+    private static <T extends AdminUserDTO> T fill(T adminUserDTO, long i) {
+        adminUserDTO.setId(i);
+        adminUserDTO.setLogin("user-" + i);
+        adminUserDTO.setFirstName("First " + i);
+        adminUserDTO.setLastName("Last " + i);
+        adminUserDTO.setEmail("user-" + i + "@localhost");
+        adminUserDTO.setActivated(true);
+        adminUserDTO.setLangKey("en");
+        adminUserDTO.setCreatedBy("system");
+        adminUserDTO.setCreatedDate(Instant.ofEpochSecond(1_600_000_000L + i));
+        adminUserDTO.setLastModifiedBy("system");
+        adminUserDTO.setLastModifiedDate(Instant.ofEpochSecond(1_600_000_000L + i));
+        adminUserDTO.setAuthorities(Set.of("ROLE_USER"));
+        return adminUserDTO;
+    }
+}
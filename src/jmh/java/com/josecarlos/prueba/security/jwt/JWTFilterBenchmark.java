@@ -0,0 +1,74 @@
+package com.josecarlos.prueba.security.jwt;
+
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Benchmark of {@link JWTFilter} on an authenticated request, the rest of the filter chain doing nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JWTFilterBenchmark {
+
+    private JWTFilter jwtFilter;
+
+    private JWTFilter uncachedJwtFilter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        TokenProvider tokenProvider = TokenProviderBenchmark.newTokenProvider(10_000);
+        jwtFilter = new JWTFilter(tokenProvider);
+        uncachedJwtFilter = new JWTFilter(TokenProviderBenchmark.newTokenProvider(0));
+        String token = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("user", "", List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+        request = new MockHttpServletRequest("GET", "/api/jobs");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void doFilter(Blackhole blackhole) throws IOException, ServletException {
+        filter(jwtFilter, blackhole);
+    }
+
+    @Benchmark
+    public void doFilterUncached(Blackhole blackhole) throws IOException, ServletException {
+        filter(uncachedJwtFilter, blackhole);
+    }
+
+    private void filter(JWTFilter filter, Blackhole blackhole) throws IOException, ServletException {
+        FilterChain chain = (servletRequest, servletResponse) -> blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+        filter.doFilter(request, response, chain);
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,119 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.GithubJhipsterApp;
+import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Benchmark of the writes of concurrent threads, half of them updating jobs and the other half sales, with and
+ * without the cache invalidation log, whose records take their sequences from an identity column, without
+ * serializing the commits. Either way, the jobs and the sales only serialize on their own change sequence. The
+ * application runs against the in-memory database of the tests, whose commits are much faster than those of a
+ * database writing them to disk.
+ * <p>
+ * Run with: {@code ./mvnw -Pdev,benchmark verify -DskipTests -Djmh.includes=CacheInvalidationLogBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CacheInvalidationLogBenchmark {
+
+    private static final int ROWS_PER_THREAD = 100;
+
+    @Param({ "true", "false" })
+    public boolean invalidation;
+
+    private ConfigurableApplicationContext context;
+
+    private JobService jobService;
+
+    private SalesService salesService;
+
+    private final List<Long> jobIds = new ArrayList<>();
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        context =
+            new SpringApplicationBuilder(GithubJhipsterApp.class)
+                .run("--server.port=0", "--application.cache.invalidation.enabled=" + invalidation);
+        jobService = context.getBean(JobService.class);
+        salesService = context.getBean(SalesService.class);
+        for (int i = 0; i < ROWS_PER_THREAD * 4; i++) {
+            JobDTO jobDTO = new JobDTO();
+            jobDTO.setTitle("Benchmark job " + i);
+            jobIds.add(jobService.save(jobDTO).getId());
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("Benchmark sales " + i);
+            salesIds.add(salesService.save(salesDTO).getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JobRepository.class).deleteAllInBatch();
+        context.getBean(SalesRepository.class).deleteAllInBatch();
+        context.close();
+    }
+
+    /**
+     * The rows updated by a thread, which no other thread updates.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+
+        private int index;
+
+        private int updates;
+
+        @Setup
+        public void setup(ThreadParams threadParams) {
+            index = threadParams.getThreadIndex();
+        }
+
+        private int nextRow() {
+            return index * ROWS_PER_THREAD + updates++ % ROWS_PER_THREAD;
+        }
+    }
+
+    @Benchmark
+    public Object update(Writer writer) {
+        int row = writer.nextRow();
+        if (writer.index % 2 == 0) {
+            JobDTO jobDTO = new JobDTO();
+            jobDTO.setId(jobIds.get(row));
+            jobDTO.setTitle("Benchmark job " + writer.updates);
+            return jobService.partialUpdate(jobDTO);
+        }
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setId(salesIds.get(row));
+        salesDTO.setTitle("Benchmark sales " + writer.updates);
+        return salesService.partialUpdate(salesDTO);
+    }
+}
@@ -0,0 +1,78 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.service.criteria.SalesCriteria;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+import tech.jhipster.service.filter.LongFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Benchmarks of {@link SalesQueryService#createSpecification} for the criteria of the list requests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalesQueryServiceBenchmark {
+
+    private SalesQueryService salesQueryService;
+
+    private SalesCriteria emptyCriteria;
+
+    private SalesCriteria titleCriteria;
+
+    private SalesCriteria fullCriteria;
+
+    @Setup
+    public void setup() {
+        // Only the specifications are built, without querying the database
+        salesQueryService = new SalesQueryService(null, null, null, new ApplicationProperties(), null, null);
+        emptyCriteria = new SalesCriteria();
+
+        titleCriteria = new SalesCriteria();
+        StringFilter title = new StringFilter();
+        title.setContains("sale");
+        titleCriteria.setTitle(title);
+
+        fullCriteria = new SalesCriteria();
+        LongFilter id = new LongFilter();
+        id.setGreaterThan(1000L);
+        id.setIn(List.of(1001L, 1002L, 1003L));
+        fullCriteria.setId(id);
+        StringFilter fullTitle = new StringFilter();
+        fullTitle.setContains("sale");
+        fullTitle.setDoesNotContain("refund");
+        fullCriteria.setTitle(fullTitle);
+        fullCriteria.setDistinct(true);
+    }
+
+    @Benchmark
+    public Specification<Sales> emptyCriteria() {
+        return salesQueryService.createSpecification(emptyCriteria);
+    }
+
+    @Benchmark
+    public Specification<Sales> titleContains() {
+        return salesQueryService.createSpecification(titleCriteria);
+    }
+
+    @Benchmark
+    public Specification<Sales> idAndTitleFilters() {
+        return salesQueryService.createSpecification(fullCriteria);
+    }
+}
@@ -0,0 +1,133 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.GithubJhipsterApp;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.mapper.SalesMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Benchmark of {@link SalesService#update} and {@link SalesService#partialUpdate}, compared with the former update path
+ * of the REST resource: an existence check, then a load and a merge of the sales. The application runs against the
+ * in-memory database of the tests.
+ * <p>
+ * The number of statements per update of each iteration is printed at its end. Those of the service include the
+ * writes of the change sequence, of the outbox and of the cache invalidation log, which the former path does not do.
+ * Run with: {@code ./mvnw -Pdev,benchmark verify -DskipTests -Djmh.includes=SalesUpdateBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SalesUpdateBenchmark {
+
+    private static final int ROWS = 1_000;
+
+    private ConfigurableApplicationContext context;
+
+    private SalesService salesService;
+
+    private SalesRepository salesRepository;
+
+    private SalesMapper salesMapper;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private final List<Long> ids = new ArrayList<>(ROWS);
+
+    private int updates;
+
+    @Setup
+    public void setup() {
+        context =
+            new SpringApplicationBuilder(GithubJhipsterApp.class)
+                .run("--server.port=0", "--spring.jpa.properties.hibernate.generate_statistics=true");
+        salesService = context.getBean(SalesService.class);
+        salesRepository = context.getBean(SalesRepository.class);
+        salesMapper = context.getBean(SalesMapper.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < ROWS; i++) {
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("Benchmark sales " + i);
+            ids.add(salesService.save(salesDTO).getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        salesRepository.deleteAllInBatch();
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void clearStatistics() {
+        statistics.clear();
+        updates = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void printStatements() {
+        System.out.printf("%n%.2f statements per update%n", (double) statistics.getPrepareStatementCount() / Math.max(updates, 1));
+    }
+
+    @Benchmark
+    public Optional<SalesDTO> existsThenMerge() {
+        SalesDTO salesDTO = nextUpdate();
+        if (!salesRepository.existsById(salesDTO.getId())) {
+            return Optional.empty();
+        }
+        return transactionTemplate.execute(status ->
+            salesRepository
+                .findById(salesDTO.getId())
+                .map(sales -> {
+                    salesMapper.partialUpdate(sales, salesDTO);
+                    return salesMapper.toDto(salesRepository.save(sales));
+                })
+        );
+    }
+
+    @Benchmark
+    public Optional<SalesDTO> update() {
+        return salesService.update(nextUpdate());
+    }
+
+    @Benchmark
+    public Optional<SalesDTO> partialUpdate() {
+        return salesService.partialUpdate(nextUpdate());
+    }
+
+    private SalesDTO nextUpdate() {
+        int i = updates++;
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setId(ids.get(i % ids.size()));
+        salesDTO.setTitle("Benchmark sales " + i);
+        return salesDTO;
+    }
+}
@@ -0,0 +1,81 @@
+package com.josecarlos.prueba.service.mapper;
+
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the list mappings of {@link SalesMapper} and {@link JobMapper}, for pages of entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({ "20", "1000" })
+    private int size;
+
+    private final SalesMapper salesMapper = new SalesMapperImpl();
+
+    private final JobMapper jobMapper = new JobMapperImpl();
+
+    private List<Sales> sales;
+
+    private List<SalesDTO> salesDTOs;
+
+    private List<Job> jobs;
+
+    private List<JobDTO> jobDTOs;
+
+    @Setup
+    public void setup() {
+        sales = new ArrayList<>(size);
+        jobs = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            sales.add(new Sales().title("Sale number " + i));
+            sales.get((int) i).setId(i);
+            jobs.add(new Job().title("Job title number " + i).description("Description of the job number " + i));
+            jobs.get((int) i).setId(i);
+        }
+        salesDTOs = salesMapper.toDto(sales);
+        jobDTOs = jobMapper.toDto(jobs);
+    }
+
+    @Benchmark
+    public List<SalesDTO> salesToDto() {
+        return salesMapper.toDto(sales);
+    }
+
+    @Benchmark
+    public List<Sales> salesToEntity() {
+        return salesMapper.toEntity(salesDTOs);
+    }
+
+    @Benchmark
+    public List<JobDTO> jobsToDto() {
+        return jobMapper.toDto(jobs);
+    }
+
+    @Benchmark
+    public List<Job> jobsToEntity() {
+        return jobMapper.toEntity(jobDTOs);
+    }
+}
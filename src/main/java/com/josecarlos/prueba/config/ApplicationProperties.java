@@ -1,6 +1,12 @@
 package com.josecarlos.prueba.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Properties specific to Github Jhipster.
@@ -9,4 +15,735 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Export export = new Export();
+
+    private final Bulk bulk = new Bulk();
+
+    private final QueryCache queryCache = new QueryCache();
+
+    private final Counters counters = new Counters();
+
+    private final Search search = new Search();
+
+    private final Suggest suggest = new Suggest();
+
+    private final Replicas replicas = new Replicas();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final MultiLoad multiLoad = new MultiLoad();
+
+    private final Jackson jackson = new Jackson();
+
+    private final ChangeFeed changeFeed = new ChangeFeed();
+
+    private final Outbox outbox = new Outbox();
+
+    private final DeltaSync deltaSync = new DeltaSync();
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    private final Cache cache = new Cache();
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Suggest getSuggest() {
+        return suggest;
+    }
+
+    public Replicas getReplicas() {
+        return replicas;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public MultiLoad getMultiLoad() {
+        return multiLoad;
+    }
+
+    public Jackson getJackson() {
+        return jackson;
+    }
+
+    public ChangeFeed getChangeFeed() {
+        return changeFeed;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public DeltaSync getDeltaSync() {
+        return deltaSync;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public static class Export {
+
+        private int fetchSize = 500;
+
+        private Duration timeout = Duration.ofHours(1);
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Bulk {
+
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class QueryCache {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Counters {
+
+        private Duration reconcileInterval = Duration.ofMinutes(5);
+
+        private final Map<String, List<String>> hotCriteria = new HashMap<>();
+
+        public Duration getReconcileInterval() {
+            return reconcileInterval;
+        }
+
+        public void setReconcileInterval(Duration reconcileInterval) {
+            this.reconcileInterval = reconcileInterval;
+        }
+
+        public Map<String, List<String>> getHotCriteria() {
+            return hotCriteria;
+        }
+    }
+
+    public static class Search {
+
+        private String indexDirectory;
+
+        private boolean rebuildOnStartup = false;
+
+        private Duration commitInterval = Duration.ofSeconds(10);
+
+        private Duration catchUpInterval = Duration.ofMinutes(1);
+
+        public String getIndexDirectory() {
+            return indexDirectory;
+        }
+
+        public void setIndexDirectory(String indexDirectory) {
+            this.indexDirectory = indexDirectory;
+        }
+
+        public boolean isRebuildOnStartup() {
+            return rebuildOnStartup;
+        }
+
+        public void setRebuildOnStartup(boolean rebuildOnStartup) {
+            this.rebuildOnStartup = rebuildOnStartup;
+        }
+
+        public Duration getCommitInterval() {
+            return commitInterval;
+        }
+
+        public void setCommitInterval(Duration commitInterval) {
+            this.commitInterval = commitInterval;
+        }
+
+        public Duration getCatchUpInterval() {
+            return catchUpInterval;
+        }
+
+        public void setCatchUpInterval(Duration catchUpInterval) {
+            this.catchUpInterval = catchUpInterval;
+        }
+    }
+
+    public static class Suggest {
+
+        private Duration rebuildInterval = Duration.ofSeconds(5);
+
+        private Duration resyncInterval = Duration.ofMinutes(10);
+
+        private int maxTitles = 1_000_000;
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+
+        public Duration getResyncInterval() {
+            return resyncInterval;
+        }
+
+        public void setResyncInterval(Duration resyncInterval) {
+            this.resyncInterval = resyncInterval;
+        }
+
+        public int getMaxTitles() {
+            return maxTitles;
+        }
+
+        public void setMaxTitles(int maxTitles) {
+            this.maxTitles = maxTitles;
+        }
+    }
+
+    public static class Replicas {
+
+        private List<Replica> instances = new ArrayList<>();
+
+        private ReplicaRoutingDataSource.Selection selection = ReplicaRoutingDataSource.Selection.ROUND_ROBIN;
+
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        public List<Replica> getInstances() {
+            return instances;
+        }
+
+        public void setInstances(List<Replica> instances) {
+            this.instances = instances;
+        }
+
+        public ReplicaRoutingDataSource.Selection getSelection() {
+            return selection;
+        }
+
+        public void setSelection(ReplicaRoutingDataSource.Selection selection) {
+            this.selection = selection;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+    }
+
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+    }
+
+    public static class TokenCache {
+
+        private int maxSize = 10_000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class MultiLoad {
+
+        private int batchSize = 64;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class Jackson {
+
+        private boolean blackbird = false;
+
+        public boolean isBlackbird() {
+            return blackbird;
+        }
+
+        public void setBlackbird(boolean blackbird) {
+            this.blackbird = blackbird;
+        }
+    }
+
+    public static class ChangeFeed {
+
+        private int capacity = 1024;
+
+        private int maxSubscribers = 100;
+
+        private Duration timeout = Duration.ofMinutes(30);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Outbox {
+
+        private int batchSize = 100;
+
+        private Duration relayInterval = Duration.ofSeconds(1);
+
+        private String file;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getRelayInterval() {
+            return relayInterval;
+        }
+
+        public void setRelayInterval(Duration relayInterval) {
+            this.relayInterval = relayInterval;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+    }
+
+    public static class DeltaSync {
+
+        private Duration tombstoneRetention = Duration.ofDays(7);
+
+        private Duration purgeInterval = Duration.ofHours(1);
+
+        public Duration getTombstoneRetention() {
+            return tombstoneRetention;
+        }
+
+        public void setTombstoneRetention(Duration tombstoneRetention) {
+            this.tombstoneRetention = tombstoneRetention;
+        }
+
+        public Duration getPurgeInterval() {
+            return purgeInterval;
+        }
+
+        public void setPurgeInterval(Duration purgeInterval) {
+            this.purgeInterval = purgeInterval;
+        }
+    }
+
+    public static class SingleFlight {
+
+        private boolean enabled = true;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Cache {
+
+        private String diskDirectory;
+
+        private boolean latencyMetrics = true;
+
+        private final Map<String, CacheRegion> regions = new HashMap<>();
+
+        private final CacheWarmUp warmUp = new CacheWarmUp();
+
+        private final CacheUsers users = new CacheUsers();
+
+        private final CacheInvalidation invalidation = new CacheInvalidation();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public boolean isLatencyMetrics() {
+            return latencyMetrics;
+        }
+
+        public void setLatencyMetrics(boolean latencyMetrics) {
+            this.latencyMetrics = latencyMetrics;
+        }
+
+        public Map<String, CacheRegion> getRegions() {
+            return regions;
+        }
+
+        public CacheWarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public CacheUsers getUsers() {
+            return users;
+        }
+
+        public CacheInvalidation getInvalidation() {
+            return invalidation;
+        }
+    }
+
+    public static class CacheRegion {
+
+        private Long heapEntries;
+
+        private DataSize heapSize;
+
+        private DataSize offHeapSize;
+
+        private DataSize diskSize;
+
+        private boolean diskPersistent = true;
+
+        private Duration timeToLive;
+
+        private Duration timeToIdle;
+
+        public Long getHeapEntries() {
+            return heapEntries;
+        }
+
+        public void setHeapEntries(Long heapEntries) {
+            this.heapEntries = heapEntries;
+        }
+
+        public DataSize getHeapSize() {
+            return heapSize;
+        }
+
+        public void setHeapSize(DataSize heapSize) {
+            this.heapSize = heapSize;
+        }
+
+        public DataSize getOffHeapSize() {
+            return offHeapSize;
+        }
+
+        public void setOffHeapSize(DataSize offHeapSize) {
+            this.offHeapSize = offHeapSize;
+        }
+
+        public DataSize getDiskSize() {
+            return diskSize;
+        }
+
+        public void setDiskSize(DataSize diskSize) {
+            this.diskSize = diskSize;
+        }
+
+        public boolean isDiskPersistent() {
+            return diskPersistent;
+        }
+
+        public void setDiskPersistent(boolean diskPersistent) {
+            this.diskPersistent = diskPersistent;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        public Duration getTimeToIdle() {
+            return timeToIdle;
+        }
+
+        public void setTimeToIdle(Duration timeToIdle) {
+            this.timeToIdle = timeToIdle;
+        }
+    }
+
+    public static class CacheWarmUp {
+
+        private boolean enabled = true;
+
+        private int jobs = 1000;
+
+        private int sales = 1000;
+
+        private int users = 100;
+
+        private String keyFile;
+
+        private int maxCapturedKeys = 10000;
+
+        private int batchSize = 100;
+
+        private int parallelism = 4;
+
+        private Duration timeBudget = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getJobs() {
+            return jobs;
+        }
+
+        public void setJobs(int jobs) {
+            this.jobs = jobs;
+        }
+
+        public int getSales() {
+            return sales;
+        }
+
+        public void setSales(int sales) {
+            this.sales = sales;
+        }
+
+        public int getUsers() {
+            return users;
+        }
+
+        public void setUsers(int users) {
+            this.users = users;
+        }
+
+        public String getKeyFile() {
+            return keyFile;
+        }
+
+        public void setKeyFile(String keyFile) {
+            this.keyFile = keyFile;
+        }
+
+        public int getMaxCapturedKeys() {
+            return maxCapturedKeys;
+        }
+
+        public void setMaxCapturedKeys(int maxCapturedKeys) {
+            this.maxCapturedKeys = maxCapturedKeys;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public Duration getTimeBudget() {
+            return timeBudget;
+        }
+
+        public void setTimeBudget(Duration timeBudget) {
+            this.timeBudget = timeBudget;
+        }
+    }
+
+    public static class CacheUsers {
+
+        private Duration refreshAfter = Duration.ofMinutes(45);
+
+        public Duration getRefreshAfter() {
+            return refreshAfter;
+        }
+
+        public void setRefreshAfter(Duration refreshAfter) {
+            this.refreshAfter = refreshAfter;
+        }
+    }
+
+    public static class CacheInvalidation {
+
+        private boolean enabled = true;
+
+        private Duration pollInterval = Duration.ofMillis(1000);
+
+        private int batchSize = 500;
+
+        private Duration retention = Duration.ofHours(1);
+
+        private Duration pruneInterval = Duration.ofMinutes(1);
+
+        private Duration gapWindow = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPollInterval() {
+            return pollInterval;
+        }
+
+        public void setPollInterval(Duration pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Duration retention) {
+            this.retention = retention;
+        }
+
+        public Duration getPruneInterval() {
+            return pruneInterval;
+        }
+
+        public void setPruneInterval(Duration pruneInterval) {
+            this.pruneInterval = pruneInterval;
+        }
+
+        public Duration getGapWindow() {
+            return gapWindow;
+        }
+
+        public void setGapWindow(Duration gapWindow) {
+            this.gapWindow = gapWindow;
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package com.josecarlos.prueba.config;
 
+import java.io.File;
 import java.time.Duration;
+import java.util.regex.Pattern;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -12,27 +22,59 @@ import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.*;
+import org.springframework.util.ClassUtils;
 import tech.jhipster.config.JHipsterProperties;
 import tech.jhipster.config.cache.PrefixedKeyGenerator;
 
+/**
+ * Configuration of the Ehcache regions, of the second-level cache of Hibernate and of the application caches.
+ * <p>
+ * The regions hold {@code jhipster.cache.ehcache.max-entries} entries on heap for
+ * {@code jhipster.cache.ehcache.time-to-live-seconds}, unless configured otherwise in {@code application.cache.regions},
+ * by their name without the package: their entries can then also be stored off-heap and on disk, the disk tier
+ * outliving the restarts when persistent. The entries of the off-heap and disk tiers are serialized, so the keys and
+ * values of these regions must be serializable.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
+    private static final Pattern PACKAGE = Pattern.compile("^([a-z0-9_]+\\.)+");
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cacheProperties;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cacheProperties = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    /**
+     * The JCache manager of Ehcache, with the directory of the disk tiers when {@code application.cache.disk-directory}
+     * is set. It replaces the manager of Spring Boot, which cannot be given the directory.
+     *
+     * @param customizers the customizers creating the caches.
+     * @return the cache manager.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> customizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        javax.cache.CacheManager cacheManager;
+        if (cacheProperties.getDiskDirectory() == null) {
+            cacheManager = provider.getCacheManager(provider.getDefaultURI(), new DefaultConfiguration(provider.getDefaultClassLoader()));
+        } else {
+            // The managers are shared by URI, so that of a directory is only shared with the managers of the same directory
+            File directory = new File(cacheProperties.getDiskDirectory()).getAbsoluteFile();
+            cacheManager =
+                provider.getCacheManager(
+                    directory.toURI(),
+                    new DefaultConfiguration(provider.getDefaultClassLoader(), new DefaultPersistenceConfiguration(directory))
+                );
+        }
+        customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
@@ -50,6 +92,8 @@ public class CacheConfiguration {
             createCache(cm, com.josecarlos.prueba.domain.User.class.getName() + ".authorities");
             createCache(cm, com.josecarlos.prueba.domain.Job.class.getName());
             createCache(cm, com.josecarlos.prueba.domain.Sales.class.getName());
+            createCache(cm, com.josecarlos.prueba.service.JobQueryService.JOB_QUERY_CACHE);
+            createCache(cm, com.josecarlos.prueba.service.SalesQueryService.SALES_QUERY_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -59,8 +103,58 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(
+                cacheName,
+                Eh107Configuration.fromEhcacheCacheConfiguration(
+                    regionConfiguration(
+                        cacheProperties.getRegions().get(PACKAGE.matcher(cacheName).replaceFirst("")),
+                        ehcache.getMaxEntries(),
+                        Duration.ofSeconds(ehcache.getTimeToLiveSeconds())
+                    )
+                )
+            );
+        }
+    }
+
+    /**
+     * Build the configuration of a region.
+     *
+     * @param region the configuration of the region, {@code null} for the defaults.
+     * @param maxEntries the default number of entries kept on heap.
+     * @param timeToLive the default time to live of the entries.
+     * @return the configuration of the region.
+     */
+    static org.ehcache.config.CacheConfiguration<Object, Object> regionConfiguration(
+        ApplicationProperties.CacheRegion region,
+        long maxEntries,
+        Duration timeToLive
+    ) {
+        if (region == null) {
+            region = new ApplicationProperties.CacheRegion();
+        }
+        ResourcePoolsBuilder resourcePools = region.getHeapSize() != null
+            ? ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapSize().toBytes(), MemoryUnit.B)
+            : ResourcePoolsBuilder.newResourcePoolsBuilder().heap(region.getHeapEntries() != null ? region.getHeapEntries() : maxEntries, EntryUnit.ENTRIES);
+        if (region.getOffHeapSize() != null) {
+            resourcePools = resourcePools.offheap(region.getOffHeapSize().toBytes(), MemoryUnit.B);
+        }
+        if (region.getDiskSize() != null) {
+            resourcePools = resourcePools.disk(region.getDiskSize().toBytes(), MemoryUnit.B, region.isDiskPersistent());
+        }
+        CacheConfigurationBuilder<Object, Object> configuration = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(
+                region.getTimeToIdle() != null
+                    ? ExpiryPolicyBuilder.timeToIdleExpiration(region.getTimeToIdle())
+                    : ExpiryPolicyBuilder.timeToLiveExpiration(region.getTimeToLive() != null ? region.getTimeToLive() : timeToLive)
+            );
+        if (region.getOffHeapSize() != null || region.getDiskSize() != null) {
+            // Ehcache has no serializer for Object, the keys and values being of any serializable type
+            ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+            configuration =
+                configuration.withKeySerializer(new PlainJavaSerializer<>(classLoader)).withValueSerializer(new PlainJavaSerializer<>(classLoader));
         }
+        return configuration.build();
     }
 
     @Autowired(required = false)
@@ -0,0 +1,84 @@
+package com.josecarlos.prueba.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.persistence.EntityManagerFactory;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.jcache.JCacheCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+/**
+ * Configuration of the metrics of the cache regions, of the second-level cache of Hibernate and of the ranking of the
+ * regions by miss cost in the {@code caches} endpoint.
+ * <p>
+ * The Ehcache regions are bound by Spring Boot with the {@link EhcacheMetrics} of each region, in place of the metrics
+ * of JCache, which are only kept once the statistics of JCache are enabled and are read through JMX.
+ */
+@Configuration
+public class CacheMetricsConfiguration implements SmartInitializingSingleton {
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    private final ObjectProvider<EntityManagerFactory> entityManagerFactory;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public CacheMetricsConfiguration(
+        ApplicationProperties applicationProperties,
+        ObjectProvider<EntityManagerFactory> entityManagerFactory,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        this.cacheProperties = applicationProperties.getCache();
+        this.entityManagerFactory = entityManagerFactory;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public CacheMeterBinderProvider<JCacheCache> ehcacheMeterBinderProvider() {
+        return (cache, tags) -> {
+            javax.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+            if (!(nativeCache.getCacheManager().getCachingProvider() instanceof EhcacheCachingProvider)) {
+                return null;
+            }
+            return new EhcacheMetrics(nativeCache.unwrap(org.ehcache.Cache.class), cache.getName(), tags, cacheProperties.isLatencyMetrics());
+        };
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint(endpoint = CachesEndpoint.class)
+    public RankedCachesEndpointWebExtension rankedCachesEndpointWebExtension(CachesEndpoint cachesEndpoint, MeterRegistry meterRegistry) {
+        return new RankedCachesEndpointWebExtension(cachesEndpoint, meterRegistry);
+    }
+
+    /**
+     * Forget the misses of the thread which handled the request, at its end.
+     */
+    @EventListener(ServletRequestHandledEvent.class)
+    public void requestHandled() {
+        EhcacheMetrics.clearMisses();
+    }
+
+    /**
+     * Bind the metrics of Hibernate once its regions are all created.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            entityManagerFactory.ifAvailable(factory ->
+                new HibernateCacheMetrics(factory.unwrap(SessionFactory.class).getStatistics()).bindTo(registry)
+            );
+        }
+    }
+}
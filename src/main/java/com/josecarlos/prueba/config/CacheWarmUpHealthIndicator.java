@@ -0,0 +1,35 @@
+package com.josecarlos.prueba.config;
+
+import com.josecarlos.prueba.service.CacheWarmer;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health indicator of the warm-up of the caches by {@link CacheWarmer}, out of service until the warm-up is over, so
+ * that the readiness probe, which includes it, only accepts traffic once the caches are warm.
+ */
+@Component
+public class CacheWarmUpHealthIndicator extends AbstractHealthIndicator {
+
+    private final CacheWarmer cacheWarmer;
+
+    public CacheWarmUpHealthIndicator(CacheWarmer cacheWarmer) {
+        super("Cache warm-up health check failed");
+        this.cacheWarmer = cacheWarmer;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        CacheWarmer.Status status = cacheWarmer.getStatus();
+        if (status == CacheWarmer.Status.PENDING || status == CacheWarmer.Status.RUNNING) {
+            builder.outOfService();
+        } else {
+            builder.up();
+        }
+        builder.withDetail("status", status).withDetail("progress", cacheWarmer.getProgress());
+        if (cacheWarmer.getDuration() != null) {
+            builder.withDetail("duration", cacheWarmer.getDuration().toMillis());
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.josecarlos.prueba.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -10,6 +18,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
@@ -23,8 +32,48 @@ public class DatabaseConfiguration {
 
     private final Environment env;
 
-    public DatabaseConfiguration(Environment env) {
+    private final ApplicationProperties applicationProperties;
+
+    public DatabaseConfiguration(Environment env, ApplicationProperties applicationProperties) {
         this.env = env;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Create the Hikari pool of the {@code spring.datasource} database, like Spring Boot does, and route the
+     * read-only transactions to the {@code application.replicas} when some are configured.
+     *
+     * @param properties the properties of the primary database.
+     * @return the data source.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (StringUtils.hasText(properties.getName())) {
+            primary.setPoolName(properties.getName());
+        }
+        ApplicationProperties.Replicas replicaProperties = applicationProperties.getReplicas();
+        if (replicaProperties.getInstances().isEmpty()) {
+            return primary;
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ApplicationProperties.Replica replica : replicaProperties.getInstances()) {
+            HikariConfig config = new HikariConfig();
+            primary.copyStateTo(config);
+            config.setPoolName((primary.getPoolName() == null ? "Hikari" : primary.getPoolName()) + "-replica-" + replicas.size());
+            config.setJdbcUrl(replica.getUrl());
+            if (replica.getUsername() != null) {
+                config.setUsername(replica.getUsername());
+                config.setPassword(replica.getPassword());
+            }
+            config.setReadOnly(true);
+            // Start even if the replica is down, it is ejected until it is healthy
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        log.info("Routing read-only transactions to {} replicas, {}", replicas.size(), replicaProperties.getSelection());
+        return new ReplicaRoutingDataSource(primary, replicas, replicaProperties.getSelection(), replicaProperties.getHealthCheckInterval());
     }
 
     /**
@@ -0,0 +1,201 @@
+package com.josecarlos.prueba.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import java.time.Duration;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.ehcache.Cache;
+import org.ehcache.core.InternalCache;
+import org.ehcache.core.internal.statistics.DefaultCacheStatistics;
+import org.ehcache.core.statistics.CacheOperationOutcomes.GetOutcome;
+import org.ehcache.core.statistics.CacheOperationOutcomes.PutOutcome;
+import org.ehcache.core.statistics.CacheOperationOutcomes.RemoveOutcome;
+import org.ehcache.core.statistics.CacheStatistics;
+import org.ehcache.core.statistics.ChainedOperationObserver;
+import org.ehcache.core.statistics.TierStatistics;
+
+/**
+ * Metrics of an Ehcache region: its gets, hits, misses, puts, removals, evictions and expirations, the entries and
+ * bytes of each of its tiers, the latency of its gets and its miss penalty.
+ * <p>
+ * They are read from the statistics Ehcache keeps for all its caches, which do not need the statistics of JCache to be
+ * enabled. The miss penalty is the time from a miss to the put of the loaded value by the same thread, which is how
+ * Hibernate and the Spring caches fill the regions: it estimates what a miss costs. Measuring the latency and the miss
+ * penalty has Ehcache time each get, put and removal of the region, so it can be turned off.
+ * <p>
+ * The statistics do not tell the keys: a miss not followed by a put, such as a load failing, would be paired with a
+ * later put of another key. The misses older than the maximum expected penalty are dropped, and those of a thread
+ * are cleared by {@link #clearMisses()} at the end of each request it handles.
+ */
+public class EhcacheMetrics extends CacheMeterBinder {
+
+    private static final Duration MAX_MISS_PENALTY = Duration.ofSeconds(10);
+
+    /** The time of the first miss of the current thread in each cache, 0 once the value is put or a hit is done. */
+    private static final ThreadLocal<Map<EhcacheMetrics, long[]>> MISSED_AT = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    private final CacheStatistics statistics;
+
+    private final boolean latencyMetrics;
+
+    public EhcacheMetrics(Cache<?, ?> cache, String cacheName, Iterable<Tag> tags, boolean latencyMetrics) {
+        super(cache, cacheName, tags);
+        this.statistics = new DefaultCacheStatistics((InternalCache<?, ?>) cache);
+        this.latencyMetrics = latencyMetrics;
+    }
+
+    /**
+     * Forget the misses of the current thread, whose values were not put, so that they are not paired with the puts of
+     * its next tasks.
+     */
+    public static void clearMisses() {
+        MISSED_AT.remove();
+    }
+
+    @Override
+    protected Long size() {
+        // The lowest tier holds all the entries, the others a copy of the most used ones
+        return statistics.getTierStatistics().values().stream().mapToLong(TierStatistics::getMappings).max().orElse(0);
+    }
+
+    @Override
+    protected long hitCount() {
+        return statistics.getCacheHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return statistics.getCacheMisses();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return statistics.getCacheEvictions();
+    }
+
+    @Override
+    protected long putCount() {
+        return statistics.getCachePuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter
+            .builder("cache.removals", statistics, CacheStatistics::getCacheRemovals)
+            .tags(getTagsWithCacheName())
+            .description("The number of entries removed from the cache")
+            .register(registry);
+        FunctionCounter
+            .builder("cache.expirations", statistics, CacheStatistics::getCacheExpirations)
+            .tags(getTagsWithCacheName())
+            .description("The number of entries expired from the cache")
+            .register(registry);
+        statistics
+            .getTierStatistics()
+            .forEach((tier, tierStatistics) -> {
+                Gauge
+                    .builder("cache.tier.size", tierStatistics, TierStatistics::getMappings)
+                    .tags(getTagsWithCacheName())
+                    .tag("tier", tier)
+                    .description("The number of entries in the tier")
+                    .register(registry);
+                // The heap tiers sized in entries do not know their size in bytes
+                if (tierStatistics.getOccupiedByteSize() >= 0) {
+                    Gauge
+                        .builder("cache.tier.bytes", tierStatistics, TierStatistics::getOccupiedByteSize)
+                        .tags(getTagsWithCacheName())
+                        .tag("tier", tier)
+                        .description("The bytes occupied by the entries of the tier")
+                        .baseUnit("bytes")
+                        .register(registry);
+                }
+            });
+        if (latencyMetrics) {
+            bindLatencyMetrics(registry);
+        }
+    }
+
+    private void bindLatencyMetrics(MeterRegistry registry) {
+        Timer hitLatency = getLatency(registry, "hit");
+        Timer missLatency = getLatency(registry, "miss");
+        Timer missPenalty = Timer
+            .builder("cache.miss.penalty")
+            .tags(getTagsWithCacheName())
+            .description("The time from a miss to the put of the loaded value")
+            .minimumExpectedValue(Duration.ofNanos(100000))
+            .maximumExpectedValue(MAX_MISS_PENALTY)
+            .register(registry);
+        long maxMissPenalty = MAX_MISS_PENALTY.toNanos();
+        statistics.registerDerivedStatistic(
+            GetOutcome.class,
+            "get",
+            new Observer<GetOutcome>() {
+                @Override
+                public void end(long time, long latency, GetOutcome result) {
+                    if (result == GetOutcome.MISS) {
+                        missLatency.record(latency, TimeUnit.NANOSECONDS);
+                        // The read-write regions of Hibernate are read again before the put of the loaded value
+                        long[] missed = missedAt();
+                        if (missed[0] == 0 || time - missed[0] > maxMissPenalty) {
+                            missed[0] = time;
+                        }
+                    } else {
+                        hitLatency.record(latency, TimeUnit.NANOSECONDS);
+                        missedAt()[0] = 0;
+                    }
+                }
+            }
+        );
+        statistics.registerDerivedStatistic(
+            PutOutcome.class,
+            "put",
+            new Observer<PutOutcome>() {
+                @Override
+                public void end(long time, long latency, PutOutcome result) {
+                    long[] missed = missedAt();
+                    if (missed[0] != 0 && time - missed[0] <= maxMissPenalty) {
+                        missPenalty.record(time - missed[0], TimeUnit.NANOSECONDS);
+                    }
+                    missed[0] = 0;
+                }
+            }
+        );
+        statistics.registerDerivedStatistic(
+            RemoveOutcome.class,
+            "remove",
+            new Observer<RemoveOutcome>() {
+                @Override
+                public void end(long time, long latency, RemoveOutcome result) {
+                    missedAt()[0] = 0;
+                }
+            }
+        );
+    }
+
+    private long[] missedAt() {
+        return MISSED_AT.get().computeIfAbsent(this, metrics -> new long[1]);
+    }
+
+    private Timer getLatency(MeterRegistry registry, String result) {
+        return Timer
+            .builder("cache.gets.latency")
+            .tags(getTagsWithCacheName())
+            .tag("result", result)
+            .description("The latency of the gets of the cache")
+            .minimumExpectedValue(Duration.ofNanos(100))
+            .maximumExpectedValue(Duration.ofMillis(100))
+            .register(registry);
+    }
+
+    private abstract static class Observer<T extends Enum<T>> implements ChainedOperationObserver<T> {
+
+        @Override
+        public void begin(long time) {}
+    }
+}
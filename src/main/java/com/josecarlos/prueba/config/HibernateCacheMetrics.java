@@ -0,0 +1,57 @@
+package com.josecarlos.prueba.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Metrics of the second-level cache of Hibernate, by region, and of the loads of the entities from the database, by
+ * entity, sampled from the statistics of Hibernate, which are only kept when {@code hibernate.generate_statistics} is
+ * enabled.
+ */
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateCacheMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            bindRegion(registry, region, "hibernate.second.level.cache.requests", "hit", CacheRegionStatistics::getHitCount);
+            bindRegion(registry, region, "hibernate.second.level.cache.requests", "miss", CacheRegionStatistics::getMissCount);
+            FunctionCounter
+                .builder("hibernate.second.level.cache.puts", statistics, s -> s.getDomainDataRegionStatistics(region).getPutCount())
+                .tag("region", region)
+                .description("The number of entities and collections put in the region")
+                .register(registry);
+        }
+        for (String entity : statistics.getEntityNames()) {
+            bindEntity(registry, entity, "hibernate.entity.loads", "The number of loads of the entity", EntityStatistics::getLoadCount);
+            bindEntity(registry, entity, "hibernate.entity.fetches", "The number of fetches of the entity", EntityStatistics::getFetchCount);
+        }
+    }
+
+    private void bindRegion(MeterRegistry registry, String region, String name, String result, ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter
+            .builder(name, statistics, s -> count.applyAsDouble(s.getDomainDataRegionStatistics(region)))
+            .tag("region", region)
+            .tag("result", result)
+            .description("The number of requests to the region")
+            .register(registry);
+    }
+
+    private void bindEntity(MeterRegistry registry, String entity, String name, String description, ToDoubleFunction<EntityStatistics> count) {
+        FunctionCounter
+            .builder(name, statistics, s -> count.applyAsDouble(s.getEntityStatistics(entity)))
+            .tag("entity", entity)
+            .description(description)
+            .register(registry);
+    }
+}
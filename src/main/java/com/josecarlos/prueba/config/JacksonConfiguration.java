@@ -3,6 +3,8 @@ package com.josecarlos.prueba.config;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.zalando.problem.jackson.ProblemModule;
@@ -33,6 +35,16 @@ public class JacksonConfiguration {
         return new Hibernate5Module();
     }
 
+    /*
+     * Accessors of the bean properties generated with method handles and lambdas, instead of reflection,
+     * when enabled by application.jackson.blackbird.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.jackson.blackbird", havingValue = "true")
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
     /*
      * Module for serialization/deserialization of RFC7807 Problem.
      */
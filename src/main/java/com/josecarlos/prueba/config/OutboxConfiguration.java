@@ -0,0 +1,31 @@
+package com.josecarlos.prueba.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.service.OutboxSink;
+import com.josecarlos.prueba.service.impl.FileOutboxSink;
+import com.josecarlos.prueba.service.impl.LoggingOutboxSink;
+import java.nio.file.Paths;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxConfiguration.class);
+
+    /**
+     * Destination of the relayed outbox events: the file of {@code application.outbox.file} if set, the logs otherwise.
+     */
+    @Bean
+    public OutboxSink outboxSink(ApplicationProperties applicationProperties, ObjectMapper objectMapper) {
+        String file = applicationProperties.getOutbox().getFile();
+        if (file == null || file.isBlank()) {
+            log.debug("Relaying the outbox events to the logs");
+            return new LoggingOutboxSink();
+        }
+        log.debug("Relaying the outbox events to {}", file);
+        return new FileOutboxSink(Paths.get(file), objectMapper);
+    }
+}
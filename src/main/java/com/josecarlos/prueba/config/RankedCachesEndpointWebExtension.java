@@ -0,0 +1,226 @@
+package com.josecarlos.prueba.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.cache.CachesEndpoint;
+import org.springframework.boot.actuate.cache.CachesEndpointWebExtension;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.annotation.EndpointWebExtension;
+
+/**
+ * Web extension of the {@code caches} endpoint, adding to the caches the live ranking of the cache regions by miss
+ * cost, from their metrics.
+ * <p>
+ * The miss cost of a region is its number of misses times its mean miss penalty: the time the application spent
+ * loading what the region did not hold. Without {@code application.cache.latency-metrics}, the miss penalty is not
+ * measured and the regions are ranked by misses.
+ */
+@EndpointWebExtension(endpoint = CachesEndpoint.class)
+public class RankedCachesEndpointWebExtension extends CachesEndpointWebExtension {
+
+    private final CachesEndpoint delegate;
+
+    private final MeterRegistry meterRegistry;
+
+    public RankedCachesEndpointWebExtension(CachesEndpoint delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public RankedCachesReport caches() {
+        List<RegionDescriptor> regions = meterRegistry
+            .find("cache.gets")
+            .tag("result", "miss")
+            .functionCounters()
+            .stream()
+            .map(this::getRegion)
+            .sorted(
+                Comparator.comparingDouble(RegionDescriptor::getMissCost).thenComparingLong(RegionDescriptor::getMisses).reversed()
+            )
+            .collect(Collectors.toList());
+        return new RankedCachesReport(delegate.caches().getCacheManagers(), regions);
+    }
+
+    private RegionDescriptor getRegion(FunctionCounter misses) {
+        String name = misses.getId().getTag("cache");
+        Tags tags = Tags.of("cache", name);
+        FunctionCounter hits = meterRegistry
+            .find("cache.gets")
+            .tags(Tags.of(misses.getId().getTags()).and("result", "hit"))
+            .functionCounter();
+        Timer missPenalty = meterRegistry.find("cache.miss.penalty").tags(tags).timer();
+        Map<String, TierDescriptor> tiers = new TreeMap<>();
+        meterRegistry
+            .find("cache.tier.size")
+            .tags(tags)
+            .gauges()
+            .forEach(size -> {
+                String tier = size.getId().getTag("tier");
+                Gauge bytes = meterRegistry.find("cache.tier.bytes").tags(tags).tag("tier", tier).gauge();
+                tiers.put(tier, new TierDescriptor((long) size.value(), bytes != null ? (long) bytes.value() : null));
+            });
+        return new RegionDescriptor(
+            name,
+            hits != null ? (long) hits.count() : 0,
+            (long) misses.count(),
+            count("cache.puts", tags),
+            count("cache.evictions", tags),
+            count("cache.removals", tags),
+            missPenalty != null && missPenalty.count() > 0 ? missPenalty.mean(TimeUnit.MILLISECONDS) : 0,
+            tiers
+        );
+    }
+
+    private long count(String name, Tags tags) {
+        FunctionCounter counter = meterRegistry.find(name).tags(tags).functionCounter();
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    /**
+     * Description of the caches, ranked by miss cost.
+     */
+    public static final class RankedCachesReport {
+
+        private final Map<String, CachesEndpoint.CacheManagerDescriptor> cacheManagers;
+
+        private final List<RegionDescriptor> regions;
+
+        private RankedCachesReport(Map<String, CachesEndpoint.CacheManagerDescriptor> cacheManagers, List<RegionDescriptor> regions) {
+            this.cacheManagers = cacheManagers;
+            this.regions = regions;
+        }
+
+        public Map<String, CachesEndpoint.CacheManagerDescriptor> getCacheManagers() {
+            return cacheManagers;
+        }
+
+        public List<RegionDescriptor> getRegions() {
+            return regions;
+        }
+    }
+
+    /**
+     * Description of the statistics of a cache region.
+     */
+    public static final class RegionDescriptor {
+
+        private final String name;
+
+        private final long hits;
+
+        private final long misses;
+
+        private final long puts;
+
+        private final long evictions;
+
+        private final long removals;
+
+        private final double missPenalty;
+
+        private final Map<String, TierDescriptor> tiers;
+
+        private RegionDescriptor(
+            String name,
+            long hits,
+            long misses,
+            long puts,
+            long evictions,
+            long removals,
+            double missPenalty,
+            Map<String, TierDescriptor> tiers
+        ) {
+            this.name = name;
+            this.hits = hits;
+            this.misses = misses;
+            this.puts = puts;
+            this.evictions = evictions;
+            this.removals = removals;
+            this.missPenalty = missPenalty;
+            this.tiers = tiers;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRatio() {
+            return hits + misses > 0 ? (double) hits / (hits + misses) : 0;
+        }
+
+        public long getPuts() {
+            return puts;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getRemovals() {
+            return removals;
+        }
+
+        /**
+         * @return the mean time from a miss to the put of the loaded value, in milliseconds.
+         */
+        public double getMissPenalty() {
+            return missPenalty;
+        }
+
+        /**
+         * @return the estimated time spent loading the missed values, in milliseconds.
+         */
+        public double getMissCost() {
+            return misses * missPenalty;
+        }
+
+        public Map<String, TierDescriptor> getTiers() {
+            return tiers;
+        }
+    }
+
+    /**
+     * Description of the size of a tier of a cache region.
+     */
+    public static final class TierDescriptor {
+
+        private final long entries;
+
+        private final Long bytes;
+
+        private TierDescriptor(long entries, Long bytes) {
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        /**
+         * @return the bytes occupied by the entries, {@code null} for the heap tiers sized in entries.
+         */
+        public Long getBytes() {
+            return bytes;
+        }
+    }
+}
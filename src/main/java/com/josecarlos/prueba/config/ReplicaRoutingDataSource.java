@@ -0,0 +1,355 @@
+package com.josecarlos.prueba.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Data source sending the read-only transactions to replicas of the primary database, and everything else to the
+ * primary database.
+ * <p>
+ * The physical connection is only obtained on the first statement, once the transaction is started and known to be
+ * read-only or not. The replicas are chosen in turn, or the one with the fewest connections in use first, depending
+ * on the {@link Selection}. A replica which fails a health check, or fails to give a connection, is ejected until it
+ * passes a health check again; without healthy replicas, the reads go to the primary database.
+ * <p>
+ * Once a read-write transaction ran in a web request, the following read-only transactions of the request go to
+ * the primary database too, so that the request reads its own writes whatever the replication lag. Other requests
+ * may read from a replica which has not replicated a write yet.
+ * <p>
+ * The reads whose results outlive their transaction, cached or shared with other callers, are run in
+ * {@link #readFromPrimary(Supplier)}: the result of a replica which has not replicated a write yet would be served
+ * until the next write. The transactions reading from a replica do not fill the second-level cache, and the caches
+ * joining such a transaction do not keep their results, see {@link #isReadingFromReplica()}.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    /**
+     * Request attribute set once a read-write transaction ran in the request.
+     */
+    private static final String STICKY_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".STICKY";
+
+    /**
+     * Transaction resource bound once a transaction got a connection from a replica.
+     */
+    private static final Object REPLICA_READ = new Object();
+
+    /**
+     * Set while the reads of the thread go to the primary database.
+     */
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private static final int HEALTH_CHECK_TIMEOUT_SECONDS = 2;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final Target primary;
+
+    private final List<Target> replicas;
+
+    private final Selection selection;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * How the replica of a read-only transaction is chosen among the healthy ones.
+     */
+    public enum Selection {
+        /**
+         * Each replica in turn.
+         */
+        ROUND_ROBIN,
+        /**
+         * The replica with the fewest connections in use or awaited.
+         */
+        LEAST_PENDING,
+    }
+
+    public ReplicaRoutingDataSource(
+        HikariDataSource primary,
+        List<HikariDataSource> replicas,
+        Selection selection,
+        Duration healthCheckInterval
+    ) {
+        this.primary = new Target(primary);
+        this.replicas = replicas.stream().map(Target::new).collect(Collectors.toUnmodifiableList());
+        this.selection = selection;
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+        this.healthChecker =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Run reads on the primary database, even in read-only transactions: the transactions started within, and the
+     * transaction of the caller if it has not read anything yet, get their connection from the primary database.
+     *
+     * @param read the reads.
+     * @param <T> the type of the result.
+     * @return the result of the reads.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (PRIMARY_READS.get() != null) {
+            return read.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    /**
+     * @return whether the current transaction got its connection from a replica, which may lag behind the primary
+     * database: its results must not be cached.
+     */
+    public static boolean isReadingFromReplica() {
+        return TransactionSynchronizationManager.hasResource(REPLICA_READ);
+    }
+
+    /**
+     * Get the primary database, then the replicas, with their state.
+     *
+     * @return the targets of the connections.
+     */
+    public List<Target> getTargets() {
+        List<Target> targets = new ArrayList<>(replicas.size() + 1);
+        targets.add(primary);
+        targets.addAll(replicas);
+        return targets;
+    }
+
+    /**
+     * Check that each replica gives valid connections, ejecting the ones which do not, and taking back the ones
+     * which do again.
+     */
+    public void checkHealth() {
+        for (Target replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(HEALTH_CHECK_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                log.debug("Health check of replica {} failed: {}", replica.getName(), e.getMessage());
+                healthy = false;
+            }
+            if (!healthy) {
+                eject(replica);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Replica {} is healthy again, it receives read-only transactions", replica.getName());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.dataSource.close();
+    }
+
+    private void eject(Target replica) {
+        // Drop the idle connections, which are probably broken too
+        HikariPoolMXBean pool = replica.dataSource.getHikariPoolMXBean();
+        if (pool != null) {
+            pool.softEvictConnections();
+        }
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Replica {} is ejected until it is healthy again", replica.getName());
+        }
+    }
+
+    private List<Target> healthyReplicas() {
+        List<Target> healthy = replicas.stream().filter(replica -> replica.healthy).collect(Collectors.toList());
+        if (healthy.size() > 1) {
+            if (selection == Selection.LEAST_PENDING) {
+                healthy.sort(Comparator.comparingInt(Target::getPending));
+            } else {
+                Collections.rotate(healthy, -Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+            }
+        }
+        return healthy;
+    }
+
+    private static boolean isSticky() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(STICKY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    private static void markSticky() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(STICKY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * Mark the current transaction as reading from a replica, and stop its sessions from putting the entities they
+     * read into the second-level cache, which would serve them after the writes the replica has not replicated yet.
+     */
+    private static void markReplicaRead() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(REPLICA_READ)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(REPLICA_READ, Boolean.TRUE);
+        Map<Session, CacheMode> cacheModes = new IdentityHashMap<>();
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder) {
+                Session session = ((EntityManagerHolder) resource).getEntityManager().unwrap(Session.class);
+                if (session.getCacheMode().isPutEnabled()) {
+                    cacheModes.put(session, session.getCacheMode());
+                    session.setCacheMode(session.getCacheMode().isGetEnabled() ? CacheMode.GET : CacheMode.IGNORE);
+                }
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(REPLICA_READ);
+                    // The sessions outliving the transaction, if any, fill the cache again
+                    cacheModes.forEach((session, cacheMode) -> {
+                        if (session.isOpen()) {
+                            session.setCacheMode(cacheMode);
+                        }
+                    });
+                }
+            }
+        );
+    }
+
+    /**
+     * A database the connections are taken from.
+     */
+    public static final class Target {
+
+        private final HikariDataSource dataSource;
+
+        private final AtomicLong connections = new AtomicLong();
+
+        private volatile boolean healthy = true;
+
+        private Target(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return dataSource.getPoolName();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        /**
+         * Get the number of connections given for transactions.
+         *
+         * @return the number of connections since startup.
+         */
+        public long getConnections() {
+            return connections.get();
+        }
+
+        /**
+         * Get the number of connections in use, or awaited by threads.
+         *
+         * @return the number of pending connections.
+         */
+        public int getPending() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+        }
+
+        private Connection getConnection() throws SQLException {
+            Connection connection = dataSource.getConnection();
+            connections.incrementAndGet();
+            return connection;
+        }
+    }
+
+    /**
+     * Data source choosing the target of each physical connection, from the transaction it is obtained in.
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    markSticky();
+                }
+                return primary.getConnection();
+            }
+            if (!isSticky() && PRIMARY_READS.get() == null) {
+                for (Target replica : healthyReplicas()) {
+                    try {
+                        Connection connection = replica.getConnection();
+                        markReplicaRead();
+                        return connection;
+                    } catch (SQLException e) {
+                        log.warn("Could not get a connection from replica {}: {}", replica.getName(), e.getMessage());
+                        eject(replica);
+                    }
+                }
+            }
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("The credentials of each database are configured in its pool");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            // Expose the primary pool, for its metrics and health indicator
+            if (iface.isInstance(this)) {
+                return (T) this;
+            }
+            return primary.dataSource.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.dataSource.isWrapperFor(iface);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.josecarlos.prueba.config;
+
+import com.josecarlos.prueba.web.rest.util.StreamingExportUtil;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Apply the timeout of the streaming exports, {@code application.export.timeout}, to their asynchronous requests.
+ * <p>
+ * The other asynchronous requests keep the default timeout, {@code spring.mvc.async.request-timeout} if set, else the
+ * one of the servlet container.
+ */
+@Configuration
+public class StreamingExportConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(StreamingExportUtil.timeoutInterceptor());
+    }
+}
@@ -5,6 +5,7 @@ import javax.persistence.*;
 import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 /**
  * A Job.
@@ -17,7 +18,8 @@ public class Job implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "jobSequenceGenerator")
+    @SequenceGenerator(name = "jobSequenceGenerator", sequenceName = "job_sequence", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -29,6 +31,14 @@ public class Job implements Serializable {
     @Column(name = "description")
     private String description;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @OptimisticLock(excluded = true)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -70,6 +80,32 @@ public class Job implements Serializable {
         this.description = description;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Job version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return this.changeSeq;
+    }
+
+    public Job changeSeq(Long changeSeq) {
+        this.setChangeSeq(changeSeq);
+        return this;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -96,6 +132,8 @@ public class Job implements Serializable {
             "id=" + getId() +
             ", title='" + getTitle() + "'" +
             ", description='" + getDescription() + "'" +
+            ", version=" + getVersion() +
+            ", changeSeq=" + getChangeSeq() +
             "}";
     }
 }
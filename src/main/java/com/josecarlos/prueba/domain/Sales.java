@@ -4,6 +4,7 @@ import java.io.Serializable;
 import javax.persistence.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 /**
  * A Sales.
@@ -16,13 +17,22 @@ public class Sales implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "salesSequenceGenerator")
+    @SequenceGenerator(name = "salesSequenceGenerator", sequenceName = "sales_sequence", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
     @Column(name = "title")
     private String title;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @OptimisticLock(excluded = true)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public Long getId() {
@@ -51,6 +61,32 @@ public class Sales implements Serializable {
         this.title = title;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Sales version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return this.changeSeq;
+    }
+
+    public Sales changeSeq(Long changeSeq) {
+        this.setChangeSeq(changeSeq);
+        return this;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -76,6 +112,8 @@ public class Sales implements Serializable {
         return "Sales{" +
             "id=" + getId() +
             ", title='" + getTitle() + "'" +
+            ", version=" + getVersion() +
+            ", changeSeq=" + getChangeSeq() +
             "}";
     }
 }
@@ -1,6 +1,9 @@
 package com.josecarlos.prueba.repository;
 
 import com.josecarlos.prueba.domain.Job;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +12,21 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job> {}
+public interface JobRepository extends JpaRepository<Job, Long>, JpaSpecificationExecutor<Job> {
+    /**
+     * Stream the distinct job titles, with the number of jobs having each of them.
+     *
+     * @return the pairs of title and count, to close after use.
+     */
+    @Query("select job.title, count(job) from Job job where job.title is not null group by job.title")
+    Stream<Object[]> streamTitleCounts();
+
+    /**
+     * Find the ids of the most recently created jobs.
+     *
+     * @param pageable the number of ids.
+     * @return the ids, the most recent first.
+     */
+    @Query("select job.id from Job job order by job.id desc")
+    List<Long> findRecentIds(Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.josecarlos.prueba.repository;
+
+import com.josecarlos.prueba.domain.OutboxEvent;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the OutboxEvent entity.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    /**
+     * Claim the oldest events which are not claimed by another transaction, with {@code SELECT ... FOR UPDATE SKIP
+     * LOCKED}, so that several nodes can relay the events in parallel. The lock timeout of -2 is Hibernate's
+     * {@code LockOptions.SKIP_LOCKED}; the databases without {@code SKIP LOCKED} wait for the locks instead.
+     *
+     * @param pageable the number of events to claim.
+     * @return the claimed events, locked until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select outboxEvent from OutboxEvent outboxEvent order by outboxEvent.id")
+    List<OutboxEvent> claimOldest(Pageable pageable);
+}
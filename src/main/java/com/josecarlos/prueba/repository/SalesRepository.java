@@ -1,6 +1,8 @@
 package com.josecarlos.prueba.repository;
 
 import com.josecarlos.prueba.domain.Sales;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +11,13 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface SalesRepository extends JpaRepository<Sales, Long>, JpaSpecificationExecutor<Sales> {}
+public interface SalesRepository extends JpaRepository<Sales, Long>, JpaSpecificationExecutor<Sales> {
+    /**
+     * Find the ids of the most recently created sales.
+     *
+     * @param pageable the number of ids.
+     * @return the ids, the most recent first.
+     */
+    @Query("select sales.id from Sales sales order by sales.id desc")
+    List<Long> findRecentIds(Pageable pageable);
+}
@@ -1,11 +1,13 @@
 package com.josecarlos.prueba.security.jwt;
 
+import com.josecarlos.prueba.config.ApplicationProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +35,14 @@ public class TokenProvider {
 
     private final long tokenValidityInMillisecondsForRememberMe;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * The authorities of each distinct {@code auth} claim, shared by all the tokens with this claim.
+     */
+    private final Map<String, List<GrantedAuthority>> authoritySets = new ConcurrentHashMap<>();
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         byte[] keyBytes;
         String secret = jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret();
         if (!ObjectUtils.isEmpty(secret)) {
@@ -52,6 +61,7 @@ public class TokenProvider {
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
+        this.verifiedTokenCache = new VerifiedTokenCache(applicationProperties.getTokenCache().getMaxSize());
     }
 
     public String createToken(Authentication authentication, boolean rememberMe) {
@@ -76,16 +86,33 @@ public class TokenProvider {
 
     public Authentication getAuthentication(String token) {
         Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        return toAuthentication(toPrincipal(claims), token);
+    }
 
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .filter(auth -> !auth.trim().isEmpty())
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    /**
+     * Validate the token and get its authentication in a single pass, the principals of the valid tokens being
+     * cached until the tokens expire.
+     *
+     * @param token the token.
+     * @return the authentication, or empty if the token is not valid.
+     */
+    public Optional<Authentication> authenticate(String token) {
+        User principal = verifiedTokenCache.get(token);
+        if (principal == null) {
+            Claims claims;
+            try {
+                claims = jwtParser.parseClaimsJws(token).getBody();
+            } catch (JwtException | IllegalArgumentException e) {
+                log.info("Invalid JWT token.");
+                log.trace("Invalid JWT token trace.", e);
+                return Optional.empty();
+            }
+            principal = toPrincipal(claims);
+            if (claims.getExpiration() != null) {
+                verifiedTokenCache.put(token, principal, claims.getExpiration().getTime());
+            }
+        }
+        return Optional.of(toAuthentication(principal, token));
     }
 
     public boolean validateToken(String authToken) {
@@ -98,4 +125,22 @@ public class TokenProvider {
         }
         return false;
     }
+
+    private User toPrincipal(Claims claims) {
+        List<GrantedAuthority> authorities = authoritySets.computeIfAbsent(
+            claims.get(AUTHORITIES_KEY).toString(),
+            auth ->
+                Arrays
+                    .stream(auth.split(","))
+                    .filter(authority -> !authority.trim().isEmpty())
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toUnmodifiableList())
+        );
+        return new User(claims.getSubject(), "", authorities);
+    }
+
+    private static Authentication toAuthentication(User principal, String token) {
+        // A new authentication for each request, as it is mutable
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
+    }
 }
@@ -0,0 +1,112 @@
+package com.josecarlos.prueba.security.jwt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Cache of the principals of the tokens whose signature was verified, until the tokens expire.
+ * <p>
+ * The tokens are keyed by their SHA-256 digest, so that the cache does not keep them. The size is bounded: once it
+ * is reached, the expired tokens are removed, then arbitrary ones if it is still reached.
+ */
+class VerifiedTokenCache {
+
+    /**
+     * A digest per thread, as getting a new one from the security providers costs more than computing the digest.
+     */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    });
+
+    private final int maxSize;
+
+    private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the principal of a verified token.
+     *
+     * @param token the token.
+     * @return the principal, or {@code null} if the token was not verified yet, or is expired.
+     */
+    User get(String token) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        ByteBuffer key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.principal;
+    }
+
+    /**
+     * Keep the principal of a verified token.
+     *
+     * @param token the token.
+     * @param principal the principal of the token.
+     * @param expiration the expiration time of the token, in milliseconds since the epoch.
+     */
+    void put(String token, User principal, long expiration) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        entries.put(digest(token), new Entry(principal, expiration));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        // Then make room for a tenth of the size, so that each insertion does not scan the whole cache
+        Iterator<ByteBuffer> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize - maxSize / 10 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class Entry {
+
+        private final User principal;
+
+        private final long expiration;
+
+        private Entry(User principal, long expiration) {
+            this.principal = principal;
+            this.expiration = expiration;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiration;
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.service.impl.CacheInvalidationLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.OptionalLong;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.metamodel.spi.MetamodelImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service tailing the log of the keys of the caches changed by the other nodes, every
+ * {@code application.cache.invalidation.poll-interval} milliseconds, to evict them from the caches of this node: the
+ * entities and collections of the second-level cache, the users of {@link UserCache}, and the results of the queries
+ * of {@link QueryResultCache}, which are all invalidated at once, along with the {@link MaterializedCounters} of their
+ * entity.
+ * <p>
+ * The records are read in batches of {@code application.cache.invalidation.batch-size}, from the last sequence read.
+ * As they may be committed out of the order of their sequences, the sequences skipped are read again at each poll,
+ * for {@code application.cache.invalidation.gap-window}, after which they are taken as rolled back. When the log was
+ * pruned beyond the last sequence read, all the caches are cleared. The ids of the entities are numbers.
+ * <p>
+ * The persistent disk tiers of {@code application.cache.disk-directory} keep entries across restarts, which the other
+ * nodes may change while this one is down. The last sequence read is saved in the directory at shutdown, along with
+ * the build, below the gaps still open, and the log is replayed from it at the next startup, before the caches are used. Without a saved
+ * sequence, after a crash, when the log was pruned beyond it, or when another build saved it, as the cached state
+ * may not match the mappings of this one, all the caches are cleared instead. Without a disk directory, the log is
+ * read from the last sequence written at startup.
+ * <p>
+ * The polls run on a thread of their own, so that the other scheduled tasks of the application never delay them.
+ */
+@Service
+public class CacheInvalidationPoller {
+
+    private static final String POSITION_FILE = "cache-invalidation-position.properties";
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationPoller.class);
+
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    private final ApplicationProperties.CacheInvalidation properties;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    private final UserCache userCache;
+
+    private final QueryResultCache queryResultCache;
+
+    private final SingleFlight singleFlight;
+
+    /**
+     * The counters maintained in memory, by the name of the cache of the query results of their entity.
+     */
+    private final Map<String, MaterializedCounters<?>> counters;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Timer lag;
+
+    private final Counter resyncs;
+
+    private final File positionFile;
+
+    private final String build;
+
+    private volatile long position = -1;
+
+    /**
+     * The sequences skipped by the reads, by the time they were first skipped.
+     */
+    private final NavigableMap<Long, Instant> gaps = new TreeMap<>();
+
+    private OptionalLong restored;
+
+    private volatile long backlog;
+
+    private final ScheduledExecutorService executor;
+
+    private boolean scheduled;
+
+    public CacheInvalidationPoller(
+        CacheInvalidationLog cacheInvalidationLog,
+        ApplicationProperties applicationProperties,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        UserCache userCache,
+        QueryResultCache queryResultCache,
+        SingleFlight singleFlight,
+        JobQueryService jobQueryService,
+        SalesQueryService salesQueryService,
+        MeterRegistry meterRegistry,
+        PlatformTransactionManager transactionManager,
+        ObjectProvider<BuildProperties> buildProperties
+    ) {
+        this.cacheInvalidationLog = cacheInvalidationLog;
+        this.properties = applicationProperties.getCache().getInvalidation();
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.userCache = userCache;
+        this.queryResultCache = queryResultCache;
+        this.singleFlight = singleFlight;
+        this.counters =
+            Map.of(
+                JobQueryService.JOB_QUERY_CACHE,
+                jobQueryService.getCounters(),
+                SalesQueryService.SALES_QUERY_CACHE,
+                salesQueryService.getCounters()
+            );
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        String diskDirectory = applicationProperties.getCache().getDiskDirectory();
+        this.positionFile = diskDirectory == null ? null : new File(diskDirectory, POSITION_FILE);
+        BuildProperties buildInfo = buildProperties.getIfAvailable();
+        // The time as well, as the version of the snapshots is the same for every build
+        this.build = buildInfo == null ? null : buildInfo.getVersion() + "@" + buildInfo.getTime();
+        this.lag =
+            Timer
+                .builder("cache.invalidation.lag")
+                .description("The time from the commit of a change on another node to its eviction from the caches of this node")
+                .register(meterRegistry);
+        this.resyncs =
+            Counter
+                .builder("cache.invalidation.resyncs")
+                .description("The number of times all the caches were cleared, the log being pruned before it was read")
+                .register(meterRegistry);
+        Gauge
+            .builder("cache.invalidation.backlog", this, poller -> poller.backlog)
+            .description("The number of records of the log left to read at the last poll")
+            .register(meterRegistry);
+        this.executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-invalidation-poller");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Start tailing the log, replaying the records written since the last shutdown, before the caches are used.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void start() {
+        if (position >= 0) {
+            return;
+        }
+        if (properties.isEnabled()) {
+            // When the schema is not created yet, started at the next poll
+            poll();
+            if (!scheduled) {
+                long interval = properties.getPollInterval().toMillis();
+                executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+                scheduled = true;
+            }
+        } else if (positionFile != null && restored == null && restored().isEmpty()) {
+            log.info("The persistent cache tiers were saved by another build, or not saved, clearing all the caches");
+            clearAll();
+        }
+    }
+
+    /**
+     * Stop tailing the log, saving the last sequence read with the persistent cache tiers, to replay the log from it at
+     * the next startup.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        executor.shutdown();
+        savePosition();
+    }
+
+    private void savePosition() {
+        // Without a build to tell it apart, the caches are cleared at the next startup anyway
+        if (positionFile == null || build == null) {
+            return;
+        }
+        Properties saved = new Properties();
+        saved.setProperty("build", build);
+        // The records of the gaps read again are only evicted once more
+        saved.setProperty("position", Long.toString(gaps.isEmpty() ? position : Math.min(position, gaps.firstKey() - 1)));
+        try (OutputStream out = new FileOutputStream(positionFile)) {
+            saved.store(out, "Last sequence of the cache invalidation log read");
+        } catch (IOException e) {
+            log.warn("Could not save the position of the cache invalidation log to {}: {}", positionFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Evict the keys changed by the other nodes since the last poll.
+     */
+    public synchronized void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            long[] sequences = transactionTemplate.execute(status -> cacheInvalidationLog.getSequences());
+            if (position < 0) {
+                resume(sequences);
+            }
+            if (position < sequences[1]) {
+                log.warn("Cache invalidation records were pruned before being read, clearing all the caches");
+                clearAll();
+                position = sequences[0];
+                gaps.clear();
+                resyncs.increment();
+                return;
+            }
+            pollGaps(sequences[1]);
+            List<CacheInvalidationLog.Invalidation> invalidations;
+            do {
+                long after = position;
+                invalidations = transactionTemplate.execute(status -> cacheInvalidationLog.findAfter(after, properties.getBatchSize()));
+                evict(invalidations);
+                Instant now = Instant.now();
+                for (CacheInvalidationLog.Invalidation invalidation : invalidations) {
+                    for (long skipped = position + 1; skipped < invalidation.getSeq(); skipped++) {
+                        gaps.put(skipped, now);
+                    }
+                    position = invalidation.getSeq();
+                }
+            } while (invalidations.size() == properties.getBatchSize());
+            backlog = Math.max(sequences[0] - position, 0);
+        } catch (RuntimeException e) {
+            log.warn("Could not read the cache invalidation log, retrying at the next interval: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Read again the sequences skipped, which were not committed yet, dropping those skipped for longer than
+     * {@code application.cache.invalidation.gap-window}, or pruned.
+     */
+    private void pollGaps(long purged) {
+        Instant expired = Instant.now().minus(properties.getGapWindow());
+        gaps.headMap(purged, true).clear();
+        gaps.values().removeIf(skipped -> skipped.isBefore(expired));
+        List<Long> open = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < open.size(); from += properties.getBatchSize()) {
+            List<Long> batch = open.subList(from, Math.min(from + properties.getBatchSize(), open.size()));
+            List<CacheInvalidationLog.Invalidation> invalidations = transactionTemplate.execute(status -> cacheInvalidationLog.findIn(batch));
+            evict(invalidations);
+            invalidations.forEach(invalidation -> gaps.remove(invalidation.getSeq()));
+        }
+    }
+
+    private void resume(long[] sequences) {
+        OptionalLong saved = restored();
+        if (saved.isPresent() && saved.getAsLong() >= sequences[1]) {
+            position = saved.getAsLong();
+            log.info("Replaying the cache invalidation log from {}, read up to it before the last shutdown", position);
+            return;
+        }
+        if (positionFile != null) {
+            log.info("The persistent cache tiers may hold entries changed since they were saved, clearing all the caches");
+            clearAll();
+        }
+        position = sequences[0];
+    }
+
+    /**
+     * Read the position saved at the last shutdown by the same build, once, deleting it so that it is not read again
+     * after a crash.
+     */
+    private OptionalLong restored() {
+        if (restored == null) {
+            restored = OptionalLong.empty();
+            if (positionFile != null && positionFile.isFile()) {
+                Properties saved = new Properties();
+                try (InputStream in = new FileInputStream(positionFile)) {
+                    saved.load(in);
+                    if (build != null && build.equals(saved.getProperty("build"))) {
+                        restored = OptionalLong.of(Long.parseLong(saved.getProperty("position")));
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    log.warn("Could not read the position of the cache invalidation log from {}: {}", positionFile, e.getMessage());
+                }
+                if (!positionFile.delete()) {
+                    log.warn("Could not delete {}", positionFile);
+                }
+            }
+        }
+        return restored;
+    }
+
+    private void evict(List<CacheInvalidationLog.Invalidation> invalidations) {
+        // Grouped by cache, a null key standing for the whole cache
+        Map<String, Set<String>> keys = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        for (CacheInvalidationLog.Invalidation invalidation : invalidations) {
+            if (cacheInvalidationLog.getNodeId().equals(invalidation.getNodeId())) {
+                continue;
+            }
+            keys.computeIfAbsent(invalidation.getCacheName(), name -> new HashSet<>()).add(invalidation.getKey());
+            lag.record(Duration.between(invalidation.getCreatedDate(), now));
+        }
+        keys.forEach(this::evict);
+    }
+
+    private void evict(String cacheName, Set<String> keys) {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        MetamodelImplementor metamodel = (MetamodelImplementor) sessionFactory.getMetamodel();
+        Cache cache = sessionFactory.getCache();
+        if (metamodel.entityPersisters().containsKey(cacheName)) {
+            if (keys.contains(null)) {
+                cache.evictEntityData(cacheName);
+            } else {
+                keys.forEach(id -> cache.evictEntityData(cacheName, Long.valueOf(id)));
+            }
+        } else if (metamodel.collectionPersisters().containsKey(cacheName)) {
+            if (keys.contains(null)) {
+                cache.evictCollectionData(cacheName);
+            } else {
+                keys.forEach(id -> cache.evictCollectionData(cacheName, Long.valueOf(id)));
+            }
+        } else if (userCache.handles(cacheName)) {
+            keys.forEach(key -> userCache.evict(cacheName, key));
+        } else {
+            queryResultCache.invalidate(cacheName);
+            singleFlight.invalidate(cacheName);
+            // The counters in memory only count the inserts and deletes of this node
+            MaterializedCounters<?> staleCounters = counters.get(cacheName);
+            if (staleCounters != null) {
+                staleCounters.invalidate();
+            }
+        }
+        Counter
+            .builder("cache.invalidation.evictions")
+            .tag("cache", cacheName)
+            .description("The number of keys evicted from the caches, as changed by another node")
+            .register(meterRegistry)
+            .increment(keys.size());
+    }
+
+    private void clearAll() {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            cacheManager.getCache(cacheName).clear();
+        }
+        counters.values().forEach(MaterializedCounters::invalidate);
+    }
+
+    /**
+     * @return the sequences skipped which are read again at each poll.
+     */
+    public synchronized Set<Long> getGaps() {
+        return Set.copyOf(gaps.keySet());
+    }
+
+    /**
+     * @return the sequence of the last record read, -1 until started.
+     */
+    public long getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,363 @@
+package com.josecarlos.prueba.service;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.service.impl.EntityMultiLoader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+import javax.annotation.PreDestroy;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service preloading the hot entries of the caches once the application is started, so that the first requests do
+ * not all miss: the {@code application.cache.warm-up.jobs} most recent jobs and {@code sales} most recent sales into
+ * the second-level cache, and the {@code users} most recently modified activated users, with their authorities, into
+ * the {@link UserCache} by login. The keys held by these caches at shutdown are saved in
+ * {@code application.cache.warm-up.key-file}, and preloaded as well at the next startup.
+ * <p>
+ * The entries are loaded in batches of {@code batch-size}, {@code parallelism} batches at a time, each batch in a
+ * read-only transaction of its own. The batches not loaded within {@code time-budget} are abandoned. The readiness
+ * probe is down until the warm-up is over, see {@link com.josecarlos.prueba.config.CacheWarmUpHealthIndicator}.
+ */
+@Service
+public class CacheWarmer {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        TIMED_OUT,
+        DISABLED,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final ApplicationProperties.CacheWarmUp properties;
+
+    private final JobRepository jobRepository;
+
+    private final SalesRepository salesRepository;
+
+    private final UserRepository userRepository;
+
+    private final UserCache userCache;
+
+    private final EntityMultiLoader entityMultiLoader;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger loadedBatches = new AtomicInteger();
+
+    private volatile int batches;
+
+    private volatile Status status = Status.PENDING;
+
+    private volatile Duration duration;
+
+    public CacheWarmer(
+        ApplicationProperties applicationProperties,
+        JobRepository jobRepository,
+        SalesRepository salesRepository,
+        UserRepository userRepository,
+        UserCache userCache,
+        EntityMultiLoader entityMultiLoader,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.properties = applicationProperties.getCache().getWarmUp();
+        this.jobRepository = jobRepository;
+        this.salesRepository = salesRepository;
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.entityMultiLoader = entityMultiLoader;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge
+            .builder("cache.warm.up.progress", this, CacheWarmer::getProgress)
+            .description("The part of the batches of the warm-up of the caches loaded")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Warm up the caches at startup, when enabled by {@code application.cache.warm-up.enabled}.
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!properties.isEnabled()) {
+            status = Status.DISABLED;
+            return;
+        }
+        warmUp();
+    }
+
+    /**
+     * Preload the hot entries of the caches, within the time budget.
+     *
+     * @return {@link Status#COMPLETED}, or {@link Status#TIMED_OUT} when batches were abandoned.
+     */
+    public Status warmUp() {
+        long start = System.nanoTime();
+        status = Status.RUNNING;
+        loadedBatches.set(0);
+        CapturedKeys captured = readKeys();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        Set<Long> jobIds = new LinkedHashSet<>(captured.getJobs());
+        Set<Long> salesIds = new LinkedHashSet<>(captured.getSales());
+        Set<String> logins = new LinkedHashSet<>(captured.getUsers());
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            if (properties.getJobs() > 0) {
+                jobIds.addAll(jobRepository.findRecentIds(PageRequest.of(0, properties.getJobs())));
+            }
+            if (properties.getSales() > 0) {
+                salesIds.addAll(salesRepository.findRecentIds(PageRequest.of(0, properties.getSales())));
+            }
+            if (properties.getUsers() > 0) {
+                logins.addAll(userRepository.findRecentlyModifiedActivatedLogins(PageRequest.of(0, properties.getUsers())));
+            }
+        });
+        addBatches(tasks, Job.class.getSimpleName(), jobIds, ids -> entityMultiLoader.findAllById(Job.class, toLongArrayList(ids)).size());
+        addBatches(tasks, Sales.class.getSimpleName(), salesIds, ids -> entityMultiLoader.findAllById(Sales.class, toLongArrayList(ids)).size());
+        addBatches(
+            tasks,
+            UserRepository.USERS_BY_LOGIN_CACHE,
+            logins,
+            batch -> (int) batch.stream().filter(login -> userCache.findOneWithAuthoritiesByLogin(login).isPresent()).count()
+        );
+        batches = tasks.size();
+
+        boolean timedOut = run(tasks, properties.getTimeBudget().toNanos() - (System.nanoTime() - start));
+        duration = Duration.ofNanos(System.nanoTime() - start);
+        status = timedOut ? Status.TIMED_OUT : Status.COMPLETED;
+        Timer
+            .builder("cache.warm.up.duration")
+            .tag("result", status.name().toLowerCase())
+            .description("The duration of the warm-up of the caches")
+            .register(meterRegistry)
+            .record(duration);
+        log.info("Caches warmed up in {} ms, {} of {} batches loaded", duration.toMillis(), loadedBatches.get(), batches);
+        return status;
+    }
+
+    private <K> void addBatches(List<Callable<Void>> tasks, String cache, Collection<K> keys, ToIntFunction<List<K>> loader) {
+        Counter entries = Counter
+            .builder("cache.warm.up.entries")
+            .tag("cache", cache)
+            .description("The number of entries loaded by the warm-up of the caches")
+            .register(meterRegistry);
+        List<K> keyList = new ArrayList<>(keys);
+        for (int from = 0; from < keyList.size(); from += properties.getBatchSize()) {
+            List<K> batch = keyList.subList(from, Math.min(from + properties.getBatchSize(), keyList.size()));
+            tasks.add(() -> {
+                Integer loaded = ReplicaRoutingDataSource.readFromPrimary(() ->
+                    transactionTemplate.execute(transactionStatus -> loader.applyAsInt(batch))
+                );
+                entries.increment(loaded);
+                loadedBatches.incrementAndGet();
+                return null;
+            });
+        }
+    }
+
+    private boolean run(List<Callable<Void>> tasks, long budgetNanos) {
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism(), new CustomizableThreadFactory("cache-warm-up-"));
+        try {
+            boolean timedOut = false;
+            for (Future<Void> future : executor.invokeAll(tasks, Math.max(budgetNanos, 0), TimeUnit.NANOSECONDS)) {
+                try {
+                    future.get();
+                } catch (CancellationException e) {
+                    timedOut = true;
+                } catch (ExecutionException e) {
+                    log.warn("Could not warm up a batch of the caches: {}", e.getCause().getMessage());
+                }
+            }
+            return timedOut;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Save the keys held by the caches to {@code application.cache.warm-up.key-file}, at most
+     * {@code max-captured-keys} per cache, to preload them at the next startup.
+     */
+    @PreDestroy
+    public void captureKeys() {
+        String keyFile = properties.getKeyFile();
+        if (keyFile == null) {
+            return;
+        }
+        CapturedKeys keys = new CapturedKeys();
+        keys.setJobs(getCachedIds(Job.class));
+        keys.setSales(getCachedIds(Sales.class));
+        List<String> logins = new ArrayList<>();
+        for (javax.cache.Cache.Entry<Object, Object> entry : cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)) {
+            if (logins.size() >= properties.getMaxCapturedKeys()) {
+                break;
+            }
+            logins.add((String) entry.getKey());
+        }
+        keys.setUsers(logins);
+        try {
+            objectMapper.writeValue(new File(keyFile), keys);
+            log.debug("Saved the keys of the caches to {}", keyFile);
+        } catch (IOException e) {
+            log.warn("Could not save the keys of the caches to {}: {}", keyFile, e.getMessage());
+        }
+    }
+
+    private List<Long> getCachedIds(Class<?> entityClass) {
+        EntityPersister persister = entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getMetamodel()
+            .entityPersister(entityClass);
+        List<Long> ids = new ArrayList<>();
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(entityClass.getName());
+        if (cache == null || !persister.canReadFromCache()) {
+            return ids;
+        }
+        for (javax.cache.Cache.Entry<Object, Object> entry : cache) {
+            if (ids.size() >= properties.getMaxCapturedKeys()) {
+                break;
+            }
+            ids.add((Long) persister.getCacheAccessStrategy().getCacheKeyId(entry.getKey()));
+        }
+        return ids;
+    }
+
+    private CapturedKeys readKeys() {
+        String keyFile = properties.getKeyFile();
+        if (keyFile == null || !new File(keyFile).isFile()) {
+            return new CapturedKeys();
+        }
+        try {
+            return objectMapper.readValue(new File(keyFile), CapturedKeys.class);
+        } catch (IOException e) {
+            log.warn("Could not read the keys of the caches from {}: {}", keyFile, e.getMessage());
+            return new CapturedKeys();
+        }
+    }
+
+    private static LongArrayList toLongArrayList(List<Long> ids) {
+        LongArrayList longIds = new LongArrayList(ids.size());
+        ids.forEach(longIds::add);
+        return longIds;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the part of the batches loaded, from 0 to 1.
+     */
+    public double getProgress() {
+        if (status == Status.COMPLETED || status == Status.DISABLED) {
+            return 1;
+        }
+        int total = batches;
+        return total == 0 ? 0 : (double) loadedBatches.get() / total;
+    }
+
+    /**
+     * @return the duration of the last warm-up, {@code null} until it is over.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * The keys held by the caches at shutdown.
+     */
+    static class CapturedKeys {
+
+        private List<Long> jobs = List.of();
+
+        private List<Long> sales = List.of();
+
+        private List<String> users = List.of();
+
+        public List<Long> getJobs() {
+            return jobs;
+        }
+
+        public void setJobs(List<Long> jobs) {
+            this.jobs = jobs;
+        }
+
+        public List<Long> getSales() {
+            return sales;
+        }
+
+        public void setSales(List<Long> sales) {
+            this.sales = sales;
+        }
+
+        public List<String> getUsers() {
+            return users;
+        }
+
+        public void setUsers(List<String> users) {
+            this.users = users;
+        }
+    }
+}
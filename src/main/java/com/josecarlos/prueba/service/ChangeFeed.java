@@ -0,0 +1,269 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feed of the committed changes of an entity, fanned out to subscribers which can resume from the last event they
+ * received.
+ * <p>
+ * The events are kept in a ring buffer of bounded capacity, where writers only store the event and signal the
+ * subscribers, so that they never wait for them. Each subscriber reads the buffer from its own cursor, on its own
+ * delivery thread, at its own pace. A subscriber which falls behind by more than the capacity, or which resumes
+ * from an event no longer in the buffer, is sent a {@link ChangeEventDTO.Type#RESYNC} event instead of the missed
+ * events, and continues from the latest event.
+ * <p>
+ * The event ids are made of the start time of the feed and of the sequence number of the event, so that the ids of
+ * a previous run of the application are never mistaken for ids of this one.
+ *
+ * @param <T> the type of the DTO of the entity.
+ */
+public class ChangeFeed<T> {
+
+    private final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    /**
+     * Receiver of the events of the feed.
+     *
+     * @param <T> the type of the DTO of the entity.
+     */
+    @FunctionalInterface
+    public interface Subscriber<T> {
+        /**
+         * Receive an event, on the delivery thread of the subscriber.
+         *
+         * @param event the event.
+         * @throws Exception if the event cannot be delivered, which cancels the subscription.
+         */
+        void onEvent(ChangeEventDTO<T> event) throws Exception;
+    }
+
+    /**
+     * Subscription to the feed.
+     */
+    public interface Subscription {
+        /**
+         * Stop receiving the events of the feed.
+         */
+        void cancel();
+    }
+
+    private final String name;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+
+    private final AtomicReferenceArray<Entry<T>> ring;
+
+    private final int mask;
+
+    private final int maxSubscribers;
+
+    private final Executor executor;
+
+    private final Map<FeedSubscription, Boolean> subscriptions = new ConcurrentHashMap<>();
+
+    private volatile long head;
+
+    /**
+     * Create a feed.
+     *
+     * @param name the name of the feed, used to name its delivery threads.
+     * @param capacity the number of events kept for the subscribers which fall behind or resume, rounded up to a
+     * power of two.
+     * @param maxSubscribers the maximum number of subscribers, each of them having its own delivery thread while
+     * events are delivered to it. The delivery threads are not bounded by it: a cancelled subscriber may still be
+     * receiving an event when a new one subscribes, and the writers must never fail to signal the subscribers.
+     */
+    public ChangeFeed(String name, int capacity, int maxSubscribers) {
+        int size = Integer.highestOneBit(Math.max(1, capacity) * 2 - 1);
+        this.name = name;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxSubscribers = maxSubscribers;
+        AtomicLong threads = new AtomicLong();
+        this.executor =
+            Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "change-feed-" + name + "-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Publish a change of an entity, once the current transaction, if any, is committed.
+     *
+     * @param type the type of the change.
+     * @param entityId the id of the changed entity.
+     * @param entity the entity, or {@code null} when it is deleted.
+     */
+    public void publish(ChangeEventDTO.Type type, Long entityId, T entity) {
+        TransactionUtil.afterCommit(() -> append(type, entityId, entity));
+    }
+
+    /**
+     * Publish that the entities must be read again, once the current transaction, if any, is committed, for the
+     * changes which are not published one by one.
+     */
+    public void resync() {
+        publish(ChangeEventDTO.Type.RESYNC, null, null);
+    }
+
+    /**
+     * Subscribe to the feed.
+     *
+     * @param lastEventId the id of the last event received by the subscriber, to receive the events following it,
+     * or {@code null} to only receive the events published from now on.
+     * @param subscriber the receiver of the events.
+     * @return the subscription.
+     * @throws IllegalStateException if the feed already has its maximum number of subscribers.
+     */
+    public synchronized Subscription subscribe(String lastEventId, Subscriber<T> subscriber) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new IllegalStateException("The " + name + " change feed has too many subscribers");
+        }
+        long next = head;
+        boolean resync = false;
+        if (lastEventId != null) {
+            long resumed = resumeAfter(lastEventId, next);
+            resync = resumed < 0;
+            next = resync ? next : resumed;
+        }
+        FeedSubscription subscription = new FeedSubscription(subscriber, next, resync);
+        subscriptions.put(subscription, Boolean.TRUE);
+        log.debug("Subscribed to the {} change feed after {}, {} subscribers", name, lastEventId, subscriptions.size());
+        subscription.signal();
+        return subscription;
+    }
+
+    /**
+     * Get the number of subscribers of the feed.
+     *
+     * @return the number of subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    private synchronized void append(ChangeEventDTO.Type type, Long entityId, T entity) {
+        long sequence = head;
+        ring.set((int) (sequence & mask), new Entry<>(sequence, new ChangeEventDTO<>(eventId(sequence), type, entityId, entity)));
+        head = sequence + 1;
+        for (FeedSubscription subscription : subscriptions.keySet()) {
+            subscription.signal();
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + ":" + sequence;
+    }
+
+    /**
+     * Get the sequence number of the event following the given event, if it is still in the buffer.
+     *
+     * @return the sequence number, or -1 if the event is not from this feed or is no longer in the buffer.
+     */
+    private long resumeAfter(String lastEventId, long head) {
+        int separator = lastEventId.lastIndexOf(':');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        long next;
+        try {
+            next = Long.parseLong(lastEventId.substring(separator + 1)) + 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return next <= head && next >= Math.max(0, head - ring.length()) ? next : -1;
+    }
+
+    private static final class Entry<T> {
+
+        private final long sequence;
+
+        private final ChangeEventDTO<T> event;
+
+        private Entry(long sequence, ChangeEventDTO<T> event) {
+            this.sequence = sequence;
+            this.event = event;
+        }
+    }
+
+    private final class FeedSubscription implements Subscription, Runnable {
+
+        private final Subscriber<T> subscriber;
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        private long cursor;
+
+        private boolean resync;
+
+        private volatile boolean cancelled;
+
+        private FeedSubscription(Subscriber<T> subscriber, long cursor, boolean resync) {
+            this.subscriber = subscriber;
+            this.cursor = cursor;
+            this.resync = resync;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            if (subscriptions.remove(this) != null) {
+                log.debug("Unsubscribed from the {} change feed, {} subscribers", name, subscriptions.size());
+            }
+        }
+
+        /**
+         * Schedule the delivery of the new events, unless it is already running, in which case it delivers them.
+         */
+        private void signal() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!deliver()) {
+                    return;
+                }
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean deliver() {
+            long last = head;
+            while ((resync || cursor < last) && !cancelled) {
+                ChangeEventDTO<T> event;
+                Entry<T> entry = resync || last - cursor > ring.length() ? null : ring.get((int) (cursor & mask));
+                if (entry == null || entry.sequence != cursor) {
+                    // Missed events, overwritten by the writers: continue from the latest event
+                    event = new ChangeEventDTO<>(eventId(last - 1), ChangeEventDTO.Type.RESYNC, null, null);
+                    cursor = last;
+                    resync = false;
+                } else {
+                    event = entry.event;
+                    cursor++;
+                }
+                try {
+                    subscriber.onEvent(event);
+                } catch (Exception e) {
+                    log.debug("Could not deliver the {} change feed event {}: {}", name, event.getId(), e.toString());
+                    cancel();
+                }
+            }
+            return !cancelled;
+        }
+    }
+}
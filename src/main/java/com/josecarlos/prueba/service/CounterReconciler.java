@@ -0,0 +1,48 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service periodically recounting the {@link MaterializedCounters} of the query services in the database, every
+ * {@code application.counters.reconcile-interval}, to correct the drift of the counts maintained in memory.
+ */
+@Service
+public class CounterReconciler {
+
+    private final Logger log = LoggerFactory.getLogger(CounterReconciler.class);
+
+    private final List<EntityQueryService<?>> queryServices;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CounterReconciler(List<EntityQueryService<?>> queryServices, PlatformTransactionManager transactionManager) {
+        this.queryServices = queryServices;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Recount all the counters, each one in its own transaction.
+     */
+    @Scheduled(
+        initialDelayString = "${application.counters.reconcile-interval:PT5M}",
+        fixedDelayString = "${application.counters.reconcile-interval:PT5M}"
+    )
+    public void reconcile() {
+        log.debug("Reconciling the materialized counters");
+        // From the primary database, as the counts corrected by a lagging replica would be wrong until the next reconciliation
+        ReplicaRoutingDataSource.readFromPrimary(() -> {
+            queryServices.forEach(queryService -> queryService.getCounters().reconcile(transactionTemplate));
+            return null;
+        });
+    }
+}
@@ -0,0 +1,163 @@
+package com.josecarlos.prueba.service;
+
+import java.beans.PropertyDescriptor;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.validation.DataBinder;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Utility class evaluating criteria in memory, on entities which have a property of the same name as each
+ * {@link Filter} of the criteria, with the same semantics as the specifications built by
+ * {@link tech.jhipster.service.QueryService}, a {@code null} property matching nothing but {@code specified=false}.
+ */
+public final class CriteriaMatcher {
+
+    private CriteriaMatcher() {}
+
+    /**
+     * Parse criteria written as request parameters, like {@code title.contains=foo&id.greaterThan=10}.
+     *
+     * @param parameters the request parameters.
+     * @param criteria the empty criteria to fill.
+     * @param <C> the type of the criteria.
+     * @return the filled criteria.
+     * @throws IllegalArgumentException if a parameter is not a filter of the criteria, or its value is not valid.
+     */
+    public static <C> C parse(String parameters, C criteria) {
+        MutablePropertyValues values = new MutablePropertyValues();
+        for (String parameter : parameters.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int separator = parameter.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid criteria parameter: " + parameter);
+            }
+            values.add(
+                URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8)
+            );
+        }
+        DataBinder binder = new DataBinder(criteria);
+        binder.setConversionService(DefaultConversionService.getSharedInstance());
+        binder.setIgnoreUnknownFields(false);
+        try {
+            binder.bind(values);
+        } catch (BeansException e) {
+            throw new IllegalArgumentException("Invalid criteria " + parameters + ": " + e.getMessage(), e);
+        }
+        if (binder.getBindingResult().hasErrors()) {
+            throw new IllegalArgumentException("Invalid criteria " + parameters + ": " + binder.getBindingResult().getAllErrors());
+        }
+        return criteria;
+    }
+
+    /**
+     * Check whether the criteria has at least one filter.
+     *
+     * @param criteria the criteria.
+     * @return {@code true} if some entities can be filtered out by the criteria.
+     */
+    public static boolean hasFilters(Object criteria) {
+        return !filterNames(PropertyAccessorFactory.forBeanPropertyAccess(criteria)).isEmpty();
+    }
+
+    /**
+     * Build the predicate matching the entities which match the criteria.
+     *
+     * @param criteria the criteria.
+     * @param entityClass the class of the entities.
+     * @param <E> the type of the entities.
+     * @return the predicate.
+     * @throws IllegalArgumentException if a filter is not on a property of the entities.
+     */
+    public static <E> Predicate<E> of(Object criteria, Class<E> entityClass) {
+        BeanWrapper criteriaWrapper = PropertyAccessorFactory.forBeanPropertyAccess(criteria);
+        Predicate<E> predicate = entity -> true;
+        for (String name : filterNames(criteriaWrapper)) {
+            Filter<?> filter = (Filter<?>) criteriaWrapper.getPropertyValue(name);
+            if (ReflectionUtils.findField(entityClass, name) == null) {
+                throw new IllegalArgumentException("No property " + name + " in " + entityClass.getSimpleName());
+            }
+            Predicate<Object> valuePredicate = matcher(filter);
+            predicate =
+                predicate.and(entity -> valuePredicate.test(PropertyAccessorFactory.forDirectFieldAccess(entity).getPropertyValue(name)));
+        }
+        return predicate;
+    }
+
+    private static List<String> filterNames(BeanWrapper criteriaWrapper) {
+        List<String> names = new ArrayList<>();
+        for (PropertyDescriptor descriptor : criteriaWrapper.getPropertyDescriptors()) {
+            if (
+                descriptor.getReadMethod() != null &&
+                Filter.class.isAssignableFrom(descriptor.getPropertyType()) &&
+                criteriaWrapper.getPropertyValue(descriptor.getName()) != null
+            ) {
+                names.add(descriptor.getName());
+            }
+        }
+        return names;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate<Object> matcher(Filter<?> filter) {
+        List<Predicate<Object>> conditions = new ArrayList<>();
+        if (filter.getEquals() != null) {
+            conditions.add(value -> filter.getEquals().equals(value));
+        }
+        if (filter.getNotEquals() != null) {
+            conditions.add(value -> value != null && !filter.getNotEquals().equals(value));
+        }
+        if (filter.getIn() != null) {
+            conditions.add(value -> filter.getIn().contains(value));
+        }
+        if (filter.getNotIn() != null) {
+            conditions.add(value -> value != null && !filter.getNotIn().contains(value));
+        }
+        if (filter.getSpecified() != null) {
+            boolean specified = filter.getSpecified();
+            conditions.add(value -> (value != null) == specified);
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            if (stringFilter.getContains() != null) {
+                String contains = stringFilter.getContains().toUpperCase(Locale.ROOT);
+                conditions.add(value -> value != null && value.toString().toUpperCase(Locale.ROOT).contains(contains));
+            }
+            if (stringFilter.getDoesNotContain() != null) {
+                String doesNotContain = stringFilter.getDoesNotContain().toUpperCase(Locale.ROOT);
+                conditions.add(value -> value != null && !value.toString().toUpperCase(Locale.ROOT).contains(doesNotContain));
+            }
+        }
+        if (filter instanceof RangeFilter) {
+            RangeFilter rangeFilter = (RangeFilter) filter;
+            addRange(conditions, rangeFilter.getGreaterThan(), comparison -> comparison > 0);
+            addRange(conditions, rangeFilter.getGreaterThanOrEqual(), comparison -> comparison >= 0);
+            addRange(conditions, rangeFilter.getLessThan(), comparison -> comparison < 0);
+            addRange(conditions, rangeFilter.getLessThanOrEqual(), comparison -> comparison <= 0);
+        }
+        return value -> conditions.stream().allMatch(condition -> condition.test(value));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static void addRange(List<Predicate<Object>> conditions, Comparable bound, IntPredicate comparison) {
+        if (bound != null) {
+            conditions.add(value -> value != null && comparison.test(((Comparable) value).compareTo(bound)));
+        }
+    }
+}
@@ -0,0 +1,475 @@
+package com.josecarlos.prueba.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.util.ClassUtils;
+import tech.jhipster.service.QueryService;
+
+/**
+ * Base service for executing complex queries which, on top of the {@link QueryService} features, runs
+ * its own JPA criteria queries over a {@link Specification}:
+ * <ul>
+ *     <li>keyset (seek) pagination: instead of an {@code OFFSET} and a {@code count(*)}, a keyset query filters
+ *     on the {@code (sortKey, id)} position of the last row already returned, so each slice costs the same
+ *     whatever its depth. The sort is limited to one property of the entity, the {@code id} being always used
+ *     as tie-breaker. {@code null} sort keys are expected to be sorted first in ascending order, as MySQL and
+ *     H2 do.</li>
+ *     <li>streaming: the matching entities are read through a forward-only cursor, and regularly detached from
+ *     the persistence context, so that any number of rows can be processed with a flat heap.</li>
+ *     <li>materialized counts: the total of a page is read from the {@link MaterializedCounters} when its criteria
+ *     is counted in memory, instead of running a {@code count(*)}.</li>
+ *     <li>sparse fieldsets: the pages and slices can be restricted to some fields of the entities, which are read
+ *     with tuple queries selecting only their columns, without hydrating the entities.</li>
+ * </ul>
+ *
+ * @param <ENTITY> the type of the entity which is queried.
+ */
+public abstract class EntityQueryService<ENTITY> extends QueryService<ENTITY> {
+
+    private static final String ID = "id";
+
+    protected final EntityManager entityManager;
+
+    private final Class<ENTITY> entityClass;
+
+    private final MaterializedCounters<ENTITY> counters;
+
+    protected EntityQueryService(EntityManager entityManager, Class<ENTITY> entityClass) {
+        this.entityManager = entityManager;
+        this.entityClass = entityClass;
+        this.counters = new MaterializedCounters<>(entityClass, this::count);
+    }
+
+    /**
+     * Get the counts of entities maintained in memory, which the writes to the entities must keep up to date.
+     *
+     * @return the counters of the entities.
+     */
+    public MaterializedCounters<ENTITY> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Return the page of entities matching the specification.
+     * <p>
+     * The exact total is read from the counter of the criteria if it is up to date, and only counted in the
+     * database otherwise, and when it cannot be deduced from the page itself. The approximate total is read
+     * from the counter of the criteria even if it is stale; without counter, it is a lower bound, one more than
+     * the entities up to this page if there are more.
+     *
+     * @param specification the specification the entities should match.
+     * @param criteria the criteria the specification was created from, identifying its counter.
+     * @param page the page to return.
+     * @param approximateCount whether the total of the page can be approximate.
+     * @return the matching entities.
+     */
+    protected Page<ENTITY> findPage(Specification<ENTITY> specification, Object criteria, Pageable page, boolean approximateCount) {
+        return findPage(
+            specification,
+            criteria,
+            page,
+            approximateCount,
+            (contentPage, extraRows) -> findContent(specification, contentPage, extraRows, entityClass, (query, root) -> query.select(root))
+        );
+    }
+
+    /**
+     * Return the page of the given fields of the entities matching the specification, with a tuple query which only
+     * selects their columns: the entities are neither hydrated nor added to the persistence context.
+     * The total is read or counted as by {@link #findPage(Specification, Object, Pageable, boolean)}.
+     *
+     * @param specification the specification the entities should match.
+     * @param criteria the criteria the specification was created from, identifying its counter.
+     * @param page the page to return.
+     * @param approximateCount whether the total of the page can be approximate.
+     * @param fields the names of the basic attributes of the entity to return.
+     * @return the values of the fields of the matching entities, by field name in the order of the fields.
+     * @throws IllegalArgumentException if a field is not a basic attribute of the entity.
+     */
+    protected Page<Map<String, Object>> findPage(
+        Specification<ENTITY> specification,
+        Object criteria,
+        Pageable page,
+        boolean approximateCount,
+        List<String> fields
+    ) {
+        List<SingularAttribute<? super ENTITY, ?>> attributes = getFieldAttributes(fields);
+        return findPage(
+                specification,
+                criteria,
+                page,
+                approximateCount,
+                (contentPage, extraRows) ->
+                    findContent(specification, contentPage, extraRows, Tuple.class, (query, root) -> query.multiselect(paths(root, attributes)))
+            )
+            .map(tuple -> toMap(tuple, attributes));
+    }
+
+    private <R> Page<R> findPage(
+        Specification<ENTITY> specification,
+        Object criteria,
+        Pageable page,
+        boolean approximateCount,
+        ContentQuery<R> contentQuery
+    ) {
+        if (!approximateCount) {
+            return PageableExecutionUtils.getPage(
+                contentQuery.find(page, 0),
+                page,
+                () -> counters.count(criteria, () -> count(specification))
+            );
+        }
+        OptionalLong count = counters.get(criteria, true);
+        if (count.isPresent() || page.isUnpaged()) {
+            List<R> content = contentQuery.find(page, 0);
+            return new PageImpl<>(content, page, count.orElse(page.getOffset() + content.size()));
+        }
+        List<R> content = contentQuery.find(page, 1);
+        boolean hasNext = content.size() > page.getPageSize();
+        if (hasNext) {
+            content = new ArrayList<>(content.subList(0, page.getPageSize()));
+        }
+        return new PageImpl<>(content, page, page.getOffset() + content.size() + (hasNext ? 1 : 0));
+    }
+
+    /**
+     * Count the entities matching the specification in the database.
+     *
+     * @param specification the specification the entities should match.
+     * @return the number of matching entities.
+     */
+    protected long count(Specification<ENTITY> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ENTITY> root = query.from(entityClass);
+        List<Predicate> predicates = toPredicates(specification, root, query, cb);
+        query.select(query.isDistinct() ? cb.countDistinct(root) : cb.count(root)).where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Return the slice of entities matching the specification which comes right after the cursor.
+     * No count query is executed: one more row than requested is read to know if there is a next slice.
+     *
+     * @param specification the specification the entities should match.
+     * @param after the position of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param page the size and sort of the slice, its page number is ignored.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the sort is not supported or does not match the cursor.
+     */
+    protected KeysetSlice<ENTITY> findSlice(Specification<ENTITY> specification, KeysetCursor after, Pageable page) {
+        return findSlice(specification, after, page, entityClass, (query, root) -> query.select(root), this::cursorOf);
+    }
+
+    /**
+     * Return the slice of the given fields of the entities matching the specification which comes right after the
+     * cursor, with a tuple query which only selects their columns, and those of the cursor.
+     *
+     * @param specification the specification the entities should match.
+     * @param after the position of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param page the size and sort of the slice, its page number is ignored.
+     * @param fields the names of the basic attributes of the entity to return.
+     * @return the values of the fields of the matching entities, by field name in the order of the fields.
+     * @throws IllegalArgumentException if the sort is not supported or does not match the cursor, or if a field is not
+     * a basic attribute of the entity.
+     */
+    protected KeysetSlice<Map<String, Object>> findSlice(
+        Specification<ENTITY> specification,
+        KeysetCursor after,
+        Pageable page,
+        List<String> fields
+    ) {
+        List<SingularAttribute<? super ENTITY, ?>> attributes = getFieldAttributes(fields);
+        // The cursor of the next slice is read from the selected columns
+        Set<SingularAttribute<? super ENTITY, ?>> selected = new LinkedHashSet<>(attributes);
+        selected.add(getSortAttribute(page.getSort()));
+        selected.add(getIdAttribute());
+        return findSlice(
+                specification,
+                after,
+                page,
+                Tuple.class,
+                (query, root) -> query.multiselect(paths(root, selected)),
+                (tuple, sortAttribute) ->
+                    new KeysetCursor(sortAttribute.getName(), tuple.get(sortAttribute.getName()), ((Number) tuple.get(ID)).longValue())
+            )
+            .mapContent(tuple -> toMap(tuple, attributes));
+    }
+
+    private <R> KeysetSlice<R> findSlice(
+        Specification<ENTITY> specification,
+        KeysetCursor after,
+        Pageable page,
+        Class<R> resultType,
+        BiConsumer<CriteriaQuery<R>, Root<ENTITY>> selection,
+        BiFunction<R, SingularAttribute<? super ENTITY, ?>, KeysetCursor> cursorOf
+    ) {
+        SingularAttribute<? super ENTITY, ?> sortAttribute = getSortAttribute(page.getSort());
+        Sort.Direction direction = page.getSort().stream().findFirst().map(Sort.Order::getDirection).orElse(Sort.Direction.ASC);
+        if (after != null) {
+            checkCursor(after, sortAttribute);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultType);
+        Root<ENTITY> root = query.from(entityClass);
+        List<Predicate> predicates = toPredicates(specification, root, query, cb);
+        if (after != null) {
+            predicates.add(seekPredicate(cb, root, sortAttribute, direction, after));
+        }
+        selection.accept(query, root);
+        query.where(predicates.toArray(new Predicate[0])).orderBy(orders(cb, root, sortAttribute, direction));
+
+        int size = page.getPageSize();
+        List<R> rows = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        KeysetCursor next = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            next = cursorOf.apply(rows.get(size - 1), sortAttribute);
+        }
+        return new KeysetSlice<>(rows, PageRequest.of(0, size, Sort.by(direction, sortAttribute.getName())), next);
+    }
+
+    /**
+     * Apply the action to every entity matching the specification, read through a forward-only cursor.
+     * <p>
+     * The rows are fetched from the database {@code fetchSize} at a time, bypassing the second-level cache, and the
+     * persistence context is cleared every {@code fetchSize} rows: the action must not keep references to the entities.
+     * This must run within a transaction, which stays open until all the rows have been processed.
+     *
+     * @param specification the specification the entities should match.
+     * @param sort the order in which the entities are processed, by {@code id} if unsorted.
+     * @param fetchSize the number of rows fetched at once, and detached at once.
+     * @param action the action to apply to each entity.
+     */
+    protected void forEach(Specification<ENTITY> specification, Sort sort, int fetchSize, Consumer<? super ENTITY> action) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ENTITY> query = cb.createQuery(entityClass);
+        Root<ENTITY> root = query.from(entityClass);
+        List<Predicate> predicates = toPredicates(specification, root, query, cb);
+        query
+            .select(root)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(QueryUtils.toOrders(sort.isSorted() ? sort : Sort.by(ID), root, cb));
+
+        TypedQuery<ENTITY> typedQuery = entityManager
+            .createQuery(query)
+            .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(QueryHints.HINT_READONLY, true)
+            .setHint(QueryHints.HINT_CACHE_MODE, CacheMode.IGNORE);
+        try (Stream<ENTITY> rows = typedQuery.getResultStream()) {
+            Iterator<ENTITY> iterator = rows.iterator();
+            long count = 0;
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    private <R> List<R> findContent(
+        Specification<ENTITY> specification,
+        Pageable page,
+        int extraRows,
+        Class<R> resultType,
+        BiConsumer<CriteriaQuery<R>, Root<ENTITY>> selection
+    ) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultType);
+        Root<ENTITY> root = query.from(entityClass);
+        List<Predicate> predicates = toPredicates(specification, root, query, cb);
+        selection.accept(query, root);
+        query.where(predicates.toArray(new Predicate[0]));
+        if (page.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(page.getSort(), root, cb));
+        }
+        TypedQuery<R> typedQuery = entityManager.createQuery(query);
+        if (page.isPaged()) {
+            typedQuery.setFirstResult((int) page.getOffset()).setMaxResults(page.getPageSize() + extraRows);
+        }
+        return typedQuery.getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SingularAttribute<? super ENTITY, ?>> getFieldAttributes(List<String> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("No field requested");
+        }
+        EntityType<ENTITY> entityType = entityManager.getMetamodel().entity(entityClass);
+        Set<SingularAttribute<? super ENTITY, ?>> attributes = new LinkedHashSet<>();
+        for (String field : fields) {
+            Attribute<? super ENTITY, ?> attribute;
+            try {
+                attribute = entityType.getAttribute(field);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field: " + field, e);
+            }
+            if (!(attribute instanceof SingularAttribute) || attribute.isAssociation()) {
+                throw new IllegalArgumentException("Unsupported field: " + field);
+            }
+            attributes.add((SingularAttribute<? super ENTITY, ?>) attribute);
+        }
+        return new ArrayList<>(attributes);
+    }
+
+    private SingularAttribute<? super ENTITY, ?> getIdAttribute() {
+        EntityType<ENTITY> entityType = entityManager.getMetamodel().entity(entityClass);
+        return entityType.getId(entityType.getIdType().getJavaType());
+    }
+
+    private static List<Selection<?>> paths(Root<?> root, Collection<? extends SingularAttribute<?, ?>> attributes) {
+        return attributes.stream().map(attribute -> root.get(attribute.getName()).alias(attribute.getName())).collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, List<? extends SingularAttribute<?, ?>> attributes) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (SingularAttribute<?, ?> attribute : attributes) {
+            values.put(attribute.getName(), tuple.get(attribute.getName()));
+        }
+        return values;
+    }
+
+    private List<Predicate> toPredicates(
+        Specification<ENTITY> specification,
+        Root<ENTITY> root,
+        CriteriaQuery<?> query,
+        CriteriaBuilder cb
+    ) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (specification != null) {
+            Predicate predicate = specification.toPredicate(root, query, cb);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        return predicates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private SingularAttribute<? super ENTITY, ?> getSortAttribute(Sort sort) {
+        EntityType<ENTITY> entityType = entityManager.getMetamodel().entity(entityClass);
+        List<Sort.Order> orders = sort.toList();
+        String property = orders.isEmpty() ? ID : orders.get(0).getProperty();
+        if (orders.stream().skip(1).anyMatch(order -> !ID.equals(order.getProperty()))) {
+            throw new IllegalArgumentException("Keyset pagination supports a single sort property");
+        }
+        Attribute<? super ENTITY, ?> attribute;
+        try {
+            attribute = entityType.getAttribute(property);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort property: " + property, e);
+        }
+        if (!(attribute instanceof SingularAttribute) || attribute.isAssociation() || !isSupportedType(attribute.getJavaType())) {
+            throw new IllegalArgumentException("Unsupported sort property for keyset pagination: " + property);
+        }
+        return (SingularAttribute<? super ENTITY, ?>) attribute;
+    }
+
+    private static boolean isSupportedType(Class<?> type) {
+        Class<?> boxed = ClassUtils.resolvePrimitiveIfNecessary(type);
+        return String.class.equals(boxed) || Long.class.equals(boxed) || Integer.class.equals(boxed);
+    }
+
+    private static void checkCursor(KeysetCursor cursor, SingularAttribute<?, ?> sortAttribute) {
+        if (!sortAttribute.getName().equals(cursor.getProperty())) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+        Object value = cursor.getValue();
+        if (value != null && !ClassUtils.resolvePrimitiveIfNecessary(sortAttribute.getJavaType()).isInstance(value)) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort");
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate seekPredicate(
+        CriteriaBuilder cb,
+        Root<ENTITY> root,
+        SingularAttribute<? super ENTITY, ?> sortAttribute,
+        Sort.Direction direction,
+        KeysetCursor after
+    ) {
+        boolean ascending = direction.isAscending();
+        Path<Long> id = root.get(ID);
+        Predicate idAfter = ascending ? cb.greaterThan(id, after.getId()) : cb.lessThan(id, after.getId());
+        if (ID.equals(sortAttribute.getName())) {
+            return idAfter;
+        }
+        Path<Comparable> key = root.get(sortAttribute.getName());
+        Comparable value = (Comparable) after.getValue();
+        if (value == null) {
+            // nulls come first in ascending order, and last in descending order
+            return ascending ? cb.or(cb.isNotNull(key), cb.and(cb.isNull(key), idAfter)) : cb.and(cb.isNull(key), idAfter);
+        }
+        Predicate keyAfter = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+        Predicate sameKey = cb.and(cb.equal(key, value), idAfter);
+        return ascending ? cb.or(keyAfter, sameKey) : cb.or(keyAfter, sameKey, cb.isNull(key));
+    }
+
+    private List<Order> orders(
+        CriteriaBuilder cb,
+        Root<ENTITY> root,
+        SingularAttribute<? super ENTITY, ?> sortAttribute,
+        Sort.Direction direction
+    ) {
+        List<Order> orders = new ArrayList<>();
+        if (!ID.equals(sortAttribute.getName())) {
+            Path<?> key = root.get(sortAttribute.getName());
+            orders.add(direction.isAscending() ? cb.asc(key) : cb.desc(key));
+        }
+        Path<?> id = root.get(ID);
+        orders.add(direction.isAscending() ? cb.asc(id) : cb.desc(id));
+        return orders;
+    }
+
+    private KeysetCursor cursorOf(ENTITY entity, SingularAttribute<? super ENTITY, ?> sortAttribute) {
+        Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        Object value = PropertyAccessorFactory.forDirectFieldAccess(entity).getPropertyValue(sortAttribute.getName());
+        return new KeysetCursor(sortAttribute.getName(), value, ((Number) id).longValue());
+    }
+
+    /**
+     * A query of the content of a page.
+     */
+    @FunctionalInterface
+    private interface ContentQuery<R> {
+        List<R> find(Pageable page, int extraRows);
+    }
+}
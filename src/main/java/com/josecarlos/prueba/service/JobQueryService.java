@@ -1,5 +1,6 @@
 package com.josecarlos.prueba.service;
 
+import com.josecarlos.prueba.config.ApplicationProperties;
 import com.josecarlos.prueba.domain.*; // for static metamodels
 import com.josecarlos.prueba.domain.Job;
 import com.josecarlos.prueba.repository.JobRepository;
@@ -7,25 +8,32 @@ import com.josecarlos.prueba.service.criteria.JobCriteria;
 import com.josecarlos.prueba.service.dto.JobDTO;
 import com.josecarlos.prueba.service.mapper.JobMapper;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.persistence.EntityManager;
 import javax.persistence.criteria.JoinType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link Job} entities in the database.
  * The main input is a {@link JobCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link JobDTO} or a {@link Page} of {@link JobDTO} which fulfills the criteria.
+ * It returns a {@link List} of {@link JobDTO}, a {@link Page} of {@link JobDTO} or a {@link KeysetSlice} of {@link JobDTO}
+ * which fulfills the criteria.
  */
 @Service
 @Transactional(readOnly = true)
-public class JobQueryService extends QueryService<Job> {
+public class JobQueryService extends EntityQueryService<Job> {
+
+    public static final String JOB_QUERY_CACHE = "jobQueryResults";
 
     private final Logger log = LoggerFactory.getLogger(JobQueryService.class);
 
@@ -33,9 +41,31 @@ public class JobQueryService extends QueryService<Job> {
 
     private final JobMapper jobMapper;
 
-    public JobQueryService(JobRepository jobRepository, JobMapper jobMapper) {
+    private final ApplicationProperties applicationProperties;
+
+    private final QueryResultCache queryResultCache;
+
+    private final SingleFlight singleFlight;
+
+    public JobQueryService(
+        JobRepository jobRepository,
+        JobMapper jobMapper,
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        QueryResultCache queryResultCache,
+        SingleFlight singleFlight
+    ) {
+        super(entityManager, Job.class);
         this.jobRepository = jobRepository;
         this.jobMapper = jobMapper;
+        this.applicationProperties = applicationProperties;
+        this.queryResultCache = queryResultCache;
+        this.singleFlight = singleFlight;
+        getCounters().register(new JobCriteria(), createSpecification(null));
+        for (String hotCriteria : applicationProperties.getCounters().getHotCriteria().getOrDefault("job", List.of())) {
+            JobCriteria criteria = CriteriaMatcher.parse(hotCriteria, new JobCriteria());
+            getCounters().register(criteria, createSpecification(criteria));
+        }
     }
 
     /**
@@ -51,28 +81,134 @@ public class JobQueryService extends QueryService<Job> {
     }
 
     /**
-     * Return a {@link Page} of {@link JobDTO} which matches the criteria from the database.
+     * Return a {@link Page} of {@link JobDTO} which matches the criteria from the database,
+     * or from the {@link #JOB_QUERY_CACHE} cache.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
      */
     @Transactional(readOnly = true)
     public Page<JobDTO> findByCriteria(JobCriteria criteria, Pageable page) {
-        log.debug("find by criteria : {}, page: {}", criteria, page);
+        return findByCriteria(criteria, page, false);
+    }
+
+    /**
+     * Return a {@link Page} of {@link JobDTO} which matches the criteria from the database,
+     * or from the {@link #JOB_QUERY_CACHE} cache, its total being read from the materialized counters when possible.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param page The page, which should be returned.
+     * @param approximateCount Whether the total of the page can be approximate, to never count in the database.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public Page<JobDTO> findByCriteria(JobCriteria criteria, Pageable page, boolean approximateCount) {
+        log.debug("find by criteria : {}, page: {}, approximate count: {}", criteria, page, approximateCount);
+        return queryResultCache.get(
+            JOB_QUERY_CACHE,
+            (approximateCount ? "approximate-page:" : "page:") + criteria + ":" + page,
+            () -> {
+                final Specification<Job> specification = createSpecification(criteria);
+                return findPage(specification, criteria, page, approximateCount).map(jobMapper::toDto);
+            }
+        );
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of {@link JobDTO} which matches the criteria from the database, seeking
+     * after the given cursor instead of using an offset, and without counting the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The cursor of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param page The size and the sort of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<JobDTO> findByCriteria(JobCriteria criteria, KeysetCursor after, Pageable page) {
+        log.debug("find by criteria : {}, after: {}, page: {}", criteria, after, page);
         final Specification<Job> specification = createSpecification(criteria);
-        return jobRepository.findAll(specification, page).map(jobMapper::toDto);
+        return findSlice(specification, after, page).mapContent(jobMapper::toDto);
     }
 
     /**
-     * Return the number of matching entities in the database.
+     * Return a {@link Page} of the given fields of the {@link JobDTO} which match the criteria from the database,
+     * or from the {@link #JOB_QUERY_CACHE} cache, without hydrating the entities.
      * @param criteria The object which holds all the filters, which the entities should match.
-     * @return the number of matching entities.
+     * @param fields The names of the fields of {@link JobDTO} to return.
+     * @param page The page, which should be returned.
+     * @param approximateCount Whether the total of the page can be approximate, to never count in the database.
+     * @return the values of the fields of the matching entities, by field name.
+     * @throws IllegalArgumentException if a field is unknown.
      */
     @Transactional(readOnly = true)
+    public Page<Map<String, Object>> findByCriteria(JobCriteria criteria, List<String> fields, Pageable page, boolean approximateCount) {
+        log.debug("find by criteria : {}, fields: {}, page: {}, approximate count: {}", criteria, fields, page, approximateCount);
+        return queryResultCache.get(
+            JOB_QUERY_CACHE,
+            (approximateCount ? "approximate-page:" : "page:") + fields + ":" + criteria + ":" + page,
+            () -> {
+                final Specification<Job> specification = createSpecification(criteria);
+                return findPage(specification, criteria, page, approximateCount, fields);
+            }
+        );
+    }
+
+    /**
+     * Return a {@link KeysetSlice} of the given fields of the {@link JobDTO} which match the criteria from the database,
+     * seeking after the given cursor, without counting nor hydrating the matching entities.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields of {@link JobDTO} to return.
+     * @param after The cursor of the last entity of the previous slice, or {@code null} for the first slice.
+     * @param page The size and the sort of the slice.
+     * @return the values of the fields of the matching entities, by field name.
+     * @throws IllegalArgumentException if a field is unknown.
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Map<String, Object>> findByCriteria(JobCriteria criteria, List<String> fields, KeysetCursor after, Pageable page) {
+        log.debug("find by criteria : {}, fields: {}, after: {}, page: {}", criteria, fields, after, page);
+        final Specification<Job> specification = createSpecification(criteria);
+        return findSlice(specification, after, page, fields);
+    }
+
+    /**
+     * Stream the {@link JobDTO} which match the criteria from the database to the given action, without
+     * loading them all in memory.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param sort The order in which the entities are streamed.
+     * @param action The action applied to each matching entity.
+     */
+    @Transactional(readOnly = true)
+    public void streamByCriteria(JobCriteria criteria, Sort sort, Consumer<? super JobDTO> action) {
+        log.debug("stream by criteria : {}, sort: {}", criteria, sort);
+        final Specification<Job> specification = createSpecification(criteria);
+        forEach(specification, sort, applicationProperties.getExport().getFetchSize(), job -> action.accept(jobMapper.toDto(job)));
+    }
+
+    /**
+     * Return the number of matching entities from the materialized counters, or from the {@link #JOB_QUERY_CACHE} cache,
+     * or from the database. The concurrent identical counts called outside of a transaction share a single count.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @return the number of matching entities.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public long countByCriteria(JobCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
-        final Specification<Job> specification = createSpecification(criteria);
-        return jobRepository.count(specification);
+        return singleFlight.execute(
+            JOB_QUERY_CACHE,
+            "count:" + criteria,
+            () ->
+                getCounters()
+                    .count(
+                        criteria,
+                        () ->
+                            queryResultCache.get(
+                                JOB_QUERY_CACHE,
+                                "count:" + criteria,
+                                () -> {
+                                    final Specification<Job> specification = createSpecification(criteria);
+                                    return jobRepository.count(specification);
+                                }
+                            )
+                    )
+        );
     }
 
     /**
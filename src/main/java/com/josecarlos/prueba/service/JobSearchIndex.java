@@ -0,0 +1,505 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.service.criteria.JobCriteria;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.impl.ChangeLog;
+import com.josecarlos.prueba.service.mapper.JobMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service managing the full-text index of the {@link com.josecarlos.prueba.domain.Job} titles and descriptions,
+ * an embedded Lucene index stored in {@code application.search.index-directory}, or in memory when not set.
+ * <p>
+ * The changes of the node are searchable as soon as they are indexed, and committed to disk every
+ * {@code application.search.commit-interval}. The changes of all the nodes are also read from the change sequence of
+ * the jobs every {@code application.search.catch-up-interval}, from the last sequence read, which is committed with
+ * the index: this indexes the writes of the other nodes, and at startup the writes made while the node was down or
+ * lost on a crash. When the tombstones of deleted jobs were purged beyond the last sequence read, the index is
+ * rebuilt from the table instead, as it is when empty or when requested by
+ * {@code application.search.rebuild-on-startup}. The catch-ups and rebuilds run on a thread of their own.
+ * <p>
+ * A rebuild indexes the jobs over the current ones, then removes the jobs it did not index, and only then publishes
+ * the index to the searches and commits it: a failed rebuild leaves the previous index. The writes committed during
+ * the rebuild are applied again after it, as the rebuild may have read the jobs before them. The results are ranked
+ * with BM25, the title weighing more than the description.
+ */
+@Service
+public class JobSearchIndex {
+
+    private static final String ID = "id";
+
+    private static final String TITLE = "title";
+
+    private static final String DESCRIPTION = "description";
+
+    /**
+     * Field of the generation of the rebuild which last indexed the job, or during which it was last indexed.
+     */
+    private static final String GENERATION = "generation";
+
+    /**
+     * Key of the commit data holding the last change sequence read.
+     */
+    private static final String CHANGE_SEQ = "changeSeq";
+
+    private static final int CATCH_UP_BATCH_SIZE = 1000;
+
+    private static final float TITLE_BOOST = 2f;
+
+    private final Logger log = LoggerFactory.getLogger(JobSearchIndex.class);
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter writer;
+
+    private final SearcherManager searcherManager;
+
+    private final ApplicationProperties.Search properties;
+
+    private final JobQueryService jobQueryService;
+
+    private final JobMapper jobMapper;
+
+    private final ChangeLog changeLog;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Guards the changes of the generation and of the writes committed during a rebuild.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * The generation of the last rebuild, indexed with every job.
+     */
+    private long generation;
+
+    /**
+     * The jobs written by the node while a rebuild runs, {@code null} for the deleted ones, and {@code null} outside of
+     * the rebuilds.
+     */
+    private Map<Long, Document> rebuildWrites;
+
+    /**
+     * The change sequence of the jobs up to which all the changes are indexed, -1 if unknown.
+     */
+    private volatile long changeSeq;
+
+    public JobSearchIndex(
+        ApplicationProperties applicationProperties,
+        JobQueryService jobQueryService,
+        JobMapper jobMapper,
+        ChangeLog changeLog,
+        PlatformTransactionManager transactionManager
+    ) throws IOException {
+        this.properties = applicationProperties.getSearch();
+        this.jobQueryService = jobQueryService;
+        this.jobMapper = jobMapper;
+        this.changeLog = changeLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        String indexDirectory = applicationProperties.getSearch().getIndexDirectory();
+        if (indexDirectory == null || indexDirectory.isEmpty()) {
+            this.directory = new ByteBuffersDirectory();
+        } else {
+            this.directory = FSDirectory.open(Paths.get(indexDirectory));
+        }
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        long committedChangeSeq = -1;
+        if (writer.getLiveCommitData() != null) {
+            for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+                if (CHANGE_SEQ.equals(entry.getKey())) {
+                    committedChangeSeq = Long.parseLong(entry.getValue());
+                }
+            }
+        }
+        this.changeSeq = committedChangeSeq;
+        this.executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "job-search-index");
+                thread.setDaemon(true);
+                return thread;
+            });
+        log.debug("Job search index opened in {}, with {} jobs", indexDirectory == null ? "memory" : indexDirectory, writer.getDocStats().numDocs);
+    }
+
+    /**
+     * Once the application is ready, rebuild the index when it is empty, when requested by
+     * {@code application.search.rebuild-on-startup} or when the last change sequence read is unknown, or else catch
+     * up with the changes since then; then catch up and commit periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> {
+            try {
+                if (properties.isRebuildOnStartup() || isEmpty() || changeSeq < 0) {
+                    rebuild();
+                } else {
+                    catchUp();
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not bring the Job search index up to date at startup: {}", e.getMessage());
+            }
+        });
+        long interval = properties.getCatchUpInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::catchUpQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        long commitInterval = properties.getCommitInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::commit, commitInterval, commitInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check whether the index has no jobs, for example when it was just created.
+     *
+     * @return {@code true} if the index is empty.
+     */
+    public boolean isEmpty() {
+        return writer.getDocStats().numDocs == 0;
+    }
+
+    /**
+     * Index the job once the current transaction, if any, is committed, replacing its previous version.
+     *
+     * @param jobDTO the job to index.
+     */
+    public void index(JobDTO jobDTO) {
+        index(List.of(jobDTO));
+    }
+
+    /**
+     * Index the jobs once the current transaction, if any, is committed, replacing their previous versions.
+     * The index is refreshed once for all the jobs.
+     *
+     * @param jobDTOs the jobs to index.
+     */
+    public void index(List<JobDTO> jobDTOs) {
+        List<Document> documents = jobDTOs.stream().map(JobSearchIndex::toDocument).collect(Collectors.toList());
+        TransactionUtil.afterCommit(() -> {
+            try {
+                write(documents, List.of());
+            } catch (IOException e) {
+                log.error("Could not index {} Jobs: {}", documents.size(), e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Remove the job from the index once the current transaction, if any, is committed.
+     *
+     * @param id the id of the job.
+     */
+    public void delete(Long id) {
+        TransactionUtil.afterCommit(() -> {
+            try {
+                write(List.of(), List.of(id));
+            } catch (IOException e) {
+                log.error("Could not remove Job {} from the index: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Replace the whole index with the jobs of the table, in a transaction of its own.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long readChangeSeq = ReplicaRoutingDataSource.readFromPrimary(() -> transactionTemplate.execute(status -> changeLog.getCurrent(Job.class)));
+        long rebuilt;
+        synchronized (lock) {
+            rebuilt = generation = Math.max(System.currentTimeMillis(), generation + 1);
+            rebuildWrites = new LinkedHashMap<>();
+        }
+        boolean complete = false;
+        try {
+            ReplicaRoutingDataSource.readFromPrimary(() -> {
+                jobQueryService.streamByCriteria(
+                    new JobCriteria(),
+                    Sort.by("id"),
+                    jobDTO -> {
+                        Document document = toDocument(jobDTO);
+                        document.add(new LongPoint(GENERATION, rebuilt));
+                        try {
+                            writer.updateDocument(new Term(ID, document.get(ID)), document);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                );
+                return null;
+            });
+            complete = true;
+        } finally {
+            synchronized (lock) {
+                try {
+                    // The writes of the node win over the rebuild, which may have read the jobs before them
+                    for (Map.Entry<Long, Document> write : rebuildWrites.entrySet()) {
+                        Term id = new Term(ID, write.getKey().toString());
+                        if (write.getValue() == null) {
+                            writer.deleteDocuments(id);
+                        } else {
+                            writer.updateDocument(id, write.getValue());
+                        }
+                    }
+                    if (complete) {
+                        writer.deleteDocuments(
+                            new BooleanQuery.Builder()
+                                .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                                .add(LongPoint.newExactQuery(GENERATION, rebuilt), BooleanClause.Occur.MUST_NOT)
+                                .build()
+                        );
+                        setChangeSeq(readChangeSeq);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    rebuildWrites = null;
+                }
+            }
+        }
+        try {
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Job search index rebuilt with {} jobs in {} ms", writer.getDocStats().numDocs, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Index the changes of the jobs, on every node, since the last change sequence read, or rebuild the index when
+     * the tombstones of the deleted jobs were purged since then.
+     */
+    public synchronized void catchUp() {
+        if (changeSeq < 0) {
+            rebuild();
+            return;
+        }
+        ChangesDTO<JobDTO> changes;
+        do {
+            long since = changeSeq;
+            changes =
+                ReplicaRoutingDataSource.readFromPrimary(() ->
+                    transactionTemplate.execute(status -> changeLog.findChanges(Job.class, since, CATCH_UP_BATCH_SIZE, jobMapper::toDto))
+                );
+            if (changes.isResync()) {
+                log.info("Job tombstones were purged before being indexed, rebuilding the Job search index");
+                rebuild();
+                return;
+            }
+            try {
+                write(changes.getChanged().stream().map(JobSearchIndex::toDocument).collect(Collectors.toList()), changes.getDeleted());
+                setChangeSeq(changes.getNext());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } while (changes.isMore());
+    }
+
+    /**
+     * Search the jobs which title or description match the query, best matches first.
+     *
+     * @param query the words to search, analyzed like the indexed texts.
+     * @param pageable the page of results to return, its sort is ignored.
+     * @return the page of the ids of the matching jobs, with the total number of matches.
+     */
+    public Page<Long> search(String query, Pageable pageable) {
+        Query luceneQuery = toQuery(query);
+        if (luceneQuery == null) {
+            return Page.empty(pageable);
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // The collector allocates its queue of hits upfront: never more than the jobs of the index
+                int maxDoc = searcher.getIndexReader().maxDoc();
+                if (pageable.getOffset() >= maxDoc) {
+                    return new PageImpl<>(List.of(), pageable, searcher.count(luceneQuery));
+                }
+                int offset = (int) pageable.getOffset();
+                TopScoreDocCollector collector = TopScoreDocCollector.create(
+                    (int) Math.min((long) offset + pageable.getPageSize(), maxDoc),
+                    Integer.MAX_VALUE
+                );
+                searcher.search(luceneQuery, collector);
+                TopDocs topDocs = collector.topDocs(offset, pageable.getPageSize());
+                List<Long> ids = new ArrayList<>(topDocs.scoreDocs.length);
+                List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    // Read from the doc values, much cheaper than loading the stored document
+                    LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(scoreDoc.doc, leaves));
+                    NumericDocValues idValues = leaf.reader().getNumericDocValues(ID);
+                    if (idValues != null && idValues.advanceExact(scoreDoc.doc - leaf.docBase)) {
+                        ids.add(idValues.longValue());
+                    }
+                }
+                return new PageImpl<>(ids, pageable, collector.getTotalHits());
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Commit the changes of the index to disk, if any, with the last change sequence read. Not while a rebuild or a
+     * catch-up runs, as the sequence would be committed without the changes it covers.
+     */
+    public synchronized void commit() {
+        if (!writer.hasUncommittedChanges()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.error("Could not commit the Job search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the change sequence of the jobs up to which all the changes are indexed, -1 if unknown.
+     */
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        // Not interrupted, which would close the files of the index under a running rebuild
+        executor.shutdown();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private void catchUpQuietly() {
+        try {
+            catchUp();
+        } catch (RuntimeException e) {
+            log.warn("Could not catch up with the changes of the Jobs, retrying at the next interval: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Index and remove jobs, then publish them to the searches, unless a rebuild is running, in which case they are
+     * applied again after it and published with it.
+     */
+    private void write(List<Document> documents, List<Long> deletedIds) throws IOException {
+        boolean rebuilding;
+        synchronized (lock) {
+            rebuilding = rebuildWrites != null;
+            for (Document document : documents) {
+                document.add(new LongPoint(GENERATION, generation));
+                writer.updateDocument(new Term(ID, document.get(ID)), document);
+                if (rebuilding) {
+                    rebuildWrites.put(Long.valueOf(document.get(ID)), document);
+                }
+            }
+            for (Long id : deletedIds) {
+                writer.deleteDocuments(new Term(ID, id.toString()));
+                if (rebuilding) {
+                    rebuildWrites.put(id, null);
+                }
+            }
+        }
+        if (!rebuilding) {
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    /**
+     * Record the last change sequence read, committed with the index.
+     */
+    private void setChangeSeq(long changeSeq) {
+        if (changeSeq != this.changeSeq) {
+            this.changeSeq = changeSeq;
+            writer.setLiveCommitData(Map.of(CHANGE_SEQ, Long.toString(changeSeq)).entrySet());
+        }
+    }
+
+    private Query toQuery(String query) {
+        QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+        Query titleQuery = queryBuilder.createBooleanQuery(TITLE, query);
+        Query descriptionQuery = queryBuilder.createBooleanQuery(DESCRIPTION, query);
+        if (titleQuery == null || descriptionQuery == null) {
+            return null;
+        }
+        return new BooleanQuery.Builder()
+            .add(new BoostQuery(titleQuery, TITLE_BOOST), BooleanClause.Occur.SHOULD)
+            .add(descriptionQuery, BooleanClause.Occur.SHOULD)
+            .build();
+    }
+
+    private static Document toDocument(JobDTO jobDTO) {
+        Document document = new Document();
+        document.add(new StringField(ID, jobDTO.getId().toString(), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID, jobDTO.getId()));
+        if (jobDTO.getTitle() != null) {
+            document.add(new TextField(TITLE, jobDTO.getTitle(), Field.Store.NO));
+        }
+        if (jobDTO.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, jobDTO.getDescription(), Field.Store.NO));
+        }
+        return document;
+    }
+}
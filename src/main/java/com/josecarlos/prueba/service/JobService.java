@@ -1,6 +1,11 @@
 package com.josecarlos.prueba.service;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.JobDTO;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,10 +23,27 @@ public interface JobService {
     JobDTO save(JobDTO jobDTO);
 
     /**
-     * Partially updates a job.
+     * Save jobs in bulk: the jobs without id are created, the others are updated.
+     * The jobs are validated and written in chunks, each chunk being committed in its own transaction.
+     *
+     * @param jobDTOs the entities to save.
+     * @return the outcome of the bulk save, with the errors of the entities which were not saved.
+     */
+    BulkResultDTO saveAll(Iterator<JobDTO> jobDTOs);
+
+    /**
+     * Update a job, without loading it first.
+     *
+     * @param jobDTO the entity to update.
+     * @return the persisted entity, or empty if the job does not exist.
+     */
+    Optional<JobDTO> update(JobDTO jobDTO);
+
+    /**
+     * Partially updates a job: only the non-null fields are updated.
      *
      * @param jobDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the job does not exist.
      */
     Optional<JobDTO> partialUpdate(JobDTO jobDTO);
 
@@ -41,10 +63,76 @@ public interface JobService {
      */
     Optional<JobDTO> findOne(Long id);
 
+    /**
+     * Get the jobs with the given ids, from the second-level cache when it holds them.
+     *
+     * @param ids the ids of the entities, duplicates being ignored.
+     * @return the existing entities, in the order of their first id.
+     */
+    List<JobDTO> findAllById(LongArrayList ids);
+
+    /**
+     * Get the version of the "id" job, without mapping it, so that it is cheap to check whether a client has
+     * the current version.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    Optional<Long> findVersion(Long id);
+
     /**
      * Delete the "id" job.
      *
      * @param id the id of the entity.
      */
     void delete(Long id);
+
+    /**
+     * Delete the "id" job, if it is at the given version.
+     *
+     * @param id the id of the entity.
+     * @param version the expected version of the entity, or {@code null} to delete it whatever its version.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the entity is at another version.
+     */
+    void delete(Long id, Long version);
+
+    /**
+     * Search the jobs by title and description, best matches first.
+     *
+     * @param query the words to search.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the list of entities.
+     */
+    Page<JobDTO> search(String query, Pageable pageable);
+
+    /**
+     * Rebuild the search index from the jobs table.
+     */
+    void reindex();
+
+    /**
+     * Suggest the job titles starting with the prefix, without reading the database.
+     *
+     * @param prefix the start of the titles, the case being ignored.
+     * @param limit the maximum number of titles to return.
+     * @return the titles, the most frequent first.
+     */
+    List<String> suggestTitles(String prefix, int limit);
+
+    /**
+     * Get the changes of the jobs since a change sequence: the jobs created or updated since, and the ids of
+     * the jobs deleted since, by ascending change sequence.
+     *
+     * @param since the change sequence of the last change known to the client, 0 if it knows no job.
+     * @param size the maximum number of changes.
+     * @return the changes, or a resync if {@code since} is older than the retention of the deletions.
+     */
+    ChangesDTO<JobDTO> findChanges(long since, int size);
+
+    /**
+     * Get the feed of the committed changes of the jobs.
+     *
+     * @return the change feed.
+     */
+    ChangeFeed<JobDTO> getChangeFeed();
 }
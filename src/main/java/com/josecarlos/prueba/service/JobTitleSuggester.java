@@ -0,0 +1,394 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.repository.JobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.KeywordTokenizer;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingSuggester;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service suggesting the {@link com.josecarlos.prueba.domain.Job} titles starting with a prefix, the most frequent
+ * titles first, from memory.
+ * <p>
+ * The distinct titles and their frequencies are kept in memory, and compiled into an immutable finite state
+ * transducer, the prefix matching ignoring the case. The committed writes of the node are applied to the frequencies
+ * as deltas, then a new transducer is built from them at most every {@code application.suggest.rebuild-interval},
+ * and swapped with the current one: the suggestions lag the writes by up to this interval, but are never read from
+ * the database. Only the {@code application.suggest.max-titles} most frequent titles are compiled, which bounds the
+ * build time and the memory of the transducer.
+ * <p>
+ * The frequencies are read again from the table every {@code application.suggest.resync-interval}, and after writes
+ * whose titles are unknown, such as bulk writes: this takes the writes of the other nodes into account, and the
+ * former titles of the updated jobs, which are only counted out then. The builds run on a thread of their own, not
+ * delaying the scheduled tasks of the application.
+ */
+@Service
+public class JobTitleSuggester {
+
+    /**
+     * Labels reserved by {@link AnalyzingSuggester}, the titles containing them are not suggested.
+     */
+    private static final char[] RESERVED_LABELS = { '\u0000', '\u001F' };
+
+    private final Logger log = LoggerFactory.getLogger(JobTitleSuggester.class);
+
+    private final Analyzer analyzer = new Analyzer() {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            Tokenizer tokenizer = new KeywordTokenizer();
+            return new TokenStreamComponents(tokenizer, new LowerCaseFilter(tokenizer));
+        }
+    };
+
+    private final JobRepository jobRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Suggest properties;
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The number of jobs of each title, as of the last build. Guarded by this.
+     */
+    private Map<String, Long> titleCounts = new HashMap<>();
+
+    /**
+     * The changes of the numbers of jobs committed since the last build.
+     */
+    private final Map<String, Long> deltas = new ConcurrentHashMap<>();
+
+    /**
+     * Set when the titles must be read again from the table, and initially to build the first transducer.
+     */
+    private final AtomicBoolean resync = new AtomicBoolean(true);
+
+    /**
+     * Set while a refresh is scheduled.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile long builtAt = System.nanoTime();
+
+    private volatile AnalyzingSuggester suggester;
+
+    public JobTitleSuggester(
+        JobRepository jobRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.jobRepository = jobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = applicationProperties.getSuggest();
+        this.executor =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "job-title-suggester");
+                thread.setDaemon(true);
+                return thread;
+            });
+        Gauge
+            .builder("job.suggest.memory", this, JobTitleSuggester::ramBytesUsed)
+            .description("Memory used by the job title suggestions")
+            .baseUnit(BaseUnits.BYTES)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Build the first suggestions once the application is ready, then read the titles again from the table
+     * periodically.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getResyncInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::readTitles, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Suggest the titles starting with the prefix, ignoring the case.
+     *
+     * @param prefix the start of the titles.
+     * @param limit the maximum number of titles to return.
+     * @return the matching titles, the most frequent first, or an empty list until the suggestions are first built.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        AnalyzingSuggester current = suggester;
+        if (current == null || current.getCount() == 0) {
+            return List.of();
+        }
+        return current.lookup(prefix, (Set<BytesRef>) null, false, limit).stream().map(result -> result.key.toString()).collect(Collectors.toList());
+    }
+
+    /**
+     * Count a job in its title, once the current transaction, if any, is committed, as the job was created.
+     *
+     * @param title the title of the job.
+     */
+    public void inserted(String title) {
+        TransactionUtil.afterCommit(() -> delta(title, 1));
+    }
+
+    /**
+     * Suggest the new title of a job, once the current transaction, if any, is committed, as the job was updated. Its
+     * former title being unknown, the frequencies of both titles are only corrected at the next read of the table.
+     *
+     * @param title the new title of the job.
+     */
+    public void updated(String title) {
+        TransactionUtil.afterCommit(() -> delta(title, 0));
+    }
+
+    /**
+     * Count a job out of its title, once the current transaction, if any, is committed, as the job was deleted.
+     *
+     * @param title the title of the job.
+     */
+    public void deleted(String title) {
+        TransactionUtil.afterCommit(() -> delta(title, -1));
+    }
+
+    /**
+     * Read the titles again from the table at the next refresh, once the current transaction, if any, is committed,
+     * as job titles were written without knowing which ones.
+     */
+    public void changed() {
+        TransactionUtil.afterCommit(() -> {
+            resync.set(true);
+            schedule();
+        });
+    }
+
+    /**
+     * Rebuild the suggestions if the titles changed since the last build, reading them from the table if needed.
+     */
+    public synchronized void refresh() {
+        scheduled.set(false);
+        try {
+            if (resync.getAndSet(false)) {
+                rebuild();
+            } else if (!deltas.isEmpty()) {
+                applyDeltas();
+            }
+        } catch (RuntimeException e) {
+            resync.set(true);
+            // Retried after the rebuild interval
+            builtAt = System.nanoTime();
+            schedule();
+            log.error("Could not rebuild the Job title suggestions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the suggestions from the titles of the jobs table.
+     */
+    public synchronized void rebuild() {
+        // The deltas committed from now on are not read from the table
+        deltas.clear();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Object[]> titleCounts = jobRepository.streamTitleCounts()) {
+                build(titleCounts.map(row -> Map.entry((String) row[0], (Long) row[1])).iterator());
+            }
+        });
+    }
+
+    /**
+     * Replace the suggestions with the given titles.
+     *
+     * @param titleCounts the distinct titles, with their number of jobs.
+     */
+    public synchronized void build(Iterator<Map.Entry<String, Long>> titleCounts) {
+        Map<String, Long> newTitleCounts = new HashMap<>();
+        titleCounts.forEachRemaining(titleCount -> newTitleCounts.put(titleCount.getKey(), titleCount.getValue()));
+        this.titleCounts = newTitleCounts;
+        buildTransducer();
+    }
+
+    /**
+     * Get the memory used by the suggestions.
+     *
+     * @return the size of the current transducer in bytes.
+     */
+    public long ramBytesUsed() {
+        AnalyzingSuggester current = suggester;
+        return current == null ? 0 : current.ramBytesUsed();
+    }
+
+    private void delta(String title, long delta) {
+        if (title != null) {
+            deltas.merge(title, delta, Long::sum);
+            schedule();
+        }
+    }
+
+    /**
+     * Schedule a refresh on the thread of the builds, no sooner than the rebuild interval after the last build.
+     */
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            long delay = builtAt + properties.getRebuildInterval().toNanos() - System.nanoTime();
+            try {
+                executor.schedule(this::refresh, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                scheduled.set(false);
+            }
+        }
+    }
+
+    private synchronized void readTitles() {
+        resync.set(true);
+        refresh();
+    }
+
+    private synchronized void applyDeltas() {
+        for (String title : deltas.keySet()) {
+            Long delta = deltas.remove(title);
+            if (delta != null) {
+                long count = titleCounts.getOrDefault(title, 0L) + delta;
+                if (delta == 0) {
+                    // An updated job, the title having at least this one
+                    count = Math.max(count, 1);
+                }
+                if (count > 0) {
+                    titleCounts.put(title, count);
+                } else {
+                    titleCounts.remove(title);
+                }
+            }
+        }
+        buildTransducer();
+    }
+
+    /**
+     * Compile the most frequent titles into a new transducer, and swap it with the current one.
+     */
+    private synchronized void buildTransducer() {
+        long start = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> compiled = titleCounts.entrySet().iterator();
+        if (titleCounts.size() > properties.getMaxTitles()) {
+            compiled =
+                titleCounts
+                    .entrySet()
+                    .stream()
+                    .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                    .limit(properties.getMaxTitles())
+                    .iterator();
+        }
+        try (Directory tempDirectory = new ByteBuffersDirectory()) {
+            AnalyzingSuggester newSuggester = new AnalyzingSuggester(tempDirectory, "suggest", analyzer);
+            newSuggester.build(new TitleCountIterator(compiled));
+            suggester = newSuggester;
+            builtAt = System.nanoTime();
+            log.debug(
+                "Job title suggestions rebuilt with {} of {} titles in {} ms, using {} bytes",
+                newSuggester.getCount(),
+                titleCounts.size(),
+                System.currentTimeMillis() - start,
+                newSuggester.ramBytesUsed()
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isSuggestable(String title) {
+        if (title.isBlank()) {
+            return false;
+        }
+        for (char reserved : RESERVED_LABELS) {
+            if (title.indexOf(reserved) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class TitleCountIterator implements InputIterator {
+
+        private final Iterator<Map.Entry<String, Long>> titleCounts;
+
+        private long weight;
+
+        private TitleCountIterator(Iterator<Map.Entry<String, Long>> titleCounts) {
+            this.titleCounts = titleCounts;
+        }
+
+        @Override
+        public BytesRef next() {
+            while (titleCounts.hasNext()) {
+                Map.Entry<String, Long> titleCount = titleCounts.next();
+                if (isSuggestable(titleCount.getKey())) {
+                    // The suggester only supports int weights
+                    weight = Math.min(titleCount.getValue(), Integer.MAX_VALUE);
+                    return new BytesRef(titleCount.getKey());
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public long weight() {
+            return weight;
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return null;
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return false;
+        }
+    }
+}
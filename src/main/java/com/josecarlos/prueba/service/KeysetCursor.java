@@ -0,0 +1,142 @@
+package com.josecarlos.prueba.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Opaque position in a keyset (seek) pagination, made of the sort property, the value of that
+ * property on the last returned row and the id of that row, which is used as tie-breaker.
+ * <p>
+ * The cursor is handed to clients as an URL-safe Base64 string, see {@link #encode()} and {@link #decode(String)}.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private static final char TYPE_NULL = 'n';
+    private static final char TYPE_STRING = 's';
+    private static final char TYPE_LONG = 'l';
+    private static final char TYPE_INTEGER = 'i';
+
+    private final String property;
+
+    private final Object value;
+
+    private final long id;
+
+    public KeysetCursor(String property, Object value, long id) {
+        this.property = Objects.requireNonNull(property, "property");
+        if (value != null && !(value instanceof String) && !(value instanceof Long) && !(value instanceof Integer)) {
+            throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass().getName());
+        }
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Encode this cursor into its opaque representation.
+     *
+     * @return the URL-safe Base64 representation of the cursor.
+     */
+    public String encode() {
+        String raw = property + SEPARATOR + encodeValue() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor.
+     * @return the decoded cursor.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static KeysetCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first <= 0 || last == first || last - first < 2) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            String property = raw.substring(0, first);
+            Object value = decodeValue(raw.charAt(first + 1), raw.substring(first + 2, last));
+            long id = Long.parseLong(raw.substring(last + 1));
+            return new KeysetCursor(property, value, id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    private String encodeValue() {
+        if (value == null) {
+            return String.valueOf(TYPE_NULL);
+        }
+        if (value instanceof Long) {
+            return TYPE_LONG + value.toString();
+        }
+        if (value instanceof Integer) {
+            return TYPE_INTEGER + value.toString();
+        }
+        return TYPE_STRING + value.toString();
+    }
+
+    private static Object decodeValue(char type, String value) {
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return value;
+            case TYPE_LONG:
+                return Long.valueOf(value);
+            case TYPE_INTEGER:
+                return Integer.valueOf(value);
+            default:
+                throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return id == that.id && property.equals(that.property) && Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, value, id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", value='" + value + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
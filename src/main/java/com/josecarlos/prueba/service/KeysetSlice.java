@@ -0,0 +1,47 @@
+package com.josecarlos.prueba.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * A {@link org.springframework.data.domain.Slice} returned by a keyset (seek) query, which knows the cursor
+ * of the next slice instead of a total count.
+ *
+ * @param <T> the type of the content.
+ */
+public class KeysetSlice<T> extends SliceImpl<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient KeysetCursor nextCursor;
+
+    public KeysetSlice(List<T> content, Pageable pageable, KeysetCursor nextCursor) {
+        super(content, pageable, nextCursor != null);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Get the cursor to pass to fetch the next slice.
+     *
+     * @return the cursor of the next slice, or empty if this is the last one.
+     */
+    public Optional<KeysetCursor> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+
+    /**
+     * Map the content of this slice, keeping its cursor.
+     *
+     * @param converter the function applied to each element.
+     * @param <U> the type of the converted content.
+     * @return the converted slice.
+     */
+    public <U> KeysetSlice<U> mapContent(Function<? super T, ? extends U> converter) {
+        List<U> converted = getContent().stream().map(converter).collect(Collectors.toList());
+        return new KeysetSlice<>(converted, getPageable(), nextCursor);
+    }
+}
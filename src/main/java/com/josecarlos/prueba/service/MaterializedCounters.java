@@ -0,0 +1,209 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Counts of entities maintained in memory, so that the unfiltered count and the counts of the registered criteria
+ * do not need to scan the table.
+ * <p>
+ * A counter is first loaded by counting in the database, then the inserts and deletes of the entities it matches
+ * are applied to it once they are committed. As updates can change whether an entity matches a criteria, they
+ * make the filtered counters stale, until they are counted again. The counters are periodically recounted by
+ * {@link CounterReconciler}, which corrects any drift, for example when the in-memory matching of a criteria
+ * differs from the database collation.
+ * <p>
+ * The counters are only used in read-only transactions, as a writing transaction must see its own changes, which
+ * are not counted yet.
+ *
+ * @param <E> the type of the counted entities.
+ */
+public class MaterializedCounters<E> {
+
+    private final Logger log = LoggerFactory.getLogger(MaterializedCounters.class);
+
+    private final Class<E> entityClass;
+
+    private final Function<Specification<E>, Long> countQuery;
+
+    private final Map<String, Counter<E>> counters = new ConcurrentHashMap<>();
+
+    public MaterializedCounters(Class<E> entityClass, Function<Specification<E>, Long> countQuery) {
+        this.entityClass = entityClass;
+        this.countQuery = countQuery;
+    }
+
+    /**
+     * Maintain the count of the entities matching the criteria in memory.
+     *
+     * @param criteria the criteria, which filters must all be on properties of the entity.
+     * @param specification the specification created from the criteria.
+     * @throws IllegalArgumentException if the criteria cannot be matched in memory.
+     */
+    public void register(Object criteria, Specification<E> specification) {
+        counters.put(
+            criteria.toString(),
+            new Counter<>(specification, CriteriaMatcher.of(criteria, entityClass), CriteriaMatcher.hasFilters(criteria))
+        );
+        log.debug("Registered {} counter for {}", entityClass.getSimpleName(), criteria);
+    }
+
+    /**
+     * Get the count of the entities matching the criteria from memory.
+     *
+     * @param criteria the criteria.
+     * @param allowStale whether a stale count can be returned.
+     * @return the count, or empty if the criteria is not counted in memory, or if its counter is stale and
+     * stale counts are not allowed.
+     */
+    public OptionalLong get(Object criteria, boolean allowStale) {
+        Counter<E> counter = isReadOnly() ? counters.get(criteria.toString()) : null;
+        if (counter == null || !counter.loaded || (counter.stale && !allowStale)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(counter.value);
+    }
+
+    /**
+     * Get the exact count of the entities matching the criteria, from memory if it is up to date.
+     *
+     * @param criteria the criteria.
+     * @param exactCount the count query, run when the count is not in memory or stale, and which result
+     * updates the counter of the criteria, if any.
+     * @return the count.
+     */
+    public long count(Object criteria, LongSupplier exactCount) {
+        Counter<E> counter = isReadOnly() ? counters.get(criteria.toString()) : null;
+        if (counter == null) {
+            return exactCount.getAsLong();
+        }
+        long generation = counter.generation;
+        if (counter.loaded && !counter.stale) {
+            return counter.value;
+        }
+        long count = exactCount.getAsLong();
+        // A count of a lagging replica would be kept until the next reconciliation
+        if (!ReplicaRoutingDataSource.isReadingFromReplica()) {
+            counter.load(count, generation);
+        }
+        return count;
+    }
+
+    /**
+     * Count again all the counters in the database.
+     *
+     * @param transactionOperations the transactions to count each counter in, so that each count reads
+     * the latest committed entities.
+     */
+    public void reconcile(TransactionOperations transactionOperations) {
+        counters.forEach((criteria, counter) -> {
+            long generation = counter.generation;
+            Long count = transactionOperations.execute(status -> countQuery.apply(counter.specification));
+            if (counter.loaded && !counter.stale && counter.value != count && counter.generation == generation) {
+                log.info("Corrected {} counter for {} from {} to {}", entityClass.getSimpleName(), criteria, counter.value, count);
+            }
+            counter.load(count, generation);
+        });
+    }
+
+    /**
+     * Count the entity as inserted, once the current transaction, if any, is committed.
+     *
+     * @param entity the inserted entity.
+     */
+    public void inserted(E entity) {
+        applyDelta(entity, 1);
+    }
+
+    /**
+     * Count the entity as deleted, once the current transaction, if any, is committed.
+     *
+     * @param entity the deleted entity, in its last state.
+     */
+    public void deleted(E entity) {
+        applyDelta(entity, -1);
+    }
+
+    /**
+     * Make the filtered counters stale, once the current transaction, if any, is committed, as an entity was updated.
+     */
+    public void updated() {
+        TransactionUtil.afterCommit(() -> counters.values().stream().filter(counter -> counter.filtered).forEach(Counter::markStale));
+    }
+
+    /**
+     * Make all the counters stale, once the current transaction, if any, is committed, as entities were written
+     * without being counted.
+     */
+    public void invalidate() {
+        TransactionUtil.afterCommit(() -> counters.values().forEach(Counter::markStale));
+    }
+
+    private void applyDelta(E entity, int delta) {
+        // Matched right away, as the entity can change before the transaction is committed
+        Counter<?>[] matching = counters.values().stream().filter(counter -> counter.matcher.test(entity)).toArray(Counter[]::new);
+        TransactionUtil.afterCommit(() -> {
+            for (Counter<?> counter : matching) {
+                counter.add(delta);
+            }
+        });
+    }
+
+    private static boolean isReadOnly() {
+        return !TransactionSynchronizationManager.isActualTransactionActive() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static final class Counter<E> {
+
+        private final Specification<E> specification;
+
+        private final Predicate<E> matcher;
+
+        private final boolean filtered;
+
+        private volatile long value;
+
+        /**
+         * Incremented by each change, so that a count started before a change is not loaded after it.
+         */
+        private volatile long generation;
+
+        private volatile boolean loaded;
+
+        private volatile boolean stale;
+
+        private Counter(Specification<E> specification, Predicate<E> matcher, boolean filtered) {
+            this.specification = specification;
+            this.matcher = matcher;
+            this.filtered = filtered;
+        }
+
+        private synchronized void add(int delta) {
+            value += delta;
+            generation++;
+        }
+
+        private synchronized void markStale() {
+            stale = true;
+            generation++;
+        }
+
+        private synchronized void load(long count, long countGeneration) {
+            if (generation == countGeneration) {
+                value = count;
+                loaded = true;
+                stale = false;
+            }
+        }
+    }
+}
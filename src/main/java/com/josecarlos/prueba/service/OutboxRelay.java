@@ -0,0 +1,88 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.domain.OutboxEvent;
+import com.josecarlos.prueba.repository.OutboxEventRepository;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service relaying the events of the transactional outbox to the {@link OutboxSink}, every
+ * {@code application.outbox.relay-interval}.
+ * <p>
+ * The outbox is drained in batches of {@code application.outbox.batch-size} events, each one in its own transaction:
+ * the events are claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED}, published, then deleted. The batches
+ * claimed by the other nodes are skipped, so that the nodes relay in parallel; as a consequence, the events are
+ * only published in order within a batch. When publishing fails, the batch is rolled back and relayed again at the
+ * next interval.
+ */
+@Service
+public class OutboxRelay {
+
+    private final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxSink outboxSink;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        OutboxSink outboxSink,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxSink = outboxSink;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Relay the events of the outbox, until it is empty or a batch fails.
+     */
+    @Scheduled(
+        initialDelayString = "${application.outbox.relay-interval:PT1S}",
+        fixedDelayString = "${application.outbox.relay-interval:PT1S}"
+    )
+    public void relay() {
+        int batchSize = applicationProperties.getOutbox().getBatchSize();
+        Integer relayed;
+        do {
+            try {
+                relayed = transactionTemplate.execute(status -> relayBatch(batchSize));
+            } catch (RuntimeException e) {
+                log.warn("Could not relay the outbox events, retrying at the next interval: {}", e.getMessage());
+                return;
+            }
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch(int batchSize) {
+        List<OutboxEvent> events = outboxEventRepository.claimOldest(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            outboxSink.publish(events);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not publish the outbox events: " + e.getMessage(), e);
+        }
+        outboxEventRepository.deleteAllInBatch(events);
+        log.debug("Relayed {} outbox events", events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,22 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.domain.OutboxEvent;
+import java.util.List;
+
+/**
+ * Destination of the events relayed from the transactional outbox by {@link OutboxRelay}.
+ * <p>
+ * The sink is defined by {@link com.josecarlos.prueba.config.OutboxConfiguration}, and can be replaced by declaring
+ * a {@code @Primary} bean of this type, for example publishing to a message broker.
+ */
+@FunctionalInterface
+public interface OutboxSink {
+    /**
+     * Publish a batch of events, in the order of their ids. If publishing fails, the whole batch stays in the outbox
+     * and is published again later: each event is published at least once.
+     *
+     * @param events the events to publish.
+     * @throws Exception if the events could not be published.
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,141 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.ehcache.event.EventFiring;
+import org.ehcache.event.EventOrdering;
+import org.ehcache.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service caching the results of the criteria queries, in the cache regions created by
+ * {@link com.josecarlos.prueba.config.CacheConfiguration}.
+ * <p>
+ * Each region has a version counter, which is part of the keys of its entries: writing to the table bumps the
+ * version, once the write is committed, so that the entries of the previous versions are never read again, and
+ * are evicted as the cache fills up or expires them. Results are only cached when read in a read-only transaction,
+ * so that the uncommitted changes of a writing transaction can never be cached.
+ */
+@Service
+public class QueryResultCache {
+
+    private final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    private final CacheManager cacheManager;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ConcurrentMap<String, Region> regions = new ConcurrentHashMap<>();
+
+    public QueryResultCache(CacheManager cacheManager, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Get the result of a query from the cache, or run the query and cache its result.
+     *
+     * @param cacheName the name of the cache region of the queried table.
+     * @param key the canonical form of the query, including its criteria and its pagination.
+     * @param loader the query to run on a cache miss.
+     * @param <T> the type of the result.
+     * @return the result of the query.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, String key, Supplier<T> loader) {
+        if (!applicationProperties.getQueryCache().isEnabled() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.get();
+        }
+        Region region = getRegion(cacheName);
+        String versionedKey = region.version.get() + ":" + key;
+        Object result = region.cache.get(versionedKey);
+        if (result != null) {
+            region.hits.increment();
+            return (T) result;
+        }
+        region.misses.increment();
+        // A result read from a lagging replica would be served until the next write
+        T loaded = ReplicaRoutingDataSource.readFromPrimary(loader);
+        if (loaded != null && !ReplicaRoutingDataSource.isReadingFromReplica()) {
+            region.cache.put(versionedKey, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Invalidate all the cached results of a table, once the current transaction, if any, is committed.
+     *
+     * @param cacheName the name of the cache region of the written table.
+     */
+    public void invalidate(String cacheName) {
+        Region region = getRegion(cacheName);
+        TransactionUtil.afterCommit(region::bump);
+    }
+
+    private Region getRegion(String cacheName) {
+        return regions.computeIfAbsent(cacheName, this::createRegion);
+    }
+
+    private Region createRegion(String cacheName) {
+        Cache<Object, Object> cache = Objects.requireNonNull(cacheManager.getCache(cacheName), "Unknown cache " + cacheName);
+        Region region = new Region(cache, meterRegistry);
+        // The Ehcache cache behind a JCache cache has the same type arguments
+        @SuppressWarnings("unchecked")
+        org.ehcache.Cache<Object, Object> ehcache = cache.unwrap(org.ehcache.Cache.class);
+        ehcache
+            .getRuntimeConfiguration()
+            .registerCacheEventListener(
+                event -> region.evictions.increment(),
+                EventOrdering.UNORDERED,
+                EventFiring.ASYNCHRONOUS,
+                EnumSet.of(EventType.EVICTED, EventType.EXPIRED)
+            );
+        log.debug("Query result cache region {} created", cacheName);
+        return region;
+    }
+
+    private static final class Region {
+
+        private final Cache<Object, Object> cache;
+
+        // Starts from the time of the startup, as the entries of a persistent disk tier outlive the versions
+        private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+        private final Counter hits;
+
+        private final Counter misses;
+
+        private final Counter evictions;
+
+        private final Counter invalidations;
+
+        private Region(Cache<Object, Object> cache, MeterRegistry meterRegistry) {
+            this.cache = cache;
+            this.hits = Counter.builder("query.cache.gets").tag("cache", cache.getName()).tag("result", "hit").register(meterRegistry);
+            this.misses = Counter.builder("query.cache.gets").tag("cache", cache.getName()).tag("result", "miss").register(meterRegistry);
+            this.evictions = Counter.builder("query.cache.evictions").tag("cache", cache.getName()).register(meterRegistry);
+            this.invalidations = Counter.builder("query.cache.invalidations").tag("cache", cache.getName()).register(meterRegistry);
+        }
+
+        private void bump() {
+            version.incrementAndGet();
+            invalidations.increment();
+        }
+    }
+}
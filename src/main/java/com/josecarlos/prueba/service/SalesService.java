@@ -1,6 +1,11 @@
 package com.josecarlos.prueba.service;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -18,10 +23,27 @@ public interface SalesService {
     SalesDTO save(SalesDTO salesDTO);
 
     /**
-     * Partially updates a sales.
+     * Save sales in bulk: the sales without id are created, the others are updated.
+     * The sales are validated and written in chunks, each chunk being committed in its own transaction.
+     *
+     * @param salesDTOs the entities to save.
+     * @return the outcome of the bulk save, with the errors of the entities which were not saved.
+     */
+    BulkResultDTO saveAll(Iterator<SalesDTO> salesDTOs);
+
+    /**
+     * Update a sales, without loading it first.
+     *
+     * @param salesDTO the entity to update.
+     * @return the persisted entity, or empty if the sales does not exist.
+     */
+    Optional<SalesDTO> update(SalesDTO salesDTO);
+
+    /**
+     * Partially updates a sales: only the non-null fields are updated.
      *
      * @param salesDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if the sales does not exist.
      */
     Optional<SalesDTO> partialUpdate(SalesDTO salesDTO);
 
@@ -41,10 +63,53 @@ public interface SalesService {
      */
     Optional<SalesDTO> findOne(Long id);
 
+    /**
+     * Get the sales with the given ids, from the second-level cache when it holds them.
+     *
+     * @param ids the ids of the entities, duplicates being ignored.
+     * @return the existing entities, in the order of their first id.
+     */
+    List<SalesDTO> findAllById(LongArrayList ids);
+
+    /**
+     * Get the version of the "id" sales, without mapping it, so that it is cheap to check whether a client has
+     * the current version.
+     *
+     * @param id the id of the entity.
+     * @return the version of the entity.
+     */
+    Optional<Long> findVersion(Long id);
+
     /**
      * Delete the "id" sales.
      *
      * @param id the id of the entity.
      */
     void delete(Long id);
+
+    /**
+     * Delete the "id" sales, if it is at the given version.
+     *
+     * @param id the id of the entity.
+     * @param version the expected version of the entity, or {@code null} to delete it whatever its version.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the entity is at another version.
+     */
+    void delete(Long id, Long version);
+
+    /**
+     * Get the changes of the sales since a change sequence: the sales created or updated since, and the ids of
+     * the sales deleted since, by ascending change sequence.
+     *
+     * @param since the change sequence of the last change known to the client, 0 if it knows no sales.
+     * @param size the maximum number of changes.
+     * @return the changes, or a resync if {@code since} is older than the retention of the deletions.
+     */
+    ChangesDTO<SalesDTO> findChanges(long since, int size);
+
+    /**
+     * Get the feed of the committed changes of the sales.
+     *
+     * @return the change feed.
+     */
+    ChangeFeed<SalesDTO> getChangeFeed();
 }
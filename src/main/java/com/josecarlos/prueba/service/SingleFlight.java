@@ -0,0 +1,127 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service coalescing the concurrent identical reads: the first caller of a key runs the read, and the callers of the
+ * same key arriving while it runs wait for its result instead of running the read again.
+ * <p>
+ * The reads are grouped by table, and the reads in flight are forgotten once a write to their table is committed, so
+ * that a caller never gets a result read before a write it has seen committed. Only the reads called outside of any
+ * transaction are coalesced: the first caller runs the read in a read-only transaction of its own, while the waiting
+ * callers hold neither a transaction nor a connection. When disabled, each caller runs the read in a read-only
+ * transaction of its own. The waiting callers get the same result instance, which must
+ * not be modified.
+ */
+@Service
+public class SingleFlight {
+
+    private final ApplicationProperties applicationProperties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<String, Group> groups = new ConcurrentHashMap<>();
+
+    public SingleFlight(ApplicationProperties applicationProperties, MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.applicationProperties = applicationProperties;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Run a read, or wait for the result of the identical read in flight.
+     *
+     * @param group the name of the group of the reads, that of the read table.
+     * @param key the canonical form of the read, including its parameters.
+     * @param loader the read.
+     * @param <T> the type of the result.
+     * @return the result of the read.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, String key, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        if (!applicationProperties.getSingleFlight().isEnabled()) {
+            // Still in a read-only transaction, as the reads rely on it
+            return transactionTemplate.execute(status -> loader.get());
+        }
+        Group flightGroup = getGroup(group);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = flightGroup.flights.putIfAbsent(key, flight);
+        if (inFlight != null) {
+            flightGroup.coalesced.increment();
+            try {
+                return (T) inFlight.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        flightGroup.executed.increment();
+        try {
+            // From the primary database, as the result is shared with the callers which may have seen a write
+            T result = ReplicaRoutingDataSource.readFromPrimary(() -> transactionTemplate.execute(status -> loader.get()));
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flightGroup.flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Forget the reads in flight of a group once the current transaction, if any, is committed: the next callers run
+     * the reads again.
+     *
+     * @param group the name of the group of the reads, that of the written table.
+     */
+    public void invalidate(String group) {
+        Group flightGroup = getGroup(group);
+        TransactionUtil.afterCommit(flightGroup.flights::clear);
+    }
+
+    private Group getGroup(String group) {
+        return groups.computeIfAbsent(group, name -> new Group(name, meterRegistry));
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    private static final class Group {
+
+        private final ConcurrentMap<String, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+        private final Counter executed;
+
+        private final Counter coalesced;
+
+        private Group(String name, MeterRegistry meterRegistry) {
+            this.executed = Counter.builder("single.flight.calls").tag("group", name).tag("result", "executed").register(meterRegistry);
+            this.coalesced = Counter.builder("single.flight.calls").tag("group", name).tag("result", "coalesced").register(meterRegistry);
+        }
+    }
+}
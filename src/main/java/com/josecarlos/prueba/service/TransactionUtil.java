@@ -0,0 +1,33 @@
+package com.josecarlos.prueba.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utility class for running actions around the current transaction.
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {}
+
+    /**
+     * Run the action once the current transaction is committed, or right away if there is no transaction.
+     * The action is not run if the transaction is rolled back.
+     *
+     * @param action the action to run.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        action.run();
+                    }
+                }
+            );
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.josecarlos.prueba.service;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.ReplicaRoutingDataSource;
+import com.josecarlos.prueba.domain.User;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.service.impl.CacheInvalidationLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.Serializable;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service caching the users, with their authorities, by login and by email, in the
+ * {@link UserRepository#USERS_BY_LOGIN_CACHE} and {@link UserRepository#USERS_BY_EMAIL_CACHE} cache regions.
+ * <p>
+ * A single caller of a key loads the missing user: the callers of the same key arriving while it loads wait for its
+ * result, so that the expiry of a user does not send every concurrent request to the database. The users read more
+ * than {@code application.cache.users.refresh-after} after their load are returned as is and reloaded in the
+ * background, so that the users in use are reloaded before they expire. The changes of the users are written to the
+ * caches by {@link #put(User)} once committed, rather than evicted and reloaded by the next caller, and evicted from
+ * the caches of the other nodes through the {@link CacheInvalidationLog}.
+ * <p>
+ * The loads in flight are forgotten once a user is written to or evicted from the caches, so that a user read before
+ * the write never replaces it. The cached users are shared by the callers and must not be modified.
+ */
+@Service
+public class UserCache {
+
+    private final Logger log = LoggerFactory.getLogger(UserCache.class);
+
+    private final UserRepository userRepository;
+
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    private final ApplicationProperties.CacheUsers properties;
+
+    private final Executor executor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Region byLogin;
+
+    private final Region byEmail;
+
+    public UserCache(
+        UserRepository userRepository,
+        CacheInvalidationLog cacheInvalidationLog,
+        ApplicationProperties applicationProperties,
+        CacheManager cacheManager,
+        MeterRegistry meterRegistry,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor executor
+    ) {
+        this.userRepository = userRepository;
+        this.cacheInvalidationLog = cacheInvalidationLog;
+        this.properties = applicationProperties.getCache().getUsers();
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.byLogin = new Region(cacheManager, UserRepository.USERS_BY_LOGIN_CACHE, meterRegistry);
+        this.byEmail = new Region(cacheManager, UserRepository.USERS_BY_EMAIL_CACHE, meterRegistry);
+    }
+
+    /**
+     * Get a user, with its authorities, by login.
+     *
+     * @param login the login of the user.
+     * @return the user, if any.
+     */
+    public Optional<User> findOneWithAuthoritiesByLogin(String login) {
+        return get(byLogin, login, () -> userRepository.findOneWithAuthoritiesByLogin(login));
+    }
+
+    /**
+     * Get a user, with its authorities, by email, ignoring the case.
+     *
+     * @param email the email of the user.
+     * @return the user, if any.
+     */
+    public Optional<User> findOneWithAuthoritiesByEmail(String email) {
+        return get(byEmail, email.toLowerCase(Locale.ENGLISH), () -> userRepository.findOneWithAuthoritiesByEmailIgnoreCase(email));
+    }
+
+    /**
+     * Write a created or changed user to the caches once the current transaction, if any, is committed. Its authorities
+     * are loaded right away, while the transaction is still open.
+     *
+     * @param user the user.
+     */
+    public void put(User user) {
+        Hibernate.initialize(user.getAuthorities());
+        CachedUser cached = new CachedUser(user);
+        String login = user.getLogin();
+        String email = user.getEmail();
+        appendInvalidations(user);
+        TransactionUtil.afterCommit(() -> {
+            byLogin.write(login, cached);
+            if (email != null) {
+                byEmail.write(email.toLowerCase(Locale.ENGLISH), cached);
+            }
+        });
+    }
+
+    /**
+     * Evict a user from the caches once the current transaction, if any, is committed, by its current login and email:
+     * to be called before changing them, or on deletion.
+     *
+     * @param user the user.
+     */
+    public void evict(User user) {
+        String login = user.getLogin();
+        String email = user.getEmail();
+        appendInvalidations(user);
+        TransactionUtil.afterCommit(() -> {
+            byLogin.write(login, null);
+            if (email != null) {
+                byEmail.write(email.toLowerCase(Locale.ENGLISH), null);
+            }
+        });
+    }
+
+    /**
+     * Evict a key changed by another node, right away.
+     *
+     * @param cacheName the name of the cache, see {@link #handles(String)}.
+     * @param key the login or the email.
+     */
+    public void evict(String cacheName, String key) {
+        (UserRepository.USERS_BY_LOGIN_CACHE.equals(cacheName) ? byLogin : byEmail).write(key, null);
+    }
+
+    /**
+     * @param cacheName the name of a cache.
+     * @return whether the cache is one of the caches of the users.
+     */
+    public boolean handles(String cacheName) {
+        return UserRepository.USERS_BY_LOGIN_CACHE.equals(cacheName) || UserRepository.USERS_BY_EMAIL_CACHE.equals(cacheName);
+    }
+
+    private void appendInvalidations(User user) {
+        cacheInvalidationLog.append(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
+        if (user.getEmail() != null) {
+            cacheInvalidationLog.append(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail().toLowerCase(Locale.ENGLISH));
+        }
+        if (user.getId() != null) {
+            cacheInvalidationLog.append(User.class, user.getId());
+            cacheInvalidationLog.append(User.class.getName() + ".authorities", user.getId());
+        }
+    }
+
+    private Optional<User> get(Region region, String key, Supplier<Optional<User>> loader) {
+        // The entries of another type, left in a persistent tier by a previous version, are reloaded
+        Object value = region.cache.get(key);
+        if (value instanceof CachedUser) {
+            CachedUser cached = (CachedUser) value;
+            if (System.currentTimeMillis() - cached.loadedAt >= properties.getRefreshAfter().toMillis()) {
+                refresh(region, key, loader);
+            }
+            return Optional.ofNullable(cached.user);
+        }
+        CompletableFuture<Optional<User>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<User>> inFlight = region.loads.putIfAbsent(key, load);
+        if (inFlight != null) {
+            region.coalesced.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw rethrow(e.getCause());
+            }
+        }
+        region.executed.increment();
+        try {
+            // Run in the transaction of the caller, if any, as the callers within a transaction already hold a connection
+            Optional<User> user = ReplicaRoutingDataSource.readFromPrimary(() -> transactionTemplate.execute(status -> loader.get()));
+            // Not cached when the transaction of the caller already read from a replica, which may lag behind
+            region.complete(key, load, user, !ReplicaRoutingDataSource.isReadingFromReplica());
+            return user;
+        } catch (RuntimeException | Error e) {
+            region.loads.remove(key, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void refresh(Region region, String key, Supplier<Optional<User>> loader) {
+        CompletableFuture<Optional<User>> load = new CompletableFuture<>();
+        if (region.loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        region.refreshed.increment();
+        try {
+            executor.execute(() -> {
+                try {
+                    region.complete(key, load, ReplicaRoutingDataSource.readFromPrimary(() -> transactionTemplate.execute(status -> loader.get())), true);
+                } catch (RuntimeException | Error e) {
+                    region.loads.remove(key, load);
+                    load.completeExceptionally(e);
+                    log.warn("Could not refresh the cached user {}: {}", key, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Refreshed by a later read
+            region.loads.remove(key, load);
+            load.completeExceptionally(e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new CompletionException(cause);
+    }
+
+    private static final class Region {
+
+        private final Cache<Object, Object> cache;
+
+        private final ConcurrentMap<String, CompletableFuture<Optional<User>>> loads = new ConcurrentHashMap<>();
+
+        private final Counter executed;
+
+        private final Counter coalesced;
+
+        private final Counter refreshed;
+
+        private Region(CacheManager cacheManager, String cacheName, MeterRegistry meterRegistry) {
+            this.cache = Objects.requireNonNull(cacheManager.getCache(cacheName), "Unknown cache " + cacheName);
+            this.executed = Counter.builder("user.cache.loads").tag("cache", cacheName).tag("result", "executed").register(meterRegistry);
+            this.coalesced = Counter.builder("user.cache.loads").tag("cache", cacheName).tag("result", "coalesced").register(meterRegistry);
+            this.refreshed = Counter.builder("user.cache.loads").tag("cache", cacheName).tag("result", "refreshed").register(meterRegistry);
+        }
+
+        /**
+         * Cache a loaded user, unless the load was forgotten or the user is not to be cached, and hand it to the callers
+         * waiting for it.
+         */
+        private void complete(String key, CompletableFuture<Optional<User>> load, Optional<User> user, boolean cacheable) {
+            loads.computeIfPresent(
+                key,
+                (k, inFlight) -> {
+                    if (inFlight != load) {
+                        return inFlight;
+                    }
+                    if (cacheable) {
+                        cache.put(key, new CachedUser(user.orElse(null)));
+                    }
+                    return null;
+                }
+            );
+            load.complete(user);
+        }
+
+        /**
+         * Write or evict a user, forgetting the load in flight, atomically with regard to the completion of the load.
+         */
+        private void write(String key, CachedUser cached) {
+            loads.compute(
+                key,
+                (k, inFlight) -> {
+                    if (cached != null) {
+                        cache.put(key, cached);
+                    } else {
+                        cache.remove(key);
+                    }
+                    return null;
+                }
+            );
+        }
+    }
+
+    /**
+     * A cached user, none for the unknown logins and emails, and the time it was loaded at.
+     */
+    private static final class CachedUser implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final User user;
+
+        private final long loadedAt = System.currentTimeMillis();
+
+        private CachedUser(User user) {
+            this.user = user;
+        }
+    }
+}
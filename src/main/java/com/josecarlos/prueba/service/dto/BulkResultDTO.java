@@ -0,0 +1,109 @@
+package com.josecarlos.prueba.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the outcome of a bulk save, with the errors of the items which were not saved.
+ */
+public class BulkResultDTO implements Serializable {
+
+    private int created;
+
+    private int updated;
+
+    private int failed;
+
+    private final List<ItemError> errors = new ArrayList<>();
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ItemError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Record an item which could not be saved.
+     *
+     * @param index the position of the item in the request, starting at 0.
+     * @param id the id of the item, if any.
+     * @param message the reason why the item was not saved.
+     */
+    public void addError(int index, Long id, String message) {
+        failed++;
+        errors.add(new ItemError(index, id, message));
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkResultDTO{" +
+            "created=" + getCreated() +
+            ", updated=" + getUpdated() +
+            ", failed=" + getFailed() +
+            "}";
+    }
+
+    /**
+     * The error of one item of a bulk save.
+     */
+    public static class ItemError implements Serializable {
+
+            private final int index;
+
+        private final Long id;
+
+        private final String message;
+
+        public ItemError(int index, Long id, String message) {
+            this.index = index;
+            this.id = id;
+            this.message = message;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "ItemError{" +
+                "index=" + getIndex() +
+                ", id=" + getId() +
+                ", message='" + getMessage() + "'" +
+                "}";
+        }
+    }
+}
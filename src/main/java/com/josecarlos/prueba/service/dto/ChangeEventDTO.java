@@ -0,0 +1,85 @@
+package com.josecarlos.prueba.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO representing a committed change of an entity, as published by a {@link com.josecarlos.prueba.service.ChangeFeed}.
+ *
+ * @param <T> the type of the DTO of the changed entity.
+ */
+public class ChangeEventDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Types of changes.
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Changes were missed, or were not published one by one: the entities must be read again.
+         */
+        RESYNC,
+    }
+
+    private String id;
+
+    private Type type;
+
+    private Long entityId;
+
+    private T entity;
+
+    public ChangeEventDTO() {}
+
+    public ChangeEventDTO(String id, Type type, Long entityId, T entity) {
+        this.id = id;
+        this.type = type;
+        this.entityId = entityId;
+        this.entity = entity;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    public void setEntity(T entity) {
+        this.entity = entity;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChangeEventDTO{" +
+            "id='" + getId() + "'" +
+            ", type='" + getType() + "'" +
+            ", entityId=" + getEntityId() +
+            "}";
+    }
+}
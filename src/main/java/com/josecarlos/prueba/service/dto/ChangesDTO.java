@@ -0,0 +1,103 @@
+package com.josecarlos.prueba.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO representing the changes of entities since a change sequence, for the delta sync of the clients.
+ *
+ * @param <T> the type of the DTO of the changed entities.
+ */
+public class ChangesDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<T> changed = new ArrayList<>();
+
+    private List<Long> deleted = new ArrayList<>();
+
+    private long next;
+
+    private boolean more;
+
+    private boolean resync;
+
+    /**
+     * Get the entities created or updated since the requested sequence, in their current state.
+     *
+     * @return the changed entities, in the order of their change sequence.
+     */
+    public List<T> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<T> changed) {
+        this.changed = changed;
+    }
+
+    /**
+     * Get the ids of the entities deleted since the requested sequence.
+     *
+     * @return the ids of the deleted entities, in the order of their change sequence.
+     */
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * Get the sequence to request the following changes from.
+     *
+     * @return the greatest change sequence of the changes, the requested one if there are none.
+     */
+    public long getNext() {
+        return next;
+    }
+
+    public void setNext(long next) {
+        this.next = next;
+    }
+
+    /**
+     * Whether there are more changes after {@link #getNext()}.
+     *
+     * @return {@code true} if the changes were limited to the requested size.
+     */
+    public boolean isMore() {
+        return more;
+    }
+
+    public void setMore(boolean more) {
+        this.more = more;
+    }
+
+    /**
+     * Whether the requested sequence is older than the retention of the tombstones: the client must then read all
+     * the entities again, and request the following changes from {@link #getNext()}.
+     *
+     * @return {@code true} if the client must read all the entities again.
+     */
+    public boolean isResync() {
+        return resync;
+    }
+
+    public void setResync(boolean resync) {
+        this.resync = resync;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ChangesDTO{" +
+            "changed=" + getChanged().size() +
+            ", deleted=" + getDeleted().size() +
+            ", next=" + getNext() +
+            ", more=" + isMore() +
+            ", resync=" + isResync() +
+            "}";
+    }
+}
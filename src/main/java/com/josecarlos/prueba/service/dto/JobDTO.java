@@ -17,6 +17,10 @@ public class JobDTO implements Serializable {
 
     private String description;
 
+    private Long version;
+
+    private Long changeSeq;
+
     public Long getId() {
         return id;
     }
@@ -41,6 +45,22 @@ public class JobDTO implements Serializable {
         this.description = description;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -69,6 +89,8 @@ public class JobDTO implements Serializable {
             "id=" + getId() +
             ", title='" + getTitle() + "'" +
             ", description='" + getDescription() + "'" +
+            ", version=" + getVersion() +
+            ", changeSeq=" + getChangeSeq() +
             "}";
     }
 }
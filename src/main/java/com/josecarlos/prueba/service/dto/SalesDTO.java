@@ -12,6 +12,10 @@ public class SalesDTO implements Serializable {
 
     private String title;
 
+    private Long version;
+
+    private Long changeSeq;
+
     public Long getId() {
         return id;
     }
@@ -28,6 +32,22 @@ public class SalesDTO implements Serializable {
         this.title = title;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -55,6 +75,8 @@ public class SalesDTO implements Serializable {
         return "SalesDTO{" +
             "id=" + getId() +
             ", title='" + getTitle() + "'" +
+            ", version=" + getVersion() +
+            ", changeSeq=" + getChangeSeq() +
             "}";
     }
 }
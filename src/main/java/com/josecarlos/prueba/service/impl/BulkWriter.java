@@ -0,0 +1,266 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import com.josecarlos.prueba.service.mapper.EntityMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service writing large numbers of entities in JDBC batches.
+ * <p>
+ * The DTOs are read, validated and written in chunks of {@code application.bulk.chunk-size}: each chunk is written
+ * in its own transaction, then flushed and detached from the persistence context, so that the memory used does
+ * not depend on the number of DTOs. The DTOs without id are created, the others update the existing entities,
+ * which are loaded with one query per chunk. The entities must use a pooled id generator for the inserts to be
+ * batched. The changes take their change sequences from {@link ChangeLog} when their chunk commits, and are then
+ * written to the outbox by {@link OutboxWriter}, in the transaction of their chunk, as are the updated entities to
+ * {@link CacheInvalidationLog}.
+ */
+@Service
+public class BulkWriter {
+
+    private final Logger log = LoggerFactory.getLogger(BulkWriter.class);
+
+    private static final String ID = "id";
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final OutboxWriter outboxWriter;
+
+    private final ChangeLog changeLog;
+
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    public BulkWriter(
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        Validator validator,
+        ApplicationProperties applicationProperties,
+        OutboxWriter outboxWriter,
+        ChangeLog changeLog,
+        CacheInvalidationLog cacheInvalidationLog
+    ) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
+        this.outboxWriter = outboxWriter;
+        this.changeLog = changeLog;
+        this.cacheInvalidationLog = cacheInvalidationLog;
+    }
+
+    /**
+     * Save the DTOs in chunks, reporting the DTOs which could not be saved instead of failing.
+     * Reading stops at the first DTO which cannot be read.
+     *
+     * @param dtos the DTOs to save.
+     * @param mapper the mapper of the DTOs to their entities.
+     * @param entityClass the class of the entities.
+     * @param idGetter the getter of the id of the DTOs.
+     * @param <D> the type of the DTOs.
+     * @param <E> the type of the entities.
+     * @return the outcome of the bulk save.
+     */
+    public <D, E> BulkResultDTO write(Iterator<D> dtos, EntityMapper<D, E> mapper, Class<E> entityClass, Function<D, Long> idGetter) {
+        return write(dtos, mapper, entityClass, idGetter, entities -> {});
+    }
+
+    /**
+     * Save the DTOs in chunks, reporting the DTOs which could not be saved instead of failing, and pass the entities
+     * of each chunk to the given action once it is committed.
+     * Reading stops at the first DTO which cannot be read.
+     *
+     * @param dtos the DTOs to save.
+     * @param mapper the mapper of the DTOs to their entities.
+     * @param entityClass the class of the entities.
+     * @param idGetter the getter of the id of the DTOs.
+     * @param afterCommit the action applied to the detached entities of each committed chunk.
+     * @param <D> the type of the DTOs.
+     * @param <E> the type of the entities.
+     * @return the outcome of the bulk save.
+     */
+    public <D, E> BulkResultDTO write(
+        Iterator<D> dtos,
+        EntityMapper<D, E> mapper,
+        Class<E> entityClass,
+        Function<D, Long> idGetter,
+        Consumer<List<E>> afterCommit
+    ) {
+        int chunkSize = applicationProperties.getBulk().getChunkSize();
+        BulkResultDTO result = new BulkResultDTO();
+        List<D> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        while (true) {
+            D dto;
+            try {
+                if (!dtos.hasNext()) {
+                    break;
+                }
+                dto = dtos.next();
+            } catch (RuntimeException e) {
+                log.debug("Unreadable item at index {}: {}", index, e.getMessage());
+                result.addError(index, null, "Unreadable item");
+                break;
+            }
+            chunk.add(dto);
+            index++;
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, index - chunk.size(), mapper, entityClass, idGetter, afterCommit, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, index - chunk.size(), mapper, entityClass, idGetter, afterCommit, result);
+        }
+        log.debug("Bulk save of {} done: {}", entityClass.getSimpleName(), result);
+        return result;
+    }
+
+    private <D, E> void writeChunk(
+        List<D> chunk,
+        int offset,
+        EntityMapper<D, E> mapper,
+        Class<E> entityClass,
+        Function<D, Long> idGetter,
+        Consumer<List<E>> afterCommit,
+        BulkResultDTO result
+    ) {
+        List<Integer> validIndexes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            D dto = chunk.get(i);
+            Set<ConstraintViolation<D>> violations = validator.validate(dto);
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                String message = violations
+                    .stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+                result.addError(offset + i, idGetter.apply(dto), message);
+            }
+        }
+        if (validIndexes.isEmpty()) {
+            return;
+        }
+
+        List<Integer> notFoundIndexes = new ArrayList<>();
+        List<E> entities = new ArrayList<>(validIndexes.size());
+        List<ChangeEventDTO.Type> types = new ArrayList<>(validIndexes.size());
+        try {
+            int[] counts = transactionTemplate.execute(status -> {
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                Map<Object, E> existingEntities = findExistingEntities(
+                    validIndexes.stream().map(i -> idGetter.apply(chunk.get(i))).filter(Objects::nonNull).collect(Collectors.toList()),
+                    entityClass
+                );
+                int created = 0;
+                int updated = 0;
+                for (Integer i : validIndexes) {
+                    D dto = chunk.get(i);
+                    Long id = idGetter.apply(dto);
+                    if (id == null) {
+                        E entity = mapper.toEntity(dto);
+                        entityManager.persist(entity);
+                        entities.add(entity);
+                        types.add(ChangeEventDTO.Type.CREATED);
+                        created++;
+                    } else if (existingEntities.containsKey(id)) {
+                        E entity = mapper.toEntity(dto);
+                        // Bulk updates are not conditional: merge into the existing entity whatever its version
+                        copyVersion(existingEntities.get(id), entity);
+                        entities.add(entityManager.merge(entity));
+                        types.add(ChangeEventDTO.Type.UPDATED);
+                        updated++;
+                    } else {
+                        notFoundIndexes.add(i);
+                    }
+                }
+                entityManager.flush();
+                for (int i = 0; i < entities.size(); i++) {
+                    E entity = entities.get(i);
+                    ChangeEventDTO.Type type = types.get(i);
+                    // Once flushed, so that the events hold the incremented versions, and their change sequences
+                    changeLog.changed(
+                        entityClass,
+                        entity,
+                        changeSeq -> {
+                            D dto = mapper.toDto(entity);
+                            outboxWriter.append(entityClass, type, idGetter.apply(dto), dto);
+                        }
+                    );
+                    if (type == ChangeEventDTO.Type.UPDATED) {
+                        cacheInvalidationLog.append(entityClass, entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity));
+                    }
+                }
+                entityManager.clear();
+                return new int[] { created, updated };
+            });
+            result.setCreated(result.getCreated() + counts[0]);
+            result.setUpdated(result.getUpdated() + counts[1]);
+            notFoundIndexes.forEach(i -> result.addError(offset + i, idGetter.apply(chunk.get(i)), "Entity not found"));
+        } catch (RuntimeException e) {
+            log.warn("Bulk save of a chunk of {} failed: {}", entityClass.getSimpleName(), e.getMessage());
+            validIndexes.forEach(i -> result.addError(offset + i, idGetter.apply(chunk.get(i)), "Chunk could not be saved"));
+            return;
+        }
+        afterCommit.accept(entities);
+    }
+
+    /**
+     * Load the existing entities among the ids, so that they are managed, and merging them does not
+     * need one more query per entity.
+     */
+    private <E> Map<Object, E> findExistingEntities(List<Long> ids, Class<E> entityClass) {
+        Map<Object, E> existingEntities = new HashMap<>();
+        if (ids.isEmpty()) {
+            return existingEntities;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(entityClass);
+        Root<E> root = query.from(entityClass);
+        query.select(root).where(root.get(ID).in(ids));
+        for (E entity : entityManager.createQuery(query).getResultList()) {
+            existingEntities.put(entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity), entity);
+        }
+        return existingEntities;
+    }
+
+    private <E> void copyVersion(E from, E to) {
+        EntityPersister persister = entityManager.unwrap(SessionImplementor.class).getFactory().getMetamodel().entityPersister(from.getClass());
+        if (persister.isVersioned()) {
+            persister.setPropertyValue(to, persister.getVersionProperty(), persister.getVersion(from));
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service writing the keys of the caches changed by this node to the {@code cache_invalidation} table, from which the
+ * other nodes evict them, see {@link com.josecarlos.prueba.service.CacheInvalidationPoller}.
+ * <p>
+ * The keys changed by a transaction are written when it commits, in the same transaction, so that the records of the
+ * transactions rolled back are never written. Their sequences are generated by the identity column of the table,
+ * which locks nothing until the commit: the writes of the nodes are not serialized by the log, but their records may
+ * be committed out of the order of their sequences, and the sequences of the transactions rolled back are never
+ * committed. The readers thus re-read the gaps of the sequences they skipped for
+ * {@code application.cache.invalidation.gap-window}, see {@link #findIn(Collection)}. As the records are written
+ * last, right before the commit, the gaps of the committed transactions are only open for the time of the commit.
+ * {@code CacheInvalidationLogBenchmark} measures the writes of concurrent threads with and without the log.
+ * <p>
+ * The records are pruned after {@code application.cache.invalidation.retention}, the greatest pruned sequence being
+ * kept as the purged value of the {@code CacheInvalidation} row of the {@code change_sequence} table: the nodes which
+ * had not read the pruned records must clear their caches.
+ */
+@Service
+public class CacheInvalidationLog {
+
+    private final Logger log = LoggerFactory.getLogger(CacheInvalidationLog.class);
+
+    private static final String COUNTER = "CacheInvalidation";
+
+    private static final String CHANGE_SEQUENCE_TABLE = "change_sequence";
+
+    private static final String INVALIDATION_TABLE = "cache_invalidation";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter appended;
+
+    private final Counter pruned;
+
+    public CacheInvalidationLog(
+        EntityManager entityManager,
+        ApplicationProperties applicationProperties,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.appended =
+            Counter
+                .builder("cache.invalidation.records")
+                .tag("result", "appended")
+                .description("The number of records of the cache invalidation log")
+                .register(meterRegistry);
+        this.pruned =
+            Counter
+                .builder("cache.invalidation.records")
+                .tag("result", "pruned")
+                .description("The number of records of the cache invalidation log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record the change of an entity, to be evicted from the second-level cache of the other nodes.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     */
+    public void append(Class<?> entityClass, Object id) {
+        append(entityClass.getName(), id);
+    }
+
+    /**
+     * Record the change of a key of a cache, to be evicted from the caches of the other nodes once the current
+     * transaction, if any, is committed.
+     *
+     * @param cacheName the name of the cache, or of the region of the second-level cache.
+     * @param key the key, or the id of the entity or of the owner of the collection; {@code null} for the whole cache.
+     */
+    public void append(String cacheName, Object key) {
+        if (!applicationProperties.getCache().getInvalidation().isEnabled()) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(cacheName, key != null ? key.toString() : null);
+        if (!TransactionSynchronizationManager.isActualTransactionActive() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> write(List.of(invalidation)));
+            return;
+        }
+        PendingInvalidations pending = TransactionSynchronizationManager
+            .getSynchronizations()
+            .stream()
+            .filter(PendingInvalidations.class::isInstance)
+            .map(PendingInvalidations.class::cast)
+            .findFirst()
+            .orElseGet(() -> {
+                PendingInvalidations synchronization = new PendingInvalidations();
+                TransactionSynchronizationManager.registerSynchronization(synchronization);
+                return synchronization;
+            });
+        pending.invalidations.add(invalidation);
+    }
+
+    /**
+     * Get the records following a sequence, by ascending sequence. Must be called within a transaction.
+     *
+     * @param after the sequence of the last record read.
+     * @param size the maximum number of records.
+     * @return the records.
+     */
+    public List<Invalidation> findAfter(long after, int size) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = nativeQuery(
+            "SELECT seq, node_id, cache_name, cache_key, created_date FROM cache_invalidation WHERE seq > :after ORDER BY seq",
+            INVALIDATION_TABLE
+        )
+            .setParameter("after", after)
+            .setMaxResults(size)
+            .getResultList();
+        return toInvalidations(rows);
+    }
+
+    private static List<Invalidation> toInvalidations(List<Object[]> rows) {
+        List<Invalidation> invalidations = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Invalidation invalidation = new Invalidation((String) row[2], (String) row[3]);
+            invalidation.seq = ((Number) row[0]).longValue();
+            invalidation.nodeId = (String) row[1];
+            invalidation.createdDate = ((Timestamp) row[4]).toInstant();
+            invalidations.add(invalidation);
+        }
+        return invalidations;
+    }
+
+    /**
+     * Get the records of the given sequences, by ascending sequence, to read the records committed after the ones of
+     * greater sequences. Must be called within a transaction.
+     *
+     * @param seqs the sequences skipped by the reader.
+     * @return the records committed since, the others being still uncommitted, or rolled back.
+     */
+    public List<Invalidation> findIn(Collection<Long> seqs) {
+        if (seqs.isEmpty()) {
+            return List.of();
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = nativeQuery(
+            "SELECT seq, node_id, cache_name, cache_key, created_date FROM cache_invalidation WHERE seq IN (:seqs) ORDER BY seq",
+            INVALIDATION_TABLE
+        )
+            .setParameter("seqs", seqs)
+            .getResultList();
+        return toInvalidations(rows);
+    }
+
+    /**
+     * Get the current and purged sequences of the log. Must be called within a transaction.
+     *
+     * @return the greatest sequence of the records committed, and the greatest sequence of the pruned records.
+     */
+    public long[] getSequences() {
+        Number purged = (Number) nativeQuery("SELECT purged_value FROM change_sequence WHERE name = :name", CHANGE_SEQUENCE_TABLE)
+            .setParameter("name", COUNTER)
+            .getSingleResult();
+        Number current = (Number) nativeQuery("SELECT MAX(seq) FROM cache_invalidation", INVALIDATION_TABLE).getSingleResult();
+        return new long[] { current != null ? Math.max(current.longValue(), purged.longValue()) : purged.longValue(), purged.longValue() };
+    }
+
+    /**
+     * Prune the records older than {@code application.cache.invalidation.retention}, every
+     * {@code application.cache.invalidation.prune-interval}, in its own transaction.
+     */
+    @Scheduled(
+        initialDelayString = "${application.cache.invalidation.prune-interval:PT1M}",
+        fixedDelayString = "${application.cache.invalidation.prune-interval:PT1M}"
+    )
+    public void prune() {
+        Timestamp before = Timestamp.from(Instant.now().minus(applicationProperties.getCache().getInvalidation().getRetention()));
+        transactionTemplate.executeWithoutResult(status -> {
+            Number purged = (Number) nativeQuery("SELECT MAX(seq) FROM cache_invalidation WHERE created_date < :before", INVALIDATION_TABLE)
+                .setParameter("before", before)
+                .getSingleResult();
+            if (purged == null) {
+                return;
+            }
+            int count = nativeQuery("DELETE FROM cache_invalidation WHERE seq <= :purged", INVALIDATION_TABLE)
+                .setParameter("purged", purged.longValue())
+                .executeUpdate();
+            nativeQuery("UPDATE change_sequence SET purged_value = :purged WHERE name = :name AND purged_value < :purged", CHANGE_SEQUENCE_TABLE)
+                .setParameter("purged", purged.longValue())
+                .setParameter("name", COUNTER)
+                .executeUpdate();
+            pruned.increment(count);
+            log.debug("Pruned {} cache invalidation records, up to sequence {}", count, purged);
+        });
+    }
+
+    /**
+     * @return the id of this node, written with its records so that it skips them.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void write(Collection<Invalidation> invalidations) {
+        Timestamp createdDate = Timestamp.from(Instant.now());
+        entityManager
+            .unwrap(Session.class)
+            .doWork(connection -> {
+                try (
+                    PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO cache_invalidation (node_id, cache_name, cache_key, created_date) VALUES (?, ?, ?, ?)"
+                    )
+                ) {
+                    for (Invalidation invalidation : invalidations) {
+                        statement.setString(1, nodeId);
+                        statement.setString(2, invalidation.cacheName);
+                        statement.setString(3, invalidation.key);
+                        statement.setTimestamp(4, createdDate);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+        appended.increment(invalidations.size());
+    }
+
+    /**
+     * Create a native statement declaring the table it reads or writes, so that Hibernate neither flushes the pending
+     * changes of the entities before running it, nor invalidates the whole second-level cache after a write.
+     */
+    private Query nativeQuery(String sql, String table) {
+        Query query = entityManager.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(table);
+        return query;
+    }
+
+    /**
+     * The keys changed by a transaction, written when it commits, after the other synchronizations, so that the gaps
+     * of their sequences are open for as short a time as possible.
+     */
+    private final class PendingInvalidations implements TransactionSynchronization {
+
+        private final Set<Invalidation> invalidations = new LinkedHashSet<>();
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!readOnly) {
+                entityManager.flush();
+            }
+            write(invalidations);
+        }
+    }
+
+    /**
+     * A record of the log: the key of a cache changed by a node.
+     */
+    public static final class Invalidation {
+
+        private final String cacheName;
+
+        private final String key;
+
+        private long seq;
+
+        private String nodeId;
+
+        private Instant createdDate;
+
+        private Invalidation(String cacheName, String key) {
+            this.cacheName = cacheName;
+            this.key = key;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        public Instant getCreatedDate() {
+            return createdDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Invalidation)) {
+                return false;
+            }
+            Invalidation other = (Invalidation) o;
+            return cacheName.equals(other.cacheName) && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cacheName, key);
+        }
+    }
+}
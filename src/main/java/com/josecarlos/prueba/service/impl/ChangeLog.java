@@ -0,0 +1,369 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.service.TransactionUtil;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service tracking the changes of the entities, for the delta sync of the clients.
+ * <p>
+ * Each write of an entity takes the next values of the change sequence of the entity, stored in its
+ * {@code changeSeq} property. The values are taken from a counter row of the {@code change_sequence} table, which
+ * stays locked until the write is committed: the writes of an entity are thus committed in the order of their
+ * sequences, and a client which has read the changes up to a sequence can never miss a change committed later with
+ * a lower sequence. The price is that the writes of an entity are serialized from the moment they take their
+ * sequence, so they only take it when their transaction commits, once the other changes are flushed, and then write
+ * it to the rows of the entities: the counter is only locked for the commit. The property is excluded from the
+ * optimistic locking of the entities, so that writing it does not increment their version again.
+ * <p>
+ * The deleted entities leave a tombstone with their change sequence, which is purged after
+ * {@code application.delta-sync.tombstone-retention}: the clients which last synced before the purged tombstones
+ * are told to resync. Must be called within a transaction, except {@link #purge()}.
+ */
+@Service
+public class ChangeLog {
+
+    private final Logger log = LoggerFactory.getLogger(ChangeLog.class);
+
+    private static final String CHANGE_SEQ = "changeSeq";
+
+    private static final String CHANGE_SEQUENCE_TABLE = "change_sequence";
+
+    private static final String TOMBSTONE_TABLE = "change_tombstone";
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public ChangeLog(EntityManager entityManager, ApplicationProperties applicationProperties, PlatformTransactionManager transactionManager) {
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Take the next change sequence of an entity when the current transaction commits, and set it to the entity,
+     * whose row is updated with it.
+     *
+     * @param entityClass the class of the entity.
+     * @param entity the created or updated instance, with its id, managed or not.
+     * @param assigned the action receiving the change sequence, within the transaction, for example to write it to
+     * the DTO of the entity.
+     * @param <E> the type of the entity.
+     */
+    public <E> void changed(Class<E> entityClass, E entity, LongConsumer assigned) {
+        pendingChanges().add(entityClass, new PendingChange(entity, null, assigned));
+    }
+
+    /**
+     * Record the deletion of an entity with a tombstone, taking the next change sequence of the entity when the
+     * current transaction commits.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the deleted entity.
+     */
+    public void deleted(Class<?> entityClass, Long id) {
+        pendingChanges().add(entityClass, new PendingChange(null, id, changeSeq -> {}));
+    }
+
+    /**
+     * Get the last change sequence taken by an entity, all the changes up to it being committed.
+     *
+     * @param entityClass the class of the entity.
+     * @return the change sequence.
+     */
+    public long getCurrent(Class<?> entityClass) {
+        Number current = (Number) nativeQuery("SELECT current_value FROM change_sequence WHERE name = :name", CHANGE_SEQUENCE_TABLE)
+            .setParameter("name", entityClass.getSimpleName())
+            .getSingleResult();
+        return current.longValue();
+    }
+
+    /**
+     * Get the changes of an entity since a change sequence, by ascending change sequence.
+     *
+     * @param entityClass the class of the entity.
+     * @param since the change sequence of the last change known to the client, 0 if it knows no entity.
+     * @param size the maximum number of changes.
+     * @param mapper the mapper of the changed entities to their DTOs.
+     * @param <E> the type of the entity.
+     * @param <D> the type of the DTO of the entity.
+     * @return the changes, or a resync if tombstones following {@code since} were purged.
+     */
+    public <E, D> ChangesDTO<D> findChanges(Class<E> entityClass, long since, int size, Function<List<E>, List<D>> mapper) {
+        Object[] counter = (Object[]) nativeQuery("SELECT current_value, purged_value FROM change_sequence WHERE name = :name", CHANGE_SEQUENCE_TABLE)
+            .setParameter("name", entityClass.getSimpleName())
+            .getSingleResult();
+        ChangesDTO<D> changes = new ChangesDTO<>();
+        if (since > 0 && since < ((Number) counter[1]).longValue()) {
+            changes.setResync(true);
+            changes.setNext(((Number) counter[0]).longValue());
+            return changes;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = cb.createQuery(entityClass);
+        Root<E> root = query.from(entityClass);
+        query.select(root).where(cb.greaterThan(root.get(CHANGE_SEQ), since)).orderBy(cb.asc(root.get(CHANGE_SEQ)));
+        List<E> entities = entityManager.createQuery(query).setMaxResults(size + 1).getResultList();
+        @SuppressWarnings("unchecked")
+        List<Object[]> tombstones = nativeQuery(
+            "SELECT change_seq, entity_id FROM change_tombstone WHERE entity_type = :type AND change_seq > :since ORDER BY change_seq",
+            TOMBSTONE_TABLE
+        )
+            .setParameter("type", entityClass.getSimpleName())
+            .setParameter("since", since)
+            .setMaxResults(size + 1)
+            .getResultList();
+
+        // Merge the changed entities and the tombstones by change sequence, up to the requested size
+        EntityPersister persister = getPersister(entityClass);
+        int property = persister.getEntityMetamodel().getPropertyIndex(CHANGE_SEQ);
+        List<E> changed = new ArrayList<>();
+        long next = since;
+        int e = 0;
+        int t = 0;
+        while (e + t < size && (e < entities.size() || t < tombstones.size())) {
+            long entitySeq = e < entities.size() ? (Long) persister.getPropertyValue(entities.get(e), property) : Long.MAX_VALUE;
+            long tombstoneSeq = t < tombstones.size() ? ((Number) tombstones.get(t)[0]).longValue() : Long.MAX_VALUE;
+            if (entitySeq < tombstoneSeq) {
+                changed.add(entities.get(e++));
+                next = entitySeq;
+            } else {
+                changes.getDeleted().add(((Number) tombstones.get(t++)[1]).longValue());
+                next = tombstoneSeq;
+            }
+        }
+        changes.setChanged(mapper.apply(changed));
+        changes.setNext(next);
+        changes.setMore(e < entities.size() || t < tombstones.size());
+        return changes;
+    }
+
+    /**
+     * Purge the tombstones older than {@code application.delta-sync.tombstone-retention}, every
+     * {@code application.delta-sync.purge-interval}, in its own transaction.
+     */
+    @Scheduled(
+        initialDelayString = "${application.delta-sync.purge-interval:PT1H}",
+        fixedDelayString = "${application.delta-sync.purge-interval:PT1H}"
+    )
+    public void purge() {
+        Timestamp before = Timestamp.from(Instant.now().minus(applicationProperties.getDeltaSync().getTombstoneRetention()));
+        transactionTemplate.executeWithoutResult(status -> {
+            @SuppressWarnings("unchecked")
+            List<String> names = nativeQuery("SELECT name FROM change_sequence", CHANGE_SEQUENCE_TABLE).getResultList();
+            for (String name : names) {
+                Number purged = (Number) nativeQuery(
+                    "SELECT MAX(change_seq) FROM change_tombstone WHERE entity_type = :type AND deleted_date < :before",
+                    TOMBSTONE_TABLE
+                )
+                    .setParameter("type", name)
+                    .setParameter("before", before)
+                    .getSingleResult();
+                if (purged == null) {
+                    continue;
+                }
+                int count = nativeQuery("DELETE FROM change_tombstone WHERE entity_type = :type AND change_seq <= :purged", TOMBSTONE_TABLE)
+                    .setParameter("type", name)
+                    .setParameter("purged", purged.longValue())
+                    .executeUpdate();
+                nativeQuery(
+                    "UPDATE change_sequence SET purged_value = :purged WHERE name = :name AND purged_value < :purged",
+                    CHANGE_SEQUENCE_TABLE
+                )
+                    .setParameter("purged", purged.longValue())
+                    .setParameter("name", name)
+                    .executeUpdate();
+                log.debug("Purged {} tombstones of {}, up to change sequence {}", count, name, purged);
+            }
+        });
+    }
+
+    /**
+     * Reserve values of the change sequence of an entity.
+     *
+     * @return the first reserved value.
+     */
+    private long reserve(Class<?> entityClass, int count) {
+        String name = entityClass.getSimpleName();
+        int updated = nativeQuery("UPDATE change_sequence SET current_value = current_value + :count WHERE name = :name", CHANGE_SEQUENCE_TABLE)
+            .setParameter("count", count)
+            .setParameter("name", name)
+            .executeUpdate();
+        if (updated == 0) {
+            throw new IllegalStateException("No change sequence for " + name);
+        }
+        Number current = (Number) nativeQuery("SELECT current_value FROM change_sequence WHERE name = :name", CHANGE_SEQUENCE_TABLE)
+            .setParameter("name", name)
+            .getSingleResult();
+        return current.longValue() - count + 1;
+    }
+
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("The change sequences are taken when the transaction commits, there is no transaction");
+        }
+        return TransactionSynchronizationManager
+            .getSynchronizations()
+            .stream()
+            .filter(PendingChanges.class::isInstance)
+            .map(PendingChanges.class::cast)
+            .findFirst()
+            .orElseGet(() -> {
+                PendingChanges synchronization = new PendingChanges();
+                TransactionSynchronizationManager.registerSynchronization(synchronization);
+                return synchronization;
+            });
+    }
+
+    /**
+     * Write the change sequences taken by a transaction.
+     */
+    private void write(Class<?> entityClass, List<PendingChange> changes) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        AbstractEntityPersister persister = (AbstractEntityPersister) getPersister(entityClass);
+        int property = persister.getEntityMetamodel().getPropertyIndex(CHANGE_SEQ);
+        long changeSeq = reserve(entityClass, changes.size());
+        List<long[]> unmanaged = new ArrayList<>();
+        for (PendingChange change : changes) {
+            if (change.entity == null) {
+                nativeQuery(
+                    "INSERT INTO change_tombstone (entity_type, change_seq, entity_id, deleted_date) VALUES (:type, :changeSeq, :id, :deletedDate)",
+                    TOMBSTONE_TABLE
+                )
+                    .setParameter("type", entityClass.getSimpleName())
+                    .setParameter("changeSeq", changeSeq)
+                    .setParameter("id", change.id)
+                    .setParameter("deletedDate", Timestamp.from(Instant.now()))
+                    .executeUpdate();
+            } else {
+                persister.setPropertyValue(change.entity, property, changeSeq);
+                Long id = (Long) persister.getIdentifier(change.entity, (SharedSessionContractImplementor) session);
+                // The managed instance is written by the flush of the commit, the others right away
+                Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+                if (managed != null) {
+                    persister.setPropertyValue(managed, property, changeSeq);
+                } else {
+                    unmanaged.add(new long[] { changeSeq, id });
+                }
+            }
+            change.assigned.accept(changeSeq);
+            changeSeq++;
+        }
+        if (unmanaged.isEmpty()) {
+            return;
+        }
+        String sql =
+            "UPDATE " +
+            persister.getTableName() +
+            " SET " +
+            persister.getPropertyColumnNames(property)[0] +
+            " = ? WHERE " +
+            persister.getIdentifierColumnNames()[0] +
+            " = ?";
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (long[] row : unmanaged) {
+                    statement.setLong(1, row[0]);
+                    statement.setLong(2, row[1]);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+        // Their cache entries are put by the completion of the flushed writes, without the change sequence
+        TransactionUtil.afterCommit(() -> unmanaged.forEach(row -> session.getFactory().getCache().evictEntityData(entityClass, row[1])));
+    }
+
+    /**
+     * Create a native statement declaring the table it reads or writes, so that Hibernate neither flushes the pending
+     * changes of the entities before running it, nor invalidates the whole second-level cache after a write.
+     */
+    private Query nativeQuery(String sql, String table) {
+        Query query = entityManager.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(table);
+        return query;
+    }
+
+    private EntityPersister getPersister(Class<?> entityClass) {
+        return entityManager.unwrap(SessionImplementor.class).getFactory().getMetamodel().entityPersister(entityClass);
+    }
+
+    /**
+     * The changes of a transaction, by entity, in the order of the names of the entities so that the transactions
+     * lock their counters in the same order. Run before the commit of the cache invalidation log, which writes its
+     * records last.
+     */
+    private final class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Class<?>, List<PendingChange>> changes = new TreeMap<>(Comparator.comparing(Class::getName));
+
+        private void add(Class<?> entityClass, PendingChange change) {
+            changes.computeIfAbsent(entityClass, key -> new ArrayList<>()).add(change);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE - 1;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // The rows are written and locked before the counters
+            entityManager.flush();
+            changes.forEach(ChangeLog.this::write);
+        }
+    }
+
+    /**
+     * A change of an entity: the instance created or updated, or the id of the deleted entity.
+     */
+    private static final class PendingChange {
+
+        private final Object entity;
+
+        private final Long id;
+
+        private final LongConsumer assigned;
+
+        private PendingChange(Object entity, Long id, LongConsumer assigned) {
+            this.entity = entity;
+            this.id = id;
+            this.assigned = assigned;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service loading entities by their ids at once, with Hibernate's multi-identifier loading.
+ * <p>
+ * The entities of the persistence context and of the second-level cache are taken from there, the others are loaded
+ * with {@code IN} queries of at most {@code application.multi-load.batch-size} ids. The last query is padded to a
+ * power of two ids, as {@code hibernate.query.in_clause_parameter_padding} does for the other queries, so that the
+ * statements of a few sizes only are prepared and cached by the database.
+ * <p>
+ * The ids must be numbers. Must be called within a transaction.
+ */
+@Service
+public class EntityMultiLoader {
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    public EntityMultiLoader(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+    }
+
+    /**
+     * Load the entities with the given ids.
+     *
+     * @param entityClass the type of the entities.
+     * @param ids the ids of the entities, duplicates being ignored.
+     * @param <E> the type of the entities.
+     * @return the existing entities, in the order of their first id.
+     */
+    public <E> List<E> findAllById(Class<E> entityClass, LongArrayList ids) {
+        LongArrayList distinctIds = distinct(ids);
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityClass);
+        int batchSize = applicationProperties.getMultiLoad().getBatchSize();
+
+        List<Long> loadedIds = new ArrayList<>(distinctIds.size() + batchSize);
+        int misses = 0;
+        long lastMiss = 0;
+        for (LongCursor cursor : distinctIds) {
+            loadedIds.add(cursor.value);
+            if (!isCached(session, persister, cursor.value)) {
+                misses++;
+                lastMiss = cursor.value;
+            }
+        }
+        // Hibernate loads the misses in their order, so the padding is appended to the last query
+        int lastBatch = misses % batchSize;
+        for (int i = lastBatch; i < Math.min(paddedSize(lastBatch), batchSize); i++) {
+            loadedIds.add(lastMiss);
+        }
+
+        // The second-level cache is only checked when a cache mode is given
+        List<E> entities = session
+            .byMultipleIds(entityClass)
+            .with(CacheMode.NORMAL)
+            .enableSessionCheck(true)
+            .enableOrderedReturn(true)
+            .withBatchSize(batchSize)
+            .multiLoad(loadedIds);
+        return entities.subList(0, distinctIds.size()).stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static LongArrayList distinct(LongArrayList ids) {
+        LongHashSet seen = new LongHashSet(ids.size());
+        LongArrayList distinctIds = new LongArrayList(ids.size());
+        for (LongCursor cursor : ids) {
+            if (seen.add(cursor.value)) {
+                distinctIds.add(cursor.value);
+            }
+        }
+        return distinctIds;
+    }
+
+    private static boolean isCached(SessionImplementor session, EntityPersister persister, long id) {
+        if (session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister)) != null) {
+            return true;
+        }
+        if (!persister.canReadFromCache()) {
+            return false;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        return cacheAccess.contains(cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier()));
+    }
+
+    private static int paddedSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+}
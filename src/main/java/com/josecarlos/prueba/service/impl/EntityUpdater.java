@@ -0,0 +1,192 @@
+package com.josecarlos.prueba.service.impl;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.Type;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service updating entities with a single {@code UPDATE} statement, without loading them first.
+ * <p>
+ * The affected row count tells whether the entity exists. A full update sets all the columns, a partial update only
+ * the columns of the non-null properties; the entity is then loaded, within the same transaction, only when some
+ * properties were left out, as the caller needs its whole state.
+ * <p>
+ * When the entity is versioned, the update increments the version. If the given entity holds a version, only this
+ * version is updated, and an {@link ObjectOptimisticLockingFailureException} is thrown when the entity is at another
+ * version; otherwise the update is unconditional, and the new version is unknown to the returned entity unless it is
+ * loaded. The versions must be numbers.
+ * <p>
+ * The statement bypasses the persistence context: an instance of the entity which is already managed is refreshed.
+ * The second-level cache entry of the entity is locked until the transaction completes, as Hibernate does for its
+ * own updates, so that no stale state is cached meanwhile; the other entries of the region are kept.
+ * Must be called within a transaction.
+ */
+@Service
+public class EntityUpdater {
+
+    private final EntityManager entityManager;
+
+    public EntityUpdater(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Update all the columns of an entity.
+     *
+     * @param entity the new state of the entity, with its id, and its expected version if any.
+     * @param <E> the type of the entity.
+     * @return the updated entity, or empty if there is no entity with this id.
+     * @throws ObjectOptimisticLockingFailureException if the entity is not at the expected version.
+     */
+    public <E> Optional<E> update(E entity) {
+        return update(entity, false);
+    }
+
+    /**
+     * Update the columns of the non-null properties of an entity.
+     *
+     * @param entity the properties to update, with the id of the entity, and its expected version if any.
+     * @param <E> the type of the entity.
+     * @return the whole updated entity, or empty if there is no entity with this id.
+     * @throws ObjectOptimisticLockingFailureException if the entity is not at the expected version.
+     */
+    public <E> Optional<E> partialUpdate(E entity) {
+        return update(entity, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> Optional<E> update(E entity, boolean partial) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        Class<E> entityClass = (Class<E>) entity.getClass();
+        AbstractEntityPersister persister = (AbstractEntityPersister) session.getFactory().getMetamodel().entityPersister(entityClass);
+        // As a shared session, as the overload taking a session is deprecated
+        Serializable id = persister.getIdentifier(entity, (SharedSessionContractImplementor) session);
+        if (id == null) {
+            throw new IllegalArgumentException("The " + persister.getEntityName() + " to update has no id");
+        }
+        // Pending changes must be written first, as they would overwrite the update once flushed
+        entityManager.flush();
+
+        boolean[] updateable = persister.getPropertyUpdateability();
+        Object[] values = persister.getPropertyValues(entity);
+        int versionProperty = persister.isVersioned() ? persister.getVersionProperty() : -1;
+        Object expectedVersion = persister.isVersioned() ? values[versionProperty] : null;
+        List<Integer> properties = new ArrayList<>(values.length);
+        boolean complete = true;
+        for (int i = 0; i < values.length; i++) {
+            if (i == versionProperty || !updateable[i] || persister.getPropertyColumnNames(i).length == 0) {
+                continue;
+            }
+            if (partial && values[i] == null) {
+                complete = false;
+            } else {
+                properties.add(i);
+            }
+        }
+
+        if (properties.isEmpty()) {
+            E existing = entityManager.find(entityClass, id);
+            if (existing != null && expectedVersion != null && !expectedVersion.equals(persister.getVersion(existing))) {
+                throw new ObjectOptimisticLockingFailureException(entityClass, id);
+            }
+            return Optional.ofNullable(existing);
+        }
+        E managed = (E) session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+        lockCacheEntry(session, persister, id);
+        if (executeUpdate(session, persister, properties, values, id, expectedVersion) == 0) {
+            if (expectedVersion != null && entityManager.find(entityClass, id) != null) {
+                throw new ObjectOptimisticLockingFailureException(entityClass, id);
+            }
+            return Optional.empty();
+        }
+        if (managed != null) {
+            entityManager.refresh(managed);
+            return Optional.of(managed);
+        }
+        if (!complete) {
+            return Optional.ofNullable(entityManager.find(entityClass, id));
+        }
+        if (expectedVersion != null) {
+            persister.setPropertyValue(entity, versionProperty, persister.getVersionType().next(expectedVersion, session));
+        }
+        return Optional.of(entity);
+    }
+
+    private int executeUpdate(
+        SessionImplementor session,
+        AbstractEntityPersister persister,
+        List<Integer> properties,
+        Object[] values,
+        Serializable id,
+        Object expectedVersion
+    ) {
+        List<String> assignments = properties
+            .stream()
+            .flatMap(i -> List.of(persister.getPropertyColumnNames(i)).stream())
+            .map(column -> column + " = ?")
+            .collect(Collectors.toList());
+        List<String> conditions = List
+            .of(persister.getIdentifierColumnNames())
+            .stream()
+            .map(column -> column + " = ?")
+            .collect(Collectors.toList());
+        if (persister.isVersioned()) {
+            String versionColumn = persister.getVersionColumnName();
+            assignments.add(versionColumn + " = " + versionColumn + " + 1");
+            if (expectedVersion != null) {
+                conditions.add(versionColumn + " = ?");
+            }
+        }
+        String sql =
+            "update " + persister.getTableName() + " set " + String.join(", ", assignments) + " where " + String.join(" and ", conditions);
+        Type[] types = persister.getPropertyTypes();
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(sql);
+        try {
+            int index = 1;
+            for (int i : properties) {
+                types[i].nullSafeSet(statement, values[i], index, session);
+                index += persister.getPropertyColumnNames(i).length;
+            }
+            persister.getIdentifierType().nullSafeSet(statement, id, index, session);
+            index += persister.getIdentifierColumnNames().length;
+            if (expectedVersion != null) {
+                persister.getVersionType().nullSafeSet(statement, expectedVersion, index, session);
+            }
+            return jdbcCoordinator.getResultSetReturn().executeUpdate(statement);
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "Could not update " + persister.getEntityName(), sql);
+        } finally {
+            jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbcCoordinator.afterStatementExecution();
+        }
+    }
+
+    /**
+     * Lock the cache entry of the entity until the transaction completes, so that it is not read, nor put by
+     * concurrent loads of the former state, then loaded again once unlocked.
+     */
+    private static void lockCacheEntry(SessionImplementor session, AbstractEntityPersister persister, Serializable id) {
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        Object cacheKey = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cacheAccess.lockItem(session, cacheKey, null);
+        session.getActionQueue().registerProcess((success, completedSession) -> cacheAccess.unlockItem(completedSession, cacheKey, lock));
+    }
+}
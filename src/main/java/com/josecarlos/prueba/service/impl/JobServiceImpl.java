@@ -1,16 +1,32 @@
 package com.josecarlos.prueba.service.impl;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.josecarlos.prueba.config.ApplicationProperties;
 import com.josecarlos.prueba.domain.Job;
 import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.service.ChangeFeed;
+import com.josecarlos.prueba.service.JobQueryService;
+import com.josecarlos.prueba.service.JobSearchIndex;
 import com.josecarlos.prueba.service.JobService;
+import com.josecarlos.prueba.service.JobTitleSuggester;
+import com.josecarlos.prueba.service.QueryResultCache;
+import com.josecarlos.prueba.service.SingleFlight;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.JobDTO;
 import com.josecarlos.prueba.service.mapper.JobMapper;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -26,32 +42,125 @@ public class JobServiceImpl implements JobService {
 
     private final JobMapper jobMapper;
 
-    public JobServiceImpl(JobRepository jobRepository, JobMapper jobMapper) {
+    private final BulkWriter bulkWriter;
+
+    private final QueryResultCache queryResultCache;
+
+    private final JobQueryService jobQueryService;
+
+    private final JobSearchIndex jobSearchIndex;
+
+    private final JobTitleSuggester jobTitleSuggester;
+
+    private final EntityUpdater entityUpdater;
+
+    private final EntityMultiLoader entityMultiLoader;
+
+    private final OutboxWriter outboxWriter;
+
+    private final ChangeLog changeLog;
+
+    private final SingleFlight singleFlight;
+
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    private final ChangeFeed<JobDTO> changeFeed;
+
+    public JobServiceImpl(
+        JobRepository jobRepository,
+        JobMapper jobMapper,
+        BulkWriter bulkWriter,
+        QueryResultCache queryResultCache,
+        JobQueryService jobQueryService,
+        JobSearchIndex jobSearchIndex,
+        JobTitleSuggester jobTitleSuggester,
+        ApplicationProperties applicationProperties,
+        EntityUpdater entityUpdater,
+        EntityMultiLoader entityMultiLoader,
+        OutboxWriter outboxWriter,
+        ChangeLog changeLog,
+        SingleFlight singleFlight,
+        CacheInvalidationLog cacheInvalidationLog
+    ) {
         this.jobRepository = jobRepository;
         this.jobMapper = jobMapper;
+        this.bulkWriter = bulkWriter;
+        this.queryResultCache = queryResultCache;
+        this.jobQueryService = jobQueryService;
+        this.jobSearchIndex = jobSearchIndex;
+        this.jobTitleSuggester = jobTitleSuggester;
+        this.entityUpdater = entityUpdater;
+        this.entityMultiLoader = entityMultiLoader;
+        this.outboxWriter = outboxWriter;
+        this.changeLog = changeLog;
+        this.singleFlight = singleFlight;
+        this.cacheInvalidationLog = cacheInvalidationLog;
+        this.changeFeed =
+            new ChangeFeed<>(
+                "job",
+                applicationProperties.getChangeFeed().getCapacity(),
+                applicationProperties.getChangeFeed().getMaxSubscribers()
+            );
     }
 
     @Override
     public JobDTO save(JobDTO jobDTO) {
         log.debug("Request to save Job : {}", jobDTO);
         Job job = jobMapper.toEntity(jobDTO);
+        boolean inserted = job.getId() == null;
         job = jobRepository.save(job);
-        return jobMapper.toDto(job);
+        if (inserted) {
+            jobQueryService.getCounters().inserted(job);
+        } else {
+            jobQueryService.getCounters().updated();
+            cacheInvalidationLog.append(Job.class, job.getId());
+        }
+        queryResultCache.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        singleFlight.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        cacheInvalidationLog.append(JobQueryService.JOB_QUERY_CACHE, null);
+        JobDTO result = jobMapper.toDto(job);
+        jobSearchIndex.index(result);
+        if (inserted) {
+            jobTitleSuggester.inserted(result.getTitle());
+        } else {
+            jobTitleSuggester.updated(result.getTitle());
+        }
+        changed(inserted ? ChangeEventDTO.Type.CREATED : ChangeEventDTO.Type.UPDATED, job, result);
+        return result;
     }
 
     @Override
-    public Optional<JobDTO> partialUpdate(JobDTO jobDTO) {
-        log.debug("Request to partially update Job : {}", jobDTO);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResultDTO saveAll(Iterator<JobDTO> jobDTOs) {
+        log.debug("Request to save Job in bulk");
+        BulkResultDTO result = bulkWriter.write(
+            jobDTOs,
+            jobMapper,
+            Job.class,
+            JobDTO::getId,
+            jobs -> jobSearchIndex.index(jobMapper.toDto(jobs))
+        );
+        jobQueryService.getCounters().invalidate();
+        queryResultCache.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        singleFlight.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        cacheInvalidationLog.append(JobQueryService.JOB_QUERY_CACHE, null);
+        jobTitleSuggester.changed();
+        changeFeed.resync();
+        return result;
+    }
 
-        return jobRepository
-            .findById(jobDTO.getId())
-            .map(existingJob -> {
-                jobMapper.partialUpdate(existingJob, jobDTO);
+    @Override
+    public Optional<JobDTO> update(JobDTO jobDTO) {
+        log.debug("Request to update Job : {}", jobDTO);
+        Job job = jobMapper.toEntity(jobDTO);
+        return entityUpdater.update(job).map(this::updated);
+    }
 
-                return existingJob;
-            })
-            .map(jobRepository::save)
-            .map(jobMapper::toDto);
+    @Override
+    public Optional<JobDTO> partialUpdate(JobDTO jobDTO) {
+        log.debug("Request to partially update Job : {}", jobDTO);
+        Job job = jobMapper.toEntity(jobDTO);
+        return entityUpdater.partialUpdate(job).map(this::updated);
     }
 
     @Override
@@ -62,15 +171,124 @@ public class JobServiceImpl implements JobService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<JobDTO> findOne(Long id) {
         log.debug("Request to get Job : {}", id);
-        return jobRepository.findById(id).map(jobMapper::toDto);
+        return singleFlight.execute(
+            JobQueryService.JOB_QUERY_CACHE,
+            "findOne:" + id,
+            () -> jobRepository.findById(id).map(jobMapper::toDto)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<JobDTO> findAllById(LongArrayList ids) {
+        log.debug("Request to get Jobs : {}", ids);
+        return jobMapper.toDto(entityMultiLoader.findAllById(Job.class, ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        log.debug("Request to get the version of Job : {}", id);
+        return jobRepository.findById(id).map(Job::getVersion);
     }
 
     @Override
     public void delete(Long id) {
-        log.debug("Request to delete Job : {}", id);
+        delete(id, null);
+    }
+
+    @Override
+    public void delete(Long id, Long version) {
+        log.debug("Request to delete Job : {}, at version {}", id, version);
+        Optional<Job> job = jobRepository.findById(id);
+        if (version != null && job.map(Job::getVersion).filter(version::equals).isEmpty()) {
+            throw new ObjectOptimisticLockingFailureException(Job.class, id);
+        }
+        if (job.isPresent()) {
+            changeLog.deleted(Job.class, id);
+            cacheInvalidationLog.append(Job.class, id);
+        }
         jobRepository.deleteById(id);
+        job.ifPresent(jobQueryService.getCounters()::deleted);
+        queryResultCache.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        singleFlight.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        cacheInvalidationLog.append(JobQueryService.JOB_QUERY_CACHE, null);
+        jobSearchIndex.delete(id);
+        job.map(Job::getTitle).ifPresent(jobTitleSuggester::deleted);
+        if (job.isPresent()) {
+            outboxWriter.append(Job.class, ChangeEventDTO.Type.DELETED, id, null);
+            changeFeed.publish(ChangeEventDTO.Type.DELETED, id, null);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<JobDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Jobs for query {}", query);
+        Page<Long> ids = jobSearchIndex.search(query, pageable);
+        LongArrayList hits = new LongArrayList(ids.getNumberOfElements());
+        ids.forEach(hits::add);
+        // In the order of the ranking, from the second-level cache when enabled, the jobs deleted since they were found being skipped
+        List<JobDTO> content = jobMapper.toDto(entityMultiLoader.findAllById(Job.class, hits));
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reindex() {
+        log.debug("Request to rebuild the Job search index");
+        jobSearchIndex.rebuild();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<String> suggestTitles(String prefix, int limit) {
+        log.debug("Request to suggest Job titles starting with {}", prefix);
+        return jobTitleSuggester.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangesDTO<JobDTO> findChanges(long since, int size) {
+        log.debug("Request to get the changes of Job since {}", since);
+        return changeLog.findChanges(Job.class, since, size, jobMapper::toDto);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChangeFeed<JobDTO> getChangeFeed() {
+        return changeFeed;
+    }
+
+    private JobDTO updated(Job job) {
+        jobQueryService.getCounters().updated();
+        cacheInvalidationLog.append(Job.class, job.getId());
+        queryResultCache.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        singleFlight.invalidate(JobQueryService.JOB_QUERY_CACHE);
+        cacheInvalidationLog.append(JobQueryService.JOB_QUERY_CACHE, null);
+        JobDTO result = jobMapper.toDto(job);
+        jobSearchIndex.index(result);
+        jobTitleSuggester.updated(result.getTitle());
+        changed(ChangeEventDTO.Type.UPDATED, job, result);
+        return result;
+    }
+
+    /**
+     * Take the change sequence of the Job and write the change to the outbox when the current transaction commits,
+     * and publish it to the change feed once committed.
+     */
+    private void changed(ChangeEventDTO.Type type, Job job, JobDTO jobDTO) {
+        changeLog.changed(
+            Job.class,
+            job,
+            changeSeq -> {
+                jobDTO.setChangeSeq(changeSeq);
+                outboxWriter.append(Job.class, type, jobDTO.getId(), jobDTO);
+            }
+        );
+        changeFeed.publish(type, jobDTO.getId(), jobDTO);
     }
 }
@@ -0,0 +1,29 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.josecarlos.prueba.domain.OutboxEvent;
+import com.josecarlos.prueba.service.OutboxSink;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link OutboxSink} logging the events, one line per event, when no other destination is configured.
+ */
+public class LoggingOutboxSink implements OutboxSink {
+
+    private final Logger log = LoggerFactory.getLogger(LoggingOutboxSink.class);
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info(
+                "Outbox event {}: {} {} {} {}",
+                event.getId(),
+                event.getEventType(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getPayload()
+            );
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.josecarlos.prueba.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.domain.OutboxEvent;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import java.time.Instant;
+import javax.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service writing the changes of the entities to the transactional outbox, from which they are relayed by
+ * {@link com.josecarlos.prueba.service.OutboxRelay}.
+ * <p>
+ * The events are only inserted in the persistence context, so that they are written in the same transaction, and
+ * in the same JDBC batches, as the changes. Must be called within a transaction.
+ */
+@Service
+public class OutboxWriter {
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Write a change of an entity to the outbox.
+     *
+     * @param entityClass the class of the changed entity.
+     * @param type the type of the change.
+     * @param id the id of the changed entity.
+     * @param dto the DTO of the changed entity, as payload of the event, or {@code null} when it is deleted.
+     */
+    public void append(Class<?> entityClass, ChangeEventDTO.Type type, Long id, Object dto) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateType(entityClass.getSimpleName());
+        outboxEvent.setAggregateId(id);
+        outboxEvent.setEventType(type.name());
+        outboxEvent.setCreatedDate(Instant.now());
+        if (dto != null) {
+            try {
+                outboxEvent.setPayload(objectMapper.writeValueAsString(dto));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not write the outbox payload of " + entityClass.getSimpleName() + " " + id, e);
+            }
+        }
+        entityManager.persist(outboxEvent);
+    }
+}
@@ -1,16 +1,29 @@
 package com.josecarlos.prueba.service.impl;
 
+import com.carrotsearch.hppc.LongArrayList;
+import com.josecarlos.prueba.config.ApplicationProperties;
 import com.josecarlos.prueba.domain.Sales;
 import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.ChangeFeed;
+import com.josecarlos.prueba.service.QueryResultCache;
+import com.josecarlos.prueba.service.SalesQueryService;
 import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.SingleFlight;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.SalesDTO;
 import com.josecarlos.prueba.service.mapper.SalesMapper;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -26,32 +39,104 @@ public class SalesServiceImpl implements SalesService {
 
     private final SalesMapper salesMapper;
 
-    public SalesServiceImpl(SalesRepository salesRepository, SalesMapper salesMapper) {
+    private final BulkWriter bulkWriter;
+
+    private final QueryResultCache queryResultCache;
+
+    private final SalesQueryService salesQueryService;
+
+    private final EntityUpdater entityUpdater;
+
+    private final EntityMultiLoader entityMultiLoader;
+
+    private final OutboxWriter outboxWriter;
+
+    private final ChangeLog changeLog;
+
+    private final SingleFlight singleFlight;
+
+    private final CacheInvalidationLog cacheInvalidationLog;
+
+    private final ChangeFeed<SalesDTO> changeFeed;
+
+    public SalesServiceImpl(
+        SalesRepository salesRepository,
+        SalesMapper salesMapper,
+        BulkWriter bulkWriter,
+        QueryResultCache queryResultCache,
+        SalesQueryService salesQueryService,
+        EntityUpdater entityUpdater,
+        EntityMultiLoader entityMultiLoader,
+        OutboxWriter outboxWriter,
+        ChangeLog changeLog,
+        SingleFlight singleFlight,
+        CacheInvalidationLog cacheInvalidationLog,
+        ApplicationProperties applicationProperties
+    ) {
         this.salesRepository = salesRepository;
         this.salesMapper = salesMapper;
+        this.bulkWriter = bulkWriter;
+        this.queryResultCache = queryResultCache;
+        this.salesQueryService = salesQueryService;
+        this.entityUpdater = entityUpdater;
+        this.entityMultiLoader = entityMultiLoader;
+        this.outboxWriter = outboxWriter;
+        this.changeLog = changeLog;
+        this.singleFlight = singleFlight;
+        this.cacheInvalidationLog = cacheInvalidationLog;
+        this.changeFeed =
+            new ChangeFeed<>(
+                "sales",
+                applicationProperties.getChangeFeed().getCapacity(),
+                applicationProperties.getChangeFeed().getMaxSubscribers()
+            );
     }
 
     @Override
     public SalesDTO save(SalesDTO salesDTO) {
         log.debug("Request to save Sales : {}", salesDTO);
         Sales sales = salesMapper.toEntity(salesDTO);
+        boolean inserted = sales.getId() == null;
         sales = salesRepository.save(sales);
-        return salesMapper.toDto(sales);
+        if (inserted) {
+            salesQueryService.getCounters().inserted(sales);
+        } else {
+            salesQueryService.getCounters().updated();
+            cacheInvalidationLog.append(Sales.class, sales.getId());
+        }
+        queryResultCache.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        singleFlight.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        cacheInvalidationLog.append(SalesQueryService.SALES_QUERY_CACHE, null);
+        SalesDTO result = salesMapper.toDto(sales);
+        changed(inserted ? ChangeEventDTO.Type.CREATED : ChangeEventDTO.Type.UPDATED, sales, result);
+        return result;
     }
 
     @Override
-    public Optional<SalesDTO> partialUpdate(SalesDTO salesDTO) {
-        log.debug("Request to partially update Sales : {}", salesDTO);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResultDTO saveAll(Iterator<SalesDTO> salesDTOs) {
+        log.debug("Request to save Sales in bulk");
+        BulkResultDTO result = bulkWriter.write(salesDTOs, salesMapper, Sales.class, SalesDTO::getId);
+        salesQueryService.getCounters().invalidate();
+        queryResultCache.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        singleFlight.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        cacheInvalidationLog.append(SalesQueryService.SALES_QUERY_CACHE, null);
+        changeFeed.resync();
+        return result;
+    }
 
-        return salesRepository
-            .findById(salesDTO.getId())
-            .map(existingSales -> {
-                salesMapper.partialUpdate(existingSales, salesDTO);
+    @Override
+    public Optional<SalesDTO> update(SalesDTO salesDTO) {
+        log.debug("Request to update Sales : {}", salesDTO);
+        Sales sales = salesMapper.toEntity(salesDTO);
+        return entityUpdater.update(sales).map(this::updated);
+    }
 
-                return existingSales;
-            })
-            .map(salesRepository::save)
-            .map(salesMapper::toDto);
+    @Override
+    public Optional<SalesDTO> partialUpdate(SalesDTO salesDTO) {
+        log.debug("Request to partially update Sales : {}", salesDTO);
+        Sales sales = salesMapper.toEntity(salesDTO);
+        return entityUpdater.partialUpdate(sales).map(this::updated);
     }
 
     @Override
@@ -62,15 +147,94 @@ public class SalesServiceImpl implements SalesService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<SalesDTO> findOne(Long id) {
         log.debug("Request to get Sales : {}", id);
-        return salesRepository.findById(id).map(salesMapper::toDto);
+        return singleFlight.execute(
+            SalesQueryService.SALES_QUERY_CACHE,
+            "findOne:" + id,
+            () -> salesRepository.findById(id).map(salesMapper::toDto)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SalesDTO> findAllById(LongArrayList ids) {
+        log.debug("Request to get Sales : {}", ids);
+        return salesMapper.toDto(entityMultiLoader.findAllById(Sales.class, ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersion(Long id) {
+        log.debug("Request to get the version of Sales : {}", id);
+        return salesRepository.findById(id).map(Sales::getVersion);
     }
 
     @Override
     public void delete(Long id) {
-        log.debug("Request to delete Sales : {}", id);
+        delete(id, null);
+    }
+
+    @Override
+    public void delete(Long id, Long version) {
+        log.debug("Request to delete Sales : {}, at version {}", id, version);
+        Optional<Sales> sales = salesRepository.findById(id);
+        if (version != null && sales.map(Sales::getVersion).filter(version::equals).isEmpty()) {
+            throw new ObjectOptimisticLockingFailureException(Sales.class, id);
+        }
+        if (sales.isPresent()) {
+            changeLog.deleted(Sales.class, id);
+            cacheInvalidationLog.append(Sales.class, id);
+        }
         salesRepository.deleteById(id);
+        sales.ifPresent(salesQueryService.getCounters()::deleted);
+        queryResultCache.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        singleFlight.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        cacheInvalidationLog.append(SalesQueryService.SALES_QUERY_CACHE, null);
+        if (sales.isPresent()) {
+            outboxWriter.append(Sales.class, ChangeEventDTO.Type.DELETED, id, null);
+            changeFeed.publish(ChangeEventDTO.Type.DELETED, id, null);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ChangesDTO<SalesDTO> findChanges(long since, int size) {
+        log.debug("Request to get the changes of Sales since {}", since);
+        return changeLog.findChanges(Sales.class, since, size, salesMapper::toDto);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ChangeFeed<SalesDTO> getChangeFeed() {
+        return changeFeed;
+    }
+
+    private SalesDTO updated(Sales sales) {
+        salesQueryService.getCounters().updated();
+        cacheInvalidationLog.append(Sales.class, sales.getId());
+        queryResultCache.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        singleFlight.invalidate(SalesQueryService.SALES_QUERY_CACHE);
+        cacheInvalidationLog.append(SalesQueryService.SALES_QUERY_CACHE, null);
+        SalesDTO result = salesMapper.toDto(sales);
+        changed(ChangeEventDTO.Type.UPDATED, sales, result);
+        return result;
+    }
+
+    /**
+     * Take the change sequence of the Sales and write the change to the outbox when the current transaction commits,
+     * and publish it to the change feed once committed.
+     */
+    private void changed(ChangeEventDTO.Type type, Sales sales, SalesDTO salesDTO) {
+        changeLog.changed(
+            Sales.class,
+            sales,
+            changeSeq -> {
+                salesDTO.setChangeSeq(changeSeq);
+                outboxWriter.append(Sales.class, type, salesDTO.getId(), salesDTO);
+            }
+        );
+        changeFeed.publish(type, salesDTO.getId(), salesDTO);
     }
 }
@@ -1,16 +1,33 @@
 package com.josecarlos.prueba.web.rest;
 
-import com.josecarlos.prueba.repository.JobRepository;
+import com.carrotsearch.hppc.LongArrayList;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.config.ApplicationProperties;
 import com.josecarlos.prueba.service.JobQueryService;
 import com.josecarlos.prueba.service.JobService;
+import com.josecarlos.prueba.service.KeysetCursor;
+import com.josecarlos.prueba.service.KeysetSlice;
 import com.josecarlos.prueba.service.criteria.JobCriteria;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.JobDTO;
 import com.josecarlos.prueba.web.rest.errors.BadRequestAlertException;
+import com.josecarlos.prueba.web.rest.util.ChangeFeedSseUtil;
+import com.josecarlos.prueba.web.rest.util.CountPaginationUtil;
+import com.josecarlos.prueba.web.rest.util.ETagUtil;
+import com.josecarlos.prueba.web.rest.util.KeysetPaginationUtil;
+import com.josecarlos.prueba.web.rest.util.StreamingExportUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
@@ -18,14 +35,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.josecarlos.prueba.domain.Job}.
@@ -38,19 +58,33 @@ public class JobResource {
 
     private static final String ENTITY_NAME = "job";
 
+    private static final int MAX_IDS = 1000;
+
+    private static final int MAX_CHANGES = 1000;
+
+    private static final int MAX_SUGGESTIONS = 100;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final JobService jobService;
 
-    private final JobRepository jobRepository;
-
     private final JobQueryService jobQueryService;
 
-    public JobResource(JobService jobService, JobRepository jobRepository, JobQueryService jobQueryService) {
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public JobResource(
+        JobService jobService,
+        JobQueryService jobQueryService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.jobService = jobService;
-        this.jobRepository = jobRepository;
         this.jobQueryService = jobQueryService;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -73,19 +107,51 @@ public class JobResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /jobs/bulk} : Create or update jobs in bulk.
+     * <p>
+     * The body is either a JSON array or newline delimited JSON objects, which is read as a stream. The jobs
+     * without id are created, the others are updated. Invalid jobs are reported in the response and skipped.
+     *
+     * @param body the jobDTOs to create or update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the bulk save,
+     * or with status {@code 400 (Bad Request)} if the body cannot be read.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/jobs/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<BulkResultDTO> bulkSaveJobs(InputStream body) throws IOException {
+        log.debug("REST request to save Jobs in bulk");
+        MappingIterator<JobDTO> jobDTOs;
+        try {
+            jobDTOs = objectMapper.readerFor(JobDTO.class).readValues(body);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestAlertException("Unreadable body", ENTITY_NAME, "badbody");
+        }
+        try (jobDTOs) {
+            BulkResultDTO result = jobService.saveAll(jobDTOs);
+            return ResponseEntity.ok().body(result);
+        }
+    }
+
     /**
      * {@code PUT  /jobs/:id} : Updates an existing job.
      *
      * @param id the id of the jobDTO to save.
+     * @param ifMatch the ETag of the version of the job to update, if the update is conditional.
      * @param jobDTO the jobDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated jobDTO,
      * or with status {@code 400 (Bad Request)} if the jobDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the jobDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the job is not at the version of {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the jobDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/jobs/{id}")
-    public ResponseEntity<JobDTO> updateJob(@PathVariable(value = "id", required = false) final Long id, @Valid @RequestBody JobDTO jobDTO)
-        throws URISyntaxException {
+    public ResponseEntity<JobDTO> updateJob(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @Valid @RequestBody JobDTO jobDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update Job : {}, {}", id, jobDTO);
         if (jobDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -93,32 +159,35 @@ public class JobResource {
         if (!Objects.equals(id, jobDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!jobRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (ifMatch != null) {
+            jobDTO.setVersion(ETagUtil.parseIfMatch(ifMatch));
         }
 
-        JobDTO result = jobService.save(jobDTO);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, jobDTO.getId().toString()))
-            .body(result);
+        Optional<JobDTO> result = jobService.update(jobDTO);
+        return ETagUtil.wrapOrNotFound(
+            result,
+            JobDTO::getVersion,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, jobDTO.getId().toString())
+        );
     }
 
     /**
      * {@code PATCH  /jobs/:id} : Partial updates given fields of an existing job, field will ignore if it is null
      *
      * @param id the id of the jobDTO to save.
+     * @param ifMatch the ETag of the version of the job to update, if the update is conditional.
      * @param jobDTO the jobDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated jobDTO,
      * or with status {@code 400 (Bad Request)} if the jobDTO is not valid,
      * or with status {@code 404 (Not Found)} if the jobDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the job is not at the version of {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the jobDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/jobs/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<JobDTO> partialUpdateJob(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody JobDTO jobDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Job partially : {}, {}", id, jobDTO);
@@ -128,34 +197,224 @@ public class JobResource {
         if (!Objects.equals(id, jobDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!jobRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (ifMatch != null) {
+            jobDTO.setVersion(ETagUtil.parseIfMatch(ifMatch));
         }
 
         Optional<JobDTO> result = jobService.partialUpdate(jobDTO);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ETagUtil.wrapOrNotFound(
             result,
+            JobDTO::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, jobDTO.getId().toString())
         );
     }
 
     /**
      * {@code GET  /jobs} : get all the jobs.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first slice), keyset pagination is used:
+     * no total count is computed, and the {@code Link} header holds the cursor of the next slice.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body.
+     * @param after the cursor of the last job of the previous slice, to use keyset pagination.
+     * @param count the count mode, {@code exact} (default) or {@code approximate} to get an {@code X-Total-Count}
+     * which can be stale, or a lower bound.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort are not valid for keyset pagination,
+     * or if the count mode is not supported.
      */
     @GetMapping("/jobs")
-    public ResponseEntity<List<JobDTO>> getAllJobs(JobCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<JobDTO>> getAllJobs(
+        JobCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String after,
+        @RequestParam(value = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.EXACT) String count
+    ) {
         log.debug("REST request to get Jobs by criteria: {}", criteria);
-        Page<JobDTO> page = jobQueryService.findByCriteria(criteria, pageable);
+        return findAll(
+            after,
+            count,
+            cursor -> jobQueryService.findByCriteria(criteria, cursor, pageable),
+            approximateCount -> jobQueryService.findByCriteria(criteria, pageable, approximateCount)
+        );
+    }
+
+    /**
+     * {@code GET  /jobs?fields=:fields} : get the given fields of all the jobs, as {@code GET  /jobs} does.
+     * <p>
+     * Only the columns of the fields are read, and only the fields are written.
+     *
+     * @param fields the names of the fields of the jobs to return, comma separated.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param after the cursor of the last job of the previous slice, to use keyset pagination.
+     * @param count the count mode, {@code exact} (default) or {@code approximate} to get an {@code X-Total-Count}
+     * which can be stale, or a lower bound.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the fields of the jobs in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown, if the cursor or the sort are not valid for keyset
+     * pagination, or if the count mode is not supported.
+     */
+    @GetMapping(value = "/jobs", params = { "fields", "!ids" })
+    public ResponseEntity<List<Map<String, Object>>> getAllJobsFields(
+        @RequestParam("fields") List<String> fields,
+        JobCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String after,
+        @RequestParam(value = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.EXACT) String count
+    ) {
+        log.debug("REST request to get the fields {} of Jobs by criteria: {}", fields, criteria);
+        try {
+            return findAll(
+                after,
+                count,
+                cursor -> jobQueryService.findByCriteria(criteria, fields, cursor, pageable),
+                approximateCount -> jobQueryService.findByCriteria(criteria, fields, pageable, approximateCount)
+            );
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badfields");
+        }
+    }
+
+    /**
+     * {@code GET  /jobs?ids=:ids} : get the jobs with the given ids, from the second-level cache when it holds them.
+     *
+     * @param ids the ids of the jobs, comma separated or as repeated parameters.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the existing jobs in body, in the
+     * order of their ids, or with status {@code 400 (Bad Request)} if there are more than 1000 ids.
+     */
+    @GetMapping(value = "/jobs", params = "ids")
+    public ResponseEntity<List<JobDTO>> getJobsById(@RequestParam("ids") long[] ids) {
+        log.debug("REST request to get Job by {} ids", ids.length);
+        return ResponseEntity.ok().body(findAllById(ids));
+    }
+
+    /**
+     * {@code POST  /jobs/_fetch} : get the jobs with the given ids, from the second-level cache when it holds them.
+     * Same as {@code GET  /jobs?ids=:ids}, for the lists of ids which do not fit in a URL.
+     *
+     * @param ids the JSON array of the ids of the jobs.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the existing jobs in body, in the
+     * order of their ids, or with status {@code 400 (Bad Request)} if there are more than 1000 ids.
+     */
+    @PostMapping("/jobs/_fetch")
+    public ResponseEntity<List<JobDTO>> fetchJobs(@RequestBody long[] ids) {
+        log.debug("REST request to fetch Job by {} ids", ids.length);
+        return ResponseEntity.ok().body(findAllById(ids));
+    }
+
+    /**
+     * {@code GET  /jobs/export} : export all the jobs, streamed from the database.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param sort the order of the exported entities.
+     * @param format the export format, {@code ndjson} (default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed jobs in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/jobs/export")
+    public ResponseEntity<StreamingResponseBody> exportJobs(
+        JobCriteria criteria,
+        Sort sort,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        log.debug("REST request to export Jobs by criteria: {}", criteria);
+        StreamingExportUtil.Format exportFormat = StreamingExportUtil.Format
+            .of(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "badformat"));
+        return StreamingExportUtil.export(
+            ENTITY_NAME,
+            exportFormat,
+            JobDTO.class,
+            objectMapper,
+            applicationProperties.getExport().getTimeout(),
+            action -> jobQueryService.streamByCriteria(criteria, sort, action)
+        );
+    }
+
+    /**
+     * {@code GET  /jobs/_search?q=:query} : search the jobs by title and description, best matches first.
+     *
+     * @param query the words to search.
+     * @param pageable the pagination information, its sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body,
+     * or with status {@code 400 (Bad Request)} if the query is blank.
+     */
+    @GetMapping("/jobs/_search")
+    public ResponseEntity<List<JobDTO>> searchJobs(@RequestParam("q") String query, Pageable pageable) {
+        log.debug("REST request to search for a page of Jobs for query {}", query);
+        if (query.isBlank()) {
+            throw new BadRequestAlertException("Empty search query", ENTITY_NAME, "badquery");
+        }
+        Page<JobDTO> page = jobService.search(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /jobs/_suggest?prefix=:prefix&limit=:limit} : suggest the job titles starting with the prefix,
+     * the most frequent first, from memory.
+     *
+     * @param prefix the start of the titles, the case being ignored.
+     * @param limit the maximum number of titles to return, from 1 to 100.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of titles in body,
+     * or with status {@code 400 (Bad Request)} if the prefix is blank or the limit is out of bounds.
+     */
+    @GetMapping("/jobs/_suggest")
+    public ResponseEntity<List<String>> suggestJobTitles(
+        @RequestParam("prefix") String prefix,
+        @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to suggest Job titles starting with {}", prefix);
+        if (prefix.isBlank()) {
+            throw new BadRequestAlertException("Empty suggestion prefix", ENTITY_NAME, "badprefix");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new BadRequestAlertException("Invalid suggestion limit", ENTITY_NAME, "badlimit");
+        }
+        return ResponseEntity.ok().body(jobService.suggestTitles(prefix, limit));
+    }
+
+    /**
+     * {@code GET  /jobs/stream} : stream the committed changes of the jobs, as Server-Sent Events.
+     * <p>
+     * A {@code resync} event is sent instead of the changes which were missed, when the client falls behind or resumes
+     * from an event which is no longer kept: the client should then read the jobs again.
+     *
+     * @param lastEventId the id of the last event received by the client, to resume after it.
+     * @return the emitter of the events, or status {@code 503 (Service Unavailable)} if there are too many subscribers.
+     */
+    @GetMapping(value = "/jobs/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobs(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.debug("REST request to stream the changes of Jobs after {}", lastEventId);
+        return ChangeFeedSseUtil.stream(jobService.getChangeFeed(), lastEventId, applicationProperties.getChangeFeed().getTimeout());
+    }
+
+    /**
+     * {@code GET  /jobs/changes} : get the changes of the jobs since a change sequence, for the delta sync of the clients.
+     * <p>
+     * The client requests the following changes from the {@code next} sequence of the response, while {@code more} is set.
+     * The deleted jobs are only reported for {@code application.delta-sync.tombstone-retention}: past it, {@code resync}
+     * is set, and the client should read the jobs again before requesting the changes from {@code next}.
+     *
+     * @param since the change sequence of the last change known to the client, 0 to get all the jobs.
+     * @param size the maximum number of changes to return, from 1 to 1000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body,
+     * or with status {@code 400 (Bad Request)} if the sequence is negative or the size is out of bounds.
+     */
+    @GetMapping("/jobs/changes")
+    public ResponseEntity<ChangesDTO<JobDTO>> getJobChanges(
+        @RequestParam(value = "since", defaultValue = "0") long since,
+        @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+        log.debug("REST request to get the changes of Jobs since {}", since);
+        if (since < 0 || size < 1 || size > MAX_CHANGES) {
+            throw new BadRequestAlertException("Invalid change sequence or size", ENTITY_NAME, "badchanges");
+        }
+        return ResponseEntity.ok().body(jobService.findChanges(since, size));
+    }
+
     /**
      * {@code GET  /jobs/count} : count all the jobs.
      *
@@ -170,30 +429,90 @@ public class JobResource {
 
     /**
      * {@code GET  /jobs/:id} : get the "id" job.
+     * <p>
+     * The ETag of the response is the version of the job. When {@code If-None-Match} holds it, only the version is
+     * read, from the second-level cache if it holds the job, and no body is sent.
      *
      * @param id the id of the jobDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the jobDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETags of the versions of the job known to the client, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the jobDTO,
+     * or with status {@code 304 (Not Modified)} if the client has the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/jobs/{id}")
-    public ResponseEntity<JobDTO> getJob(@PathVariable Long id) {
+    public ResponseEntity<JobDTO> getJob(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Job : {}", id);
+        if (ifNoneMatch != null) {
+            Optional<Long> version = jobService.findVersion(id);
+            if (version.isPresent() && ETagUtil.matchesIfNoneMatch(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETagUtil.toETag(version.get())).build();
+            }
+        }
         Optional<JobDTO> jobDTO = jobService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(jobDTO);
+        return ETagUtil.wrapOrNotFound(jobDTO, JobDTO::getVersion, new HttpHeaders());
     }
 
     /**
      * {@code DELETE  /jobs/:id} : delete the "id" job.
      *
      * @param id the id of the jobDTO to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @param ifMatch the ETag of the version of the job to delete, if the deletion is conditional.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 412 (Precondition Failed)} if the job is not at the version of {@code If-Match}.
      */
     @DeleteMapping("/jobs/{id}")
-    public ResponseEntity<Void> deleteJob(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteJob(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         log.debug("REST request to delete Job : {}", id);
-        jobService.delete(id);
+        jobService.delete(id, ETagUtil.parseIfMatch(ifMatch));
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private List<JobDTO> findAllById(long[] ids) {
+        if (ids.length > MAX_IDS) {
+            throw new BadRequestAlertException("Too many ids", ENTITY_NAME, "toomanyids");
+        }
+        return jobService.findAllById(LongArrayList.from(ids));
+    }
+
+    /**
+     * Get a keyset slice when there is a cursor, a page otherwise, with their pagination headers.
+     */
+    private <T> ResponseEntity<List<T>> findAll(
+        String after,
+        String count,
+        Function<KeysetCursor, KeysetSlice<T>> findSlice,
+        Function<Boolean, Page<T>> findPage
+    ) {
+        if (after != null) {
+            KeysetSlice<T> slice;
+            try {
+                slice = findSlice.apply(KeysetPaginationUtil.parseCursor(after));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badcursor");
+            }
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        boolean approximateCount;
+        try {
+            approximateCount = CountPaginationUtil.isApproximate(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badcount");
+        }
+        Page<T> page = findPage.apply(approximateCount);
+        HttpHeaders headers = CountPaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page,
+            approximateCount
+        );
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
 }
@@ -1,29 +1,48 @@
 package com.josecarlos.prueba.web.rest;
 
-import com.josecarlos.prueba.repository.SalesRepository;
+import com.carrotsearch.hppc.LongArrayList;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.service.KeysetCursor;
+import com.josecarlos.prueba.service.KeysetSlice;
 import com.josecarlos.prueba.service.SalesQueryService;
 import com.josecarlos.prueba.service.SalesService;
 import com.josecarlos.prueba.service.criteria.SalesCriteria;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.ChangesDTO;
 import com.josecarlos.prueba.service.dto.SalesDTO;
 import com.josecarlos.prueba.web.rest.errors.BadRequestAlertException;
+import com.josecarlos.prueba.web.rest.util.ChangeFeedSseUtil;
+import com.josecarlos.prueba.web.rest.util.CountPaginationUtil;
+import com.josecarlos.prueba.web.rest.util.ETagUtil;
+import com.josecarlos.prueba.web.rest.util.KeysetPaginationUtil;
+import com.josecarlos.prueba.web.rest.util.StreamingExportUtil;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.josecarlos.prueba.domain.Sales}.
@@ -36,19 +55,31 @@ public class SalesResource {
 
     private static final String ENTITY_NAME = "sales";
 
+    private static final int MAX_IDS = 1000;
+
+    private static final int MAX_CHANGES = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final SalesService salesService;
 
-    private final SalesRepository salesRepository;
-
     private final SalesQueryService salesQueryService;
 
-    public SalesResource(SalesService salesService, SalesRepository salesRepository, SalesQueryService salesQueryService) {
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties applicationProperties;
+
+    public SalesResource(
+        SalesService salesService,
+        SalesQueryService salesQueryService,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.salesService = salesService;
-        this.salesRepository = salesRepository;
         this.salesQueryService = salesQueryService;
+        this.objectMapper = objectMapper;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -71,19 +102,49 @@ public class SalesResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /sales/bulk} : Create or update sales in bulk.
+     * <p>
+     * The body is either a JSON array or newline delimited JSON objects, which is read as a stream. The sales
+     * without id are created, the others are updated. Invalid sales are reported in the response and skipped.
+     *
+     * @param body the salesDTOs to create or update.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of the bulk save,
+     * or with status {@code 400 (Bad Request)} if the body cannot be read.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/sales/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson" })
+    public ResponseEntity<BulkResultDTO> bulkSaveSales(InputStream body) throws IOException {
+        log.debug("REST request to save Sales in bulk");
+        MappingIterator<SalesDTO> salesDTOs;
+        try {
+            salesDTOs = objectMapper.readerFor(SalesDTO.class).readValues(body);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestAlertException("Unreadable body", ENTITY_NAME, "badbody");
+        }
+        try (salesDTOs) {
+            BulkResultDTO result = salesService.saveAll(salesDTOs);
+            return ResponseEntity.ok().body(result);
+        }
+    }
+
     /**
      * {@code PUT  /sales/:id} : Updates an existing sales.
      *
      * @param id the id of the salesDTO to save.
+     * @param ifMatch the ETag of the version of the sales to update, if the update is conditional.
      * @param salesDTO the salesDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated salesDTO,
      * or with status {@code 400 (Bad Request)} if the salesDTO is not valid,
+     * or with status {@code 404 (Not Found)} if the salesDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the sales is not at the version of {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the salesDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/sales/{id}")
     public ResponseEntity<SalesDTO> updateSales(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody SalesDTO salesDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Sales : {}, {}", id, salesDTO);
@@ -93,32 +154,35 @@ public class SalesResource {
         if (!Objects.equals(id, salesDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!salesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (ifMatch != null) {
+            salesDTO.setVersion(ETagUtil.parseIfMatch(ifMatch));
         }
 
-        SalesDTO result = salesService.save(salesDTO);
-        return ResponseEntity
-            .ok()
-            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, salesDTO.getId().toString()))
-            .body(result);
+        Optional<SalesDTO> result = salesService.update(salesDTO);
+        return ETagUtil.wrapOrNotFound(
+            result,
+            SalesDTO::getVersion,
+            HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, salesDTO.getId().toString())
+        );
     }
 
     /**
      * {@code PATCH  /sales/:id} : Partial updates given fields of an existing sales, field will ignore if it is null
      *
      * @param id the id of the salesDTO to save.
+     * @param ifMatch the ETag of the version of the sales to update, if the update is conditional.
      * @param salesDTO the salesDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated salesDTO,
      * or with status {@code 400 (Bad Request)} if the salesDTO is not valid,
      * or with status {@code 404 (Not Found)} if the salesDTO is not found,
+     * or with status {@code 412 (Precondition Failed)} if the sales is not at the version of {@code If-Match},
      * or with status {@code 500 (Internal Server Error)} if the salesDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/sales/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<SalesDTO> partialUpdateSales(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody SalesDTO salesDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Sales partially : {}, {}", id, salesDTO);
@@ -128,32 +192,179 @@ public class SalesResource {
         if (!Objects.equals(id, salesDTO.getId())) {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
-
-        if (!salesRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        if (ifMatch != null) {
+            salesDTO.setVersion(ETagUtil.parseIfMatch(ifMatch));
         }
 
         Optional<SalesDTO> result = salesService.partialUpdate(salesDTO);
 
-        return ResponseUtil.wrapOrNotFound(
+        return ETagUtil.wrapOrNotFound(
             result,
+            SalesDTO::getVersion,
             HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, salesDTO.getId().toString())
         );
     }
 
     /**
      * {@code GET  /sales} : get all the sales.
+     * <p>
+     * When the {@code after} parameter is present (empty for the first slice), keyset pagination is used:
+     * no total count is computed, and the {@code Link} header holds the cursor of the next slice.
      *
      * @param pageable the pagination information.
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sales in body.
+     * @param after the cursor of the last sales of the previous slice, to use keyset pagination.
+     * @param count the count mode, {@code exact} (default) or {@code approximate} to get an {@code X-Total-Count}
+     * which can be stale, or a lower bound.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of sales in body,
+     * or with status {@code 400 (Bad Request)} if the cursor or the sort are not valid for keyset pagination,
+     * or if the count mode is not supported.
      */
     @GetMapping("/sales")
-    public ResponseEntity<List<SalesDTO>> getAllSales(SalesCriteria criteria, Pageable pageable) {
+    public ResponseEntity<List<SalesDTO>> getAllSales(
+        SalesCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String after,
+        @RequestParam(value = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.EXACT) String count
+    ) {
         log.debug("REST request to get Sales by criteria: {}", criteria);
-        Page<SalesDTO> page = salesQueryService.findByCriteria(criteria, pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-        return ResponseEntity.ok().headers(headers).body(page.getContent());
+        return findAll(
+            after,
+            count,
+            cursor -> salesQueryService.findByCriteria(criteria, cursor, pageable),
+            approximateCount -> salesQueryService.findByCriteria(criteria, pageable, approximateCount)
+        );
+    }
+
+    /**
+     * {@code GET  /sales?fields=:fields} : get the given fields of all the sales, as {@code GET  /sales} does.
+     * <p>
+     * Only the columns of the fields are read, and only the fields are written.
+     *
+     * @param fields the names of the fields of the sales to return, comma separated.
+     * @param criteria the criteria which the requested entities should match.
+     * @param pageable the pagination information.
+     * @param after the cursor of the last sales of the previous slice, to use keyset pagination.
+     * @param count the count mode, {@code exact} (default) or {@code approximate} to get an {@code X-Total-Count}
+     * which can be stale, or a lower bound.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the fields of the sales in body,
+     * or with status {@code 400 (Bad Request)} if a field is unknown, if the cursor or the sort are not valid for keyset
+     * pagination, or if the count mode is not supported.
+     */
+    @GetMapping(value = "/sales", params = { "fields", "!ids" })
+    public ResponseEntity<List<Map<String, Object>>> getAllSalesFields(
+        @RequestParam("fields") List<String> fields,
+        SalesCriteria criteria,
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String after,
+        @RequestParam(value = CountPaginationUtil.COUNT_PARAMETER, defaultValue = CountPaginationUtil.EXACT) String count
+    ) {
+        log.debug("REST request to get the fields {} of Sales by criteria: {}", fields, criteria);
+        try {
+            return findAll(
+                after,
+                count,
+                cursor -> salesQueryService.findByCriteria(criteria, fields, cursor, pageable),
+                approximateCount -> salesQueryService.findByCriteria(criteria, fields, pageable, approximateCount)
+            );
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badfields");
+        }
+    }
+
+    /**
+     * {@code GET  /sales?ids=:ids} : get the sales with the given ids, from the second-level cache when it holds them.
+     *
+     * @param ids the ids of the sales, comma separated or as repeated parameters.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the existing sales in body, in the
+     * order of their ids, or with status {@code 400 (Bad Request)} if there are more than 1000 ids.
+     */
+    @GetMapping(value = "/sales", params = "ids")
+    public ResponseEntity<List<SalesDTO>> getSalesById(@RequestParam("ids") long[] ids) {
+        log.debug("REST request to get Sales by {} ids", ids.length);
+        return ResponseEntity.ok().body(findAllById(ids));
+    }
+
+    /**
+     * {@code POST  /sales/_fetch} : get the sales with the given ids, from the second-level cache when it holds them.
+     * Same as {@code GET  /sales?ids=:ids}, for the lists of ids which do not fit in a URL.
+     *
+     * @param ids the JSON array of the ids of the sales.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of the existing sales in body, in the
+     * order of their ids, or with status {@code 400 (Bad Request)} if there are more than 1000 ids.
+     */
+    @PostMapping("/sales/_fetch")
+    public ResponseEntity<List<SalesDTO>> fetchSales(@RequestBody long[] ids) {
+        log.debug("REST request to fetch Sales by {} ids", ids.length);
+        return ResponseEntity.ok().body(findAllById(ids));
+    }
+
+    /**
+     * {@code GET  /sales/export} : export all the sales, streamed from the database.
+     *
+     * @param criteria the criteria which the exported entities should match.
+     * @param sort the order of the exported entities.
+     * @param format the export format, {@code ndjson} (default) or {@code csv}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed sales in body,
+     * or with status {@code 400 (Bad Request)} if the format is not supported.
+     */
+    @GetMapping("/sales/export")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+        SalesCriteria criteria,
+        Sort sort,
+        @RequestParam(value = "format", defaultValue = "ndjson") String format
+    ) {
+        log.debug("REST request to export Sales by criteria: {}", criteria);
+        StreamingExportUtil.Format exportFormat = StreamingExportUtil.Format
+            .of(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unsupported export format", ENTITY_NAME, "badformat"));
+        return StreamingExportUtil.export(
+            ENTITY_NAME,
+            exportFormat,
+            SalesDTO.class,
+            objectMapper,
+            applicationProperties.getExport().getTimeout(),
+            action -> salesQueryService.streamByCriteria(criteria, sort, action)
+        );
+    }
+
+    /**
+     * {@code GET  /sales/stream} : stream the committed changes of the sales, as Server-Sent Events.
+     * <p>
+     * A {@code resync} event is sent instead of the changes which were missed, when the client falls behind or resumes
+     * from an event which is no longer kept: the client should then read the sales again.
+     *
+     * @param lastEventId the id of the last event received by the client, to resume after it.
+     * @return the emitter of the events, or status {@code 503 (Service Unavailable)} if there are too many subscribers.
+     */
+    @GetMapping(value = "/sales/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSales(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        log.debug("REST request to stream the changes of Sales after {}", lastEventId);
+        return ChangeFeedSseUtil.stream(salesService.getChangeFeed(), lastEventId, applicationProperties.getChangeFeed().getTimeout());
+    }
+
+    /**
+     * {@code GET  /sales/changes} : get the changes of the sales since a change sequence, for the delta sync of the clients.
+     * <p>
+     * The client requests the following changes from the {@code next} sequence of the response, while {@code more} is set.
+     * The deleted sales are only reported for {@code application.delta-sync.tombstone-retention}: past it, {@code resync}
+     * is set, and the client should read the sales again before requesting the changes from {@code next}.
+     *
+     * @param since the change sequence of the last change known to the client, 0 to get all the sales.
+     * @param size the maximum number of changes to return, from 1 to 1000.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the changes in body,
+     * or with status {@code 400 (Bad Request)} if the sequence is negative or the size is out of bounds.
+     */
+    @GetMapping("/sales/changes")
+    public ResponseEntity<ChangesDTO<SalesDTO>> getSalesChanges(
+        @RequestParam(value = "since", defaultValue = "0") long since,
+        @RequestParam(value = "size", defaultValue = "100") int size
+    ) {
+        log.debug("REST request to get the changes of Sales since {}", since);
+        if (since < 0 || size < 1 || size > MAX_CHANGES) {
+            throw new BadRequestAlertException("Invalid change sequence or size", ENTITY_NAME, "badchanges");
+        }
+        return ResponseEntity.ok().body(salesService.findChanges(since, size));
     }
 
     /**
@@ -170,30 +381,90 @@ public class SalesResource {
 
     /**
      * {@code GET  /sales/:id} : get the "id" sales.
+     * <p>
+     * The ETag of the response is the version of the sales. When {@code If-None-Match} holds it, only the version is
+     * read, from the second-level cache if it holds the sales, and no body is sent.
      *
      * @param id the id of the salesDTO to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the salesDTO, or with status {@code 404 (Not Found)}.
+     * @param ifNoneMatch the ETags of the versions of the sales known to the client, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the salesDTO,
+     * or with status {@code 304 (Not Modified)} if the client has the current version, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/sales/{id}")
-    public ResponseEntity<SalesDTO> getSales(@PathVariable Long id) {
+    public ResponseEntity<SalesDTO> getSales(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
         log.debug("REST request to get Sales : {}", id);
+        if (ifNoneMatch != null) {
+            Optional<Long> version = salesService.findVersion(id);
+            if (version.isPresent() && ETagUtil.matchesIfNoneMatch(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETagUtil.toETag(version.get())).build();
+            }
+        }
         Optional<SalesDTO> salesDTO = salesService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(salesDTO);
+        return ETagUtil.wrapOrNotFound(salesDTO, SalesDTO::getVersion, new HttpHeaders());
     }
 
     /**
      * {@code DELETE  /sales/:id} : delete the "id" sales.
      *
      * @param id the id of the salesDTO to delete.
-     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     * @param ifMatch the ETag of the version of the sales to delete, if the deletion is conditional.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)},
+     * or with status {@code 412 (Precondition Failed)} if the sales is not at the version of {@code If-Match}.
      */
     @DeleteMapping("/sales/{id}")
-    public ResponseEntity<Void> deleteSales(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteSales(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         log.debug("REST request to delete Sales : {}", id);
-        salesService.delete(id);
+        salesService.delete(id, ETagUtil.parseIfMatch(ifMatch));
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, false, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    private List<SalesDTO> findAllById(long[] ids) {
+        if (ids.length > MAX_IDS) {
+            throw new BadRequestAlertException("Too many ids", ENTITY_NAME, "toomanyids");
+        }
+        return salesService.findAllById(LongArrayList.from(ids));
+    }
+
+    /**
+     * Get a keyset slice when there is a cursor, a page otherwise, with their pagination headers.
+     */
+    private <T> ResponseEntity<List<T>> findAll(
+        String after,
+        String count,
+        Function<KeysetCursor, KeysetSlice<T>> findSlice,
+        Function<Boolean, Page<T>> findPage
+    ) {
+        if (after != null) {
+            KeysetSlice<T> slice;
+            try {
+                slice = findSlice.apply(KeysetPaginationUtil.parseCursor(after));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badcursor");
+            }
+            HttpHeaders headers = KeysetPaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), slice);
+            return ResponseEntity.ok().headers(headers).body(slice.getContent());
+        }
+        boolean approximateCount;
+        try {
+            approximateCount = CountPaginationUtil.isApproximate(count);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "badcount");
+        }
+        Page<T> page = findPage.apply(approximateCount);
+        HttpHeaders headers = CountPaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page,
+            approximateCount
+        );
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
 }
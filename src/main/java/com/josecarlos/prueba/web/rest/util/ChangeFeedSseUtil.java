@@ -0,0 +1,62 @@
+package com.josecarlos.prueba.web.rest.util;
+
+import com.josecarlos.prueba.service.ChangeFeed;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Utility class for streaming the events of a {@link ChangeFeed} as Server-Sent Events.
+ * <p>
+ * Each event is sent with its id, with its type in lower case as event name, and with the JSON of the
+ * {@link ChangeEventDTO} as data. The clients resume after a disconnection by sending the id of the last event they
+ * received in the {@code Last-Event-ID} header, as browsers do.
+ */
+public final class ChangeFeedSseUtil {
+
+    private ChangeFeedSseUtil() {}
+
+    /**
+     * Subscribe to the feed, for the lifetime of the returned emitter.
+     *
+     * @param changeFeed the change feed.
+     * @param lastEventId the value of the {@code Last-Event-ID} header, if any.
+     * @param timeout the duration after which the stream is closed.
+     * @param <T> the type of the DTO of the entity.
+     * @return the emitter sending the events of the feed.
+     * @throws ResponseStatusException with status {@code 503 (Service Unavailable)} if the feed has too many subscribers.
+     */
+    public static <T> SseEmitter stream(ChangeFeed<T> changeFeed, String lastEventId, Duration timeout) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        ChangeFeed.Subscription subscription;
+        try {
+            subscription = changeFeed.subscribe(lastEventId, event -> send(emitter, event));
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
+    }
+
+    private static <T> void send(SseEmitter emitter, ChangeEventDTO<T> event) throws IOException {
+        try {
+            emitter.send(
+                SseEmitter
+                    .event()
+                    .id(event.getId())
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON)
+            );
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.josecarlos.prueba.web.rest.util;
+
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * Utility class for handling the count mode of paginated lists.
+ * <p>
+ * In the {@code approximate} mode, the {@code X-Total-Count} header can be a stale count, or a lower bound of the
+ * count, which is flagged by the {@value #HEADER_X_TOTAL_COUNT_APPROXIMATE} header, so that the database is never
+ * scanned to count the matching entities.
+ */
+public final class CountPaginationUtil {
+
+    /**
+     * Name of the request parameter holding the count mode, {@value #EXACT} or {@value #APPROXIMATE}.
+     */
+    public static final String COUNT_PARAMETER = "count";
+
+    public static final String EXACT = "exact";
+
+    public static final String APPROXIMATE = "approximate";
+
+    public static final String HEADER_X_TOTAL_COUNT_APPROXIMATE = "X-Total-Count-Approximate";
+
+    private CountPaginationUtil() {}
+
+    /**
+     * Check whether the count mode sent by the client is the approximate one.
+     *
+     * @param count the value of the {@value #COUNT_PARAMETER} request parameter.
+     * @return {@code true} if the count can be approximate.
+     * @throws IllegalArgumentException if the count mode is unknown.
+     */
+    public static boolean isApproximate(String count) {
+        if (APPROXIMATE.equals(count)) {
+            return true;
+        }
+        if (EXACT.equals(count)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Unsupported count mode: " + count);
+    }
+
+    /**
+     * Generate pagination headers for a Spring Data {@link Page} object, which total can be approximate.
+     *
+     * @param uriBuilder The URI builder of the current request.
+     * @param page The page.
+     * @param approximate Whether the total of the page can be approximate.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Page<T> page, boolean approximate) {
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, page);
+        if (approximate) {
+            headers.add(HEADER_X_TOTAL_COUNT_APPROXIMATE, "true");
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,98 @@
+package com.josecarlos.prueba.web.rest.util;
+
+import com.josecarlos.prueba.web.rest.errors.PreconditionFailedException;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Utility class for handling the conditional requests on versioned entities.
+ * <p>
+ * The ETag of an entity is its optimistic locking version, as a strong ETag. A {@code GET} with an
+ * {@code If-None-Match} header holding the current ETag is answered with {@code 304 (Not Modified)}; a write with an
+ * {@code If-Match} header which does not hold the current ETag fails with {@code 412 (Precondition Failed)}. Only one
+ * ETag, or {@code *}, is supported in the {@code If-Match} header. The responses to the writes hold the ETag of the new
+ * version when it is known, which is always the case for the conditional writes.
+ */
+public final class ETagUtil {
+
+    private static final String ANY = "*";
+
+    private ETagUtil() {}
+
+    /**
+     * Get the strong ETag of a version.
+     *
+     * @param version the version of the entity.
+     * @return the ETag, quoted.
+     */
+    public static String toETag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Check whether an {@code If-None-Match} header holds the ETag of a version, with the weak comparison.
+     *
+     * @param ifNoneMatch the value of the header.
+     * @param version the current version of the entity.
+     * @return {@code true} if the client has the current version.
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch, long version) {
+        String eTag = toETag(version);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (ANY.equals(candidate) || eTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the version expected by an {@code If-Match} header.
+     *
+     * @param ifMatch the value of the header, or {@code null} if it is missing.
+     * @return the expected version, or {@code null} if any version is expected.
+     * @throws PreconditionFailedException if the header cannot match any version, as it is not a single strong ETag.
+     */
+    public static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not one of our ETags
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version");
+    }
+
+    /**
+     * Wrap the Optional into a {@link ResponseEntity} with the ETag of the response, if its version is known,
+     * with status {@code 200 (OK)}, or if it's empty, throw a {@link ResponseStatusException} with status {@code 404 (Not Found)}.
+     *
+     * @param maybeResponse the response to return if present.
+     * @param version the getter of the version of the response.
+     * @param header the headers to add to the response.
+     * @param <X> the type of the response.
+     * @return the response.
+     */
+    public static <X> ResponseEntity<X> wrapOrNotFound(Optional<X> maybeResponse, Function<X, Long> version, HttpHeaders header) {
+        return maybeResponse
+            .map(response -> {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok().headers(header);
+                Optional.ofNullable(version.apply(response)).ifPresent(known -> builder.eTag(toETag(known)));
+                return builder.body(response);
+            })
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,63 @@
+package com.josecarlos.prueba.web.rest.util;
+
+import com.josecarlos.prueba.service.KeysetCursor;
+import com.josecarlos.prueba.service.KeysetSlice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * Unlike {@link tech.jhipster.web.util.PaginationUtil}, no {@code X-Total-Count} header is generated, and the
+ * {@code Link} header only has a {@code next} relation, which carries the cursor of the next slice.
+ */
+public final class KeysetPaginationUtil {
+
+    /**
+     * Name of the request parameter holding the cursor.
+     */
+    public static final String CURSOR_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Decode the cursor sent by the client, an empty cursor meaning the first slice.
+     *
+     * @param after the value of the {@value #CURSOR_PARAMETER} request parameter.
+     * @return the decoded cursor, or {@code null} for the first slice.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static KeysetCursor parseCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return null;
+        }
+        return KeysetCursor.decode(after);
+    }
+
+    /**
+     * Generate pagination headers for a Spring Data {@link KeysetSlice} object.
+     *
+     * @param uriBuilder The URI builder of the current request.
+     * @param slice The slice.
+     * @param <T> The type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, KeysetSlice<T> slice) {
+        HttpHeaders headers = new HttpHeaders();
+        slice
+            .getNextCursor()
+            .ifPresent(cursor -> {
+                String link = uriBuilder
+                    .replaceQueryParam("page")
+                    .replaceQueryParam("size", slice.getSize())
+                    .replaceQueryParam(CURSOR_PARAMETER, cursor.encode())
+                    .toUriString()
+                    .replace(",", "%2C")
+                    .replace(";", "%3B");
+                headers.add(HttpHeaders.LINK, String.format(HEADER_LINK_FORMAT, link, "next"));
+            });
+        return headers;
+    }
+}
@@ -0,0 +1,209 @@
+package com.josecarlos.prueba.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Utility class for streaming large exports of entities, as NDJSON or CSV, without buffering them.
+ * <p>
+ * The exports outlast the default timeout of the asynchronous requests, which aborts them: each export sets its own
+ * timeout, applied by the {@link #timeoutInterceptor()} registered in the asynchronous support of Spring MVC.
+ */
+public final class StreamingExportUtil {
+
+    /**
+     * Request attribute holding the timeout of the export.
+     */
+    private static final String TIMEOUT_ATTRIBUTE = StreamingExportUtil.class.getName() + ".TIMEOUT";
+
+    /**
+     * First characters which make spreadsheets evaluate a cell as a formula.
+     */
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        NDJSON("ndjson", new MediaType("application", "x-ndjson", StandardCharsets.UTF_8)),
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8));
+
+        private final String extension;
+
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Get the format from its name, as sent in the {@code format} request parameter.
+         *
+         * @param name the name of the format, case insensitive.
+         * @return the format, or empty if it is not supported.
+         */
+        public static Optional<Format> of(String name) {
+            return Arrays.stream(values()).filter(format -> format.extension.equals(name.toLowerCase(Locale.ROOT))).findFirst();
+        }
+    }
+
+    private StreamingExportUtil() {}
+
+    /**
+     * Build the response streaming the rows produced by the given producer in the given format.
+     * <p>
+     * The producer is only called once the response body is written, on an asynchronous thread: it is
+     * expected to run its own read-only transaction.
+     *
+     * @param fileName the name of the exported file, without extension.
+     * @param format the export format.
+     * @param type the type of the exported rows.
+     * @param objectMapper the object mapper used to serialize the rows.
+     * @param timeout the duration after which the export is aborted.
+     * @param producer the producer of the rows, which passes each of them to the given consumer.
+     * @param <T> the type of the exported rows.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the streamed rows in body.
+     */
+    public static <T> ResponseEntity<StreamingResponseBody> export(
+        String fileName,
+        Format format,
+        Class<T> type,
+        ObjectMapper objectMapper,
+        Duration timeout,
+        Consumer<Consumer<T>> producer
+    ) {
+        RequestContextHolder.currentRequestAttributes().setAttribute(TIMEOUT_ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+        StreamingResponseBody body = format == Format.CSV
+            ? out -> writeCsv(out, type, objectMapper, producer)
+            : out -> writeNdjson(out, type, objectMapper, producer);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName + "." + format.getExtension()).build());
+        return ResponseEntity.ok().headers(headers).contentType(format.getMediaType()).body(body);
+    }
+
+    /**
+     * Get the interceptor applying the timeout of the exports to their asynchronous requests, the other requests
+     * keeping the default timeout.
+     *
+     * @return the interceptor, to register in the asynchronous support of Spring MVC.
+     */
+    public static CallableProcessingInterceptor timeoutInterceptor() {
+        return new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                if (timeout instanceof Duration && request instanceof AsyncWebRequest) {
+                    ((AsyncWebRequest) request).setTimeout(((Duration) timeout).toMillis());
+                }
+            }
+        };
+    }
+
+    private static <T> void writeNdjson(OutputStream out, Class<T> type, ObjectMapper objectMapper, Consumer<Consumer<T>> producer)
+        throws IOException {
+        ObjectWriter writer = objectMapper
+            .writerFor(type)
+            .without(SerializationFeature.INDENT_OUTPUT)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            producer.accept(row -> {
+                try {
+                    writer.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static <T> void writeCsv(OutputStream out, Class<T> type, ObjectMapper objectMapper, Consumer<Consumer<T>> producer)
+        throws IOException {
+        List<String> columns = objectMapper
+            .getSerializationConfig()
+            .introspect(objectMapper.constructType(type))
+            .findProperties()
+            .stream()
+            .filter(BeanPropertyDefinition::couldSerialize)
+            .map(BeanPropertyDefinition::getName)
+            .collect(Collectors.toList());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(columns.stream().map(StreamingExportUtil::escapeCsv).collect(Collectors.joining(",")));
+        writer.write("\r\n");
+        producer.accept(row -> {
+            JsonNode node = objectMapper.valueToTree(row);
+            try {
+                for (int i = 0; i < columns.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    JsonNode value = node.get(columns.get(i));
+                    if (value != null && !value.isNull()) {
+                        String text = value.isValueNode() ? value.asText() : value.toString();
+                        writer.write(escapeCsv(value.isTextual() ? escapeFormula(text) : text));
+                    }
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    /**
+     * Prefix the texts which spreadsheets would evaluate as formulas with a quote, so that they are shown as text.
+     */
+    private static String escapeFormula(String value) {
+        if (value.isEmpty() || FORMULA_PREFIXES.indexOf(value.charAt(0)) < 0) {
+            return value;
+        }
+        return "'" + value;
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,114 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.ehcache.Cache;
+import org.ehcache.PersistentCacheManager;
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.builders.CacheManagerBuilder;
+import org.ehcache.config.units.EntryUnit;
+import org.ehcache.config.units.MemoryUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Tests for the configuration of the cache regions built by {@link com.josecarlos.prueba.config.CacheConfiguration}.
+ */
+class CacheConfigurationTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    @Test
+    void regionsHoldTheDefaultEntriesOnHeap() {
+        CacheConfiguration<Object, Object> configuration = com.josecarlos.prueba.config.CacheConfiguration.regionConfiguration(
+            null,
+            100,
+            TIME_TO_LIVE
+        );
+
+        ResourcePools resourcePools = configuration.getResourcePools();
+        assertThat(resourcePools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(pool(resourcePools, ResourceType.Core.HEAP).getSize()).isEqualTo(100);
+        assertThat(pool(resourcePools, ResourceType.Core.HEAP).getUnit()).isEqualTo(EntryUnit.ENTRIES);
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation("key", "value")).isEqualTo(TIME_TO_LIVE);
+    }
+
+    @Test
+    void configuredRegionsAreTiered() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setHeapEntries(10L);
+        region.setOffHeapSize(DataSize.ofMegabytes(1));
+        region.setDiskSize(DataSize.ofMegabytes(2));
+        region.setTimeToIdle(Duration.ofMinutes(10));
+
+        CacheConfiguration<Object, Object> configuration = com.josecarlos.prueba.config.CacheConfiguration.regionConfiguration(
+            region,
+            100,
+            TIME_TO_LIVE
+        );
+
+        ResourcePools resourcePools = configuration.getResourcePools();
+        assertThat(pool(resourcePools, ResourceType.Core.HEAP).getSize()).isEqualTo(10);
+        assertThat(pool(resourcePools, ResourceType.Core.OFFHEAP).getSize()).isEqualTo(DataSize.ofMegabytes(1).toBytes());
+        assertThat(pool(resourcePools, ResourceType.Core.OFFHEAP).getUnit()).isEqualTo(MemoryUnit.B);
+        assertThat(pool(resourcePools, ResourceType.Core.DISK).getSize()).isEqualTo(DataSize.ofMegabytes(2).toBytes());
+        assertThat(pool(resourcePools, ResourceType.Core.DISK).isPersistent()).isTrue();
+        assertThat(configuration.getExpiryPolicy().getExpiryForAccess("key", () -> "value")).isEqualTo(Duration.ofMinutes(10));
+    }
+
+    @Test
+    void heapCanBeSizedInBytes() {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setHeapSize(DataSize.ofKilobytes(512));
+        region.setTimeToLive(Duration.ofMinutes(5));
+
+        CacheConfiguration<Object, Object> configuration = com.josecarlos.prueba.config.CacheConfiguration.regionConfiguration(
+            region,
+            100,
+            TIME_TO_LIVE
+        );
+
+        assertThat(pool(configuration.getResourcePools(), ResourceType.Core.HEAP).getSize()).isEqualTo(DataSize.ofKilobytes(512).toBytes());
+        assertThat(pool(configuration.getResourcePools(), ResourceType.Core.HEAP).getUnit()).isEqualTo(MemoryUnit.B);
+        assertThat(configuration.getExpiryPolicy().getExpiryForCreation("key", "value")).isEqualTo(Duration.ofMinutes(5));
+    }
+
+    @Test
+    void persistentDiskTierSurvivesRestarts(@TempDir Path directory) {
+        ApplicationProperties.CacheRegion region = new ApplicationProperties.CacheRegion();
+        region.setHeapEntries(10L);
+        region.setOffHeapSize(DataSize.ofMegabytes(1));
+        region.setDiskSize(DataSize.ofMegabytes(2));
+
+        try (PersistentCacheManager cacheManager = cacheManager(directory, region)) {
+            Cache<Object, Object> cache = cacheManager.getCache("Job", Object.class, Object.class);
+            for (long i = 0; i < 100; i++) {
+                cache.put(i, "job " + i);
+            }
+        }
+
+        try (PersistentCacheManager cacheManager = cacheManager(directory, region)) {
+            Cache<Object, Object> cache = cacheManager.getCache("Job", Object.class, Object.class);
+            assertThat(cache.get(0L)).isEqualTo("job 0");
+            assertThat(cache.get(99L)).isEqualTo("job 99");
+        }
+    }
+
+    private static PersistentCacheManager cacheManager(Path directory, ApplicationProperties.CacheRegion region) {
+        return CacheManagerBuilder
+            .newCacheManagerBuilder()
+            .with(CacheManagerBuilder.persistence(directory.toFile()))
+            .withCache("Job", com.josecarlos.prueba.config.CacheConfiguration.regionConfiguration(region, 100, TIME_TO_LIVE))
+            .build(true);
+    }
+
+    private static SizedResourcePool pool(ResourcePools resourcePools, ResourceType<SizedResourcePool> type) {
+        return resourcePools.getPoolForResource(type);
+    }
+}
@@ -0,0 +1,152 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the metrics of the cache regions configured by {@link CacheMetricsConfiguration}, and for the
+ * ranking of the regions in the {@code caches} endpoint.
+ * <p>
+ * Not transactional, as the second-level cache, which is enabled here, is only written once the transactions are committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session.events.log=false",
+        "management.endpoints.web.base-path=/management",
+        "management.endpoints.web.exposure.include=caches",
+    }
+)
+class CacheMetricsIT {
+
+    private static final String REGION = Sales.class.getName();
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RankedCachesEndpointWebExtension cachesEndpointWebExtension;
+
+    @Autowired
+    private MockMvc restCachesMockMvc;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void regionsPublishTheirMetrics() {
+        double misses = count(cacheMeter("cache.gets").tag("result", "miss"));
+        double hits = count(cacheMeter("cache.gets").tag("result", "hit"));
+        long hitLatencies = cacheMeter("cache.gets.latency").tag("result", "hit").timer().count();
+        long missPenalties = cacheMeter("cache.miss.penalty").timer().count();
+        double regionHits = count(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", REGION).tag("result", "hit"));
+        double loads = count(meterRegistry.find("hibernate.entity.loads").tag("entity", REGION));
+
+        Long id = createSales("CacheMetricsIT metrics");
+        entityManagerFactory.getCache().evict(Sales.class, id);
+        salesService.findOne(id);
+        salesService.findOne(id);
+
+        // Hibernate also reads the region before putting an entity in it
+        assertThat(count(cacheMeter("cache.gets").tag("result", "miss"))).isGreaterThan(misses);
+        assertThat(count(cacheMeter("cache.gets").tag("result", "hit"))).isGreaterThan(hits);
+        assertThat(cacheMeter("cache.gets.latency").tag("result", "hit").timer().count()).isGreaterThan(hitLatencies);
+        assertThat(cacheMeter("cache.miss.penalty").timer().count()).isGreaterThan(missPenalties);
+        assertThat(cacheMeter("cache.size").gauge().value()).isPositive();
+        assertThat(cacheMeter("cache.tier.size").tag("tier", "OnHeap").gauge().value()).isPositive();
+        assertThat(count(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", REGION).tag("result", "hit")))
+            .isEqualTo(regionHits + 1);
+        assertThat(count(meterRegistry.find("hibernate.entity.loads").tag("entity", REGION))).isEqualTo(loads + 1);
+    }
+
+    @Test
+    void missesAreForgottenAtTheEndOfTheRequest() throws Exception {
+        // A miss without put, as the sales does not exist
+        salesService.findOne(Long.MAX_VALUE);
+        restCachesMockMvc.perform(get("/management/caches")).andExpect(status().isOk());
+        long missPenalties = cacheMeter("cache.miss.penalty").timer().count();
+
+        // A put without a miss of its own
+        Cache<Object, Object> region = cacheManager.getCache(REGION);
+        region.put("CacheMetricsIT", "forgotten");
+        region.remove("CacheMetricsIT");
+
+        assertThat(cacheMeter("cache.miss.penalty").timer().count()).isEqualTo(missPenalties);
+    }
+
+    @Test
+    void cachesEndpointRanksRegionsByMissCost() throws Exception {
+        Long id = createSales("CacheMetricsIT ranking");
+        entityManagerFactory.getCache().evict(Sales.class, id);
+        salesService.findOne(id);
+
+        restCachesMockMvc
+            .perform(get("/management/caches"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.cacheManagers.cacheManager.caches").exists())
+            .andExpect(jsonPath("$.regions[*].name").value(hasItem(REGION)))
+            .andExpect(jsonPath("$.regions[0].missCost").isNumber())
+            .andExpect(jsonPath("$.regions[?(@.name == '" + REGION + "')].tiers.OnHeap.entries").exists());
+
+        assertThat(cachesEndpointWebExtension.caches().getRegions())
+            .extracting(RankedCachesEndpointWebExtension.RegionDescriptor::getMissCost)
+            .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    private Long createSales(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        Long id = salesService.save(salesDTO).getId();
+        salesIds.add(id);
+        return id;
+    }
+
+    private Search cacheMeter(String name) {
+        return meterRegistry.find(name).tag("cache", REGION);
+    }
+
+    private static double count(Search search) {
+        return search.functionCounter().count();
+    }
+}
@@ -0,0 +1,97 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the tiers of the cache regions configured by {@link CacheConfiguration}, with a Sales region
+ * holding 2 entries on heap, the others being moved to its off-heap and disk tiers.
+ * <p>
+ * Not transactional, as the second-level cache, which is enabled here, is only written once the transactions are committed.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "application.cache.disk-directory=target/cache-store-it",
+        "application.cache.regions.Sales.heap-entries=2",
+        "application.cache.regions.Sales.off-heap-size=1MB",
+        "application.cache.regions.Sales.disk-size=2MB",
+        "application.cache.regions.Sales.disk-persistent=false",
+    }
+)
+class CacheTiersIT {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void regionsAreConfiguredByName() {
+        ResourcePools resourcePools = cacheManager
+            .getCache(Sales.class.getName())
+            .unwrap(org.ehcache.Cache.class)
+            .getRuntimeConfiguration()
+            .getResourcePools();
+        assertThat(resourcePools.getResourceTypeSet())
+            .containsExactlyInAnyOrder(ResourceType.Core.HEAP, ResourceType.Core.OFFHEAP, ResourceType.Core.DISK);
+        assertThat(resourcePools.getPoolForResource(ResourceType.Core.HEAP).getSize()).isEqualTo(2);
+        assertThat(
+            cacheManager.getCache(Job.class.getName()).unwrap(org.ehcache.Cache.class).getRuntimeConfiguration().getResourcePools().getResourceTypeSet()
+        )
+            .containsExactly(ResourceType.Core.HEAP);
+    }
+
+    @Test
+    void entitiesAreReadFromTheLowerTiers() {
+        for (int i = 0; i < 6; i++) {
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("CacheTiersIT " + i);
+            salesIds.add(salesService.save(salesDTO).getId());
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        try {
+            for (int i = 0; i < salesIds.size(); i++) {
+                assertThat(salesService.findOne(salesIds.get(i))).get().extracting(SalesDTO::getTitle).isEqualTo("CacheTiersIT " + i);
+            }
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // The entities which do not fit on heap are deserialized from the off-heap tier
+        assertThat(statistics.getDomainDataRegionStatistics(Sales.class.getName()).getHitCount()).isEqualTo(6);
+        assertThat(statistics.getEntityStatistics(Sales.class.getName()).getLoadCount()).isZero();
+    }
+}
@@ -0,0 +1,137 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.josecarlos.prueba.service.dto.AdminUserDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.dto.UserDTO;
+import com.josecarlos.prueba.web.rest.vm.ManagedUserVM;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Test that the DTOs are written and read the same with the accessors generated by the {@link BlackbirdModule}
+ * as with reflection, so that {@code application.jackson.blackbird} can be enabled safely.
+ */
+class JacksonBlackbirdTest {
+
+    private static final Instant CREATED_DATE = Instant.parse("2021-10-01T10:15:30.123Z");
+
+    private final ObjectMapper reflectionMapper = objectMapper(false);
+
+    private final ObjectMapper blackbirdMapper = objectMapper(true);
+
+    @ParameterizedTest
+    @MethodSource("dtos")
+    void writesTheSameJson(Object dto) throws Exception {
+        assertThat(blackbirdMapper.writeValueAsString(dto)).isEqualTo(reflectionMapper.writeValueAsString(dto));
+    }
+
+    @ParameterizedTest
+    @MethodSource("dtos")
+    void readsTheSameDtos(Object dto) throws Exception {
+        String json = reflectionMapper.writeValueAsString(dto);
+
+        Object read = blackbirdMapper.readValue(json, dto.getClass());
+
+        assertThat(read).isExactlyInstanceOf(dto.getClass());
+        JsonNode expected = reflectionMapper.valueToTree(reflectionMapper.readValue(json, dto.getClass()));
+        assertThat((JsonNode) reflectionMapper.valueToTree(read)).isEqualTo(expected);
+    }
+
+    @Test
+    void readsUnknownAndMissingPropertiesTheSame() throws Exception {
+        String json = "{\"id\":3,\"title\":\"title\",\"salary\":10}";
+
+        JobDTO reflectionJobDTO = reflectionMapper.readValue(json, JobDTO.class);
+        JobDTO blackbirdJobDTO = blackbirdMapper.readValue(json, JobDTO.class);
+
+        assertThat(blackbirdJobDTO).usingRecursiveComparison().isEqualTo(reflectionJobDTO);
+        assertThat(blackbirdJobDTO.getDescription()).isNull();
+    }
+
+    @Test
+    void moduleIsOnlyRegisteredWhenEnabled() {
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner().withUserConfiguration(JacksonConfiguration.class);
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(BlackbirdModule.class));
+        contextRunner
+            .withPropertyValues("application.jackson.blackbird=true")
+            .run(context -> assertThat(context).hasSingleBean(BlackbirdModule.class));
+    }
+
+    static Stream<Object> dtos() {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setId(1L);
+        jobDTO.setTitle("Job title, with \"quotes\" and é");
+        jobDTO.setDescription("A description\non two lines");
+        jobDTO.setVersion(3L);
+
+        JobDTO partialJobDTO = new JobDTO();
+        partialJobDTO.setTitle("Title only");
+
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setId(2L);
+        salesDTO.setTitle("Sales title");
+        salesDTO.setVersion(0L);
+
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(4L);
+        userDTO.setLogin("user");
+
+        ManagedUserVM managedUserVM = new ManagedUserVM();
+        fill(managedUserVM);
+        managedUserVM.setPassword("password");
+
+        AdminUserDTO adminUserDTO = new AdminUserDTO();
+        fill(adminUserDTO);
+
+        return Stream.of(jobDTO, partialJobDTO, new JobDTO(), salesDTO, new SalesDTO(), userDTO, adminUserDTO, new AdminUserDTO(), managedUserVM);
+    }
+
+    private static void fill(AdminUserDTO adminUserDTO) {
+        adminUserDTO.setId(5L);
+        adminUserDTO.setLogin("admin");
+        adminUserDTO.setFirstName("First");
+        adminUserDTO.setLastName("Last");
+        adminUserDTO.setEmail("admin@localhost");
+        adminUserDTO.setImageUrl("http://placehold.it/50x50");
+        adminUserDTO.setActivated(true);
+        adminUserDTO.setLangKey("en");
+        adminUserDTO.setCreatedBy("system");
+        adminUserDTO.setCreatedDate(CREATED_DATE);
+        adminUserDTO.setLastModifiedBy("admin");
+        adminUserDTO.setLastModifiedDate(CREATED_DATE.plusSeconds(60));
+        adminUserDTO.setAuthorities(Set.of("ROLE_ADMIN"));
+    }
+
+    private static ObjectMapper objectMapper(boolean blackbird) {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        List<Module> modules = new ArrayList<>(
+            List.of(
+                jacksonConfiguration.javaTimeModule(),
+                jacksonConfiguration.jdk8TimeModule(),
+                jacksonConfiguration.hibernate5Module(),
+                jacksonConfiguration.problemModule(),
+                jacksonConfiguration.constraintViolationProblemModule()
+            )
+        );
+        if (blackbird) {
+            modules.add(jacksonConfiguration.blackbirdModule());
+        }
+        return Jackson2ObjectMapperBuilder.json().modules(modules).featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+    }
+}
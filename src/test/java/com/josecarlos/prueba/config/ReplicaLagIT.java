@@ -0,0 +1,229 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.User;
+import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import com.josecarlos.prueba.service.CounterReconciler;
+import com.josecarlos.prueba.service.JobQueryService;
+import com.josecarlos.prueba.service.JobService;
+import com.josecarlos.prueba.service.UserCache;
+import com.josecarlos.prueba.service.UserService;
+import com.josecarlos.prueba.service.criteria.JobCriteria;
+import com.josecarlos.prueba.service.dto.AdminUserDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.cache.CacheManager;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for the caches fed by the reads of {@link ReplicaRoutingDataSource}, with a replica which lags
+ * behind the primary database.
+ * <p>
+ * The replica is a schema of the test database, searched before the schema of the tables: the tables copied into it
+ * are snapshots which are never replicated, while the other tables are read through. Not transactional, as the
+ * routing depends on the transactions started by the services.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.replicas.instances[0].url=" +
+        ReplicaLagIT.PRIMARY_URL +
+        ";SCHEMA=" +
+        ReplicaLagIT.REPLICA_SCHEMA +
+        ";SCHEMA_SEARCH_PATH=PUBLIC",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+    }
+)
+class ReplicaLagIT {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:github_jhipster;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    static final String REPLICA_SCHEMA = "REPLICA_LAG_IT";
+
+    private static final String LOGIN = "replica-lag-it";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobQueryService jobQueryService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CounterReconciler counterReconciler;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> jobIds = new ArrayList<>();
+
+    @BeforeAll
+    static void createReplicaSchema() throws SQLException {
+        // Before the replica pool connects to it
+        execute("CREATE SCHEMA IF NOT EXISTS " + REPLICA_SCHEMA);
+    }
+
+    @BeforeEach
+    void leaveTheRequest() {
+        // The reads following the writes of a request go to the primary database, the tests read as other requests
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @AfterEach
+    void cleanup() throws SQLException {
+        execute("DROP TABLE IF EXISTS " + REPLICA_SCHEMA + ".job");
+        execute("DROP TABLE IF EXISTS " + REPLICA_SCHEMA + ".jhi_user");
+        jobIds.forEach(jobService::delete);
+        userService.getUserWithAuthoritiesByLogin(LOGIN).ifPresent(user -> userService.deleteUser(LOGIN));
+    }
+
+    @Test
+    void entitiesReadFromTheReplicaAreNotCached() throws SQLException {
+        Long id = createJob("ReplicaLagIT before");
+        freezeReplica("job");
+        JobDTO jobDTO = jobService.findOne(id).orElseThrow();
+        jobDTO.setTitle("ReplicaLagIT after");
+        jobService.update(jobDTO);
+        entityManagerFactory.getCache().evict(Job.class);
+
+        assertThat(readOnly(() -> jobRepository.findById(id).map(Job::getTitle))).contains("ReplicaLagIT before");
+        assertThat(entityManagerFactory.getCache().contains(Job.class, id)).isFalse();
+
+        assertThat(jobService.findOne(id)).get().extracting(JobDTO::getTitle).isEqualTo("ReplicaLagIT after");
+        assertThat(entityManagerFactory.getCache().contains(Job.class, id)).isTrue();
+    }
+
+    @Test
+    void cachedQueryResultsAreReadFromThePrimary() throws SQLException {
+        freezeReplica("job");
+        createJob("ReplicaLagIT counted");
+        JobCriteria criteria = new JobCriteria();
+        StringFilter title = new StringFilter();
+        title.setEquals("ReplicaLagIT counted");
+        criteria.setTitle(title);
+
+        // Joining a transaction which already read from the replica, the count is not cached
+        Long replicaCount = readOnly(() -> {
+            jobRepository.count();
+            return jobQueryService.countByCriteria(criteria);
+        });
+        assertThat(replicaCount).isZero();
+
+        assertThat(jobQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(jobQueryService.findByCriteria(criteria, PageRequest.of(0, 10)))
+            .extracting(JobDTO::getTitle)
+            .containsExactly("ReplicaLagIT counted");
+    }
+
+    @Test
+    void countersAreReconciledFromThePrimary() throws SQLException {
+        freezeReplica("job");
+        createJob("ReplicaLagIT reconciled");
+
+        counterReconciler.reconcile();
+
+        Long primaryCount = new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM job", Long.class);
+        assertThat(jobQueryService.getCounters().get(new JobCriteria(), false)).hasValue(primaryCount);
+        assertThat(jobQueryService.countByCriteria(new JobCriteria())).isEqualTo(primaryCount);
+    }
+
+    @Test
+    void usersAreCachedFromThePrimary() throws SQLException {
+        freezeReplica("jhi_user");
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(LOGIN);
+        userDTO.setEmail(LOGIN + "@localhost");
+        userDTO.setActivated(true);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        userService.createUser(userDTO);
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).remove(LOGIN);
+
+        // Joining a transaction which already read from the replica, the missing user is not cached
+        Optional<User> replicaUser = readOnly(() -> {
+            userRepository.count();
+            return userCache.findOneWithAuthoritiesByLogin(LOGIN);
+        });
+        assertThat(replicaUser).isEmpty();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey(LOGIN)).isFalse();
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN)).get().extracting(User::getLogin).isEqualTo(LOGIN);
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey(LOGIN)).isTrue();
+    }
+
+    /**
+     * Copy a table to the replica, which then no longer sees the writes to it.
+     */
+    private static void freezeReplica(String table) throws SQLException {
+        execute("CREATE TABLE " + REPLICA_SCHEMA + "." + table + " AS SELECT * FROM PUBLIC." + table);
+    }
+
+    /**
+     * Run a statement on the test database, in a connection of its own committing it, as the user Spring Boot
+     * defaults to for the embedded databases.
+     */
+    private static void execute(String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(PRIMARY_URL, "sa", ""); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private <T> T readOnly(Supplier<T> read) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> read.get());
+    }
+
+    private Long createJob(String title) {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setTitle(title);
+        Long id = jobService.save(jobDTO).getId();
+        jobIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,170 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Tests for {@link ReplicaRoutingDataSource}, with in-memory H2 databases standing for the primary database and
+ * its replicas, each one holding its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY = "routing-primary";
+
+    private static final String REPLICA_0 = "routing-replica-0";
+
+    private static final String REPLICA_1 = "routing-replica-1";
+
+    private final List<Connection> keepAlive = new ArrayList<>();
+
+    private List<HikariDataSource> replicaPools;
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate readWriteTransaction;
+
+    @BeforeEach
+    void setup() throws SQLException {
+        for (String name : List.of(PRIMARY, REPLICA_0, REPLICA_1)) {
+            createDatabase(name);
+        }
+    }
+
+    @AfterEach
+    void cleanup() throws SQLException {
+        RequestContextHolder.resetRequestAttributes();
+        if (routingDataSource != null) {
+            routingDataSource.close();
+        }
+        for (Connection connection : keepAlive) {
+            if (!connection.isClosed()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SHUTDOWN");
+                }
+            }
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicasInTurn() {
+        setupRouting(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+
+        assertThat(List.of(readOnlyName(), readOnlyName(), readOnlyName(), readOnlyName()))
+            .containsExactly(REPLICA_0, REPLICA_1, REPLICA_0, REPLICA_1);
+        assertThat(readWriteName()).isEqualTo(PRIMARY);
+        assertThat(jdbcTemplate.queryForObject("select name from node", String.class)).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheLeastPendingReplica() throws SQLException {
+        setupRouting(ReplicaRoutingDataSource.Selection.LEAST_PENDING);
+
+        try (Connection busy = replicaPools.get(0).getConnection()) {
+            assertThat(List.of(readOnlyName(), readOnlyName(), readOnlyName())).containsOnly(REPLICA_1);
+        }
+    }
+
+    @Test
+    void unhealthyReplicasAreEjectedUntilTheyRecover() throws SQLException {
+        setupRouting(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        assertThat(readOnlyName()).isEqualTo(REPLICA_0);
+
+        shutdown(REPLICA_0);
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getTargets().get(1).isHealthy()).isFalse();
+        assertThat(List.of(readOnlyName(), readOnlyName())).containsOnly(REPLICA_1);
+
+        // Without healthy replicas, the reads go to the primary database
+        shutdown(REPLICA_1);
+        routingDataSource.checkHealth();
+        assertThat(readOnlyName()).isEqualTo(PRIMARY);
+
+        createDatabase(REPLICA_0);
+        routingDataSource.checkHealth();
+        assertThat(routingDataSource.getTargets().get(1).isHealthy()).isTrue();
+        assertThat(readOnlyName()).isEqualTo(REPLICA_0);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToThePrimaryAfterAWriteInTheSameRequest() {
+        setupRouting(ReplicaRoutingDataSource.Selection.ROUND_ROBIN);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(readOnlyName()).isEqualTo(REPLICA_0);
+
+        readWriteTransaction.executeWithoutResult(status -> jdbcTemplate.update("update node set name = name"));
+        assertThat(List.of(readOnlyName(), readOnlyName())).containsOnly(PRIMARY);
+
+        // Other requests still read from the replicas
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(readOnlyName()).isEqualTo(REPLICA_1);
+    }
+
+    private void setupRouting(ReplicaRoutingDataSource.Selection selection) {
+        replicaPools = List.of(newPool(REPLICA_0), newPool(REPLICA_1));
+        routingDataSource = new ReplicaRoutingDataSource(newPool(PRIMARY), replicaPools, selection, Duration.ofHours(1));
+        jdbcTemplate = new JdbcTemplate(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routingDataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private String readOnlyName() {
+        return readOnlyTransaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private String readWriteName() {
+        return readWriteTransaction.execute(status -> jdbcTemplate.queryForObject("select name from node", String.class));
+    }
+
+    private static HikariDataSource newPool(String name) {
+        HikariConfig config = new HikariConfig();
+        // Fail instead of creating an empty database once the database is shut down
+        config.setJdbcUrl("jdbc:h2:mem:" + name + ";IFEXISTS=TRUE");
+        config.setPoolName(name);
+        config.setMaximumPoolSize(2);
+        config.setConnectionTimeout(1000);
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    private void createDatabase(String name) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table node (name varchar(50))");
+            statement.execute("insert into node values ('" + name + "')");
+        }
+        // The in-memory database lives as long as a connection is open
+        keepAlive.add(connection);
+    }
+
+    private void shutdown(String name) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + name + ";IFEXISTS=TRUE")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+}
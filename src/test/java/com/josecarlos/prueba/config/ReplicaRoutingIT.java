@@ -0,0 +1,76 @@
+package com.josecarlos.prueba.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Integration tests for the routing of the JPA transactions by {@link ReplicaRoutingDataSource}, with replicas which
+ * are the test database itself, so that only the connection counts tell them apart. The background tasks may
+ * take connections too, so the counts are only checked to increase enough.
+ * <p>
+ * Not transactional, as the routing depends on the transactions started by the services.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.replicas.instances[0].url=jdbc:h2:mem:github_jhipster;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "application.replicas.instances[1].url=jdbc:h2:mem:github_jhipster;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+    }
+)
+class ReplicaRoutingIT {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private SalesService salesService;
+
+    private SalesDTO salesDTO;
+
+    @AfterEach
+    void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+        if (salesDTO != null) {
+            salesService.delete(salesDTO.getId());
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsAreRoutedToTheReplicas() {
+        ReplicaRoutingDataSource routingDataSource = (ReplicaRoutingDataSource) dataSource;
+        long primaryConnections = connections(routingDataSource, 0);
+        long replicaConnections = connections(routingDataSource, 1) + connections(routingDataSource, 2);
+
+        salesService.findAll(PageRequest.of(0, 10));
+        salesService.findAll(PageRequest.of(1, 10));
+        assertThat(connections(routingDataSource, 1) + connections(routingDataSource, 2)).isGreaterThanOrEqualTo(replicaConnections + 2);
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        SalesDTO newSalesDTO = new SalesDTO();
+        newSalesDTO.setTitle("ReplicaRoutingIT");
+        salesDTO = salesService.save(newSalesDTO);
+        assertThat(connections(routingDataSource, 0)).isGreaterThanOrEqualTo(primaryConnections + 1);
+
+        // The request reads its own write from the primary database
+        primaryConnections = connections(routingDataSource, 0);
+        assertThat(salesService.findAll(PageRequest.of(0, 10))).isNotEmpty();
+        assertThat(salesService.findAll(PageRequest.of(0, 10))).isNotEmpty();
+        assertThat(connections(routingDataSource, 0)).isGreaterThanOrEqualTo(primaryConnections + 2);
+    }
+
+    private static long connections(ReplicaRoutingDataSource routingDataSource, int target) {
+        return routingDataSource.getTargets().get(target).getConnections();
+    }
+}
@@ -0,0 +1,296 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.GithubJhipsterApp;
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.domain.User;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import com.josecarlos.prueba.service.criteria.JobCriteria;
+import com.josecarlos.prueba.service.dto.AdminUserDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.impl.CacheInvalidationLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import javax.cache.CacheManager;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link CacheInvalidationLog} and {@link CacheInvalidationPoller}.
+ * <p>
+ * A second node is started against the same in-memory database, with caches of its own, and polls the changes of the
+ * node of the tests. A third one, with a persistent disk tier for the sales, is restarted by the tests. Not
+ * transactional, as the records are only written when the transactions are committed.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class CacheInvalidationIT {
+
+    private static final String LOGIN = "cache-invalidation-it";
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private CacheInvalidationLog cacheInvalidationLog;
+
+    @Autowired
+    private CacheInvalidationPoller cacheInvalidationPoller;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> jobIds = new ArrayList<>();
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodeB() {
+        nodeB =
+            new SpringApplicationBuilder(GithubJhipsterApp.class)
+                .run(
+                    "--server.port=0",
+                    // Another directory, so that the node does not share the cache manager of the tests
+                    "--application.cache.disk-directory=target/cache-invalidation-it-node-b",
+                    "--spring.jpa.properties.hibernate.cache.use_second_level_cache=true"
+                );
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        nodeB.close();
+    }
+
+    @AfterEach
+    void cleanup() {
+        applicationProperties.getCache().getInvalidation().setRetention(Duration.ofHours(1));
+        jobIds.forEach(jobService::delete);
+        salesIds.forEach(salesService::delete);
+        userService.getUserWithAuthoritiesByLogin(LOGIN).ifPresent(user -> userService.deleteUser(LOGIN));
+    }
+
+    @Test
+    void entityChangedOnAnotherNodeIsEvicted() {
+        Long id = createJob("CacheInvalidationIT changed");
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        nodeB.getBean(JobService.class).findOne(id);
+        assertThat(nodeB.getBean(EntityManagerFactory.class).getCache().contains(Job.class, id)).isTrue();
+        long lagged = nodeB.getBean(MeterRegistry.class).timer("cache.invalidation.lag").count();
+
+        JobDTO jobDTO = jobService.findOne(id).orElseThrow();
+        jobDTO.setTitle("CacheInvalidationIT updated");
+        jobService.update(jobDTO);
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+
+        assertThat(nodeB.getBean(EntityManagerFactory.class).getCache().contains(Job.class, id)).isFalse();
+        assertThat(nodeB.getBean(JobService.class).findOne(id)).get().extracting(JobDTO::getTitle).isEqualTo("CacheInvalidationIT updated");
+        assertThat(nodeB.getBean(MeterRegistry.class).timer("cache.invalidation.lag").count()).isGreaterThan(lagged);
+    }
+
+    @Test
+    void entityCommittedAfterAGreaterSequenceIsEvicted() {
+        Long jobId = createJob("CacheInvalidationIT committed late");
+        Long salesId = createSales("CacheInvalidationIT committed early");
+        CacheInvalidationPoller poller = nodeB.getBean(CacheInvalidationPoller.class);
+        poller.poll();
+        JobDTO jobDTO = jobService.findOne(jobId).orElseThrow();
+        SalesDTO salesDTO = salesService.findOne(salesId).orElseThrow();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jobDTO.setTitle("CacheInvalidationIT updated late");
+            jobService.update(jobDTO);
+            // Once the record of the job is written, another transaction commits a record of a greater sequence
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        salesDTO.setTitle("CacheInvalidationIT updated early");
+                        CompletableFuture.runAsync(() -> salesService.update(salesDTO)).join();
+                        poller.poll();
+                        nodeB.getBean(JobService.class).findOne(jobId);
+                    }
+                }
+            );
+        });
+        assertThat(poller.getGaps()).isNotEmpty();
+        poller.poll();
+
+        assertThat(poller.getGaps()).isEmpty();
+        assertThat(nodeB.getBean(JobService.class).findOne(jobId)).get().extracting(JobDTO::getTitle).isEqualTo("CacheInvalidationIT updated late");
+        assertThat(nodeB.getBean(SalesService.class).findOne(salesId))
+            .get()
+            .extracting(SalesDTO::getTitle)
+            .isEqualTo("CacheInvalidationIT updated early");
+    }
+
+    @Test
+    void countsChangedOnAnotherNodeAreCountedAgain() {
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        long count = nodeB.getBean(JobQueryService.class).countByCriteria(new JobCriteria());
+
+        createJob("CacheInvalidationIT counted");
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+
+        assertThat(nodeB.getBean(JobQueryService.class).countByCriteria(new JobCriteria())).isEqualTo(count + 1);
+    }
+
+    @Test
+    void userChangedOnAnotherNodeIsEvicted() {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(LOGIN);
+        userDTO.setEmail(LOGIN + "@localhost");
+        userDTO.setFirstName("first");
+        userDTO.setActivated(true);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        userService.createUser(userDTO);
+        cacheInvalidationPoller.poll();
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        nodeB.getBean(UserCache.class).findOneWithAuthoritiesByLogin(LOGIN);
+        CacheManager nodeBCacheManager = nodeB.getBean(CacheManager.class);
+        assertThat(nodeBCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey(LOGIN)).isTrue();
+
+        AdminUserDTO changed = new AdminUserDTO(userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow());
+        changed.setFirstName("changed");
+        userService.updateUser(changed);
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        cacheInvalidationPoller.poll();
+
+        assertThat(nodeBCacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey(LOGIN)).isFalse();
+        assertThat(nodeB.getBean(UserCache.class).findOneWithAuthoritiesByLogin(LOGIN)).get().extracting(User::getFirstName).isEqualTo("changed");
+        // The records of a node are skipped by itself, its caches being written through
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).containsKey(LOGIN)).isTrue();
+    }
+
+    @Test
+    void nodeBehindThePrunedLogClearsItsCaches() {
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+        Long id = createJob("CacheInvalidationIT pruned");
+        nodeB.getBean(JobService.class).findOne(id);
+        assertThat(nodeB.getBean(EntityManagerFactory.class).getCache().contains(Job.class, id)).isTrue();
+        double resyncs = nodeB.getBean(MeterRegistry.class).counter("cache.invalidation.resyncs").count();
+
+        applicationProperties.getCache().getInvalidation().setRetention(Duration.ZERO);
+        cacheInvalidationLog.prune();
+        nodeB.getBean(CacheInvalidationPoller.class).poll();
+
+        assertThat(nodeB.getBean(EntityManagerFactory.class).getCache().contains(Job.class, id)).isFalse();
+        assertThat(nodeB.getBean(MeterRegistry.class).counter("cache.invalidation.resyncs").count()).isEqualTo(resyncs + 1);
+    }
+
+    @Test
+    void entityChangedWhileANodeWasDownIsEvictedAtItsRestart() {
+        Long changed = createSales("CacheInvalidationIT changed while down");
+        Long unchanged = createSales("CacheInvalidationIT unchanged while down");
+        ConfigurableApplicationContext nodeC = startNodeC(true);
+        nodeC.getBean(SalesService.class).findOne(changed);
+        nodeC.getBean(SalesService.class).findOne(unchanged);
+        nodeC.close();
+
+        SalesDTO salesDTO = salesService.findOne(changed).orElseThrow();
+        salesDTO.setTitle("CacheInvalidationIT updated while down");
+        salesService.update(salesDTO);
+
+        nodeC = startNodeC(true);
+        try {
+            Cache cache = nodeC.getBean(EntityManagerFactory.class).getCache();
+            assertThat(cache.contains(Sales.class, unchanged)).isTrue();
+            assertThat(cache.contains(Sales.class, changed)).isFalse();
+            assertThat(nodeC.getBean(SalesService.class).findOne(changed))
+                .get()
+                .extracting(SalesDTO::getTitle)
+                .isEqualTo("CacheInvalidationIT updated while down");
+        } finally {
+            nodeC.close();
+        }
+    }
+
+    @Test
+    void cachesPersistedByAnotherBuildAreCleared() {
+        Long id = createSales("CacheInvalidationIT other build");
+        ConfigurableApplicationContext nodeC = startNodeC(true);
+        nodeC.getBean(SalesService.class).findOne(id);
+        nodeC.close();
+
+        nodeC = startNodeC(false);
+        try {
+            assertThat(nodeC.getBean(EntityManagerFactory.class).getCache().contains(Sales.class, id)).isFalse();
+        } finally {
+            nodeC.close();
+        }
+    }
+
+    /**
+     * Start a node with a persistent disk tier for the sales, in the same directory at each start.
+     *
+     * @param withBuild whether the node has build information, none telling it apart from the other builds.
+     */
+    private static ConfigurableApplicationContext startNodeC(boolean withBuild) {
+        List<String> args = new ArrayList<>(
+            List.of(
+                "--server.port=0",
+                "--application.cache.disk-directory=target/cache-invalidation-it-node-c",
+                "--application.cache.regions.Sales.disk-size=2MB",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=true"
+            )
+        );
+        if (withBuild) {
+            args.add("--spring.info.build.location=classpath:config/cache-invalidation-it-build-info.properties");
+        }
+        return new SpringApplicationBuilder(GithubJhipsterApp.class).run(args.toArray(String[]::new));
+    }
+
+    private Long createJob(String title) {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setTitle(title);
+        Long id = jobService.save(jobDTO).getId();
+        jobIds.add(id);
+        return id;
+    }
+
+    private Long createSales(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        Long id = salesService.save(salesDTO).getId();
+        salesIds.add(id);
+        return id;
+    }
+}
@@ -0,0 +1,148 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.config.CacheWarmUpHealthIndicator;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link CacheWarmer}.
+ * <p>
+ * Not transactional, as the second-level cache, which is enabled here, is only written once the transactions are committed.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "application.cache.warm-up.jobs=2",
+        "application.cache.warm-up.sales=0",
+        "application.cache.warm-up.users=10",
+        "application.cache.warm-up.batch-size=1",
+        "application.cache.warm-up.parallelism=2",
+        "application.cache.warm-up.key-file=target/cache-warm-up-keys-it.json",
+    }
+)
+class CacheWarmerIT {
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private CacheWarmUpHealthIndicator cacheWarmUpHealthIndicator;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Long> jobIds = new ArrayList<>();
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @BeforeEach
+    void deleteKeyFile() throws Exception {
+        Files.deleteIfExists(Path.of(applicationProperties.getCache().getWarmUp().getKeyFile()));
+    }
+
+    @AfterEach
+    void cleanup() {
+        applicationProperties.getCache().getWarmUp().setTimeBudget(Duration.ofMinutes(1));
+        jobIds.forEach(jobService::delete);
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void recentEntitiesAndUsersAreLoaded() {
+        Long oldest = createJob("CacheWarmerIT oldest");
+        Long older = createJob("CacheWarmerIT older");
+        Long recent = createJob("CacheWarmerIT recent");
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
+        double entries = meterRegistry.counter("cache.warm.up.entries", "cache", "Job").count();
+        long completed = meterRegistry.timer("cache.warm.up.duration", "result", "completed").count();
+
+        assertThat(cacheWarmer.warmUp()).isEqualTo(CacheWarmer.Status.COMPLETED);
+
+        assertThat(entityManagerFactory.getCache().contains(Job.class, recent)).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Job.class, older)).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Job.class, oldest)).isFalse();
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).get("admin")).isNotNull();
+        assertThat(meterRegistry.counter("cache.warm.up.entries", "cache", "Job").count()).isEqualTo(entries + 2);
+        assertThat(meterRegistry.timer("cache.warm.up.duration", "result", "completed").count()).isEqualTo(completed + 1);
+        assertThat(meterRegistry.get("cache.warm.up.progress").gauge().value()).isEqualTo(1);
+        assertThat(cacheWarmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void keysCapturedAtShutdownAreLoaded() {
+        Long id = createSales("CacheWarmerIT captured");
+        salesService.findOne(id);
+        assertThat(entityManagerFactory.getCache().contains(Sales.class, id)).isTrue();
+
+        cacheWarmer.captureKeys();
+        entityManagerFactory.getCache().evictAll();
+        cacheWarmer.warmUp();
+
+        assertThat(entityManagerFactory.getCache().contains(Sales.class, id)).isTrue();
+    }
+
+    @Test
+    void warmUpStopsAtTheTimeBudget() {
+        createJob("CacheWarmerIT budget");
+        applicationProperties.getCache().getWarmUp().setTimeBudget(Duration.ZERO);
+
+        assertThat(cacheWarmer.warmUp()).isEqualTo(CacheWarmer.Status.TIMED_OUT);
+
+        // The readiness is not held any longer once out of time
+        assertThat(cacheWarmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private Long createJob(String title) {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setTitle(title);
+        Long id = jobService.save(jobDTO).getId();
+        jobIds.add(id);
+        return id;
+    }
+
+    private Long createSales(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        Long id = salesService.save(salesDTO).getId();
+        salesIds.add(id);
+        return id;
+    }
+}
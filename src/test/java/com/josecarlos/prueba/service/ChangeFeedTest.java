@@ -0,0 +1,183 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.josecarlos.prueba.service.dto.ChangeEventDTO;
+import com.josecarlos.prueba.service.dto.ChangeEventDTO.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link ChangeFeed}, outside of any transaction, so that the events are published right away.
+ */
+class ChangeFeedTest {
+
+    private final ChangeFeed<String> changeFeed = new ChangeFeed<>("test", 4, 2);
+
+    private final BlockingQueue<ChangeEventDTO<String>> received = new LinkedBlockingQueue<>();
+
+    @Test
+    void deliversTheEventsPublishedAfterSubscribing() throws Exception {
+        changeFeed.publish(Type.CREATED, 1L, "before");
+        changeFeed.subscribe(null, received::add);
+
+        changeFeed.publish(Type.CREATED, 2L, "created");
+        changeFeed.publish(Type.UPDATED, 2L, "updated");
+        changeFeed.publish(Type.DELETED, 2L, null);
+
+        assertThat(take(3)).extracting(ChangeEventDTO::getType).containsExactly(Type.CREATED, Type.UPDATED, Type.DELETED);
+        assertThat(received.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void resumesAfterTheLastEventId() throws Exception {
+        changeFeed.publish(Type.CREATED, 1L, "first");
+        changeFeed.publish(Type.CREATED, 2L, "second");
+        changeFeed.publish(Type.CREATED, 3L, "third");
+        BlockingQueue<ChangeEventDTO<String>> first = new LinkedBlockingQueue<>();
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(null, first::add);
+        changeFeed.publish(Type.UPDATED, 1L, "fourth");
+        String lastEventId = first.poll(5, TimeUnit.SECONDS).getId();
+        subscription.cancel();
+        changeFeed.publish(Type.UPDATED, 2L, "fifth");
+
+        changeFeed.subscribe(lastEventId, received::add);
+
+        assertThat(take(1)).extracting(ChangeEventDTO::getEntity).containsExactly("fifth");
+    }
+
+    @Test
+    void resyncsWhenResumingFromAnEvictedEvent() throws Exception {
+        BlockingQueue<ChangeEventDTO<String>> first = new LinkedBlockingQueue<>();
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(null, first::add);
+        changeFeed.publish(Type.CREATED, 1L, "first");
+        String evictedEventId = first.poll(5, TimeUnit.SECONDS).getId();
+        subscription.cancel();
+        for (long i = 2; i < 10; i++) {
+            changeFeed.publish(Type.CREATED, i, "created");
+        }
+
+        changeFeed.subscribe(evictedEventId, received::add);
+
+        assertThat(take(1)).extracting(ChangeEventDTO::getType).containsExactly(Type.RESYNC);
+        changeFeed.publish(Type.DELETED, 2L, null);
+        assertThat(take(1)).extracting(ChangeEventDTO::getType).containsExactly(Type.DELETED);
+    }
+
+    @Test
+    void resyncsWhenResumingFromAnUnknownEvent() throws Exception {
+        changeFeed.publish(Type.CREATED, 1L, "first");
+
+        changeFeed.subscribe("0:0", received::add);
+        changeFeed.subscribe("not an event id", received::add);
+
+        assertThat(take(2)).extracting(ChangeEventDTO::getType).containsExactly(Type.RESYNC, Type.RESYNC);
+    }
+
+    @Test
+    void slowSubscribersAreResyncedWithoutBlockingTheWriters() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        changeFeed.subscribe(
+            null,
+            event -> {
+                if (blocked.getCount() > 0) {
+                    blocked.countDown();
+                    release.await();
+                }
+                received.add(event);
+            }
+        );
+        changeFeed.publish(Type.CREATED, 0L, "0");
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Overruns the capacity of 4 events while the subscriber is blocked
+        for (long i = 1; i <= 10; i++) {
+            changeFeed.publish(Type.CREATED, i, Long.toString(i));
+        }
+        release.countDown();
+
+        List<ChangeEventDTO<String>> events = take(2);
+        assertThat(events).extracting(ChangeEventDTO::getEntity).containsExactly("0", null);
+        assertThat(events.get(1).getType()).isEqualTo(Type.RESYNC);
+        changeFeed.publish(Type.CREATED, 11L, "11");
+        assertThat(take(1)).extracting(ChangeEventDTO::getEntity).containsExactly("11");
+    }
+
+    @Test
+    void failingSubscribersAreCancelled() throws Exception {
+        changeFeed.subscribe(
+            null,
+            event -> {
+                throw new IllegalStateException("Disconnected");
+            }
+        );
+        changeFeed.subscribe(null, received::add);
+
+        changeFeed.publish(Type.CREATED, 1L, "created");
+
+        assertThat(take(1)).hasSize(1);
+        for (int i = 0; i < 50 && changeFeed.getSubscriberCount() > 1; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(changeFeed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsSubscribersBeyondTheMaximum() {
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(null, received::add);
+        changeFeed.subscribe(null, received::add);
+
+        assertThatThrownBy(() -> changeFeed.subscribe(null, received::add)).isInstanceOf(IllegalStateException.class);
+
+        subscription.cancel();
+        changeFeed.subscribe(null, received::add);
+        assertThat(changeFeed.getSubscriberCount()).isEqualTo(2);
+    }
+
+    @Test
+    void cancelledSubscribersStillReceivingDoNotStopTheOthers() throws Exception {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChangeFeed.Subscription subscription = changeFeed.subscribe(
+            null,
+            event -> {
+                blocked.countDown();
+                release.await();
+            }
+        );
+        changeFeed.subscribe(null, received::add);
+        changeFeed.publish(Type.CREATED, 1L, "first");
+        assertThat(take(1)).extracting(ChangeEventDTO::getEntity).containsExactly("first");
+        assertThat(blocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The delivery thread of the cancelled subscriber is still busy, while the new subscriber needs one of its own
+        subscription.cancel();
+        BlockingQueue<ChangeEventDTO<String>> replacing = new LinkedBlockingQueue<>();
+        changeFeed.subscribe(null, replacing::add);
+        try {
+            changeFeed.publish(Type.CREATED, 2L, "second");
+
+            assertThat(take(1)).extracting(ChangeEventDTO::getEntity).containsExactly("second");
+            assertThat(replacing.poll(5, TimeUnit.SECONDS)).extracting(ChangeEventDTO::getEntity).isEqualTo("second");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private List<ChangeEventDTO<String>> take(int count) throws InterruptedException {
+        List<ChangeEventDTO<String>> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ChangeEventDTO<String> event = received.poll(5, TimeUnit.SECONDS);
+            assertThat(event).as("event %d of %d", i + 1, count).isNotNull();
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,69 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.service.criteria.JobCriteria;
+import java.util.function.Predicate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CriteriaMatcher} utility class.
+ */
+class CriteriaMatcherTest {
+
+    @Test
+    void testParse() {
+        JobCriteria criteria = CriteriaMatcher.parse("title.contains=a%20b&id.greaterThan=10&description.in=x,y", new JobCriteria());
+        assertThat(criteria.getTitle().getContains()).isEqualTo("a b");
+        assertThat(criteria.getId().getGreaterThan()).isEqualTo(10L);
+        assertThat(criteria.getDescription().getIn()).containsExactly("x", "y");
+    }
+
+    @Test
+    void testParseInvalidCriteria() {
+        assertThatThrownBy(() -> CriteriaMatcher.parse("unknown.equals=1", new JobCriteria())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CriteriaMatcher.parse("id.equals=abc", new JobCriteria())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CriteriaMatcher.parse("title", new JobCriteria())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testHasFilters() {
+        assertThat(CriteriaMatcher.hasFilters(new JobCriteria())).isFalse();
+        assertThat(CriteriaMatcher.hasFilters(CriteriaMatcher.parse("title.specified=true", new JobCriteria()))).isTrue();
+    }
+
+    @Test
+    void testMatchUnfiltered() {
+        Predicate<Job> matcher = CriteriaMatcher.of(new JobCriteria(), Job.class);
+        assertThat(matcher.test(new Job())).isTrue();
+    }
+
+    @Test
+    void testMatchStringFilter() {
+        Predicate<Job> matcher = CriteriaMatcher.of(CriteriaMatcher.parse("title.contains=DEV", new JobCriteria()), Job.class);
+        assertThat(matcher.test(new Job().title("Java developer"))).isTrue();
+        assertThat(matcher.test(new Job().title("Tester"))).isFalse();
+        assertThat(matcher.test(new Job())).isFalse();
+    }
+
+    @Test
+    void testMatchRangeFilters() {
+        Predicate<Job> matcher = CriteriaMatcher.of(CriteriaMatcher.parse("id.greaterThan=10&id.lessThanOrEqual=20", new JobCriteria()), Job.class);
+        assertThat(matcher.test(new Job().id(10L))).isFalse();
+        assertThat(matcher.test(new Job().id(11L))).isTrue();
+        assertThat(matcher.test(new Job().id(20L))).isTrue();
+        assertThat(matcher.test(new Job().id(21L))).isFalse();
+    }
+
+    @Test
+    void testMatchNullValues() {
+        Predicate<Job> notSpecified = CriteriaMatcher.of(CriteriaMatcher.parse("title.specified=false", new JobCriteria()), Job.class);
+        Predicate<Job> notEquals = CriteriaMatcher.of(CriteriaMatcher.parse("title.notEquals=a", new JobCriteria()), Job.class);
+        assertThat(notSpecified.test(new Job())).isTrue();
+        assertThat(notSpecified.test(new Job().title("a"))).isFalse();
+        assertThat(notEquals.test(new Job())).isFalse();
+        assertThat(notEquals.test(new Job().title("b"))).isTrue();
+    }
+}
@@ -0,0 +1,169 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.service.criteria.JobCriteria;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Benchmark comparing {@link JobService#search} with the {@code title.contains} criteria of {@link JobQueryService},
+ * which runs a {@code LIKE '%word%'} query.
+ * <p>
+ * Only run on demand, with
+ * {@code ./mvnw verify -Dit.test=JobSearchBenchmarkIT -Dbenchmark=true -Dbenchmark.rows=1000000 -DargLine=-Xmx4g}.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(
+    properties = {
+        "application.bulk.chunk-size=1000",
+        "application.query-cache.enabled=false",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+    }
+)
+class JobSearchBenchmarkIT {
+
+    private static final int QUERIES = 200;
+
+    private static final int VOCABULARY = 20_000;
+
+    private final Logger log = LoggerFactory.getLogger(JobSearchBenchmarkIT.class);
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobQueryService jobQueryService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @AfterEach
+    void cleanup() {
+        jobRepository.deleteAllInBatch();
+        jobService.reindex();
+    }
+
+    @Test
+    void compareSearchAndLike() {
+        int rows = Integer.getInteger("benchmark.rows", 100_000);
+        long start = System.nanoTime();
+        BulkResultDTO result = jobService.saveAll(newJobs(rows, new Random(42)));
+        assertThat(result.getCreated()).isEqualTo(rows);
+        log.info("{} jobs saved and indexed in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+
+        start = System.nanoTime();
+        jobService.reindex();
+        log.info("{} jobs reindexed in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+
+        Random random = new Random(7);
+        List<String> words = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            words.add(word(random.nextInt(VOCABULARY)));
+        }
+
+        // Warm up both paths
+        for (String word : words.subList(0, 10)) {
+            jobService.search(word, PageRequest.of(0, 20));
+            jobQueryService.findByCriteria(titleContains(word), PageRequest.of(0, 20));
+        }
+
+        long searchHits = 0;
+        start = System.nanoTime();
+        for (String word : words) {
+            searchHits += jobService.search(word, PageRequest.of(0, 20)).getTotalElements();
+        }
+        long searchNanos = System.nanoTime() - start;
+
+        long likeHits = 0;
+        start = System.nanoTime();
+        for (String word : words) {
+            likeHits += jobQueryService.findByCriteria(titleContains(word), PageRequest.of(0, 20)).getTotalElements();
+        }
+        long likeNanos = System.nanoTime() - start;
+
+        log.info(
+            "On {} jobs, {} queries: index search {} µs/query ({} hits on title and description) - LIKE {} µs/query ({} hits on title)",
+            rows,
+            QUERIES,
+            searchNanos / QUERIES / 1_000,
+            searchHits,
+            likeNanos / QUERIES / 1_000,
+            likeHits
+        );
+    }
+
+    private static JobCriteria titleContains(String word) {
+        JobCriteria criteria = new JobCriteria();
+        StringFilter title = new StringFilter();
+        title.setContains(word);
+        criteria.setTitle(title);
+        return criteria;
+    }
+
+    private static Iterator<JobDTO> newJobs(int rows, Random random) {
+        return new Iterator<>() {
+            private int created;
+
+            @Override
+            public boolean hasNext() {
+                return created < rows;
+            }
+
+            @Override
+            public JobDTO next() {
+                created++;
+                JobDTO jobDTO = new JobDTO();
+                jobDTO.setTitle(words(random, 3));
+                jobDTO.setDescription(words(random, 12));
+                return jobDTO;
+            }
+        };
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder words = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                words.append(' ');
+            }
+            words.append(word(random.nextInt(VOCABULARY)));
+        }
+        return words.toString();
+    }
+
+    /**
+     * Words of 5 to 7 letters, made of consonant-vowel syllables.
+     */
+    private static String word(int index) {
+        String consonants = "bcdfghjklmnprstvz";
+        String vowels = "aeiou";
+        StringBuilder word = new StringBuilder();
+        int rest = index;
+        do {
+            word.append(consonants.charAt(rest % consonants.length())).append(vowels.charAt((rest / consonants.length()) % vowels.length()));
+            rest /= consonants.length() * vowels.length();
+        } while (rest > 0);
+        while (word.length() < 5) {
+            word.append('x');
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Job;
+import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.impl.ChangeLog;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link JobSearchIndex}.
+ * <p>
+ * The jobs of the other nodes are written behind the back of the service, with their change sequence. Not
+ * transactional, as the index is updated once the jobs are committed.
+ */
+@IntegrationTest
+class JobSearchIndexIT {
+
+    @Autowired
+    private JobSearchIndex jobSearchIndex;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> jobIds = new ArrayList<>();
+
+    @BeforeEach
+    void catchUp() {
+        // After the rebuild or catch-up of the startup
+        jobSearchIndex.catchUp();
+    }
+
+    @AfterEach
+    void cleanup() {
+        jobIds.forEach(jobService::delete);
+    }
+
+    @Test
+    void changesOfTheOtherNodesAreCaughtUp() {
+        Long id = writeAsAnotherNode("Remote zebrafish keeper");
+        assertThat(search("zebrafish")).isEmpty();
+
+        jobSearchIndex.catchUp();
+
+        assertThat(search("zebrafish")).containsExactly(id);
+        assertThat(jobSearchIndex.getChangeSeq()).isEqualTo(changeLog.getCurrent(Job.class));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            changeLog.deleted(Job.class, id);
+            jobRepository.deleteById(id);
+        });
+        jobIds.remove(id);
+        jobSearchIndex.catchUp();
+
+        assertThat(search("zebrafish")).isEmpty();
+    }
+
+    @Test
+    void rebuildRemovesTheJobsNoLongerInTheTable() {
+        Long id = writeAsAnotherNode("Remote narwhal trainer");
+        JobDTO phantom = new JobDTO();
+        phantom.setId(Long.MAX_VALUE);
+        phantom.setTitle("Deleted narwhal trainer");
+        jobSearchIndex.index(phantom);
+        assertThat(search("narwhal")).containsExactly(Long.MAX_VALUE);
+
+        jobSearchIndex.rebuild();
+
+        assertThat(search("narwhal")).containsExactly(id);
+    }
+
+    private Long writeAsAnotherNode(String title) {
+        Long id = new TransactionTemplate(transactionManager).execute(status -> {
+            Job job = jobRepository.save(new Job().title(title));
+            changeLog.changed(Job.class, job, changeSeq -> {});
+            return job.getId();
+        });
+        jobIds.add(id);
+        return id;
+    }
+
+    private List<Long> search(String query) {
+        return jobSearchIndex.search(query, PageRequest.of(0, 10)).getContent();
+    }
+}
@@ -0,0 +1,106 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Benchmark of the memory used by {@link JobTitleSuggester} and of its latency, on synthetic distinct titles.
+ * <p>
+ * Only run on demand, with
+ * {@code ./mvnw verify -Dit.test=JobTitleSuggesterBenchmarkIT -Dbenchmark=true -Dbenchmark.titles=1000000 -DargLine=-Xmx2g}.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class JobTitleSuggesterBenchmarkIT {
+
+    private static final int LOOKUPS = 100_000;
+
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyz";
+
+    private final Logger log = LoggerFactory.getLogger(JobTitleSuggesterBenchmarkIT.class);
+
+    @Autowired
+    private JobTitleSuggester jobTitleSuggester;
+
+    @Test
+    void measureMemoryAndLatency() {
+        int titles = Integer.getInteger("benchmark.titles", 1_000_000);
+        long start = System.nanoTime();
+        jobTitleSuggester.build(newTitleCounts(titles, new Random(42)));
+        log.info("{} titles built in {} ms", titles, (System.nanoTime() - start) / 1_000_000);
+        long bytes = jobTitleSuggester.ramBytesUsed();
+        log.info("{} titles use {} bytes, {} MB per million titles", titles, bytes, bytes * 1_000_000L / titles / (1024 * 1024));
+
+        Random random = new Random(7);
+        for (int i = 0; i < LOOKUPS / 10; i++) {
+            jobTitleSuggester.suggest(randomPrefix(random), 10);
+        }
+        long[] nanos = new long[LOOKUPS];
+        long suggestions = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String prefix = randomPrefix(random);
+            long lookupStart = System.nanoTime();
+            suggestions += jobTitleSuggester.suggest(prefix, 10).size();
+            nanos[i] = System.nanoTime() - lookupStart;
+        }
+        Arrays.sort(nanos);
+        assertThat(suggestions).isPositive();
+        log.info(
+            "{} lookups of 10 suggestions: p50 {} µs, p99 {} µs, p99.9 {} µs, {} suggestions on average",
+            LOOKUPS,
+            nanos[LOOKUPS / 2] / 1_000,
+            nanos[LOOKUPS * 99 / 100] / 1_000,
+            nanos[LOOKUPS * 999 / 1000] / 1_000,
+            suggestions / LOOKUPS
+        );
+        jobTitleSuggester.rebuild();
+    }
+
+    /**
+     * Distinct titles of 3 words, in the order of a group by, with frequencies following a power law.
+     */
+    private static Iterator<Map.Entry<String, Long>> newTitleCounts(int titles, Random random) {
+        return new Iterator<>() {
+            private int created;
+
+            @Override
+            public boolean hasNext() {
+                return created < titles;
+            }
+
+            @Override
+            public Map.Entry<String, Long> next() {
+                String title = word(random) + ' ' + word(random) + ' ' + word(random) + ' ' + created++;
+                return Map.entry(title, (long) (1 / (random.nextDouble() + 0.001)));
+            }
+        };
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return word.toString();
+    }
+
+    private static String randomPrefix(Random random) {
+        StringBuilder prefix = new StringBuilder();
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            prefix.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+        }
+        return prefix.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link KeysetCursor} value class.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void testEncodeDecodeStringValue() {
+        KeysetCursor cursor = new KeysetCursor("title", "a|b c,d", 42L);
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void testEncodeDecodeNumericAndNullValues() {
+        KeysetCursor longCursor = new KeysetCursor("id", 42L, 42L);
+        KeysetCursor intCursor = new KeysetCursor("rank", 7, 3L);
+        KeysetCursor nullCursor = new KeysetCursor("title", null, 5L);
+        assertThat(KeysetCursor.decode(longCursor.encode())).isEqualTo(longCursor);
+        assertThat(KeysetCursor.decode(intCursor.encode())).isEqualTo(intCursor);
+        assertThat(KeysetCursor.decode(nullCursor.encode())).isEqualTo(nullCursor);
+    }
+
+    @Test
+    void testEncodedCursorIsUrlSafe() {
+        String encoded = new KeysetCursor("title", "???>>>", 1L).encode();
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void testDecodeMalformedCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("dGl0bGV8c3g")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("dGl0bGV8eHh8MQ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testUnsupportedValueType() {
+        assertThatThrownBy(() -> new KeysetCursor("price", 1.5d, 1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,114 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.criteria.SalesCriteria;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the {@link MaterializedCounters} of {@link SalesQueryService}.
+ * <p>
+ * Not transactional, as the counters are only updated once the writes are committed.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.counters.hot-criteria.sales[0]=title.equals=" + MaterializedCountersIT.TITLE)
+class MaterializedCountersIT {
+
+    static final String TITLE = "MaterializedCountersIT";
+
+    private static final String OTHER_TITLE = "MaterializedCountersIT other";
+
+    @Autowired
+    private SalesQueryService salesQueryService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private SalesRepository salesRepository;
+
+    @Autowired
+    private CounterReconciler counterReconciler;
+
+    private SalesCriteria allCriteria;
+
+    private SalesCriteria hotCriteria;
+
+    @BeforeEach
+    void initCounters() {
+        allCriteria = new SalesCriteria();
+        hotCriteria = CriteriaMatcher.parse("title.equals=" + TITLE, new SalesCriteria());
+        counterReconciler.reconcile();
+    }
+
+    @AfterEach
+    void cleanup() {
+        salesRepository.deleteAll(salesRepository.findAll(Example.of(new Sales().title(TITLE))));
+        salesRepository.deleteAll(salesRepository.findAll(Example.of(new Sales().title(OTHER_TITLE))));
+        counterReconciler.reconcile();
+    }
+
+    @Test
+    void countsAreServedFromMemoryUntilReconciled() {
+        long all = salesQueryService.countByCriteria(allCriteria);
+        long hot = salesQueryService.countByCriteria(hotCriteria);
+
+        // Written behind the back of the service: the counts are not updated until reconciled
+        salesRepository.saveAndFlush(new Sales().title(TITLE));
+        assertThat(salesQueryService.countByCriteria(allCriteria)).isEqualTo(all);
+        assertThat(salesQueryService.countByCriteria(hotCriteria)).isEqualTo(hot);
+
+        counterReconciler.reconcile();
+        assertThat(salesQueryService.countByCriteria(allCriteria)).isEqualTo(all + 1);
+        assertThat(salesQueryService.countByCriteria(hotCriteria)).isEqualTo(hot + 1);
+    }
+
+    @Test
+    void countsFollowTheWritesOfTheService() {
+        long all = salesQueryService.countByCriteria(allCriteria);
+        long hot = salesQueryService.countByCriteria(hotCriteria);
+
+        SalesDTO hotSales = salesService.save(newSales(TITLE));
+        salesService.save(newSales(OTHER_TITLE));
+        assertThat(salesQueryService.countByCriteria(allCriteria)).isEqualTo(all + 2);
+        assertThat(salesQueryService.countByCriteria(hotCriteria)).isEqualTo(hot + 1);
+
+        // An update makes the filtered counters stale, so they are counted again
+        hotSales.setTitle(OTHER_TITLE);
+        salesService.save(hotSales);
+        assertThat(salesQueryService.countByCriteria(allCriteria)).isEqualTo(all + 2);
+        assertThat(salesQueryService.countByCriteria(hotCriteria)).isEqualTo(hot);
+
+        salesService.delete(hotSales.getId());
+        assertThat(salesQueryService.countByCriteria(allCriteria)).isEqualTo(all + 1);
+        assertThat(salesQueryService.countByCriteria(hotCriteria)).isEqualTo(hot);
+    }
+
+    @Test
+    void approximateCountIsReadFromTheCounters() {
+        salesService.save(newSales(TITLE));
+        salesService.save(newSales(TITLE));
+        long hot = salesQueryService.countByCriteria(hotCriteria);
+
+        Page<SalesDTO> page = salesQueryService.findByCriteria(hotCriteria, PageRequest.of(0, 1), true);
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getTotalElements()).isEqualTo(hot);
+    }
+
+    private static SalesDTO newSales(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        return salesDTO;
+    }
+}
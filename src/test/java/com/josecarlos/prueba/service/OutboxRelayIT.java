@@ -0,0 +1,173 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.domain.OutboxEvent;
+import com.josecarlos.prueba.repository.OutboxEventRepository;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.impl.FileOutboxSink;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link OutboxRelay}, and for the writes of the services to the outbox.
+ * <p>
+ * Not transactional, as the relay runs its own transactions, and only sees the committed events.
+ */
+@IntegrationTest
+class OutboxRelayIT {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<OutboxEvent> published = new ArrayList<>();
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @BeforeEach
+    void drainOutbox() {
+        relay(events -> {});
+    }
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+        relay(events -> {});
+    }
+
+    @Test
+    void relaysTheCommittedChanges() {
+        SalesDTO salesDTO = create("OutboxRelayIT created");
+        salesDTO.setTitle("OutboxRelayIT updated");
+        salesService.partialUpdate(salesDTO);
+        salesService.delete(salesDTO.getId());
+        salesIds.clear();
+
+        relay(published::addAll);
+
+        assertThat(published)
+            .extracting(OutboxEvent::getAggregateType, OutboxEvent::getAggregateId, OutboxEvent::getEventType)
+            .containsExactly(
+                tuple("Sales", salesDTO.getId(), "CREATED"),
+                tuple("Sales", salesDTO.getId(), "UPDATED"),
+                tuple("Sales", salesDTO.getId(), "DELETED")
+            );
+        assertThat(published.get(0).getPayload()).contains("\"title\":\"OutboxRelayIT created\"");
+        assertThat(published.get(1).getPayload()).contains("\"title\":\"OutboxRelayIT updated\"");
+        assertThat(published.get(2).getPayload()).isNull();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackChangesAreNotRelayed() {
+        new TransactionTemplate(transactionManager)
+            .executeWithoutResult(status -> {
+                create("OutboxRelayIT rolled back");
+                status.setRollbackOnly();
+            });
+        salesIds.clear();
+
+        relay(published::addAll);
+
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void failedBatchesAreRelayedAgain() {
+        create("OutboxRelayIT failed");
+
+        relay(events -> {
+            throw new IllegalStateException("Sink unavailable");
+        });
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+
+        relay(published::addAll);
+        assertThat(published).extracting(OutboxEvent::getEventType).containsExactly("CREATED");
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void relaysTheBulkChangesInBatches() {
+        List<SalesDTO> salesDTOs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("OutboxRelayIT bulk " + i);
+            salesDTOs.add(salesDTO);
+        }
+        salesService.saveAll(salesDTOs.iterator());
+        List<Long> batchSizes = new ArrayList<>();
+        int batchSize = applicationProperties.getOutbox().getBatchSize();
+        applicationProperties.getOutbox().setBatchSize(2);
+        try {
+            relay(events -> {
+                batchSizes.add((long) events.size());
+                published.addAll(events);
+            });
+        } finally {
+            applicationProperties.getOutbox().setBatchSize(batchSize);
+        }
+        published.forEach(event -> salesIds.add(event.getAggregateId()));
+
+        assertThat(published).extracting(OutboxEvent::getEventType).containsOnly("CREATED").hasSize(5);
+        assertThat(published.stream().map(OutboxEvent::getPayload).collect(Collectors.joining()))
+            .contains("OutboxRelayIT bulk 0", "OutboxRelayIT bulk 4");
+        assertThat(batchSizes).containsExactly(2L, 2L, 1L);
+    }
+
+    @Test
+    void fileSinkAppendsNdjson(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        SalesDTO salesDTO = create("OutboxRelayIT file");
+        salesService.delete(salesDTO.getId());
+        salesIds.clear();
+
+        relay(new FileOutboxSink(file, objectMapper));
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        JsonNode created = objectMapper.readTree(lines.get(0));
+        assertThat(created.get("eventType").asText()).isEqualTo("CREATED");
+        assertThat(created.get("aggregateId").asLong()).isEqualTo(salesDTO.getId());
+        assertThat(created.get("payload").get("title").asText()).isEqualTo("OutboxRelayIT file");
+        assertThat(objectMapper.readTree(lines.get(1)).get("payload").isNull()).isTrue();
+    }
+
+    private SalesDTO create(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        salesDTO = salesService.save(salesDTO);
+        salesIds.add(salesDTO.getId());
+        return salesDTO;
+    }
+
+    private void relay(OutboxSink outboxSink) {
+        new OutboxRelay(outboxEventRepository, outboxSink, applicationProperties, transactionManager).relay();
+    }
+}
@@ -0,0 +1,79 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.criteria.SalesCriteria;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.PageRequest;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for {@link QueryResultCache}, through {@link SalesQueryService}.
+ * <p>
+ * Not transactional, as results are only cached in read-only transactions.
+ */
+@IntegrationTest
+class QueryResultCacheIT {
+
+    private static final String TITLE = "QueryResultCacheIT";
+
+    @Autowired
+    private SalesQueryService salesQueryService;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private SalesRepository salesRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void cleanup() {
+        salesRepository.deleteAll(salesRepository.findAll(Example.of(new Sales().title(TITLE))));
+    }
+
+    @Test
+    void resultsAreCachedUntilTheNextWrite() {
+        SalesCriteria criteria = new SalesCriteria();
+        StringFilter title = new StringFilter();
+        title.setEquals(TITLE);
+        criteria.setTitle(title);
+        double hits = count("hit");
+        double misses = count("miss");
+        double invalidations = meterRegistry.counter("query.cache.invalidations", "cache", SalesQueryService.SALES_QUERY_CACHE).count();
+
+        assertThat(salesQueryService.countByCriteria(criteria)).isZero();
+        assertThat(count("miss")).isEqualTo(misses + 1);
+
+        // Written behind the back of the service: the cached result is still returned
+        salesRepository.save(new Sales().title(TITLE));
+        assertThat(salesQueryService.countByCriteria(criteria)).isZero();
+        assertThat(count("hit")).isEqualTo(hits + 1);
+
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(TITLE);
+        salesService.save(salesDTO);
+        assertThat(meterRegistry.counter("query.cache.invalidations", "cache", SalesQueryService.SALES_QUERY_CACHE).count())
+            .isEqualTo(invalidations + 1);
+        assertThat(salesQueryService.countByCriteria(criteria)).isEqualTo(2);
+        assertThat(salesQueryService.findByCriteria(criteria, PageRequest.of(0, 10)).getContent()).hasSize(2);
+        assertThat(count("miss")).isEqualTo(misses + 3);
+
+        assertThat(salesQueryService.findByCriteria(criteria, PageRequest.of(0, 10)).getContent()).hasSize(2);
+        assertThat(count("hit")).isEqualTo(hits + 2);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("query.cache.gets", "cache", SalesQueryService.SALES_QUERY_CACHE, "result", result).count();
+    }
+}
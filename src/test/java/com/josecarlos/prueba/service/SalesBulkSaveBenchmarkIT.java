@@ -0,0 +1,105 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.dto.BulkResultDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Benchmark comparing the throughput of {@link SalesService#saveAll} with the single-row {@link SalesService#save} path.
+ * <p>
+ * Only run on demand, with {@code ./mvnw verify -Dit.test=SalesBulkSaveBenchmarkIT -Dbenchmark=true}.
+ */
+@IntegrationTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@TestPropertySource(
+    properties = {
+        "application.bulk.chunk-size=500",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=25",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+    }
+)
+class SalesBulkSaveBenchmarkIT {
+
+    private static final int ROWS = 20_000;
+
+    private final Logger log = LoggerFactory.getLogger(SalesBulkSaveBenchmarkIT.class);
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private SalesRepository salesRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanup() {
+        salesRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void compareBulkAndSingleRowSaves() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        // Warm up both paths
+        saveOneByOne(1_000);
+        salesService.saveAll(newSales(1_000).iterator());
+        salesRepository.deleteAllInBatch();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        saveOneByOne(ROWS);
+        long singleRowNanos = System.nanoTime() - start;
+        long singleRowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        BulkResultDTO result = salesService.saveAll(newSales(ROWS).iterator());
+        long bulkNanos = System.nanoTime() - start;
+        long bulkStatements = statistics.getPrepareStatementCount();
+
+        statistics.setStatisticsEnabled(false);
+        assertThat(result.getCreated()).isEqualTo(ROWS);
+        assertThat(salesRepository.count()).isEqualTo(2L * ROWS);
+        log.info(
+            "Single-row save: {} rows/s, {} statements - bulk save: {} rows/s, {} statements",
+            ROWS * 1_000_000_000L / singleRowNanos,
+            singleRowStatements,
+            ROWS * 1_000_000_000L / bulkNanos,
+            bulkStatements
+        );
+    }
+
+    private void saveOneByOne(int rows) {
+        for (SalesDTO salesDTO : newSales(rows)) {
+            salesService.save(salesDTO);
+        }
+    }
+
+    private static List<SalesDTO> newSales(int rows) {
+        List<SalesDTO> salesDTOs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("Benchmark sales " + i);
+            salesDTOs.add(salesDTO);
+        }
+        return salesDTOs;
+    }
+}
@@ -0,0 +1,275 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.repository.SalesRepository;
+import com.josecarlos.prueba.service.criteria.SalesCriteria;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Integration tests for {@link SingleFlight}, and for the reads of the services coalesced by it.
+ * <p>
+ * Not transactional, as only the reads called outside of a transaction are coalesced. The reads of the bursts are held
+ * until all the other calls wait for them, so that the bursts are always concurrent.
+ */
+@IntegrationTest
+class SingleFlightIT {
+
+    private static final String GROUP = "singleFlightIT";
+
+    private static final int BURST = 32;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private SalesQueryService salesQueryService;
+
+    @SpyBean
+    private SalesRepository salesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    private ExecutorService executor;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @BeforeEach
+    void createExecutor() {
+        executor = Executors.newFixedThreadPool(BURST);
+        clearInvocations(salesRepository);
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdownNow();
+        applicationProperties.getSingleFlight().setEnabled(true);
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void concurrentIdenticalCallsShareOneRead() throws Exception {
+        double coalesced = count(GROUP, "coalesced");
+        AtomicInteger reads = new AtomicInteger();
+        // The read only completes once all the other calls wait for it
+        List<Object> results = burst(() ->
+            singleFlight.execute(
+                GROUP,
+                "shared",
+                () -> {
+                    reads.incrementAndGet();
+                    awaitCoalesced(GROUP, coalesced + BURST - 1);
+                    return new Object();
+                }
+            )
+        );
+
+        assertThat(reads).hasValue(1);
+        assertThat(results).hasSize(BURST).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+        assertThat(count(GROUP, "coalesced")).isEqualTo(coalesced + BURST - 1);
+    }
+
+    @Test
+    void failuresAreSharedWithTheWaitingCalls() throws Exception {
+        double coalesced = count(GROUP, "coalesced");
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(
+                executor.submit(() ->
+                    singleFlight.execute(
+                        GROUP,
+                        "failing",
+                        () -> {
+                            awaitCoalesced(GROUP, coalesced + 2);
+                            throw new IllegalStateException("Read failed");
+                        }
+                    )
+                )
+            );
+        }
+
+        for (Future<Object> future : futures) {
+            assertThatThrownBy(() -> future.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void invalidatedReadsAreNotShared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() ->
+            singleFlight.execute(
+                GROUP,
+                "invalidated",
+                () -> {
+                    started.countDown();
+                    await(release);
+                    return "before";
+                }
+            )
+        );
+        await(started);
+
+        singleFlight.invalidate(GROUP);
+        String second = singleFlight.execute(GROUP, "invalidated", () -> "after");
+        release.countDown();
+
+        assertThat(second).isEqualTo("after");
+        assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("before");
+    }
+
+    @Test
+    void burstOfFindOneHitsTheDatabaseOnce() throws Exception {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle("SingleFlightIT findOne");
+        salesDTO = salesService.save(salesDTO);
+        salesIds.add(salesDTO.getId());
+        Long id = salesDTO.getId();
+        double coalesced = count(SalesQueryService.SALES_QUERY_CACHE, "coalesced");
+        doAnswer(heldUntilCoalesced(coalesced + BURST - 1)).when(salesRepository).findById(id);
+
+        List<Object> results = burst(() -> salesService.findOne(id).orElseThrow());
+
+        assertThat(results).hasSize(BURST).extracting("id").containsOnly(id);
+        verify(salesRepository, times(1)).findById(id);
+        assertThat(count(SalesQueryService.SALES_QUERY_CACHE, "coalesced")).isEqualTo(coalesced + BURST - 1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void burstOfCountsHitsTheDatabaseOnce() throws Exception {
+        SalesCriteria criteria = new SalesCriteria();
+        StringFilter title = new StringFilter();
+        title.setEquals("SingleFlightIT count");
+        criteria.setTitle(title);
+        double coalesced = count(SalesQueryService.SALES_QUERY_CACHE, "coalesced");
+        doAnswer(heldUntilCoalesced(coalesced + BURST - 1)).when(salesRepository).count(any(Specification.class));
+
+        List<Object> results = burst(() -> salesQueryService.countByCriteria(criteria));
+
+        assertThat(results).hasSize(BURST).containsOnly(0L);
+        verify(salesRepository, times(1)).count(any(Specification.class));
+    }
+
+    @Test
+    void readsWithinATransactionAreNotCoalesced() {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle("SingleFlightIT transaction");
+        SalesDTO saved = salesService.save(salesDTO);
+        salesIds.add(saved.getId());
+        double executed = count(SalesQueryService.SALES_QUERY_CACHE, "executed");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> salesService.findOne(saved.getId()));
+
+        assertThat(count(SalesQueryService.SALES_QUERY_CACHE, "executed")).isEqualTo(executed);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void readsStillRunInAReadOnlyTransactionWhenDisabled() {
+        applicationProperties.getSingleFlight().setEnabled(false);
+        SalesCriteria criteria = new SalesCriteria();
+        StringFilter title = new StringFilter();
+        title.setEquals("SingleFlightIT disabled");
+        criteria.setTitle(title);
+
+        assertThat(singleFlight.execute(GROUP, "disabled", TransactionSynchronizationManager::isCurrentTransactionReadOnly)).isTrue();
+        // The second count is served by the query result cache, which only caches the reads of read-only transactions
+        salesQueryService.countByCriteria(criteria);
+        salesQueryService.countByCriteria(criteria);
+        verify(salesRepository, times(1)).count(any(Specification.class));
+    }
+
+    private List<Object> burst(Callable<Object> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            futures.add(
+                executor.submit(() -> {
+                    await(start);
+                    return call.call();
+                })
+            );
+        }
+        start.countDown();
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    /**
+     * Hold the reads of the repository until the given number of calls wait for them, then run them.
+     */
+    private Answer<Object> heldUntilCoalesced(double expected) {
+        // The spy of the repository proxy delegates to it by default
+        Answer<?> delegate = mockingDetails(salesRepository).getMockCreationSettings().getDefaultAnswer();
+        return invocation -> {
+            awaitCoalesced(SalesQueryService.SALES_QUERY_CACHE, expected);
+            return delegate.answer(invocation);
+        };
+    }
+
+    private void awaitCoalesced(String group, double expected) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (count(group, "coalesced") < expected && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private double count(String group, String result) {
+        return meterRegistry.counter("single.flight.calls", "group", group, "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.josecarlos.prueba.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.domain.User;
+import com.josecarlos.prueba.repository.UserRepository;
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import com.josecarlos.prueba.security.jwt.JWTFilter;
+import com.josecarlos.prueba.security.jwt.TokenProvider;
+import com.josecarlos.prueba.service.dto.AdminUserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link UserCache}.
+ * <p>
+ * Not transactional, as the users are only written to the caches once their changes are committed. The loads of the
+ * bursts are held until all the other requests wait for them, so that the bursts are always concurrent.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+class UserCacheIT {
+
+    private static final String LOGIN = "user-cache-it";
+
+    // Smaller than the connection pool, as each request waits in a transaction of its own
+    private static final int BURST = 8;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private UserService userService;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc restAccountMockMvc;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(BURST);
+        createUser(LOGIN + "@localhost");
+        clearInvocations(userRepository);
+    }
+
+    @AfterEach
+    void cleanup() {
+        executor.shutdownNow();
+        applicationProperties.getCache().getUsers().setRefreshAfter(Duration.ofMinutes(45));
+        userService.deleteUser(LOGIN);
+    }
+
+    @Test
+    void burstOfAuthenticatedRequestsLoadsTheUserOnce() throws Exception {
+        cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).evict(LOGIN);
+        double coalesced = count(UserRepository.USERS_BY_LOGIN_CACHE, "coalesced");
+        doAnswer(heldUntilCoalesced(coalesced + BURST - 1)).when(userRepository).findOneWithAuthoritiesByLogin(LOGIN);
+        String jwt = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(LOGIN, null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+            false
+        );
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            futures.add(
+                executor.submit(() -> {
+                    await(start);
+                    restAccountMockMvc
+                        .perform(get("/api/account").header(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.login").value(LOGIN));
+                    return null;
+                })
+            );
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        verify(userRepository, times(1)).findOneWithAuthoritiesByLogin(LOGIN);
+        assertThat(count(UserRepository.USERS_BY_LOGIN_CACHE, "coalesced")).isEqualTo(coalesced + BURST - 1);
+    }
+
+    @Test
+    void changesAreWrittenThroughToTheCaches() {
+        AdminUserDTO userDTO = new AdminUserDTO(userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow());
+        userDTO.setFirstName("changed");
+        userDTO.setEmail(LOGIN + "-changed@localhost");
+
+        userService.updateUser(userDTO);
+
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN)).get().extracting(User::getFirstName).isEqualTo("changed");
+        assertThat(userCache.findOneWithAuthoritiesByEmail(LOGIN + "-changed@LOCALHOST")).get().extracting(User::getLogin).isEqualTo(LOGIN);
+        assertThat(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).get(LOGIN + "@localhost")).isNull();
+        verify(userRepository, never()).findOneWithAuthoritiesByLogin(anyString());
+        verify(userRepository, never()).findOneWithAuthoritiesByEmailIgnoreCase(anyString());
+    }
+
+    @Test
+    void staleUsersAreRefreshedInTheBackground() {
+        double refreshed = count(UserRepository.USERS_BY_LOGIN_CACHE, "refreshed");
+        // Changed behind the back of the cache
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            userRepository.findOneByLogin(LOGIN).orElseThrow().setFirstName("refreshed")
+        );
+        applicationProperties.getCache().getUsers().setRefreshAfter(Duration.ZERO);
+
+        // The cached user is returned while it is reloaded
+        assertThat(userCache.findOneWithAuthoritiesByLogin(LOGIN)).get().extracting(User::getFirstName).isEqualTo("first");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"refreshed".equals(userCache.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow().getFirstName())) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.onSpinWait();
+        }
+        assertThat(count(UserRepository.USERS_BY_LOGIN_CACHE, "refreshed")).isGreaterThan(refreshed);
+    }
+
+    private void createUser(String email) {
+        AdminUserDTO userDTO = new AdminUserDTO();
+        userDTO.setLogin(LOGIN);
+        userDTO.setEmail(email);
+        userDTO.setFirstName("first");
+        userDTO.setActivated(true);
+        userDTO.setAuthorities(Set.of(AuthoritiesConstants.USER));
+        userService.createUser(userDTO);
+    }
+
+    /**
+     * Hold the loads of the repository until the given number of requests wait for them, then run them.
+     */
+    private Answer<Object> heldUntilCoalesced(double expected) {
+        // The spy of the repository proxy delegates to it by default
+        Answer<?> delegate = mockingDetails(userRepository).getMockCreationSettings().getDefaultAnswer();
+        return invocation -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (count(UserRepository.USERS_BY_LOGIN_CACHE, "coalesced") < expected && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return delegate.answer(invocation);
+        };
+    }
+
+    private double count(String cache, String result) {
+        return meterRegistry.counter("user.cache.loads", "cache", cache, "result", result).count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.josecarlos.prueba.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.carrotsearch.hppc.LongArrayList;
+import com.carrotsearch.hppc.cursors.LongCursor;
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for {@link EntityMultiLoader}, through the services.
+ * <p>
+ * Not transactional, as the second-level cache, which is enabled here, is only written once the transactions are committed.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.cache.use_second_level_cache=true", "application.multi-load.batch-size=4" })
+class EntityMultiLoaderIT {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LongArrayList salesIds = new LongArrayList();
+
+    @AfterEach
+    void cleanup() {
+        for (LongCursor cursor : salesIds) {
+            salesService.delete(cursor.value);
+        }
+    }
+
+    @Test
+    void onlyTheEntitiesMissingFromTheSecondLevelCacheAreQueried() {
+        for (int i = 0; i < 7; i++) {
+            SalesDTO salesDTO = new SalesDTO();
+            salesDTO.setTitle("EntityMultiLoaderIT " + i);
+            salesIds.add(salesService.save(salesDTO).getId());
+        }
+        entityManagerFactory.getCache().evictAll();
+        salesService.findOne(salesIds.get(4));
+
+        LongArrayList ids = new LongArrayList();
+        ids.addAll(salesIds);
+        ids.add(Long.MAX_VALUE);
+        ids.add(salesIds.get(0));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+        List<SalesDTO> salesDTOs;
+        try {
+            salesDTOs = salesService.findAllById(ids);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        assertThat(salesDTOs.stream().map(SalesDTO::getId).collect(Collectors.toList()))
+            .containsExactly(
+                salesIds.get(0),
+                salesIds.get(1),
+                salesIds.get(2),
+                salesIds.get(3),
+                salesIds.get(4),
+                salesIds.get(5),
+                salesIds.get(6)
+            );
+        // The 7 misses, with the missing id, are loaded by a query of 4 ids and a query padded to 4 ids
+        assertThat(statistics.getDomainDataRegionStatistics(Sales.class.getName()).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getEntityStatistics(Sales.class.getName()).getLoadCount()).isEqualTo(6);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void noIdsLoadNothing() {
+        assertThat(salesService.findAllById(new LongArrayList())).isEmpty();
+    }
+}
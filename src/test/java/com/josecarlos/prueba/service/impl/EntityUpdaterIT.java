@@ -0,0 +1,126 @@
+package com.josecarlos.prueba.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.domain.Sales;
+import com.josecarlos.prueba.service.JobService;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.JobDTO;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link EntityUpdater}, through the services.
+ * <p>
+ * Not transactional, as the second-level cache, which is enabled here, is only written once the transactions are committed.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+class EntityUpdaterIT {
+
+    private static final String TITLE = "EntityUpdaterIT";
+
+    private static final String UPDATED_TITLE = "EntityUpdaterIT updated";
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    private Long jobId;
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+        if (jobId != null) {
+            jobService.delete(jobId);
+        }
+    }
+
+    @Test
+    void updatesOnlyEvictTheUpdatedEntityFromTheSecondLevelCache() {
+        SalesDTO salesDTO = createSales();
+        SalesDTO otherSalesDTO = createSales();
+        salesService.findOne(salesDTO.getId());
+        salesService.findOne(otherSalesDTO.getId());
+        assertThat(entityManagerFactory.getCache().contains(Sales.class, otherSalesDTO.getId())).isTrue();
+
+        salesDTO.setTitle(UPDATED_TITLE);
+        assertThat(salesService.update(salesDTO)).map(SalesDTO::getTitle).contains(UPDATED_TITLE);
+
+        assertThat(salesService.findOne(salesDTO.getId())).map(SalesDTO::getTitle).contains(UPDATED_TITLE);
+        assertThat(entityManagerFactory.getCache().contains(Sales.class, otherSalesDTO.getId())).isTrue();
+    }
+
+    @Test
+    void rolledBackUpdatesAreNotCached() {
+        SalesDTO salesDTO = createSales();
+        salesService.findOne(salesDTO.getId());
+
+        SalesDTO updatedSalesDTO = new SalesDTO();
+        updatedSalesDTO.setId(salesDTO.getId());
+        updatedSalesDTO.setTitle(UPDATED_TITLE);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertThat(salesService.update(updatedSalesDTO)).isPresent();
+            assertThat(salesService.findOne(salesDTO.getId())).map(SalesDTO::getTitle).contains(UPDATED_TITLE);
+            status.setRollbackOnly();
+        });
+
+        assertThat(salesService.findOne(salesDTO.getId())).map(SalesDTO::getTitle).contains(TITLE);
+    }
+
+    @Test
+    void partialUpdatesReturnTheWholeEntity() {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setTitle("EntityUpdaterIT job title");
+        jobDTO.setDescription("EntityUpdaterIT description");
+        jobId = jobService.save(jobDTO).getId();
+
+        JobDTO partialJobDTO = new JobDTO();
+        partialJobDTO.setId(jobId);
+        partialJobDTO.setDescription("EntityUpdaterIT updated description");
+        JobDTO result = jobService.partialUpdate(partialJobDTO).orElseThrow();
+
+        assertThat(result.getTitle()).isEqualTo("EntityUpdaterIT job title");
+        assertThat(result.getDescription()).isEqualTo("EntityUpdaterIT updated description");
+        assertThat(jobService.findOne(jobId)).map(JobDTO::getDescription).contains("EntityUpdaterIT updated description");
+    }
+
+    @Test
+    void updatesOfMissingEntitiesAreEmpty() {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setId(Long.MAX_VALUE);
+        salesDTO.setTitle(TITLE);
+
+        assertThat(salesService.update(salesDTO)).isEmpty();
+        assertThat(salesService.partialUpdate(salesDTO)).isEmpty();
+        salesDTO.setTitle(null);
+        assertThat(salesService.partialUpdate(salesDTO)).isEmpty();
+    }
+
+    private SalesDTO createSales() {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(TITLE);
+        salesDTO = salesService.save(salesDTO);
+        salesIds.add(salesDTO.getId());
+        return salesDTO;
+    }
+}
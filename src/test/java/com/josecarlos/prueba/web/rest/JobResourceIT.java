@@ -1,16 +1,25 @@
 package com.josecarlos.prueba.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.josecarlos.prueba.IntegrationTest;
 import com.josecarlos.prueba.domain.Job;
 import com.josecarlos.prueba.repository.JobRepository;
+import com.josecarlos.prueba.service.JobService;
+import com.josecarlos.prueba.service.JobTitleSuggester;
 import com.josecarlos.prueba.service.criteria.JobCriteria;
 import com.josecarlos.prueba.service.dto.JobDTO;
 import com.josecarlos.prueba.service.mapper.JobMapper;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -19,10 +28,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Example;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * Integration tests for the {@link JobResource} REST controller.
@@ -50,12 +63,21 @@ class JobResourceIT {
     @Autowired
     private JobMapper jobMapper;
 
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private JobTitleSuggester jobTitleSuggester;
+
     @Autowired
     private EntityManager em;
 
     @Autowired
     private MockMvc restJobMockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private Job job;
 
     /**
@@ -167,11 +189,56 @@ class JobResourceIT {
             .perform(get(ENTITY_API_URL_ID, job.getId()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
             .andExpect(jsonPath("$.id").value(job.getId().intValue()))
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
             .andExpect(jsonPath("$.description").value(DEFAULT_DESCRIPTION));
     }
 
+    @Test
+    @Transactional
+    void getJobIfNoneMatch() throws Exception {
+        // Initialize the database
+        jobRepository.saveAndFlush(job);
+
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL_ID, job.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getJobsByIds() throws Exception {
+        // Initialize the database
+        jobRepository.saveAndFlush(job);
+        Job otherJob = jobRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // The missing ids and the duplicates are skipped, the order of the ids is kept
+        String ids = otherJob.getId() + "," + Long.MAX_VALUE + "," + job.getId() + "," + otherJob.getId();
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?ids=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(otherJob.getId().intValue(), job.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE, DEFAULT_TITLE)));
+
+        restJobMockMvc
+            .perform(post(ENTITY_API_URL + "/_fetch").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(otherJob.getId().intValue(), job.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getJobsByTooManyIds() throws Exception {
+        String ids = String.join(",", Collections.nCopies(1001, "1"));
+        restJobMockMvc.perform(get(ENTITY_API_URL + "?ids=" + ids)).andExpect(status().isBadRequest());
+        restJobMockMvc
+            .perform(post(ENTITY_API_URL + "/_fetch").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getJobsByIdFiltering() throws Exception {
@@ -346,6 +413,356 @@ class JobResourceIT {
         defaultJobShouldBeFound("description.doesNotContain=" + UPDATED_DESCRIPTION);
     }
 
+    @Test
+    @Transactional
+    void getAllJobsWithKeysetPaginationOnTitle() throws Exception {
+        // Initialize the database
+        Job first = jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "C"));
+        Job second = jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "B"));
+        Job third = jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "B"));
+
+        // Get the first slice, sorted by title and then by id, in descending order
+        MvcResult firstSlice = restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=title,desc&title.contains=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].id").value(contains(first.getId().intValue(), third.getId().intValue())))
+            .andReturn();
+
+        // Follow the link to get the last slice
+        String link = firstSlice.getResponse().getHeader(HttpHeaders.LINK);
+        restJobMockMvc
+            .perform(get(new URI(link.substring(1, link.indexOf('>')))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(second.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithFields() throws Exception {
+        // Initialize the database
+        jobRepository.saveAndFlush(job);
+
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=id,title&sort=id,desc&id.equals=" + job.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].id").value(job.getId().intValue()))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].description").doesNotExist())
+            .andExpect(jsonPath("$.[0].version").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithFieldsAndKeysetPagination() throws Exception {
+        // Initialize the database
+        Job first = jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "C"));
+        Job second = jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "B"));
+        jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE + "B"));
+
+        // The cursor is built from the sort key and the id, which are not requested
+        MvcResult firstSlice = restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=description&after=&size=2&sort=title,desc&title.contains=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].description").value(contains(DEFAULT_DESCRIPTION, DEFAULT_DESCRIPTION)))
+            .andExpect(jsonPath("$.[0].id").doesNotExist())
+            .andExpect(jsonPath("$.[0].title").doesNotExist())
+            .andReturn();
+
+        String link = firstSlice.getResponse().getHeader(HttpHeaders.LINK);
+        restJobMockMvc
+            .perform(get(new URI(link.substring(1, link.indexOf('>')))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithUnknownField() throws Exception {
+        restJobMockMvc.perform(get(ENTITY_API_URL + "?fields=title,salary")).andExpect(status().isBadRequest());
+        restJobMockMvc.perform(get(ENTITY_API_URL + "?fields=title,salary&after=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithKeysetCursorNotMatchingSort() throws Exception {
+        // Initialize the database
+        jobRepository.saveAndFlush(job);
+        jobRepository.saveAndFlush(createEntity(em));
+
+        MvcResult firstSlice = restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=1&sort=id,asc"))
+            .andExpect(status().isOk())
+            .andReturn();
+        String link = firstSlice.getResponse().getHeader(HttpHeaders.LINK);
+        String cursor = UriComponentsBuilder
+            .fromUriString(link.substring(1, link.indexOf('>')))
+            .build()
+            .getQueryParams()
+            .getFirst("after");
+
+        restJobMockMvc.perform(get(ENTITY_API_URL + "?sort=title,asc&after=" + cursor)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithApproximateCount() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE));
+        }
+
+        // Without counter for the criteria, the total is a lower bound, one more than the rows up to this page
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?count=approximate&page=0&size=1&sort=id,asc&title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string("X-Total-Count-Approximate", "true"))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE)));
+
+        // The last page gives the exact total
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL + "?count=approximate&page=1&size=2&sort=id,asc&title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE)));
+    }
+
+    @Test
+    @Transactional
+    void getAllJobsWithUnsupportedCountMode() throws Exception {
+        restJobMockMvc.perform(get(ENTITY_API_URL + "?count=none")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportJobsAsNdjson() throws Exception {
+        // Initialize the database, outside of a test transaction as the export runs its own transaction
+        List<Job> exportedJobs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            exportedJobs.add(jobRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE)));
+        }
+        try {
+            MvcResult result = restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/export?sort=id,desc&title.equals=" + UPDATED_TITLE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            String body = restJobMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertThat(lines).hasSize(3);
+            for (int i = 0; i < lines.length; i++) {
+                JobDTO jobDTO = objectMapper.readValue(lines[i], JobDTO.class);
+                assertThat(jobDTO.getId()).isEqualTo(exportedJobs.get(exportedJobs.size() - 1 - i).getId());
+                assertThat(jobDTO.getTitle()).isEqualTo(UPDATED_TITLE);
+                assertThat(jobDTO.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+            }
+        } finally {
+            jobRepository.deleteAll(exportedJobs);
+        }
+    }
+
+    @Test
+    void exportJobsAsCsv() throws Exception {
+        // Initialize the database, outside of a test transaction as the export runs its own transaction
+        Job exportedJob = jobRepository.saveAndFlush(createEntity(em).description(null));
+        try {
+            MvcResult result = restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=CSV&id.equals=" + exportedJob.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restJobMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,title,description,version,changeSeq\r\n" + exportedJob.getId() + "," + DEFAULT_TITLE + ",,0,\r\n"));
+        } finally {
+            jobRepository.delete(exportedJob);
+        }
+    }
+
+    @Test
+    void searchJobs() throws Exception {
+        // Initialize the database, outside of a test transaction as the index is updated once the jobs are committed
+        List<JobDTO> jobDTOs = new ArrayList<>();
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Senior Java developer").description("Spring Boot backend"))));
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Frontend developer").description("Angular, some Java"))));
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Accountant position").description("Spreadsheets"))));
+        try {
+            // The match in the title ranks first
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=JAVA&page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.[*].id").value(contains(jobDTOs.get(0).getId().intValue(), jobDTOs.get(1).getId().intValue())));
+
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=java&page=1&size=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(jobDTOs.get(1).getId().intValue())));
+
+            // Pages beyond the index are empty, whatever their offset
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=java&page=100000&size=2000"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$").isEmpty());
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=java&page=" + Integer.MAX_VALUE + "&size=2000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+
+            // Deleted jobs are removed from the index
+            jobService.delete(jobDTOs.remove(0).getId());
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=java"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].id").value(contains(jobDTOs.get(0).getId().intValue())));
+
+            // Updated jobs are indexed again
+            JobDTO updatedJobDTO = jobDTOs.get(1);
+            updatedJobDTO.setDescription("Java accounting software");
+            jobService.save(updatedJobDTO);
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_search?q=accounting"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].id").value(contains(updatedJobDTO.getId().intValue())));
+        } finally {
+            jobDTOs.forEach(jobDTO -> jobService.delete(jobDTO.getId()));
+        }
+    }
+
+    @Test
+    @Transactional
+    void searchJobsWithBlankQuery() throws Exception {
+        restJobMockMvc.perform(get(ENTITY_API_URL + "/_search").param("q", " ")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suggestJobTitles() throws Exception {
+        // Initialize the database, outside of a test transaction as the suggestions are rebuilt once the jobs are committed
+        List<JobDTO> jobDTOs = new ArrayList<>();
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Suggested Java developer"))));
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Suggested Kotlin developer"))));
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Suggested Kotlin developer"))));
+        jobDTOs.add(jobService.save(jobMapper.toDto(new Job().title("Another suggested job"))));
+        try {
+            jobTitleSuggester.refresh();
+
+            // The most frequent title ranks first, the prefix ignoring the case
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "suggested "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains("Suggested Kotlin developer", "Suggested Java developer")));
+
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "Suggested").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains("Suggested Kotlin developer")));
+
+            // The suggestions are rebuilt after writes
+            jobService.delete(jobDTOs.remove(1).getId());
+            jobService.delete(jobDTOs.remove(1).getId());
+            jobTitleSuggester.refresh();
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "suggested"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(contains("Suggested Java developer")));
+
+            // The new title of an updated job is suggested right away, the former one until the table is read again
+            JobDTO updatedJobDTO = jobDTOs.get(1);
+            updatedJobDTO.setTitle("Suggested Scala developer");
+            jobService.update(updatedJobDTO);
+            jobTitleSuggester.refresh();
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "suggested"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(containsInAnyOrder("Suggested Java developer", "Suggested Scala developer")));
+
+            jobTitleSuggester.rebuild();
+            restJobMockMvc
+                .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "another"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        } finally {
+            jobDTOs.forEach(jobDTO -> jobService.delete(jobDTO.getId()));
+            jobTitleSuggester.refresh();
+        }
+    }
+
+    @Test
+    @Transactional
+    void suggestJobTitlesWithInvalidParameters() throws Exception {
+        restJobMockMvc.perform(get(ENTITY_API_URL + "/_suggest").param("prefix", " ")).andExpect(status().isBadRequest());
+        restJobMockMvc
+            .perform(get(ENTITY_API_URL + "/_suggest").param("prefix", "java").param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkSaveJobsWithInvalidItems() throws Exception {
+        int databaseSizeBeforeCreate = jobRepository.findAll().size();
+        List<JobDTO> jobDTOs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            jobDTOs.add(jobMapper.toDto(createEntity(em).title(UPDATED_TITLE)));
+        }
+        // The title is required, and must be at least 15 characters long
+        jobDTOs.get(1).setTitle(null);
+        jobDTOs.add(jobMapper.toDto(createEntity(em).title("too short")));
+
+        try {
+            restJobMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(jobDTOs))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.errors[*].index").value(contains(1, 3)))
+                .andExpect(jsonPath("$.errors[0].message").value(containsString("title")));
+
+            // Validate the Job in the database
+            List<Job> jobList = jobRepository.findAll();
+            assertThat(jobList).hasSize(databaseSizeBeforeCreate + 2);
+        } finally {
+            jobRepository.deleteAll(jobRepository.findAll(Example.of(new Job().title(UPDATED_TITLE))));
+        }
+    }
+
+    @Test
+    void bulkSaveJobsWithUnreadableItem() throws Exception {
+        int databaseSizeBeforeCreate = jobRepository.findAll().size();
+        String body = "{\"title\":\"" + UPDATED_TITLE + "\"}\n{\"title\":}\n{\"title\":\"" + UPDATED_TITLE + "\"}\n";
+
+        try {
+            restJobMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+
+            // Validate the Job in the database
+            assertThat(jobRepository.findAll()).hasSize(databaseSizeBeforeCreate + 1);
+        } finally {
+            jobRepository.deleteAll(jobRepository.findAll(Example.of(new Job().title(UPDATED_TITLE))));
+        }
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -423,6 +840,37 @@ class JobResourceIT {
         assertThat(testJob.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
     }
 
+    @Test
+    @Transactional
+    void putJobIfMatch() throws Exception {
+        // Initialize the database
+        jobRepository.saveAndFlush(job);
+        JobDTO jobDTO = jobMapper.toDto(new Job().id(job.getId()).title(UPDATED_TITLE).description(UPDATED_DESCRIPTION));
+
+        restJobMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, jobDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(jobDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restJobMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, jobDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(jobDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        Job testJob = jobRepository.findById(job.getId()).get();
+        assertThat(testJob.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testJob.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     @Transactional
     void putNonExistingJob() throws Exception {
@@ -432,14 +880,14 @@ class JobResourceIT {
         // Create the Job
         JobDTO jobDTO = jobMapper.toDto(job);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it is not found
         restJobMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, jobDTO.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(jobDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll();
@@ -508,7 +956,9 @@ class JobResourceIT {
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(partialUpdatedJob))
             )
-            .andExpect(status().isOk());
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.description").value(UPDATED_DESCRIPTION));
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll();
@@ -557,14 +1007,14 @@ class JobResourceIT {
         // Create the Job
         JobDTO jobDTO = jobMapper.toDto(job);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it is not found
         restJobMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, jobDTO.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(jobDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll();
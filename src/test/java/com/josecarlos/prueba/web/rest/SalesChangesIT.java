@@ -0,0 +1,161 @@
+package com.josecarlos.prueba.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.config.ApplicationProperties;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import com.josecarlos.prueba.service.impl.ChangeLog;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@code /api/sales/changes} endpoint of the {@link SalesResource} REST controller.
+ * <p>
+ * Not transactional, as the tombstones are purged in their own transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SalesChangesIT {
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MockMvc restSalesMockMvc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void getChangesSinceLastSync() throws Exception {
+        SalesDTO first = create("SalesChangesIT first");
+        SalesDTO second = create("SalesChangesIT second");
+        first.setTitle("SalesChangesIT updated");
+        first = salesService.partialUpdate(first).orElseThrow();
+        salesService.delete(second.getId());
+        salesIds.remove(second.getId());
+
+        restSalesMockMvc
+            .perform(get("/api/sales/changes?since={since}", first.getChangeSeq() - 3))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changed[*].id").value(contains(first.getId().intValue())))
+            .andExpect(jsonPath("$.changed[0].title").value("SalesChangesIT updated"))
+            .andExpect(jsonPath("$.deleted").value(contains(second.getId().intValue())))
+            .andExpect(jsonPath("$.next").value(first.getChangeSeq() + 1))
+            .andExpect(jsonPath("$.more").value(false))
+            .andExpect(jsonPath("$.resync").value(false));
+    }
+
+    @Test
+    void getChangesByPages() throws Exception {
+        SalesDTO first = create("SalesChangesIT page 0");
+        create("SalesChangesIT page 1");
+        SalesDTO last = create("SalesChangesIT page 2");
+
+        restSalesMockMvc
+            .perform(get("/api/sales/changes?since={since}&size=2", first.getChangeSeq() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changed", hasSize(2)))
+            .andExpect(jsonPath("$.changed[0].title").value("SalesChangesIT page 0"))
+            .andExpect(jsonPath("$.next").value(first.getChangeSeq() + 1))
+            .andExpect(jsonPath("$.more").value(true));
+        restSalesMockMvc
+            .perform(get("/api/sales/changes?since={since}&size=2", first.getChangeSeq() + 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changed[*].title").value(contains("SalesChangesIT page 2")))
+            .andExpect(jsonPath("$.next").value(last.getChangeSeq()))
+            .andExpect(jsonPath("$.more").value(false));
+    }
+
+    @Test
+    void resyncAfterPurgedTombstones() throws Exception {
+        SalesDTO salesDTO = create("SalesChangesIT purged");
+        salesService.delete(salesDTO.getId());
+        salesIds.clear();
+
+        Duration retention = applicationProperties.getDeltaSync().getTombstoneRetention();
+        applicationProperties.getDeltaSync().setTombstoneRetention(Duration.ZERO);
+        try {
+            changeLog.purge();
+        } finally {
+            applicationProperties.getDeltaSync().setTombstoneRetention(retention);
+        }
+
+        restSalesMockMvc
+            .perform(get("/api/sales/changes?since={since}", salesDTO.getChangeSeq()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.resync").value(true))
+            .andExpect(jsonPath("$.changed").isEmpty())
+            .andExpect(jsonPath("$.deleted").isEmpty())
+            .andExpect(jsonPath("$.next").value(salesDTO.getChangeSeq() + 1));
+    }
+
+    @Test
+    void writesAreNotSerializedBeforeTheirCommit() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        SalesDTO[] others = new SalesDTO[1];
+        SalesDTO first = transactionTemplate.execute(status -> {
+            SalesDTO salesDTO = create("SalesChangesIT open");
+            // The change sequence is only taken when the transaction commits
+            others[0] = CompletableFuture.supplyAsync(() -> create("SalesChangesIT concurrent")).orTimeout(5, TimeUnit.SECONDS).join();
+            return salesDTO;
+        });
+        SalesDTO concurrent = others[0];
+
+        assertThat(first.getChangeSeq()).isGreaterThan(concurrent.getChangeSeq());
+        restSalesMockMvc
+            .perform(get("/api/sales/changes?since={since}", concurrent.getChangeSeq() - 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changed[*].title").value(contains("SalesChangesIT concurrent", "SalesChangesIT open")))
+            .andExpect(jsonPath("$.changed[1].changeSeq").value(first.getChangeSeq()));
+    }
+
+    @Test
+    void getChangesWithInvalidSize() throws Exception {
+        restSalesMockMvc.perform(get("/api/sales/changes?size=0")).andExpect(status().isBadRequest());
+        restSalesMockMvc.perform(get("/api/sales/changes?size=1001")).andExpect(status().isBadRequest());
+        restSalesMockMvc.perform(get("/api/sales/changes?since=-1")).andExpect(status().isBadRequest());
+    }
+
+    private SalesDTO create(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        salesDTO = salesService.save(salesDTO);
+        synchronized (salesIds) {
+            salesIds.add(salesDTO.getId());
+        }
+        return salesDTO;
+    }
+}
@@ -0,0 +1,120 @@
+package com.josecarlos.prueba.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.josecarlos.prueba.GithubJhipsterApp;
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.security.AuthoritiesConstants;
+import com.josecarlos.prueba.security.jwt.TokenProvider;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for the {@code /api/sales/export} endpoint of the {@link SalesResource} REST controller, on a
+ * running server.
+ * <p>
+ * A second node is started against the same in-memory database, with a default timeout of the asynchronous requests
+ * of one second, standing for the 30 seconds of the servlet container: the exports lasting longer must complete.
+ */
+@IntegrationTest
+class SalesExportIT {
+
+    private static final String TITLE = "SalesExportIT";
+
+    private static final int ROWS = 20_000;
+
+    private static ConfigurableApplicationContext node;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void startNode() {
+        node =
+            new SpringApplicationBuilder(GithubJhipsterApp.class)
+                .run(
+                    "--server.port=0",
+                    // Another directory, so that the node does not share the cache manager of the tests
+                    "--application.cache.disk-directory=target/sales-export-it-node",
+                    "--spring.mvc.async.request-timeout=1000"
+                );
+    }
+
+    @AfterAll
+    static void stopNode() {
+        node.close();
+    }
+
+    @AfterEach
+    void cleanup() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            jdbcTemplate.update("DELETE FROM sales WHERE title LIKE ?", TITLE + " %")
+        );
+    }
+
+    @Test
+    void exportLongerThanTheDefaultTimeout() throws Exception {
+        String padding = "x".repeat(200);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+            jdbcTemplate.update(
+                "INSERT INTO sales (title, version) SELECT CONCAT(?, ' ', x, ?), 0 FROM SYSTEM_RANGE(1, ?)",
+                TITLE,
+                padding,
+                ROWS
+            )
+        );
+        String token = node
+            .getBean(TokenProvider.class)
+            .createToken(
+                new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority(AuthoritiesConstants.USER))),
+                false
+            );
+        int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+
+        int rows = 0;
+        try (Socket socket = new Socket()) {
+            // A small window, so that the export waits for the client instead of filling the buffers of the connection
+            socket.setReceiveBufferSize(4096);
+            socket.connect(new InetSocketAddress("localhost", port));
+            socket.setSoTimeout(60_000);
+            // HTTP/1.0, the end of the export closing the connection
+            String request =
+                "GET /api/sales/export?format=csv&title.contains=" + TITLE + " HTTP/1.0\r\nAuthorization: Bearer " + token + "\r\n\r\n";
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(reader.readLine()).contains(" 200 ");
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && !line.isEmpty());
+            assertThat(reader.readLine()).isEqualTo("id,title,version,changeSeq");
+            // A slow client, the export waiting for it past the default timeout
+            Thread.sleep(2_000);
+            while ((line = reader.readLine()) != null) {
+                assertThat(line).contains(TITLE + " ");
+                rows++;
+            }
+        }
+        assertThat(rows).isEqualTo(ROWS);
+    }
+}
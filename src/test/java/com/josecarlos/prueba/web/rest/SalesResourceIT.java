@@ -1,16 +1,26 @@
 package com.josecarlos.prueba.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import com.josecarlos.prueba.IntegrationTest;
 import com.josecarlos.prueba.domain.Sales;
 import com.josecarlos.prueba.repository.SalesRepository;
 import com.josecarlos.prueba.service.criteria.SalesCriteria;
 import com.josecarlos.prueba.service.dto.SalesDTO;
 import com.josecarlos.prueba.service.mapper.SalesMapper;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -19,9 +29,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.Example;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -53,6 +66,9 @@ class SalesResourceIT {
     @Autowired
     private MockMvc restSalesMockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     private Sales sales;
 
     /**
@@ -144,8 +160,105 @@ class SalesResourceIT {
             .perform(get(ENTITY_API_URL_ID, sales.getId()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
             .andExpect(jsonPath("$.id").value(sales.getId().intValue()))
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.version").value(0));
+    }
+
+    @Test
+    @Transactional
+    void getSalesIfNoneMatch() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+
+        // The client has the current version
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL_ID, sales.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(content().string(""));
+
+        // The client has a former version
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL_ID, sales.getId()).header(HttpHeaders.IF_NONE_MATCH, "W/\"1\", \"2\""))
+            .andExpect(status().isOk())
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getSalesByIds() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+        Sales otherSales = salesRepository.saveAndFlush(createUpdatedEntity(em));
+
+        // The missing ids and the duplicates are skipped, the order of the ids is kept
+        String ids = otherSales.getId() + "," + Long.MAX_VALUE + "," + sales.getId() + "," + otherSales.getId();
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?ids=" + ids))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(contains(otherSales.getId().intValue(), sales.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE, DEFAULT_TITLE)));
+
+        restSalesMockMvc
+            .perform(post(ENTITY_API_URL + "/_fetch").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains(otherSales.getId().intValue(), sales.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getSalesByTooManyIds() throws Exception {
+        String ids = String.join(",", Collections.nCopies(1001, "1"));
+        restSalesMockMvc.perform(get(ENTITY_API_URL + "?ids=" + ids)).andExpect(status().isBadRequest());
+        restSalesMockMvc
+            .perform(post(ENTITY_API_URL + "/_fetch").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllSalesAsCbor() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+
+        MvcResult result = restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&id.equals=" + sales.getId()).accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/cbor"))
+            .andReturn();
+
+        List<SalesDTO> salesDTOs = new CBORMapper()
+            .readValue(result.getResponse().getContentAsByteArray(), new TypeReference<List<SalesDTO>>() {});
+        assertThat(salesDTOs).extracting(SalesDTO::getId, SalesDTO::getTitle).containsExactly(tuple(sales.getId(), DEFAULT_TITLE));
+    }
+
+    @Test
+    @Transactional
+    void createSalesAsSmile() throws Exception {
+        SmileMapper smileMapper = new SmileMapper();
+        SalesDTO salesDTO = salesMapper.toDto(sales);
+
+        MvcResult result = restSalesMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .contentType("application/x-jackson-smile")
+                    .accept("application/x-jackson-smile")
+                    .content(smileMapper.writeValueAsBytes(salesDTO))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(content().contentType("application/x-jackson-smile"))
+            .andReturn();
+
+        SalesDTO createdSalesDTO = smileMapper.readValue(result.getResponse().getContentAsByteArray(), SalesDTO.class);
+        assertThat(createdSalesDTO.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(salesRepository.findById(createdSalesDTO.getId())).map(Sales::getTitle).contains(DEFAULT_TITLE);
     }
 
     @Test
@@ -244,6 +357,230 @@ class SalesResourceIT {
         defaultSalesShouldBeFound("title.doesNotContain=" + UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void getAllSalesWithKeysetPagination() throws Exception {
+        // Initialize the database
+        List<Sales> keysetSales = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            keysetSales.add(salesRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE)));
+        }
+
+        // Get the first slice: no total count, and a link to the next slice
+        MvcResult firstSlice = restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=2&sort=id,asc&title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].id").value(contains(keysetSales.get(0).getId().intValue(), keysetSales.get(1).getId().intValue())))
+            .andReturn();
+
+        // Follow the link to get the last slice
+        String link = firstSlice.getResponse().getHeader(HttpHeaders.LINK);
+        restSalesMockMvc
+            .perform(get(new URI(link.substring(1, link.indexOf('>')))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(keysetSales.get(2).getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllSalesWithFields() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=title&sort=id,desc&id.equals=" + sales.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "1"))
+            .andExpect(jsonPath("$.[0].title").value(DEFAULT_TITLE))
+            .andExpect(jsonPath("$.[0].id").doesNotExist());
+
+        restSalesMockMvc.perform(get(ENTITY_API_URL + "?fields=")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllSalesWithInvalidKeysetCursor() throws Exception {
+        restSalesMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor&sort=id,asc")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllSalesWithApproximateCount() throws Exception {
+        // Initialize the database
+        for (int i = 0; i < 3; i++) {
+            salesRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE));
+        }
+
+        // Without counter for the criteria, the total is a lower bound, one more than the rows up to this page
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?count=approximate&page=0&size=1&sort=id,asc&title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(header().string("X-Total-Count-Approximate", "true"))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE)));
+
+        // The last page gives the exact total
+        restSalesMockMvc
+            .perform(get(ENTITY_API_URL + "?count=approximate&page=1&size=2&sort=id,asc&title.equals=" + UPDATED_TITLE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", "3"))
+            .andExpect(jsonPath("$.[*].title").value(contains(UPDATED_TITLE)));
+    }
+
+    @Test
+    @Transactional
+    void getAllSalesWithUnsupportedCountMode() throws Exception {
+        restSalesMockMvc.perform(get(ENTITY_API_URL + "?count=none")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportSalesAsNdjson() throws Exception {
+        // Initialize the database, outside of a test transaction as the export runs its own transaction
+        List<Sales> exportedSales = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            exportedSales.add(salesRepository.saveAndFlush(createEntity(em).title(UPDATED_TITLE)));
+        }
+        try {
+            MvcResult result = restSalesMockMvc
+                .perform(get(ENTITY_API_URL + "/export?sort=id,asc&title.equals=" + UPDATED_TITLE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            String body = restSalesMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+            String[] lines = body.split("\n");
+            assertThat(lines).hasSize(3);
+            for (int i = 0; i < lines.length; i++) {
+                SalesDTO salesDTO = objectMapper.readValue(lines[i], SalesDTO.class);
+                assertThat(salesDTO.getId()).isEqualTo(exportedSales.get(i).getId());
+                assertThat(salesDTO.getTitle()).isEqualTo(UPDATED_TITLE);
+            }
+        } finally {
+            salesRepository.deleteAll(exportedSales);
+        }
+    }
+
+    @Test
+    void exportSalesAsCsv() throws Exception {
+        // Initialize the database, outside of a test transaction as the export runs its own transaction
+        Sales exportedSales = salesRepository.saveAndFlush(createEntity(em).title("with, \"quotes\""));
+        try {
+            MvcResult result = restSalesMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + exportedSales.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restSalesMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,title,version,changeSeq\r\n" + exportedSales.getId() + ",\"with, \"\"quotes\"\"\",0,\r\n"));
+        } finally {
+            salesRepository.delete(exportedSales);
+        }
+    }
+
+    @Test
+    void exportSalesAsCsvWithFormulas() throws Exception {
+        // Initialize the database, outside of a test transaction as the export runs its own transaction
+        Sales exportedSales = salesRepository.saveAndFlush(createEntity(em).title("=HYPERLINK(\"http://evil\")"));
+        try {
+            MvcResult result = restSalesMockMvc
+                .perform(get(ENTITY_API_URL + "/export?format=csv&id.equals=" + exportedSales.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            // Shown as text by the spreadsheets
+            restSalesMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(
+                    content().string("id,title,version,changeSeq\r\n" + exportedSales.getId() + ",\"'=HYPERLINK(\"\"http://evil\"\")\",0,\r\n")
+                );
+        } finally {
+            salesRepository.delete(exportedSales);
+        }
+    }
+
+    @Test
+    @Transactional
+    void exportSalesWithUnsupportedFormat() throws Exception {
+        restSalesMockMvc.perform(get(ENTITY_API_URL + "/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void bulkCreateSales() throws Exception {
+        int databaseSizeBeforeCreate = salesRepository.findAll().size();
+        List<SalesDTO> salesDTOs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            salesDTOs.add(salesMapper.toDto(createEntity(em).title(UPDATED_TITLE)));
+        }
+
+        try {
+            restSalesMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(salesDTOs))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(3))
+                .andExpect(jsonPath("$.updated").value(0))
+                .andExpect(jsonPath("$.failed").value(0));
+
+            // Validate the Sales in the database
+            List<Sales> salesList = salesRepository.findAll();
+            assertThat(salesList).hasSize(databaseSizeBeforeCreate + 3);
+            assertThat(salesList.subList(databaseSizeBeforeCreate, salesList.size())).allMatch(s -> UPDATED_TITLE.equals(s.getTitle()));
+        } finally {
+            salesRepository.deleteAll(salesRepository.findAll(Example.of(new Sales().title(UPDATED_TITLE))));
+        }
+    }
+
+    @Test
+    void bulkUpsertSalesAsNdjson() throws Exception {
+        Sales existingSales = salesRepository.saveAndFlush(sales);
+        long unknownId = count.incrementAndGet();
+        String body =
+            "{\"id\":" +
+            existingSales.getId() +
+            ",\"title\":\"" +
+            UPDATED_TITLE +
+            "\"}\n" +
+            "{\"title\":\"" +
+            UPDATED_TITLE +
+            "\"}\n" +
+            "{\"id\":" +
+            unknownId +
+            ",\"title\":\"" +
+            UPDATED_TITLE +
+            "\"}\n";
+
+        try {
+            restSalesMockMvc
+                .perform(post(ENTITY_API_URL + "/bulk").contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(2))
+                .andExpect(jsonPath("$.errors[0].id").value(unknownId));
+
+            // Validate the Sales in the database
+            assertThat(salesRepository.findById(existingSales.getId())).get().extracting(Sales::getTitle).isEqualTo(UPDATED_TITLE);
+            assertThat(salesRepository.existsById(unknownId)).isFalse();
+        } finally {
+            salesRepository.deleteAll(salesRepository.findAll(Example.of(new Sales().title(UPDATED_TITLE))));
+        }
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned.
      */
@@ -319,6 +656,49 @@ class SalesResourceIT {
         assertThat(testSales.getTitle()).isEqualTo(UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void putSalesIfMatch() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+        SalesDTO salesDTO = salesMapper.toDto(new Sales().id(sales.getId()).title(UPDATED_TITLE));
+
+        restSalesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, salesDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(salesDTO))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.version").value(1));
+
+        // The sales was updated since version 0
+        restSalesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, salesDTO.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(salesDTO))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        // Without If-Match, the version of the body is expected
+        salesDTO.setVersion(0L);
+        restSalesMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, salesDTO.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(salesDTO))
+            )
+            .andExpect(status().isConflict());
+
+        Sales testSales = salesRepository.findById(sales.getId()).get();
+        assertThat(testSales.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testSales.getVersion()).isEqualTo(1L);
+    }
+
     @Test
     @Transactional
     void putNonExistingSales() throws Exception {
@@ -328,14 +708,14 @@ class SalesResourceIT {
         // Create the Sales
         SalesDTO salesDTO = salesMapper.toDto(sales);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it is not found
         restSalesMockMvc
             .perform(
                 put(ENTITY_API_URL_ID, salesDTO.getId())
                     .contentType(MediaType.APPLICATION_JSON)
                     .content(TestUtil.convertObjectToJsonBytes(salesDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Sales in the database
         List<Sales> salesList = salesRepository.findAll();
@@ -440,6 +820,34 @@ class SalesResourceIT {
         assertThat(testSales.getTitle()).isEqualTo(UPDATED_TITLE);
     }
 
+    @Test
+    @Transactional
+    void patchSalesIfMatch() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+        Sales partialUpdatedSales = new Sales().id(sales.getId()).title(UPDATED_TITLE);
+
+        restSalesMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedSales.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedSales))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restSalesMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, partialUpdatedSales.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(partialUpdatedSales))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE));
+    }
+
     @Test
     @Transactional
     void patchNonExistingSales() throws Exception {
@@ -449,14 +857,14 @@ class SalesResourceIT {
         // Create the Sales
         SalesDTO salesDTO = salesMapper.toDto(sales);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // If the entity doesn't exist, it is not found
         restSalesMockMvc
             .perform(
                 patch(ENTITY_API_URL_ID, salesDTO.getId())
                     .contentType("application/merge-patch+json")
                     .content(TestUtil.convertObjectToJsonBytes(salesDTO))
             )
-            .andExpect(status().isBadRequest());
+            .andExpect(status().isNotFound());
 
         // Validate the Sales in the database
         List<Sales> salesList = salesRepository.findAll();
@@ -522,4 +930,23 @@ class SalesResourceIT {
         List<Sales> salesList = salesRepository.findAll();
         assertThat(salesList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void deleteSalesIfMatch() throws Exception {
+        // Initialize the database
+        salesRepository.saveAndFlush(sales);
+
+        int databaseSizeBeforeDelete = salesRepository.findAll().size();
+
+        restSalesMockMvc
+            .perform(delete(ENTITY_API_URL_ID, sales.getId()).header(HttpHeaders.IF_MATCH, "\"1\"").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isPreconditionFailed());
+        assertThat(salesRepository.findAll()).hasSize(databaseSizeBeforeDelete);
+
+        restSalesMockMvc
+            .perform(delete(ENTITY_API_URL_ID, sales.getId()).header(HttpHeaders.IF_MATCH, "\"0\"").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isNoContent());
+        assertThat(salesRepository.findAll()).hasSize(databaseSizeBeforeDelete - 1);
+    }
 }
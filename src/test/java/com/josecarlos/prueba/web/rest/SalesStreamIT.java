@@ -0,0 +1,120 @@
+package com.josecarlos.prueba.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import com.josecarlos.prueba.IntegrationTest;
+import com.josecarlos.prueba.service.SalesService;
+import com.josecarlos.prueba.service.dto.SalesDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for the {@code /api/sales/stream} endpoint of the {@link SalesResource} REST controller.
+ * <p>
+ * Not transactional, as the changes are only published once their transactions are committed.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class SalesStreamIT {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)\\nevent:created\\n");
+
+    @Autowired
+    private SalesService salesService;
+
+    @Autowired
+    private MockMvc restSalesMockMvc;
+
+    private final List<Long> salesIds = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        salesIds.forEach(salesService::delete);
+    }
+
+    @Test
+    void streamCommittedChanges() throws Exception {
+        MvcResult result = restSalesMockMvc
+            .perform(get("/api/sales/stream").accept(MediaType.TEXT_EVENT_STREAM))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        SalesDTO salesDTO = create("SalesStreamIT created");
+        // A new DTO, as the published ones are serialized asynchronously
+        SalesDTO updatedDTO = new SalesDTO();
+        updatedDTO.setId(salesDTO.getId());
+        updatedDTO.setTitle("SalesStreamIT updated");
+        salesService.partialUpdate(updatedDTO);
+        salesService.delete(salesDTO.getId());
+        salesIds.remove(salesDTO.getId());
+
+        String content = awaitContent(result, "event:deleted");
+        assertThat(content)
+            .containsSubsequence(
+                "event:created\ndata:",
+                "\"title\":\"SalesStreamIT created\"",
+                "event:updated\ndata:",
+                "\"title\":\"SalesStreamIT updated\"",
+                "event:deleted\ndata:",
+                "\"entityId\":" + salesDTO.getId()
+            );
+    }
+
+    @Test
+    void resumeAfterLastEventId() throws Exception {
+        MvcResult first = restSalesMockMvc.perform(get("/api/sales/stream")).andExpect(request().asyncStarted()).andReturn();
+        create("SalesStreamIT first");
+        Matcher matcher = EVENT_ID.matcher(awaitContent(first, "SalesStreamIT first"));
+        assertThat(matcher.find()).isTrue();
+        create("SalesStreamIT second");
+
+        MvcResult resumed = restSalesMockMvc
+            .perform(get("/api/sales/stream").header("Last-Event-ID", matcher.group(1)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String content = awaitContent(resumed, "SalesStreamIT second");
+        assertThat(content).doesNotContain("SalesStreamIT first").doesNotContain("event:resync");
+    }
+
+    @Test
+    void resyncFromUnknownLastEventId() throws Exception {
+        MvcResult result = restSalesMockMvc
+            .perform(get("/api/sales/stream").header("Last-Event-ID", "unknown:42"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        assertThat(awaitContent(result, "event:resync")).contains("\"type\":\"RESYNC\"");
+    }
+
+    private SalesDTO create(String title) {
+        SalesDTO salesDTO = new SalesDTO();
+        salesDTO.setTitle(title);
+        salesDTO = salesService.save(salesDTO);
+        salesIds.add(salesDTO.getId());
+        return salesDTO;
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        String content = result.getResponse().getContentAsString();
+        for (int i = 0; i < 50 && !content.contains(expected); i++) {
+            Thread.sleep(100);
+            content = result.getResponse().getContentAsString();
+        }
+        assertThat(content).contains(expected);
+        return content;
+    }
+}